@@ -0,0 +1,115 @@
+
+
+/*
+ * Class:        BinomialGenBenchmark
+ * Description:  JMH benchmarks for the binomial random variate generators
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import umontreal.iro.lecuyer.rng.RandomStream;
+import umontreal.iro.lecuyer.randvar.*;
+
+
+/**
+ * Compares inversion (<TT>BinomialGen</TT>) with the convolution method of
+ * <TT>BinomialConvolutionGen</TT> and the rejection method of
+ * <TT>BinomialBTRSGen</TT>, for several values of the parameters
+ * <TT>n</TT> and <TT>p</TT>.  The benchmark <TT>construct</TT> measures
+ * the time of the setup of a generator.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinomialGenBenchmark {
+
+   @Param({"BinomialGen", "BinomialConvolutionGen", "BinomialBTRSGen"})
+   public String method;
+
+   @Param({"10", "100", "1000"})
+   public int n;
+
+   @Param({"0.1", "0.5"})
+   public double p;
+
+   @Param({"MRG32k3a"})
+   public String stream;
+
+   private static final int ARRAY_SIZE = 1024;
+
+   private RandomStream s;
+   private BinomialGen gen;
+   private int[] v;
+
+
+   /**
+    * Returns a binomial generator with parameters <TT>n</TT> and
+    *    <TT>p</TT>, using the method named <TT>method</TT> and the
+    *    stream <TT>s</TT>.
+    *
+    */
+   public static BinomialGen newGen (String method, RandomStream s,
+                                     int n, double p) {
+      if (method.equals ("BinomialGen"))
+         return new BinomialGen (s, n, p);
+      if (method.equals ("BinomialConvolutionGen"))
+         return new BinomialConvolutionGen (s, n, p);
+      if (method.equals ("BinomialBTRSGen"))
+         return new BinomialBTRSGen (s, n, p);
+      throw new IllegalArgumentException ("Unknown method: " + method);
+   }
+
+
+   @Setup
+   public void setup() {
+      s = RandomStreamBenchmark.newStream (stream);
+      gen = newGen (method, s, n, p);
+      v = new int[ARRAY_SIZE];
+   }
+
+
+   @Benchmark
+   public int nextInt() {
+      return gen.nextInt();
+   }
+
+
+   @Benchmark
+   @OperationsPerInvocation(ARRAY_SIZE)
+   public int[] nextArrayOfInt() {
+      gen.nextArrayOfInt (v, 0, ARRAY_SIZE);
+      return v;
+   }
+
+
+   @Benchmark
+   public BinomialGen construct() {
+      return newGen (method, s, n, p);
+   }
+
+}
@@ -0,0 +1,110 @@
+
+
+/*
+ * Class:        DiscreteInversionBenchmark
+ * Description:  JMH benchmarks for the inversion of discrete distributions
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import umontreal.iro.lecuyer.rng.RandomStream;
+import umontreal.iro.lecuyer.probdist.*;
+
+
+/**
+ * Compares binary search and indexed search in the method
+ * <TT>inverseFInt</TT> of the discrete distributions over the integers
+ * (see <TT>DiscreteDistributionInt.setIndexedSearch</TT>), for the
+ * Poisson, binomial and negative binomial distributions.  The parameter
+ * <TT>size</TT> gives the order of the number of values in the tables:
+ * it is the mean of the Poisson distribution, the number of trials of the
+ * binomial distribution, with success probability 0.3, and the parameter
+ * <TT>gamma</TT> of the negative binomial distribution, with
+ * success probability 0.5.  The times are per value, for arrays of
+ * 1024 uniforms.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiscreteInversionBenchmark {
+
+   @Param({"Poisson", "Binomial", "NegativeBinomial"})
+   public String distribution;
+
+   @Param({"binary", "indexed"})
+   public String search;
+
+   @Param({"5", "50", "500", "5000", "50000"})
+   public int size;
+
+   @Param({"MRG32k3a"})
+   public String stream;
+
+   private static final int ARRAY_SIZE = 1024;
+
+   private DiscreteDistributionInt dist;
+   private double[] u;
+
+
+   /**
+    * Returns the distribution named <TT>name</TT>, with tables having a
+    *    number of values of the order of <TT>size</TT>.
+    *
+    */
+   public static DiscreteDistributionInt newDist (String name, int size) {
+      if (name.equals ("Poisson"))
+         return new PoissonDist (size);
+      if (name.equals ("Binomial"))
+         return new BinomialDist (size, 0.3);
+      if (name.equals ("NegativeBinomial"))
+         return new NegativeBinomialDist (size, 0.5);
+      throw new IllegalArgumentException ("Unknown distribution: " + name);
+   }
+
+
+   @Setup
+   public void setup() {
+      dist = newDist (distribution, size);
+      dist.setIndexedSearch (search.equals ("indexed"));
+      u = new double[ARRAY_SIZE];
+      RandomStream s = RandomStreamBenchmark.newStream (stream);
+      s.nextArrayOfDouble (u, 0, ARRAY_SIZE);
+      dist.inverseFInt (0.5);     // builds the guide tables
+   }
+
+
+   @Benchmark
+   @OperationsPerInvocation(ARRAY_SIZE)
+   public int inverseFInt() {
+      int sum = 0;
+      for (int i = 0; i < ARRAY_SIZE; i++)
+         sum += dist.inverseFInt (u[i]);
+      return sum;
+   }
+
+}
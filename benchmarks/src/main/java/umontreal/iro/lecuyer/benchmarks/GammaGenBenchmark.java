@@ -0,0 +1,112 @@
+
+
+/*
+ * Class:        GammaGenBenchmark
+ * Description:  JMH benchmarks for the gamma random variate generators
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import umontreal.iro.lecuyer.rng.RandomStream;
+import umontreal.iro.lecuyer.randvar.*;
+
+
+/**
+ * Compares the methods of generation of the gamma distribution, inversion
+ * (<TT>GammaGen</TT>), acceptance-rejection, and rejection with a
+ * log-logistic envelope, for several values of the shape parameter
+ * <TT>alpha</TT>.  The benchmark <TT>construct</TT> measures the time of
+ * the setup of a generator, which matters when the parameters change often.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GammaGenBenchmark {
+
+   @Param({"GammaGen", "GammaAcceptanceRejectionGen",
+           "GammaRejectionLoglogisticGen"})
+   public String method;
+
+   @Param({"0.5", "2.0", "10.0", "100.0"})
+   public double alpha;
+
+   @Param({"MRG32k3a"})
+   public String stream;
+
+   private static final int ARRAY_SIZE = 1024;
+
+   private RandomStream s;
+   private GammaGen gen;
+   private double[] v;
+
+
+   /**
+    * Returns a gamma generator with parameters <TT>alpha</TT> and 1,
+    *    using the method named <TT>method</TT> and the stream <TT>s</TT>.
+    *
+    */
+   public static GammaGen newGen (String method, RandomStream s,
+                                  double alpha) {
+      if (method.equals ("GammaGen"))
+         return new GammaGen (s, alpha, 1.0);
+      if (method.equals ("GammaAcceptanceRejectionGen"))
+         return new GammaAcceptanceRejectionGen (s, alpha, 1.0);
+      if (method.equals ("GammaRejectionLoglogisticGen"))
+         return new GammaRejectionLoglogisticGen (s, alpha, 1.0);
+      throw new IllegalArgumentException ("Unknown method: " + method);
+   }
+
+
+   @Setup
+   public void setup() {
+      s = RandomStreamBenchmark.newStream (stream);
+      gen = newGen (method, s, alpha);
+      v = new double[ARRAY_SIZE];
+   }
+
+
+   @Benchmark
+   public double nextDouble() {
+      return gen.nextDouble();
+   }
+
+
+   @Benchmark
+   @OperationsPerInvocation(ARRAY_SIZE)
+   public double[] nextArrayOfDouble() {
+      gen.nextArrayOfDouble (v, 0, ARRAY_SIZE);
+      return v;
+   }
+
+
+   @Benchmark
+   public GammaGen construct() {
+      return newGen (method, s, alpha);
+   }
+
+}
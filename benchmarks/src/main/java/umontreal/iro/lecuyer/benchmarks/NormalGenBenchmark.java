@@ -0,0 +1,104 @@
+
+
+/*
+ * Class:        NormalGenBenchmark
+ * Description:  JMH benchmarks for the normal random variate generators
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import umontreal.iro.lecuyer.rng.RandomStream;
+import umontreal.iro.lecuyer.randvar.*;
+
+
+/**
+ * Compares the methods of generation of the standard normal distribution:
+ * inversion (<TT>NormalGen</TT>), the acceptance-complement ratio, the
+ * Box-Muller and polar methods, the method of Kindermann and Ramage, and
+ * the ziggurat method.
+ * The method is selected by the parameter <TT>method</TT>, and the uniform
+ * generator by <TT>stream</TT>.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalGenBenchmark {
+
+   @Param({"NormalGen", "NormalACRGen", "NormalBoxMullerGen",
+           "NormalPolarGen", "NormalKindermannRamageGen", "NormalZigguratGen"})
+   public String method;
+
+   @Param({"MRG32k3a"})
+   public String stream;
+
+   private static final int ARRAY_SIZE = 1024;
+
+   private RandomStream s;
+   private NormalGen gen;
+   private double[] v;
+
+
+   /**
+    * Returns a standard normal generator using the method named
+    *    <TT>method</TT> and the stream <TT>s</TT>.
+    *
+    */
+   public static NormalGen newGen (String method, RandomStream s) {
+      if (method.equals ("NormalGen"))          return new NormalGen (s);
+      if (method.equals ("NormalACRGen"))       return new NormalACRGen (s);
+      if (method.equals ("NormalBoxMullerGen")) return new NormalBoxMullerGen (s);
+      if (method.equals ("NormalPolarGen"))     return new NormalPolarGen (s);
+      if (method.equals ("NormalKindermannRamageGen"))
+         return new NormalKindermannRamageGen (s);
+      if (method.equals ("NormalZigguratGen"))  return new NormalZigguratGen (s);
+      throw new IllegalArgumentException ("Unknown method: " + method);
+   }
+
+
+   @Setup
+   public void setup() {
+      s = RandomStreamBenchmark.newStream (stream);
+      gen = newGen (method, s);
+      v = new double[ARRAY_SIZE];
+   }
+
+
+   @Benchmark
+   public double nextDouble() {
+      return gen.nextDouble();
+   }
+
+
+   @Benchmark
+   @OperationsPerInvocation(ARRAY_SIZE)
+   public double[] nextArrayOfDouble() {
+      gen.nextArrayOfDouble (v, 0, ARRAY_SIZE);
+      return v;
+   }
+
+}
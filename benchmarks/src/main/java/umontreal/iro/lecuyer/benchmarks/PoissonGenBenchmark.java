@@ -0,0 +1,139 @@
+
+
+/*
+ * Class:        PoissonGenBenchmark
+ * Description:  JMH benchmarks for the Poisson random variate generators
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import umontreal.iro.lecuyer.rng.RandomStream;
+import umontreal.iro.lecuyer.randvar.*;
+
+
+/**
+ * Compares inversion (<TT>PoissonGen</TT>) with the methods of
+ * <TT>PoissonTIACGen</TT> and <TT>PoissonPTRSGen</TT>, for several values of
+ * the mean <TT>lambda</TT>.  The benchmark <TT>changingLambda</TT>
+ * calls the static method <TT>nextInt</TT> of the generator with a mean
+ * that changes at each call, between <TT>lambda</TT> and
+ * <TT>2*lambda</TT>.
+ * The benchmark <TT>construct</TT> measures the time of the setup of a
+ * generator, which includes the computation of the tables of the
+ * distribution for inversion.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PoissonGenBenchmark {
+
+   @Param({"PoissonGen", "PoissonTIACGen", "PoissonPTRSGen"})
+   public String method;
+
+   @Param({"0.5", "5.0", "50.0", "500.0", "5000.0"})
+   public double lambda;
+
+   @Param({"MRG32k3a"})
+   public String stream;
+
+   private static final int ARRAY_SIZE = 1024;
+
+   private RandomStream s;
+   private PoissonGen gen;
+   private int[] v;
+   private int count = 0;
+
+
+   /**
+    * Returns a Poisson generator with mean <TT>lambda</TT>, using the
+    *    method named <TT>method</TT> and the stream <TT>s</TT>.
+    *
+    */
+   public static PoissonGen newGen (String method, RandomStream s,
+                                    double lambda) {
+      if (method.equals ("PoissonGen"))
+         return new PoissonGen (s, lambda);
+      if (method.equals ("PoissonTIACGen"))
+         return new PoissonTIACGen (s, lambda);
+      if (method.equals ("PoissonPTRSGen"))
+         return new PoissonPTRSGen (s, lambda);
+      throw new IllegalArgumentException ("Unknown method: " + method);
+   }
+
+
+   /**
+    * Calls the static method <TT>nextInt</TT> of the generator named
+    *    <TT>method</TT>, with mean <TT>lambda</TT> and stream <TT>s</TT>.
+    *
+    */
+   public static int nextInt (String method, RandomStream s, double lambda) {
+      if (method.equals ("PoissonGen"))
+         return PoissonGen.nextInt (s, lambda);
+      if (method.equals ("PoissonTIACGen"))
+         return PoissonTIACGen.nextInt (s, lambda);
+      if (method.equals ("PoissonPTRSGen"))
+         return PoissonPTRSGen.nextInt (s, lambda);
+      throw new IllegalArgumentException ("Unknown method: " + method);
+   }
+
+
+   @Setup
+   public void setup() {
+      s = RandomStreamBenchmark.newStream (stream);
+      gen = newGen (method, s, lambda);
+      v = new int[ARRAY_SIZE];
+   }
+
+
+   @Benchmark
+   public int nextInt() {
+      return gen.nextInt();
+   }
+
+
+   @Benchmark
+   @OperationsPerInvocation(ARRAY_SIZE)
+   public int[] nextArrayOfInt() {
+      gen.nextArrayOfInt (v, 0, ARRAY_SIZE);
+      return v;
+   }
+
+
+   @Benchmark
+   public int changingLambda() {
+      count = (count + 1) & 1023;
+      return nextInt (method, s, lambda*(1.0 + count/1024.0));
+   }
+
+
+   @Benchmark
+   public PoissonGen construct() {
+      return newGen (method, s, lambda);
+   }
+
+}
@@ -0,0 +1,124 @@
+
+
+/*
+ * Class:        RandomStreamBenchmark
+ * Description:  JMH benchmarks for the uniform random number generators
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import umontreal.iro.lecuyer.rng.*;
+
+
+/**
+ * Measures the time taken by the generators of package <TT>rng</TT> to
+ * return one uniform, with <TT>nextDouble</TT> and
+ * <TT>nextArrayOfDouble</TT>, to return an integer, to move to the next
+ * substream, and to construct a new stream.
+ * The generator is selected by the parameter <TT>generator</TT>.
+ * The times of <TT>nextArrayOfDouble</TT> are per value, for arrays of
+ * 1024 values.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomStreamBenchmark {
+
+   @Param({"MRG32k3a", "MRG32k3aL", "MRG31k3p", "LFSR113", "LFSR258",
+           "WELL512", "WELL607", "WELL1024", "F2NL607", "GenF2w32",
+           "MT19937", "RandRijndael", "Philox4x32"})
+   public String generator;
+
+   private static final int ARRAY_SIZE = 1024;
+
+   private RandomStream stream;
+   private double[] u;
+
+
+   /**
+    * Returns a new stream of the generator named <TT>name</TT>.
+    *
+    */
+   public static RandomStream newStream (String name) {
+      if (name.equals ("MRG32k3a"))      return new MRG32k3a();
+      if (name.equals ("MRG32k3aL"))     return new MRG32k3aL();
+      if (name.equals ("MRG31k3p"))      return new MRG31k3p();
+      if (name.equals ("LFSR113"))       return new LFSR113();
+      if (name.equals ("LFSR258"))       return new LFSR258();
+      if (name.equals ("WELL512"))       return new WELL512();
+      if (name.equals ("WELL607"))       return new WELL607();
+      if (name.equals ("WELL1024"))      return new WELL1024();
+      if (name.equals ("F2NL607"))       return new F2NL607();
+      if (name.equals ("GenF2w32"))      return new GenF2w32();
+      if (name.equals ("MT19937"))       return new MT19937 (new LFSR113());
+      if (name.equals ("RandRijndael"))  return new RandRijndael();
+      if (name.equals ("Philox4x32"))    return new Philox4x32();
+      throw new IllegalArgumentException ("Unknown generator: " + name);
+   }
+
+
+   @Setup
+   public void setup() {
+      stream = newStream (generator);
+      u = new double[ARRAY_SIZE];
+   }
+
+
+   @Benchmark
+   public double nextDouble() {
+      return stream.nextDouble();
+   }
+
+
+   @Benchmark
+   public int nextInt() {
+      return stream.nextInt (0, 99);
+   }
+
+
+   @Benchmark
+   @OperationsPerInvocation(ARRAY_SIZE)
+   public double[] nextArrayOfDouble() {
+      stream.nextArrayOfDouble (u, 0, ARRAY_SIZE);
+      return u;
+   }
+
+
+   @Benchmark
+   public RandomStream resetNextSubstream() {
+      stream.resetNextSubstream();
+      return stream;
+   }
+
+
+   @Benchmark
+   public RandomStream construct() {
+      return newStream (generator);
+   }
+
+}
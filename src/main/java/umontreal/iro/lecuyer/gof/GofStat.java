@@ -81,8 +81,7 @@ public class GofStat {
       int n = data.size();
 
       double[] u = new double[n];
-      for (int i = 0; i < n; i++)
-         u[i] = dist.cdf (v[i]);
+      dist.cdf (v, u, 0, n);
       return new DoubleArrayList(u);
    }
 
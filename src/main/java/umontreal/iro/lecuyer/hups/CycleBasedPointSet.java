@@ -140,6 +140,49 @@ public abstract class CycleBasedPointSet extends PointSet  {
      return Integer.MAX_VALUE;
    }
 
+   public void getPoints (int firstPoint, int nPoints, int firstDim,
+                          int nDims, double[] out, boolean columnMajor) {
+      checkGetPoints (firstPoint, nPoints, firstDim, nDims, out);
+      if (nPoints == 0 || nDims == 0)
+         return;
+      if (shift != null && dimShift < firstDim + nDims)   // Extend the shift.
+         addRandomShift (dimShift, firstDim + nDims, shiftStream);
+      int pstep = columnMajor ? 1 : nDims;      // from a point to the next
+      int jstep = columnMajor ? nPoints : 1;    // from a coordinate to the next
+      // Find cycle k that contains point firstPoint, and its index in cycle.
+      int l = 0;
+      int n = 0;
+      int k;
+      for (k = 0;  n <= firstPoint;  k++)
+         n += l = ((AbstractList) cycles.get (k)).size();
+      k--;
+      int start = firstPoint - n + l;
+      double[] cycle = ((DoubleArrayList) cycles.get (k)).elements();
+      for (int i = 0; i < nPoints; i++) {
+         int idx = i * pstep;
+         int e = (start + firstDim) % l;
+         for (int j = firstDim; j < firstDim + nDims; j++, idx += jstep) {
+            double x = cycle[e];
+            if (++e >= l)
+               e = 0;
+            if (shift != null) {
+               x += shift[j];
+               if (x >= 1.0)
+                  x -= 1.0;
+               if (x <= 0.0)
+                  x = EpsilonHalf;  // avoid x = 0
+            }
+            out[idx] = x;
+         }
+         if (++start >= l && i + 1 < nPoints) {
+            start = 0;
+            k++;
+            l = ((AbstractList) cycles.get (k)).size();
+            cycle = ((DoubleArrayList) cycles.get (k)).elements();
+         }
+      }
+   }
+
    public PointSetIterator iterator(){
       return new  CycleBasedPointSetIterator();
    }
@@ -27,6 +27,7 @@
 package umontreal.iro.lecuyer.hups;
 
 import umontreal.iro.lecuyer.util.PrintfFormat;
+import umontreal.iro.lecuyer.util.Num;
 import umontreal.iro.lecuyer.rng.RandomStream;
 import cern.colt.list.*;
 
@@ -81,6 +82,47 @@ public abstract class CycleBasedPointSetBase2 extends CycleBasedPointSet {
          return (shift ^ curCycleI[coordinate]) * normFactor;
    }
 
+   public void getPoints (int firstPoint, int nPoints, int firstDim,
+                          int nDims, double[] out, boolean columnMajor) {
+      checkGetPoints (firstPoint, nPoints, firstDim, nDims, out);
+      if (nPoints == 0 || nDims == 0)
+         return;
+      if (digitalShift != null && dimShift < firstDim + nDims)
+         addRandomShift (dimShift, firstDim + nDims, shiftStream);
+      // Same offset as the iterator, whose EpsilonHalf is always 1/2^55.
+      double eps = 1.0 / Num.TWOEXP[55];
+      int pstep = columnMajor ? 1 : nDims;      // from a point to the next
+      int jstep = columnMajor ? nPoints : 1;    // from a coordinate to the next
+      // Find cycle k that contains point firstPoint, and its index in cycle.
+      int l = 0;
+      int n = 0;
+      int k;
+      for (k = 0;  n <= firstPoint;  k++)
+         n += l = ((AbstractList) cycles.get (k)).size();
+      k--;
+      int start = firstPoint - n + l;
+      int[] cycle = ((IntArrayList) cycles.get (k)).elements();
+      for (int i = 0; i < nPoints; i++) {
+         int idx = i * pstep;
+         int e = (start + firstDim) % l;
+         for (int j = firstDim; j < firstDim + nDims; j++, idx += jstep) {
+            int x = cycle[e];
+            if (++e >= l)
+               e = 0;
+            if (digitalShift == null)
+               out[idx] = x * normFactor;
+            else
+               out[idx] = (digitalShift[j] ^ x) * normFactor + eps;
+         }
+         if (++start >= l && i + 1 < nPoints) {
+            start = 0;
+            k++;
+            l = ((AbstractList) cycles.get (k)).size();
+            cycle = ((IntArrayList) cycles.get (k)).elements();
+         }
+      }
+   }
+
    public PointSetIterator iterator() {
       return new CycleBasedPointSetBase2Iterator ();
    }
@@ -148,6 +148,55 @@ public class DigitalNetBase2 extends DigitalNet  {
          return res * normFactor;
    }
 
+   public void getPoints (int firstPoint, int nPoints, int firstDim,
+                          int nDims, double[] out, boolean columnMajor) {
+      // Same values as the iterator, with the points in Gray code order:
+      // each point is obtained from the previous one by adding column
+      // pos of each C_j, where pos is the position of the first 0 in the
+      // index of the previous point.
+      checkGetPoints (firstPoint, nPoints, firstDim, nDims, out);
+      if (nPoints == 0 || nDims == 0)
+         return;
+      if (digitalShift != null && dimShift < dim)
+         addRandomShift (dimShift, dim, shiftStream);
+      double eps = 0.0;
+      if (digitalShift != null)
+         eps = 0.5 / Num.TWOEXP[outDigits];
+      int grayCode = firstPoint ^ (firstPoint >> 1);
+      int[] x = new int[nDims];      // coordinates of the current point
+      for (int j = 0; j < nDims; j++) {
+         int off = (firstDim + j) * numCols;
+         x[j] = digitalShift == null ? 0 : digitalShift[firstDim + j];
+         for (int c = 0; (grayCode >> c) != 0; c++)
+            if (((grayCode >> c) & 1) != 0)
+               x[j] ^= genMat[off + c];
+      }
+      if (columnMajor) {
+         // One coordinate at a time, in contiguous runs of out.
+         for (int j = 0; j < nDims; j++) {
+            int off = (firstDim + j) * numCols;
+            int xj = x[j];
+            int idx = j * nPoints;
+            out[idx] = xj * normFactor + eps;
+            for (int i = firstPoint; i < firstPoint + nPoints - 1; i++) {
+               xj ^= genMat[off + Integer.numberOfTrailingZeros (~i)];
+               out[++idx] = xj * normFactor + eps;
+            }
+         }
+      } else {
+         int idx = 0;
+         for (int i = firstPoint; ; i++) {
+            for (int j = 0; j < nDims; j++)
+               out[idx++] = x[j] * normFactor + eps;
+            if (idx >= nPoints * nDims)
+               break;
+            int off = firstDim * numCols + Integer.numberOfTrailingZeros (~i);
+            for (int j = 0; j < nDims; j++, off += numCols)
+               x[j] ^= genMat[off];
+         }
+      }
+   }
+
    public PointSetIterator iterator() {
       return new DigitalNetBase2Iterator();
    }
@@ -619,6 +668,23 @@ public class DigitalNetBase2 extends DigitalNet  {
          }
          return resetToNextPoint();
       }
+
+      public int nextPoints (double p[], int n, int d) {
+         if (n < 0 || d < 0)
+            throw new IllegalArgumentException ("n and d must be non-negative.");
+         if (d > dimS)
+            outOfBounds();
+         double eps = digitalShift == null ? 0.0 : EpsilonHalf;
+         for (int k = 0; k < n; k++) {
+            if (curPointIndex >= numPoints)
+               outOfBounds();
+            int b = k*d;
+            for (int j = 0; j < d; j++)
+               p[b + j] = cachedCurPoint[j] * normFactor + eps;
+            resetToNextPoint();
+         }
+         return curPointIndex;
+      }
    }
 
 
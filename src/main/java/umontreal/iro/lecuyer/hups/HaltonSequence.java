@@ -205,5 +205,42 @@ public class HaltonSequence extends PointSet {
             return RadicalInverse.radicalInverse (base[j], k);
       }
    }
+
+   public void getPoints (int firstPoint, int nPoints, int firstDim,
+                          int nDims, double[] out, boolean columnMajor) {
+      if (radinv != null) {
+         // The radical inverses are then computed incrementally, in the
+         // order of the calls, as with the iterator.
+         super.getPoints (firstPoint, nPoints, firstDim, nDims, out,
+                          columnMajor);
+         return;
+      }
+      checkGetPoints (firstPoint, nPoints, firstDim, nDims, out);
+      int step = columnMajor ? 1 : nDims;
+      for (int j = firstDim; j < firstDim + nDims; j++) {
+         int b = base[j];
+         int[] perm = permuted ? permutation[j] : null;
+         double radical = 1.0 / (double) b;
+         int idx = columnMajor ? (j - firstDim) * nPoints : j - firstDim;
+         int k = start[j] + firstPoint;
+         for (int i = 0; i < nPoints; i++, k++, idx += step) {
+            int m = k;
+            if (m < 0)
+               m = (m & positiveBitMask) + 1;
+            // Same computation as RadicalInverse.radicalInverse (b, m)
+            // and permutedRadicalInverse (b, perm, m), with ints.
+            double digit = radical;
+            double inverse = 0.0;
+            for (; m > 0; m /= b) {
+               if (perm == null)
+                  inverse += digit * (double) (m % b);
+               else
+                  inverse += digit * (double) perm[m % b];
+               digit *= radical;
+            }
+            out[idx] = inverse;
+         }
+      }
+   }
 }
 
@@ -0,0 +1,558 @@
+
+
+/*
+ * Class:        MappedPointSet
+ * Description:  point set cached outside of the Java heap, in memory or
+                 in a memory-mapped file
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.hups;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import umontreal.iro.lecuyer.util.PrintfFormat;
+import umontreal.iro.lecuyer.rng.RandomStream;
+
+
+/**
+ * Caches the points of a point set, like {@link CachedPointSet}, but
+ * outside of the Java heap: either in direct buffers allocated in
+ * memory, or in a file mapped in memory, in which case the operating
+ * system keeps in memory only the parts of the file that are used.
+ * Only a point set cached in a file can be larger than the memory
+ * available to the Java virtual machine, e.g.,
+ * <SPAN CLASS="MATH">2<SUP>24</SUP></SPAN> points in 100 dimensions: the direct buffers
+ * are limited by the option <TT>-XX:MaxDirectMemorySize</TT>, which
+ * defaults to the maximal heap size given by <TT>-Xmx</TT>.
+ * The coordinates can be stored with double precision or, to halve the
+ * memory, with single precision (type <TT>float</TT>, with about 7
+ * significant decimal digits).  In single precision, the coordinates
+ * that would be rounded to 1 are stored as the largest <TT>float</TT>
+ * smaller than 1, <SPAN CLASS="MATH">1 - 2<SUP>-24</SUP></SPAN>, so they remain in
+ * <SPAN CLASS="MATH">[0, 1)</SPAN>.
+ *
+ * <P>
+ * The points are computed in parallel by several threads, each of them
+ * computing blocks of consecutive points of the original point set
+ * with {@link PointSet#getPoints(int,int,int,int,double[]) getPoints},
+ * which must therefore be safe to call from several threads at the same
+ * time for <TT>P</TT>.  If it is not, <TT>P</TT> must be cached in a file
+ * with a single thread.
+ * A point set cached in a file can be reloaded, by other programs or
+ * other jobs, with the constructor {@link #MappedPointSet(File) MappedPointSet}<TT>(file)</TT>,
+ * without computing the points again, and a point set cached in memory
+ * can be written to a file with {@link #save save}.
+ * The file contains a header of 64 bytes giving the number of points,
+ * the dimension and the precision, followed by the coordinates, one point
+ * after the other, in little-endian byte order.
+ *
+ * <P>
+ * The cached coordinates are never modified.  The random shift added by
+ * {@link #addRandomShift(int,int,RandomStream) addRandomShift} is kept
+ * apart and added modulo 1 to the coordinates each time they are
+ * returned, so the same cached points can be randomized again and again,
+ * and a file can be shared by several processes.
+ *
+ */
+public class MappedPointSet extends PointSet  {
+   // The coordinates are stored in segments of 2^SEG_BITS values,
+   // since a buffer cannot hold more than 2^31 - 1 bytes.
+   private static final int SEG_BITS = 27;
+   private static final int SEG_MASK = (1 << SEG_BITS) - 1;
+   private static final int HEADER = 64;
+   private static final long MAGIC = 0x54455354504A5353L;   // "SSJPTSET"
+   private static final int VERSION = 1;
+   private static final int BLOCK = 1024;   // Points computed at once.
+   private static final float MAX_FLOAT = 0x1.fffffep-1f;  // Largest float < 1
+
+   private PointSet P;                 // Original point set, may be null.
+   private boolean singlePrecision;
+   private ByteBuffer[] seg;
+   private DoubleBuffer[] dseg;        // Views of seg, if !singlePrecision
+   private FloatBuffer[] fseg;         // Views of seg, if singlePrecision
+   private File file;                  // Mapped file, or null
+   private double[] shift;
+
+
+
+   /**
+    * Caches the first <TT>dim</TT> coordinates of the first <TT>n</TT>
+    *    points of <TT>P</TT> in direct buffers, with single precision if
+    *    <TT>singlePrecision</TT> is <TT>true</TT>, using one thread for each
+    *    processor available to the Java virtual machine.
+    *    The original point set <TT>P</TT> itself is not modified.
+    *    The buffers count against <TT>-XX:MaxDirectMemorySize</TT>, which
+    *    defaults to <TT>-Xmx</TT>; larger point sets must be cached in a file.
+    *
+    * @param P point set to be cached
+    *
+    *    @param n number of points
+    *
+    *    @param dim number of dimensions of the points
+    *
+    *    @param singlePrecision <TT>true</TT> to store the coordinates as
+    *      <TT>float</TT>, <TT>false</TT> to store them as <TT>double</TT>
+    *
+    *    @exception IllegalArgumentException if <TT>P</TT> has less than
+    *      <TT>n</TT> points or less than <TT>dim</TT> dimensions
+    *
+    *
+    */
+   public MappedPointSet (PointSet P, int n, int dim,
+                          boolean singlePrecision)  {
+      init (P, n, dim, singlePrecision);
+      seg = new ByteBuffer[numSegments()];
+      for (int s = 0; s < seg.length; s++)
+         seg[s] = ByteBuffer.allocateDirect (segmentBytes (s));
+      initViews();
+      fill (Runtime.getRuntime().availableProcessors());
+   }
+
+
+   /**
+    * Caches the first <TT>dim</TT> coordinates of the first <TT>n</TT>
+    *    points of <TT>P</TT> in the file <TT>file</TT>, with single precision
+    *    if <TT>singlePrecision</TT> is <TT>true</TT>, using
+    *    <TT>numThreads</TT> threads to compute the points.
+    *    The file is created, or replaced if it exists, and is mapped in
+    *    memory.  When the constructor returns, all the points have been
+    *    written to the file, which can be reloaded with
+    *    {@link #MappedPointSet(File) MappedPointSet}<TT>(file)</TT>.
+    *
+    * @param P point set to be cached
+    *
+    *    @param n number of points
+    *
+    *    @param dim number of dimensions of the points
+    *
+    *    @param singlePrecision <TT>true</TT> to store the coordinates as
+    *      <TT>float</TT>, <TT>false</TT> to store them as <TT>double</TT>
+    *
+    *    @param file the file containing the points
+    *
+    *    @param numThreads the number of threads computing the points
+    *
+    *    @exception IllegalArgumentException if <TT>P</TT> has less than
+    *      <TT>n</TT> points or less than <TT>dim</TT> dimensions, or if
+    *      <TT>numThreads</TT> is smaller than 1
+    *
+    *    @exception IOException if the file cannot be created or mapped
+    *
+    *
+    */
+   public MappedPointSet (PointSet P, int n, int dim,
+                          boolean singlePrecision, File file,
+                          int numThreads) throws IOException  {
+      if (numThreads < 1)
+         throw new IllegalArgumentException ("numThreads must be positive");
+      init (P, n, dim, singlePrecision);
+      this.file = file;
+      FileChannel ch = FileChannel.open (file.toPath(),
+         StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+         StandardOpenOption.READ, StandardOpenOption.WRITE);
+      try {
+         ByteBuffer h = header();
+         while (h.hasRemaining())
+            ch.write (h, h.position());
+         seg = new ByteBuffer[numSegments()];
+         for (int s = 0; s < seg.length; s++)
+            seg[s] = ch.map (FileChannel.MapMode.READ_WRITE,
+                             segmentOffset (s), segmentBytes (s));
+      }
+      finally {
+         ch.close();
+      }
+      initViews();
+      fill (numThreads);
+      for (int s = 0; s < seg.length; s++)
+         ((java.nio.MappedByteBuffer) seg[s]).force();
+   }
+
+
+   /**
+    * Reloads the points cached in the file <TT>file</TT> by
+    *    {@link #MappedPointSet(PointSet,int,int,boolean,File,int) MappedPointSet}
+    *    or {@link #save save}.  The file is mapped in memory in read-only
+    *    mode, and the points are read from it as they are needed.
+    *
+    * @param file the file containing the points
+    *
+    *    @exception IOException if the file cannot be read, or does not
+    *      contain a point set
+    *
+    *
+    */
+   public MappedPointSet (File file) throws IOException  {
+      this.file = file;
+      FileChannel ch = FileChannel.open (file.toPath(),
+                                         StandardOpenOption.READ);
+      try {
+         ByteBuffer h = ByteBuffer.allocate (HEADER);
+         h.order (ByteOrder.LITTLE_ENDIAN);
+         while (h.hasRemaining())
+            if (ch.read (h, h.position()) < 0)
+               break;
+         h.flip();
+         if (h.limit() < HEADER || h.getLong() != MAGIC
+             || h.getInt() != VERSION)
+            throw new IOException (file + " does not contain a point set");
+         numPoints = h.getInt();
+         dim = h.getInt();
+         int bytes = h.getInt();
+         singlePrecision = bytes == 4;
+         if (numPoints < 0 || dim < 0 || (bytes != 4 && bytes != 8))
+            throw new IOException (file + " does not contain a point set");
+         if (ch.size() != segmentOffset (0) + numValues() * bytes)
+            throw new IOException (file + " has the wrong size");
+         seg = new ByteBuffer[numSegments()];
+         for (int s = 0; s < seg.length; s++)
+            seg[s] = ch.map (FileChannel.MapMode.READ_ONLY,
+                             segmentOffset (s), segmentBytes (s));
+      }
+      finally {
+         ch.close();
+      }
+      initViews();
+   }
+
+
+   private void init (PointSet P, int n, int dim, boolean singlePrecision) {
+      if (P.getNumPoints() < n)
+         throw new IllegalArgumentException(
+            "Cannot cache more points than in point set P.");
+      if (P.getDimension() < dim)
+         throw new IllegalArgumentException(
+            "Cannot cache points with more coordinates than the dimension.");
+      if (n < 0 || dim < 0)
+         throw new IllegalArgumentException ("n and dim must be non-negative");
+      this.P = P;
+      numPoints = n;
+      this.dim = dim;
+      this.singlePrecision = singlePrecision;
+   }
+
+   private long numValues() {
+      return (long) numPoints * dim;
+   }
+
+   private int numSegments() {
+      return (int) ((numValues() + SEG_MASK) >>> SEG_BITS);
+   }
+
+   private int segmentBytes (int s) {
+      long len = Math.min (numValues() - ((long) s << SEG_BITS), 1L << SEG_BITS);
+      return (int) len * (singlePrecision ? 4 : 8);
+   }
+
+   private long segmentOffset (int s) {
+      return HEADER + ((long) s << SEG_BITS) * (singlePrecision ? 4 : 8);
+   }
+
+   private ByteBuffer header() {
+      ByteBuffer h = ByteBuffer.allocate (HEADER);
+      h.order (ByteOrder.LITTLE_ENDIAN);
+      h.putLong (MAGIC).putInt (VERSION).putInt (numPoints).putInt (dim);
+      h.putInt (singlePrecision ? 4 : 8);
+      h.clear();
+      return h;
+   }
+
+   private void initViews() {
+      if (singlePrecision)
+         fseg = new FloatBuffer[seg.length];
+      else
+         dseg = new DoubleBuffer[seg.length];
+      for (int s = 0; s < seg.length; s++) {
+         seg[s].order (ByteOrder.LITTLE_ENDIAN);
+         if (singlePrecision)
+            fseg[s] = seg[s].asFloatBuffer();
+         else
+            dseg[s] = seg[s].asDoubleBuffer();
+      }
+   }
+
+
+   // Computes the points of P, by blocks of BLOCK points handed out to
+   // the threads.
+   private void fill (int numThreads) {
+      if (numValues() == 0)
+         return;
+      // Computes one point first, in this thread, since P may extend
+      // its random shift to dim on its first use.
+      P.getPoints (0, 1, 0, dim, new double[dim]);
+      final AtomicInteger nextBlock = new AtomicInteger();
+      int nt = Math.min (numThreads, (numPoints + BLOCK - 1) / BLOCK);
+      List<Callable<Object>> fillers = new ArrayList<Callable<Object>>(nt);
+      for (int t = 0; t < nt; t++)
+         fillers.add (new Callable<Object>() {
+            public Object call() {
+               double[] buf = new double[BLOCK*dim];
+               int b;
+               while ((b = nextBlock.getAndIncrement() * BLOCK) < numPoints) {
+                  int k = Math.min (BLOCK, numPoints - b);
+                  P.getPoints (b, k, 0, dim, buf);
+                  put ((long) b * dim, buf, k*dim);
+               }
+               return null;
+            }
+         });
+      if (nt <= 1) {
+         try {
+            fillers.get (0).call();
+         }
+         catch (RuntimeException e) {
+            throw e;
+         }
+         catch (Exception e) {
+            throw new IllegalStateException (e);
+         }
+         return;
+      }
+      ExecutorService exec = Executors.newFixedThreadPool (nt);
+      try {
+         for (Future<Object> f : exec.invokeAll (fillers))
+            f.get();
+      }
+      catch (InterruptedException ie) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException
+            ("Interrupted while computing the points", ie);
+      }
+      catch (ExecutionException ee) {
+         Throwable cause = ee.getCause();
+         if (cause instanceof RuntimeException)
+            throw (RuntimeException) cause;
+         if (cause instanceof Error)
+            throw (Error) cause;
+         throw new IllegalStateException (cause);
+      }
+      finally {
+         exec.shutdownNow();
+      }
+   }
+
+
+   // Stores buf[0..len-1] at index k of the cache.  Only absolute puts
+   // are used, so several threads can store disjoint blocks at once.
+   private void put (long k, double[] buf, int len) {
+      int s = (int) (k >>> SEG_BITS);
+      int idx = (int) k & SEG_MASK;
+      for (int i = 0; i < len; i++) {
+         if (idx > SEG_MASK) {
+            s++;
+            idx = 0;
+         }
+         if (singlePrecision)
+            fseg[s].put (idx++, Math.min ((float) buf[i], MAX_FLOAT));
+         else
+            dseg[s].put (idx++, buf[i]);
+      }
+   }
+
+
+   /**
+    * Writes the cached points to the file <TT>file</TT>, in the format
+    *    read by {@link #MappedPointSet(File) MappedPointSet}<TT>(file)</TT>.
+    *    The random shift is not saved.  If <TT>file</TT> is the file
+    *    already mapped by this point set, this only makes sure that all
+    *    the points are written to it.
+    *
+    * @param file the file receiving the points
+    *
+    *    @exception IOException if the file cannot be written
+    *
+    *
+    */
+   public void save (File file) throws IOException  {
+      if (this.file != null && file.getCanonicalFile().equals
+                                  (this.file.getCanonicalFile())) {
+         for (int s = 0; s < seg.length; s++)
+            if (!seg[s].isReadOnly())
+               ((java.nio.MappedByteBuffer) seg[s]).force();
+         return;
+      }
+      FileChannel ch = FileChannel.open (file.toPath(),
+         StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+         StandardOpenOption.WRITE);
+      try {
+         ByteBuffer h = header();
+         while (h.hasRemaining())
+            ch.write (h);
+         for (int s = 0; s < seg.length; s++) {
+            ByteBuffer b = seg[s].duplicate();
+            b.clear();
+            while (b.hasRemaining())
+               ch.write (b);
+         }
+      }
+      finally {
+         ch.close();
+      }
+   }
+
+
+   /**
+    * Returns <TT>true</TT> if the coordinates are stored with single
+    *    precision, and <TT>false</TT> if they are stored with double precision.
+    *
+    * @return <TT>true</TT> for single precision
+    *
+    */
+   public boolean isSinglePrecision()  {
+      return singlePrecision;
+   }
+
+
+   /**
+    * Adds a random shift modulo 1 to the coordinates <SPAN CLASS="MATH"><I>d</I><SUB>1</SUB></SPAN> to
+    *    <SPAN CLASS="MATH"><I>d</I><SUB>2</SUB> - 1</SPAN> of the points, as in
+    *    {@link RandShiftedPointSet}.  The shift is added each time a
+    *    coordinate is returned, and the cached points are not modified.
+    *    See the doc of the overridden method
+    *    {@link umontreal.iro.lecuyer.hups.PointSet#addRandomShift((int, int, RandomStream)) addRandomShift}<TT>(d1, d2, stream)</TT>
+    *    in {@link PointSet}.
+    *
+    */
+   public void addRandomShift (int d1, int d2, RandomStream stream)  {
+      if (null == stream)
+         throw new IllegalArgumentException (
+              PrintfFormat.NEWLINE +
+                  "   Calling addRandomShift with null stream");
+      if (0 == d2)
+         d2 = Math.max (1, dim);
+      if (shift == null) {
+         shift = new double[d2];
+         capacityShift = d2;
+      } else if (d2 > capacityShift) {
+         int d3 = Math.max (4, capacityShift);
+         while (d2 > d3)
+            d3 *= 2;
+         double[] temp = new double[d3];
+         capacityShift = d3;
+         for (int i = 0; i < d1; i++)
+            temp[i] = shift[i];
+         shift = temp;
+      }
+      dimShift = d2;
+      for (int i = d1; i < d2; i++)
+         shift[i] = stream.nextDouble ();
+      shiftStream = stream;
+   }
+
+
+   /**
+    * Clears the random shift.
+    *
+    */
+   public void clearRandomShift()  {
+      super.clearRandomShift();
+      shift = null;
+   }
+
+
+   public String toString() {
+     StringBuffer sb = new StringBuffer ("Mapped point set" +
+          PrintfFormat.NEWLINE);
+     sb.append (super.toString());
+     sb.append (PrintfFormat.NEWLINE + "Precision: "
+                + (singlePrecision ? "single" : "double"));
+     if (file != null)
+        sb.append (PrintfFormat.NEWLINE + "File: " + file);
+     if (P != null) {
+        sb.append (PrintfFormat.NEWLINE + "Mapped point set information {"
+                   + PrintfFormat.NEWLINE);
+        sb.append (P.toString());
+        sb.append (PrintfFormat.NEWLINE + "}");
+     }
+     return sb.toString();
+   }
+
+   public double getCoordinate (int i, int j) {
+      if (i < 0 || j < 0)
+         throw new IllegalArgumentException ("negative index or number");
+      if (i >= numPoints)
+         throw new NoSuchElementException ("Not enough points available");
+      if (j >= dim)
+         throw new NoSuchElementException ("Not enough coordinates available");
+      long k = (long) i * dim + j;
+      int s = (int) (k >>> SEG_BITS);
+      int idx = (int) k & SEG_MASK;
+      double x = singlePrecision ? fseg[s].get (idx) : dseg[s].get (idx);
+      if (shift != null) {
+         if (j >= dimShift)   // Extend the shift.
+            addRandomShift (dimShift, j + 1, shiftStream);
+         x += shift[j];
+         if (x >= 1.0)
+            x -= 1.0;
+         if (x <= 0.0)
+            x = EpsilonHalf;  // avoid x = 0
+      }
+      return x;
+   }
+
+   public void getPoints (int firstPoint, int nPoints, int firstDim,
+                          int nDims, double[] out, boolean columnMajor) {
+      checkGetPoints (firstPoint, nPoints, firstDim, nDims, out);
+      if (nPoints == 0 || nDims == 0)
+         return;
+      if (shift != null && dimShift < firstDim + nDims)   // Extend the shift.
+         addRandomShift (dimShift, firstDim + nDims, shiftStream);
+      for (int i = 0; i < nPoints; i++) {
+         long k = (long) (firstPoint + i) * dim + firstDim;
+         int s = (int) (k >>> SEG_BITS);
+         int idx = (int) k & SEG_MASK;
+         int o = columnMajor ? i : i*nDims;
+         int step = columnMajor ? nPoints : 1;
+         for (int j = 0; j < nDims; j++, idx++, o += step) {
+            if (idx > SEG_MASK) {
+               s++;
+               idx = 0;
+            }
+            double x = singlePrecision ? fseg[s].get (idx) : dseg[s].get (idx);
+            if (shift != null) {
+               x += shift[firstDim + j];
+               if (x >= 1.0)
+                  x -= 1.0;
+               if (x <= 0.0)
+                  x = EpsilonHalf;  // avoid x = 0
+            }
+            out[o] = x;
+         }
+      }
+   }
+
+}
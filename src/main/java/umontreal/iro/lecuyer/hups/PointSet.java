@@ -27,6 +27,8 @@
 package umontreal.iro.lecuyer.hups;
 
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 import java.util.List;
 import java.util.ArrayList;
 import umontreal.iro.lecuyer.rng.RandomStream;
@@ -156,6 +158,168 @@ public abstract class PointSet  {
    }
 
 
+   /**
+    * Returns in <TT>out</TT> the coordinates <TT>firstDim</TT> to
+    *   <TT>firstDim + nDims - 1</TT> of the points <TT>firstPoint</TT> to
+    *   <TT>firstPoint + nPoints - 1</TT>, one point after the other:
+    *   coordinate <SPAN CLASS="MATH"><I>j</I></SPAN> of point <SPAN CLASS="MATH"><I>i</I></SPAN> is in
+    *   <TT>out[(i - firstPoint)*nDims + j - firstDim]</TT>.
+    *   Same as <TT>getPoints (firstPoint, nPoints, firstDim, nDims, out, false)</TT>.
+    * 
+    * @param firstPoint index of the first point
+    * 
+    *    @param nPoints number of points
+    * 
+    *    @param firstDim index of the first coordinate
+    * 
+    *    @param nDims number of coordinates of each point
+    * 
+    *    @param out array of at least <TT>nPoints*nDims</TT> elements that
+    *       receives the coordinates
+    * 
+    * 
+    */
+   public void getPoints (int firstPoint, int nPoints, int firstDim,
+                          int nDims, double[] out) {
+      getPoints (firstPoint, nPoints, firstDim, nDims, out, false);
+   }
+
+
+   /**
+    * Returns in <TT>out</TT> the coordinates <TT>firstDim</TT> to
+    *   <TT>firstDim + nDims - 1</TT> of the points <TT>firstPoint</TT> to
+    *   <TT>firstPoint + nPoints - 1</TT>.  If <TT>columnMajor</TT> is
+    *   <TT>false</TT>, coordinate <SPAN CLASS="MATH"><I>j</I></SPAN> of point <SPAN CLASS="MATH"><I>i</I></SPAN> is in
+    *   <TT>out[(i - firstPoint)*nDims + j - firstDim]</TT> (one point after
+    *   the other); otherwise, it is in
+    *   <TT>out[(j - firstDim)*nPoints + i - firstPoint]</TT> (one coordinate
+    *   after the other).  The values, randomizations included, are those
+    *   that the iterator returned by {@link #iterator iterator} gives
+    *   for point <SPAN CLASS="MATH"><I>i</I></SPAN> with <TT>nextCoordinate</TT>.
+    *   The default implementation uses such an iterator; the subclasses
+    *   that can compute the points by blocks override this method, which is
+    *   then much faster than the iterator when the block is large.
+    * 
+    * @param firstPoint index of the first point
+    * 
+    *    @param nPoints number of points
+    * 
+    *    @param firstDim index of the first coordinate
+    * 
+    *    @param nDims number of coordinates of each point
+    * 
+    *    @param out array of at least <TT>nPoints*nDims</TT> elements that
+    *       receives the coordinates
+    * 
+    *    @param columnMajor <TT>true</TT> to store the coordinates one
+    *       coordinate after the other instead of one point after the other
+    * 
+    *    @exception NoSuchElementException if there are not enough points
+    *       or coordinates
+    * 
+    * 
+    */
+   public void getPoints (int firstPoint, int nPoints, int firstDim,
+                          int nDims, double[] out, boolean columnMajor) {
+      checkGetPoints (firstPoint, nPoints, firstDim, nDims, out);
+      if (nPoints == 0)
+         return;
+      int step = columnMajor ? 1 : nDims;
+      int jstep = columnMajor ? nPoints : 1;
+      PointSetIterator iter = iterator();
+      iter.setCurPointIndex (firstPoint);
+      for (int i = 0; i < nPoints; i++) {
+         if (i > 0)
+            iter.resetToNextPoint();
+         iter.setCurCoordIndex (firstDim);
+         int k = i*step;
+         for (int j = 0; j < nDims; j++, k += jstep)
+            out[k] = iter.nextCoordinate();
+      }
+   }
+
+
+   // Checks the arguments of getPoints.
+   protected void checkGetPoints (int firstPoint, int nPoints, int firstDim,
+                                  int nDims, double[] out) {
+      if (firstPoint < 0 || nPoints < 0 || firstDim < 0 || nDims < 0)
+         throw new IllegalArgumentException ("negative index or number");
+      if ((long) firstPoint + nPoints > getNumPoints())
+         throw new NoSuchElementException ("Not enough points available");
+      if ((long) firstDim + nDims > getDimension())
+         throw new NoSuchElementException ("Not enough coordinates available");
+      if ((long) nPoints * nDims > out.length)
+         throw new IllegalArgumentException ("out is too small");
+   }
+
+
+   /**
+    * Splits the point set into <TT>parts</TT> blocks of consecutive points,
+    *    of sizes that differ by at most one, and returns them as point
+    *    sets: point <SPAN CLASS="MATH"><I>i</I></SPAN> of block <SPAN CLASS="MATH"><I>k</I></SPAN> is point
+    *    <SPAN CLASS="MATH"><I>i</I> + &lfloor;<I>kn</I>/<TT>parts</TT>&rfloor;</SPAN> of this point set, where <SPAN CLASS="MATH"><I>n</I></SPAN>
+    *    is the number of points.  The blocks are {@link SubsetOfPointSet}
+    *    objects: the iterator of each block uses an iterator of this point
+    *    set, positioned once at the first point of the block, so
+    *    the blocks can be enumerated in different threads, and give the same
+    *    values as the sequential enumeration.  The blocks share this point
+    *    set, so it must not be randomized again while they are used, and its
+    *    randomization must cover all the coordinates used beforehand
+    *    (some iterators extend the random shift, which modifies the point
+    *    set).
+    * 
+    * @param parts number of blocks
+    * 
+    *    @return the blocks of points
+    *    @exception UnsupportedOperationException if the number of points
+    *       is infinite
+    *    @exception IllegalArgumentException if <TT>parts</TT> is not in
+    *       <SPAN CLASS="MATH">[1, <I>n</I>]</SPAN>
+    * 
+    */
+   public PointSet[] split (int parts) {
+      int n = getNumPoints();
+      if (n == Integer.MAX_VALUE)
+         throw new UnsupportedOperationException (
+            "Number of points is infinite");
+      if (parts < 1 || parts > n)
+         throw new IllegalArgumentException ("parts must be in [1, n]");
+      PointSet[] sets = new PointSet[parts];
+      for (int k = 0; k < parts; k++) {
+         SubsetOfPointSet sub = new SubsetOfPointSet (this);
+         sub.selectPointsRange ((int) ((long) k * n / parts),
+                                (int) ((long) (k + 1) * n / parts));
+         sets[k] = sub;
+      }
+      return sets;
+   }
+
+
+   /**
+    * Returns a {@link Spliterator} over the points of this point set, each
+    *    given as a new array of its first <TT>d</TT> coordinates, in the
+    *    order of the iterator.  The spliterator splits its range of points
+    *    in two halves, and each part positions its own iterator once, at its
+    *    first point, so the points can be processed by a parallel stream,
+    *    e.g., <TT>StreamSupport.stream (p.spliterator (d), true)</TT>, or by
+    *    fork/join tasks, with the same values as the sequential enumeration.
+    *    As for {@link #split split}, the point set must not be randomized
+    *    while the spliterator is used.
+    * 
+    * @param d number of coordinates of each point
+    * 
+    *    @return a spliterator over the points
+    *    @exception IllegalArgumentException if <TT>d</TT> is larger than
+    *       the dimension
+    * 
+    */
+   public Spliterator<double[]> spliterator (int d) {
+      if (d < 0 || d > getDimension())
+         throw new IllegalArgumentException ("d must be in [0, dimension]");
+      return new PointSetSpliterator (0, getNumPoints(), d);
+   }
+
+
    /**
     * Sets the random stream used to generate random shifts to <TT>stream</TT>.
     *  
@@ -721,4 +885,56 @@ public abstract class PointSet  {
                   getCurCoordIndex();
       }
    }
+
+
+// %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+// Spliterator over the points from to to - 1, with the first d
+// coordinates.  The iterator is created, and positioned at the next
+// point, only when the points are requested, so the parts obtained by
+// trySplit before do not enumerate the points they skip.
+
+   private class PointSetSpliterator implements Spliterator<double[]> {
+      private int next;                  // Index of the next point.
+      private final int to;              // Index after the last point.
+      private final int d;
+      private PointSetIterator iter;     // Positioned at next, or null.
+
+      PointSetSpliterator (int from, int to, int d) {
+         next = from;
+         this.to = to;
+         this.d = d;
+      }
+
+      public boolean tryAdvance (Consumer<? super double[]> action) {
+         if (next >= to)
+            return false;
+         if (iter == null) {
+            iter = iterator();
+            iter.setCurPointIndex (next);
+         }
+         double[] p = new double[d];
+         iter.nextPoints (p, 1, d);
+         next++;
+         action.accept (p);
+         return true;
+      }
+
+      public Spliterator<double[]> trySplit() {
+         int mid = (int) (((long) next + to) >>> 1);
+         if (mid <= next)
+            return null;
+         Spliterator<double[]> prefix = new PointSetSpliterator (next, mid, d);
+         next = mid;
+         iter = null;
+         return prefix;
+      }
+
+      public long estimateSize() {
+         return to - next;
+      }
+
+      public int characteristics() {
+         return ORDERED | SIZED | SUBSIZED | NONNULL;
+      }
+   }
 }
@@ -235,4 +235,41 @@ public interface PointSetIterator extends RandomStream {
     * 
     */
    public int nextPoint (double[] p, int d);
+
+
+   /**
+    * Returns the first <TT>d</TT> coordinates of the current point and of
+    *    the <TT>n - 1</TT> following points in <TT>p</TT>, one point after
+    *    the other: coordinate <SPAN CLASS="MATH"><I>j</I></SPAN> of the <SPAN CLASS="MATH"><I>k</I></SPAN>-th point is in
+    *    <TT>p[k*d + j]</TT>.  The iterator then moves to the point after
+    *    the last one returned, whose index is returned.  The values
+    *    are those given by <TT>nextCoordinate</TT> for these points.
+    *    The default implementation calls <TT>nextCoordinate</TT> for each
+    *    coordinate and <TT>resetToNextPoint</TT> after each point;
+    *    iterators that can copy the coordinates directly override it to
+    *    avoid one call per coordinate.
+    *  
+    * @param p array of at least <TT>n*d</TT> elements to be filled
+    *              with the coordinates
+    * 
+    *    @param n number of points to return
+    * 
+    *    @param d number of coordinates of each point
+    * 
+    *    @return index of the new current point
+    *    @exception NoSuchElementException if there are not enough points or
+    *      coordinates available
+    * 
+    */
+   public default int nextPoints (double[] p, int n, int d) {
+      if (n < 0 || d < 0)
+         throw new IllegalArgumentException ("n and d must be non-negative.");
+      for (int k = 0; k < n; k++) {
+         resetCurCoordIndex();
+         for (int j = k*d; j < (k + 1)*d; j++)
+            p[j] = nextCoordinate();
+         resetToNextPoint();
+      }
+      return getCurPointIndex();
+   }
 }
@@ -0,0 +1,701 @@
+
+
+/*
+ * Class:        RQMCExperiment
+ * Description:  estimates an integral by independent randomizations of
+                 a point set, performed in parallel
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.hups;
+
+import umontreal.iro.lecuyer.rng.RandomStream;
+import umontreal.iro.lecuyer.rng.CloneableRandomStream;
+import umontreal.iro.lecuyer.stat.Tally;
+import umontreal.iro.lecuyer.util.PrintfFormat;
+import umontreal.iro.lecuyer.util.ThreadCPUTimeChrono;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+
+/**
+ * Estimates the integral of a function <SPAN CLASS="MATH"><I>f</I></SPAN> over
+ * <SPAN CLASS="MATH">[0, 1)<SUP>d</SUP></SPAN> by randomized quasi-Monte Carlo (RQMC):
+ * a point set of <SPAN CLASS="MATH"><I>n</I></SPAN> points is randomized
+ * <SPAN CLASS="MATH"><I>m</I></SPAN> times by a {@link PointSetRandomization}
+ * (e.g., {@link RandomShift}, {@link LMScrambleShift} or
+ * {@link SMScrambleShift}), and the average of <SPAN CLASS="MATH"><I>f</I></SPAN> over
+ * the <SPAN CLASS="MATH"><I>n</I></SPAN> points of each randomized point set gives one
+ * of <SPAN CLASS="MATH"><I>m</I></SPAN> independent unbiased estimators of the integral.
+ * The experiment returns these <SPAN CLASS="MATH"><I>m</I></SPAN> averages, their mean and
+ * their empirical variance, an estimate of the variance
+ * <SPAN CLASS="MATH"><I>&#963;</I><SUP>2</SUP></SPAN> of <SPAN CLASS="MATH"><I>f</I>(<I>U</I>)</SPAN>
+ * for <SPAN CLASS="MATH"><I>U</I></SPAN> uniform over
+ * <SPAN CLASS="MATH">[0, 1)<SUP>d</SUP></SPAN>, the variance reduction factor with
+ * respect to Monte Carlo, and the CPU time used.
+ *
+ * <P>
+ * The randomizations are distributed over several threads, each of them
+ * working on its own point set, constructed by a factory given to the
+ * constructor, and on its own copy of the stream of the randomization.
+ * Randomization <SPAN CLASS="MATH"><I>r</I></SPAN>, for
+ * <SPAN CLASS="MATH"><I>r</I> = 0,..., <I>m</I> - 1</SPAN>, always uses the
+ * <SPAN CLASS="MATH"><I>r</I></SPAN>-th substream of this stream after its current one,
+ * starting from the current one for <SPAN CLASS="MATH"><I>r</I> = 0</SPAN>, regardless of the
+ * thread that performs it, and the averages are combined in the order of
+ * the randomizations: the results are exactly the same (bit by bit)
+ * for any number of threads, and are determined by the current
+ * substream of the stream of the randomization when
+ * {@link #simulate(int) simulate} is called.  This stream must implement
+ * {@link CloneableRandomStream}.  After the randomizations,
+ * <TT>simulate</TT> advances it by <SPAN CLASS="MATH"><I>m</I></SPAN> substreams, so successive
+ * calls perform different randomizations; to repeat an experiment,
+ * call <TT>resetStartStream</TT> or <TT>resetStartSubstream</TT> on the
+ * stream before <TT>simulate</TT>.
+ *
+ * <P>
+ * With the constructors taking a factory of randomizations, each thread
+ * randomizes its point set with its own randomization, whose stream is
+ * replaced by the copy of the thread, so the threads share no
+ * randomization object.  With the constructors taking a single
+ * randomization, this object is shared by the threads: while a thread
+ * randomizes its point set, it replaces the stream of the randomization
+ * by its own copy, and restores it afterwards.  The randomizations
+ * themselves are then performed one at a time, while the evaluations of
+ * <SPAN CLASS="MATH"><I>f</I></SPAN> are performed in parallel, and the randomization
+ * must not be used elsewhere during a call to
+ * {@link #simulate(int) simulate}.
+ *
+ */
+public class RQMCExperiment  {
+
+   private Supplier<? extends PointSet> factory;
+   private PointSet pointSet;     // the only point set, if factory is null
+   private PointSetRandomization rand;
+   private Supplier<? extends PointSetRandomization> randFactory; // or null
+   private RQMCIntegrand f;
+   private int dim;
+   private int numThreads;
+   private int blockSize = 1;
+
+   private int n;                 // number of points
+   private double[] avg;          // average of f for each randomization
+   private double[] var;          // empirical variance of f for each one
+   private double mean;
+   private double variance;
+   private double cpuTime;
+
+
+
+   /**
+    * Constructs an experiment estimating the integral of <TT>f</TT>
+    *    over <SPAN CLASS="MATH">[0, 1)<SUP>d</SUP></SPAN> with the point sets constructed by
+    *    <TT>factory</TT>, randomized by <TT>rand</TT>, using
+    *    <TT>numThreads</TT> threads.  The factory is invoked once by each
+    *    thread and must return a new point set each time, always
+    *    with the same points.
+    *
+    * @param factory the factory constructing the point set of each thread
+    *
+    *    @param rand the randomization of the point sets
+    *
+    *    @param d the dimension <SPAN CLASS="MATH"><I>d</I></SPAN> of the points
+    *
+    *    @param f the function to integrate
+    *
+    *    @param numThreads the number of threads
+    *
+    *    @exception IllegalArgumentException if <TT>d</TT> or
+    *     <TT>numThreads</TT> is smaller than 1
+    *
+    *
+    */
+   public RQMCExperiment (Supplier<? extends PointSet> factory,
+                          PointSetRandomization rand, int d,
+                          RQMCIntegrand f, int numThreads)  {
+      this.factory = factory;
+      init (rand, d, f);
+      setNumThreads (numThreads);
+   }
+
+
+   /**
+    * Equivalent to <TT>RQMCExperiment (factory, rand, d, f, t)</TT>,
+    *    where <SPAN CLASS="MATH"><I>t</I></SPAN> is the number of processors available to the
+    *    Java virtual machine.
+    *
+    * @param factory the factory constructing the point set of each thread
+    *
+    *    @param rand the randomization of the point sets
+    *
+    *    @param d the dimension <SPAN CLASS="MATH"><I>d</I></SPAN> of the points
+    *
+    *    @param f the function to integrate
+    *
+    *
+    */
+   public RQMCExperiment (Supplier<? extends PointSet> factory,
+                          PointSetRandomization rand, int d,
+                          RQMCIntegrand f)  {
+      this (factory, rand, d, f, Runtime.getRuntime().availableProcessors());
+   }
+
+
+   /**
+    * Constructs an experiment estimating the integral of <TT>f</TT>
+    *    over <SPAN CLASS="MATH">[0, 1)<SUP>d</SUP></SPAN> with the point sets constructed by
+    *    <TT>factory</TT>, using <TT>numThreads</TT> threads, each of them
+    *    randomizing its point set with its own randomization, returned by
+    *    <TT>randFactory</TT>.  The randomizations are thus performed in
+    *    parallel.  The factory of randomizations is invoked once by this
+    *    constructor, and the stream of the randomization returned
+    *    determines the results, as in the other constructors; it is then
+    *    invoked once by each thread, and must return a new randomization
+    *    each time, always of the same kind.  The stream of these
+    *    randomizations is replaced by the copy of the thread.
+    *
+    * @param factory the factory constructing the point set of each thread
+    *
+    *    @param randFactory the factory constructing the randomization
+    *     of each thread
+    *
+    *    @param d the dimension <SPAN CLASS="MATH"><I>d</I></SPAN> of the points
+    *
+    *    @param f the function to integrate
+    *
+    *    @param numThreads the number of threads
+    *
+    *    @exception IllegalArgumentException if <TT>d</TT> or
+    *     <TT>numThreads</TT> is smaller than 1
+    *
+    *
+    */
+   public RQMCExperiment (Supplier<? extends PointSet> factory,
+                          Supplier<? extends PointSetRandomization> randFactory,
+                          int d, RQMCIntegrand f, int numThreads)  {
+      this.factory = factory;
+      this.randFactory = randFactory;
+      init (randFactory.get(), d, f);
+      setNumThreads (numThreads);
+   }
+
+
+   /**
+    * Equivalent to <TT>RQMCExperiment (factory, randFactory, d, f, t)</TT>,
+    *    where <SPAN CLASS="MATH"><I>t</I></SPAN> is the number of processors available to the
+    *    Java virtual machine.
+    *
+    * @param factory the factory constructing the point set of each thread
+    *
+    *    @param randFactory the factory constructing the randomization
+    *     of each thread
+    *
+    *    @param d the dimension <SPAN CLASS="MATH"><I>d</I></SPAN> of the points
+    *
+    *    @param f the function to integrate
+    *
+    *
+    */
+   public RQMCExperiment (Supplier<? extends PointSet> factory,
+                          Supplier<? extends PointSetRandomization> randFactory,
+                          int d, RQMCIntegrand f)  {
+      this (factory, randFactory, d, f,
+            Runtime.getRuntime().availableProcessors());
+   }
+
+
+   /**
+    * Constructs an experiment estimating the integral of <TT>f</TT>
+    *    over <SPAN CLASS="MATH">[0, 1)<SUP>d</SUP></SPAN> with the point set <TT>p</TT>,
+    *    randomized by <TT>rand</TT>.  Since there is a single point set,
+    *    the randomizations are performed one after the other by the thread
+    *    calling {@link #simulate(int) simulate}, and the number of threads
+    *    cannot be changed.  The randomization of <TT>p</TT> is
+    *    replaced by each of them.
+    *
+    * @param p the point set
+    *
+    *    @param rand the randomization of the point set
+    *
+    *    @param d the dimension <SPAN CLASS="MATH"><I>d</I></SPAN> of the points
+    *
+    *    @param f the function to integrate
+    *
+    *    @exception IllegalArgumentException if <TT>d</TT> is smaller than 1
+    *
+    *
+    */
+   public RQMCExperiment (PointSet p, PointSetRandomization rand, int d,
+                          RQMCIntegrand f)  {
+      pointSet = p;
+      init (rand, d, f);
+      numThreads = 1;
+   }
+
+
+   private void init (PointSetRandomization rand, int d, RQMCIntegrand f) {
+      if (d < 1)
+         throw new IllegalArgumentException ("d must be positive");
+      this.rand = rand;
+      this.dim = d;
+      this.f = f;
+   }
+
+
+   /**
+    * Returns the number of threads used by this experiment.
+    *
+    * @return the number of threads
+    *
+    */
+   public int getNumThreads()  {
+      return numThreads;
+   }
+
+
+   /**
+    * Sets the number of threads used by this experiment to
+    *    <TT>numThreads</TT>.  This has no effect on the results.
+    *
+    * @param numThreads the number of threads
+    *
+    *    @exception IllegalArgumentException if <TT>numThreads</TT>
+    *     is smaller than 1
+    *
+    *    @exception UnsupportedOperationException if the experiment was
+    *     constructed with a single point set and <TT>numThreads</TT>
+    *     is not 1
+    *
+    *
+    */
+   public void setNumThreads (int numThreads)  {
+      if (numThreads < 1)
+         throw new IllegalArgumentException ("numThreads must be positive");
+      if (factory == null && numThreads != 1)
+         throw new UnsupportedOperationException
+            ("A single point set cannot be used by several threads");
+      this.numThreads = numThreads;
+   }
+
+
+   /**
+    * Returns the number of consecutive randomizations given to a thread
+    *    each time it needs more work.  The default value is 1.
+    *
+    * @return the block size
+    *
+    */
+   public int getBlockSize()  {
+      return blockSize;
+   }
+
+
+   /**
+    * Sets the number of consecutive randomizations given to a thread
+    *    each time it needs more work to <TT>blockSize</TT>.
+    *    This has no effect on the results.
+    *
+    * @param blockSize the block size
+    *
+    *    @exception IllegalArgumentException if <TT>blockSize</TT>
+    *     is smaller than 1
+    *
+    *
+    */
+   public void setBlockSize (int blockSize)  {
+      if (blockSize < 1)
+         throw new IllegalArgumentException ("blockSize must be positive");
+      this.blockSize = blockSize;
+   }
+
+
+   /**
+    * Performs <TT>m</TT> independent randomizations of the point set
+    *    and returns the average of <SPAN CLASS="MATH"><I>f</I></SPAN> over the points of each
+    *    of them.  The statistics returned by the other methods of this class
+    *    are those of the last call to this method.  The stream of the
+    *    randomization is then advanced by <TT>m</TT> substreams.
+    *
+    * @param m the number of randomizations
+    *
+    *    @return the averages of <SPAN CLASS="MATH"><I>f</I></SPAN> over the
+    *    <SPAN CLASS="MATH"><I>m</I></SPAN> randomized point sets
+    *
+    *    @exception IllegalArgumentException if <TT>m</TT> is negative, or
+    *     if the stream of the randomization does not implement
+    *     {@link CloneableRandomStream}
+    *
+    *    @exception UnsupportedOperationException if the point set has
+    *     an infinite number of points
+    *
+    *
+    */
+   public double[] simulate (int m)  {
+      if (m < 0)
+         throw new IllegalArgumentException
+            ("The number of randomizations must be non-negative");
+      RandomStream stream = rand.getStream();
+      if (!(stream instanceof CloneableRandomStream))
+         throw new IllegalArgumentException
+            ("The stream of the randomization must implement CloneableRandomStream");
+      double[] a = new double[m];
+      double[] v = new double[m];
+      AtomicInteger nextBlock = new AtomicInteger();
+      int nt = Math.min (numThreads, (m + blockSize - 1) / blockSize);
+      List<Worker> workers = new ArrayList<Worker>(nt);
+      if (nt <= 1) {
+         Worker w = new Worker ((CloneableRandomStream) stream, a, v, nextBlock);
+         workers.add (w);
+         w.call();
+      } else {
+         for (int t = 0; t < nt; t++)
+            workers.add (new Worker ((CloneableRandomStream) stream, a, v,
+                                     nextBlock));
+         ExecutorService exec = Executors.newFixedThreadPool (nt);
+         try {
+            for (Future<Object> fut : exec.invokeAll (workers))
+               fut.get();
+         }
+         catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException
+               ("Interrupted while waiting for the randomizations", ie);
+         }
+         catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException)
+               throw (RuntimeException) cause;
+            if (cause instanceof Error)
+               throw (Error) cause;
+            throw new IllegalStateException (cause);
+         }
+         finally {
+            exec.shutdownNow();
+         }
+      }
+
+      for (int r = 0; r < m; r++)
+         stream.resetNextSubstream();
+
+      // Combines the randomizations in their order.
+      avg = a;
+      var = v;
+      n = 0;
+      cpuTime = 0.0;
+      for (Worker w : workers) {
+         if (w.n > 0)
+            n = w.n;
+         cpuTime += w.cpuTime;
+      }
+      mean = variance = 0.0;
+      double ssd = 0.0;
+      for (int r = 0; r < m; r++) {
+         double d = a[r] - mean;
+         mean += d / (r + 1);
+         ssd += d * (a[r] - mean);
+      }
+      mean = m > 0 ? mean : Double.NaN;
+      variance = m > 1 ? ssd / (m - 1) : Double.NaN;
+      return a.clone();
+   }
+
+
+   /**
+    * Performs <TT>m</TT> independent randomizations of the point set
+    *    as in {@link #simulate(int) simulate}<TT>(m)</TT>, and adds
+    *    the <SPAN CLASS="MATH"><I>m</I></SPAN> averages to the statistical collector
+    *    <TT>stat</TT>, in the order of the randomizations.
+    *
+    * @param m the number of randomizations
+    *
+    *    @param stat the statistical collector receiving the averages
+    *
+    *
+    */
+   public void simulate (int m, Tally stat)  {
+      double[] a = simulate (m);
+      for (int r = 0; r < m; r++)
+         stat.add (a[r]);
+   }
+
+
+   /**
+    * Returns the number of points <SPAN CLASS="MATH"><I>n</I></SPAN> of the point set used by
+    *    the last call to {@link #simulate(int) simulate}.
+    *
+    * @return the number of points
+    *
+    */
+   public int getNumPoints()  {
+      return n;
+   }
+
+
+   /**
+    * Returns the number of randomizations <SPAN CLASS="MATH"><I>m</I></SPAN> performed by the
+    *    last call to {@link #simulate(int) simulate}.
+    *
+    * @return the number of randomizations
+    *
+    */
+   public int getNumRandomizations()  {
+      return avg == null ? 0 : avg.length;
+   }
+
+
+   /**
+    * Returns the averages of <SPAN CLASS="MATH"><I>f</I></SPAN> over the
+    *    <SPAN CLASS="MATH"><I>m</I></SPAN> randomized point sets.
+    *
+    * @return the averages of each randomization
+    *
+    */
+   public double[] getAverages()  {
+      return avg == null ? new double[0] : avg.clone();
+   }
+
+
+   /**
+    * Returns the mean of the <SPAN CLASS="MATH"><I>m</I></SPAN> averages, the RQMC estimator
+    *    of the integral.
+    *
+    * @return the RQMC estimator
+    *
+    */
+   public double getMean()  {
+      return mean;
+   }
+
+
+   /**
+    * Returns the empirical variance of the <SPAN CLASS="MATH"><I>m</I></SPAN> averages, an
+    *    unbiased estimator of the variance of the average of <SPAN CLASS="MATH"><I>f</I></SPAN>
+    *    over one randomized point set.  The variance of the RQMC estimator
+    *    returned by {@link #getMean getMean} is this value divided by
+    *    <SPAN CLASS="MATH"><I>m</I></SPAN>.  Returns <TT>NaN</TT> if
+    *    <SPAN CLASS="MATH"><I>m</I> &lt; 2</SPAN>.
+    *
+    * @return the variance of the averages
+    *
+    */
+   public double getVariance()  {
+      return variance;
+   }
+
+
+   /**
+    * Returns an unbiased estimator of the variance
+    *    <SPAN CLASS="MATH"><I>&#963;</I><SUP>2</SUP></SPAN> of
+    *    <SPAN CLASS="MATH"><I>f</I>(<I>U</I>)</SPAN>, i.e., of the variance per point of
+    *    Monte Carlo.  Each point of a randomized point set is uniformly
+    *    distributed, so this estimator is the mean over the
+    *    randomizations of the empirical variance of <SPAN CLASS="MATH"><I>f</I></SPAN> over
+    *    the <SPAN CLASS="MATH"><I>n</I></SPAN> points (with divisor <SPAN CLASS="MATH"><I>n</I></SPAN>),
+    *    plus the variance returned by {@link #getVariance getVariance}.
+    *    Returns <TT>NaN</TT> if <SPAN CLASS="MATH"><I>m</I> &lt; 2</SPAN>.
+    *
+    * @return the estimated variance of Monte Carlo
+    *
+    */
+   public double getVarianceMC()  {
+      int m = getNumRandomizations();
+      if (m < 2)
+         return Double.NaN;
+      double s = 0.0;
+      for (int r = 0; r < m; r++)
+         s += var[r];
+      return s / m + variance;
+   }
+
+
+   /**
+    * Returns the variance reduction factor of RQMC with respect to
+    *    Monte Carlo with the same number of points, for a Monte Carlo
+    *    variance per point <TT>varMC</TT>, i.e.,
+    *    <TT>varMC</TT><SPAN CLASS="MATH">/(<I>n</I>&nbsp;<I>v</I>)</SPAN>, where
+    *    <SPAN CLASS="MATH"><I>v</I></SPAN> is the value returned by
+    *    {@link #getVariance getVariance}.
+    *
+    * @param varMC the variance of <SPAN CLASS="MATH"><I>f</I>(<I>U</I>)</SPAN>
+    *
+    *    @return the variance reduction factor
+    *
+    */
+   public double getVarianceReductionFactor (double varMC)  {
+      return varMC / (n * variance);
+   }
+
+
+   /**
+    * Returns the variance reduction factor of RQMC with respect to
+    *    Monte Carlo, for the Monte Carlo variance estimated by
+    *    {@link #getVarianceMC getVarianceMC}.
+    *
+    * @return the estimated variance reduction factor
+    *
+    */
+   public double getVarianceReductionFactor()  {
+      return getVarianceReductionFactor (getVarianceMC());
+   }
+
+
+   /**
+    * Returns the CPU time, in seconds, used by all the threads during the
+    *    last call to {@link #simulate(int) simulate}, to construct,
+    *    randomize and evaluate the point sets.
+    *
+    * @return the CPU time in seconds
+    *
+    */
+   public double getCPUTime()  {
+      return cpuTime;
+   }
+
+
+   /**
+    * Returns a report on the last call to {@link #simulate(int) simulate}:
+    *    the numbers of points and of randomizations, the mean, the variance,
+    *    the estimated Monte Carlo variance and variance reduction factor,
+    *    and the CPU time.
+    *
+    * @return the report
+    *
+    */
+   public String report()  {
+      StringBuffer sb = new StringBuffer();
+      sb.append ("RQMC experiment with " + getNumRandomizations()
+                 + " randomizations of " + n + " points, "
+                 + numThreads + " thread(s)" + PrintfFormat.NEWLINE);
+      sb.append ("   mean                       "
+                 + PrintfFormat.g (12, 6, mean) + PrintfFormat.NEWLINE);
+      sb.append ("   variance of the averages   "
+                 + PrintfFormat.g (12, 6, variance) + PrintfFormat.NEWLINE);
+      sb.append ("   estimated MC variance      "
+                 + PrintfFormat.g (12, 6, getVarianceMC())
+                 + PrintfFormat.NEWLINE);
+      sb.append ("   variance reduction factor  "
+                 + PrintfFormat.g (12, 6, getVarianceReductionFactor())
+                 + PrintfFormat.NEWLINE);
+      sb.append ("   CPU time                   "
+                 + ThreadCPUTimeChrono.format (cpuTime) + PrintfFormat.NEWLINE);
+      return sb.toString();
+   }
+
+
+   // Performs the blocks of randomizations given to one thread.
+   private class Worker implements Callable<Object> {
+      private CloneableRandomStream stream;
+      private double[] avg;
+      private double[] var;
+      private AtomicInteger nextBlock;
+      int n;
+      double cpuTime;
+
+      Worker (CloneableRandomStream stream, double[] avg, double[] var,
+              AtomicInteger nextBlock) {
+         this.stream = stream;
+         this.avg = avg;
+         this.var = var;
+         this.nextBlock = nextBlock;
+      }
+
+      public Object call() {
+         ThreadCPUTimeChrono timer = new ThreadCPUTimeChrono();
+         try {
+            run();
+         }
+         finally {
+            cpuTime = timer.getSeconds();
+         }
+         return null;
+      }
+
+      private void run() {
+         int m = avg.length;
+         int b = nextBlock.getAndIncrement() * blockSize;
+         if (b >= m)
+            return;
+         RandomStream s = stream.clone();
+         s.resetStartSubstream();
+         PointSet p = factory == null ? pointSet : factory.get();
+         n = p.getNumPoints();
+         if (n == Integer.MAX_VALUE)
+            throw new UnsupportedOperationException
+               ("Number of points is infinite");
+         int chunk = Math.max (1, Math.min (n, 4096 / dim));
+         double[] buf = new double[chunk*dim];
+         double[] u = new double[dim];
+         PointSetRandomization own = null;   // Randomization of this thread.
+         if (randFactory != null) {
+            own = randFactory.get();
+            own.setStream (s);
+         }
+         int sub = 0;       // Substreams of s after the initial one.
+         for (; b < m; b = nextBlock.getAndIncrement() * blockSize) {
+            int end = Math.min (m, b + blockSize);
+            for (int r = b; r < end; r++) {
+               if (r == sub)
+                  s.resetStartSubstream();
+               else
+                  for (; sub < r; sub++)
+                     s.resetNextSubstream();
+               if (own != null)
+                  own.randomize (p);
+               else
+                  synchronized (rand) {
+                     RandomStream old = rand.getStream();
+                     rand.setStream (s);
+                     try {
+                        rand.randomize (p);
+                     }
+                     finally {
+                        rand.setStream (old);
+                     }
+                  }
+               // Welford's update of the mean and sum of squared deviations
+               double mu = 0.0;
+               double ssd = 0.0;
+               for (int i = 0; i < n; i += chunk) {
+                  int k = Math.min (chunk, n - i);
+                  p.getPoints (i, k, 0, dim, buf);
+                  for (int j = 0; j < k; j++) {
+                     System.arraycopy (buf, j*dim, u, 0, dim);
+                     double y = f.evaluate (u);
+                     double d = y - mu;
+                     mu += d / (i + j + 1);
+                     ssd += d * (y - mu);
+                  }
+               }
+               avg[r] = mu;
+               var[r] = ssd / n;
+            }
+         }
+      }
+   }
+
+}
@@ -0,0 +1,55 @@
+
+
+/*
+ * Interface:    RQMCIntegrand
+ * Description:  function evaluated at each point of a randomized
+                 point set by an RQMCExperiment
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.hups;
+
+
+/**
+ * Represents a function <SPAN CLASS="MATH"><I>f</I></SPAN> over the unit hypercube
+ * <SPAN CLASS="MATH">[0, 1)<SUP>d</SUP></SPAN>, whose integral is estimated by an
+ * {@link RQMCExperiment}.
+ * The same object is used by all the threads of the experiment, so
+ * {@link #evaluate evaluate} must not modify any state shared between
+ * the calls.
+ *
+ */
+public interface RQMCIntegrand {
+
+
+   /**
+    * Returns the value of the function at the point
+    *   <TT>u[0..(d-1)]</TT>.  The array <TT>u</TT> is reused for the next
+    *   points and must not be kept or modified.
+    *
+    * @param u the coordinates of the point
+    *
+    *    @return the value of the function at <TT>u</TT>
+    *
+    */
+   public double evaluate (double[] u);
+
+}
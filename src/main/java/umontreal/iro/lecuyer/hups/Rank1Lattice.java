@@ -200,6 +200,34 @@ public class Rank1Lattice extends PointSet  {
       return inverse;
    }
 
+   public void getPoints (int firstPoint, int nPoints, int firstDim,
+                          int nDims, double[] out, boolean columnMajor) {
+      checkGetPoints (firstPoint, nPoints, firstDim, nDims, out);
+      if (nPoints == 0 || nDims == 0)
+         return;
+      if (shift != null && dimShift < firstDim + nDims)   // Extend the shift.
+         addRandomShift (dimShift, firstDim + nDims, shiftStream);
+      int step = columnMajor ? 1 : nDims;
+      for (int j = firstDim; j < firstDim + nDims; j++) {
+         double vj = v[j];
+         int idx = columnMajor ? (j - firstDim) * nPoints : j - firstDim;
+         if (shift == null) {
+            for (int i = firstPoint; i < firstPoint + nPoints; i++, idx += step)
+               out[idx] = (i * vj) % 1.0;
+         } else {
+            double s = shift[j];
+            for (int i = firstPoint; i < firstPoint + nPoints; i++, idx += step) {
+               double x = (i * vj) % 1.0 + s;
+               if (x >= 1.0)
+                  x -= 1.0;
+               if (x <= 0.0)
+                  x = EpsilonHalf;  // avoid x = 0
+               out[idx] = x;
+            }
+         }
+      }
+   }
+
    public PointSetIterator iterator() {
       return new Rank1LatticeIterator();
    }
@@ -189,6 +189,20 @@ public class SubsetOfPointSet extends PointSet  {
       return P.getCoordinate (access_i, access_j);
    }
 
+   public void getPoints (int firstPoint, int nPoints, int firstDim,
+                          int nDims, double[] out, boolean columnMajor) {
+      if (i_index != null || j_index != null) {
+         super.getPoints (firstPoint, nPoints, firstDim, nDims, out,
+                          columnMajor);
+         return;
+      }
+      // A range of points and coordinates: the block is taken directly
+      // from the source point set.
+      checkGetPoints (firstPoint, nPoints, firstDim, nDims, out);
+      P.getPoints (firstPoint + i_from, nPoints, firstDim + j_from, nDims,
+                   out, columnMajor);
+   }
+
    public PointSetIterator iterator() {
       return new SubsetIterator();
    }
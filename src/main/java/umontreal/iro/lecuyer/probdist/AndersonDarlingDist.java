@@ -343,6 +343,20 @@ public class AndersonDarlingDist extends ContinuousDistribution {
    }
 
 
+   /**
+    * Returns an {@link AndersonDarlingDistQuick} with the same parameter
+    *   <SPAN CLASS="MATH"><I>n</I></SPAN> if <SPAN CLASS="MATH"><I>n</I> &gt; 6</SPAN> and <SPAN CLASS="MATH"><I>d</I>&nbsp;&lt;=&nbsp;2</SPAN>, and this object otherwise.
+    *   See {@link ContinuousDistribution#withPrecision(int) ContinuousDistribution.withPrecision}.
+    * 
+    */
+   public ContinuousDistribution withPrecision (int d) {
+      checkPrecision (d);
+      if (n > 6 && d <= 2)
+         return new AndersonDarlingDistQuick (n);
+      return this;
+   }
+
+
    /**
     * Return an array containing the parameter <SPAN CLASS="MATH"><I>n</I></SPAN> of the current distribution.
     * 
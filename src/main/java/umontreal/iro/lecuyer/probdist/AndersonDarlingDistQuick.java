@@ -79,6 +79,13 @@ public class AndersonDarlingDistQuick extends AndersonDarlingDist {
       return inverseF (n, u);
    }
 
+   public ContinuousDistribution withPrecision (int d) {
+      checkPrecision (d);
+      if (n > 6 && d <= 2)
+         return this;
+      return new AndersonDarlingDist (n);
+   }
+
    /**
     * Computes the density of the  distribution with parameter <SPAN CLASS="MATH"><I>n</I></SPAN>.
     * 
@@ -27,6 +27,7 @@
 package  umontreal.iro.lecuyer.probdist;
 
 import umontreal.iro.lecuyer.util.*;
+import umontreal.iro.lecuyer.functions.MathFunction;
 import optimization.*;
 
 
@@ -67,6 +68,7 @@ public class BetaDist extends ContinuousDistribution {
    protected double logFactor;
    protected double Beta;          // Function Beta(alpha, beta)
    protected double logBeta;       // Ln(Beta(alpha, beta))
+   protected volatile InverseDistFromDensity prepInv; // prepared inverse, or null
 
    private static class Optim implements Lmder_fcn
    {
@@ -112,6 +114,105 @@ public class BetaDist extends ContinuousDistribution {
    }
 
 
+   private static class PowerDensity implements MathFunction {
+      // Density of T = V^p given V <= c, where V has density
+      // v^(p + e1 - 1) (1 - v)^e2 exp(-logB) on [0, 1] and P[V <= c] = pc.
+      // With p = alpha < 1 and e1 = 0, it is bounded at 0.
+      private double ip, e1, e2, logC;
+
+      public PowerDensity (double p, double e1, double e2, double logB,
+                           double pc) {
+         this.ip = 1.0/p;
+         this.e1 = e1;
+         this.e2 = e2;
+         logC = -logB - Math.log (p*pc);
+      }
+
+      public double evaluate (double t) {
+         double v = Math.pow (t, ip);
+         if (t < 0.0 || v >= 1.0)
+            return 0.0;
+         double z = logC;
+         if (e1 != 0.0)
+            z += e1*Math.log (v);
+         if (e2 != 0.0)
+            z += e2*Math.log1p (-v);
+         return Math.exp (z);
+      }
+   }
+
+
+   private static class SplitInverse extends InverseDistFromDensity {
+      // Prepared inverse for alpha < 1, where the density of the standardized
+      // Y = (X - a)/(b - a) is infinite at 0. If beta >= 1, the tables of
+      // this object are those of T = Y^alpha, whose density is bounded.
+      // Otherwise, Y is split at 1/2, with pc = P[Y <= 1/2]; the tables of
+      // this object are those of T = Y^alpha given Y <= 1/2, and those of
+      // right are for S = (1 - Y)^beta given Y > 1/2. Since the maps are
+      // monotone, the u-error of X is that of T or S.
+      // If flip is true, the parameters are swapped and X is replaced by
+      // a + b - X, for the case beta < 1 <= alpha.
+      private double alpha, beta, a, b, pc;
+      private boolean flip;
+      private InverseDistFromDensity right;   // null if beta >= 1
+
+      public SplitInverse (double alpha, double beta, double a, double b,
+                           double eps, boolean flip) {
+         super (new PowerDensity (alpha, 0.0, beta - 1.0,
+                   Num.lnBeta (alpha, beta), leftMass (alpha, beta)),
+                0.5*Math.pow (leftEnd (beta), alpha), eps, 5,
+                0.0, Math.pow (leftEnd (beta), alpha));
+         this.alpha = alpha;
+         this.beta = beta;
+         this.a = a;
+         this.b = b;
+         this.flip = flip;
+         pc = leftMass (alpha, beta);
+         if (beta < 1.0) {
+            final double sb = Math.pow (0.5, beta);
+            right = new InverseDistFromDensity (
+                    new PowerDensity (beta, 0.0, alpha - 1.0,
+                                      Num.lnBeta (alpha, beta), 1.0 - pc),
+                    0.5*sb, eps, 5, 0.0, sb);
+         }
+      }
+
+      private static double leftEnd (double beta) {
+         return beta < 1.0 ? 0.5 : 1.0;
+      }
+
+      private static double leftMass (double alpha, double beta) {
+         return beta < 1.0 ? BetaDist.cdf (alpha, beta, 15, 0.5) : 1.0;
+      }
+
+      public double density (double x) {
+         if (flip)
+            return BetaDist.density (beta, alpha, a, b, x);
+         return BetaDist.density (alpha, beta, a, b, x);
+      }
+
+      public double inverseF (double u) {
+         if (u < 0.0 || u > 1.0)
+             throw new IllegalArgumentException ("u not in [0,1]");
+         if (flip)
+            u = 1.0 - u;
+         double y;
+         if (u <= pc)
+            y = Math.pow (super.inverseF (u/pc), 1.0/alpha);
+         else
+            y = 1.0 - Math.pow (right.inverseF ((1.0 - u)/(1.0 - pc)),
+                                1.0/beta);
+         return flip ? b - (b - a)*y : a + (b - a)*y;
+      }
+
+      public double getSetupTime() {
+         if (right == null)
+            return super.getSetupTime();
+         return super.getSetupTime() + right.getSetupTime();
+      }
+   }
+
+
    /**
     * Constructs a <TT>BetaDist</TT> object with parameters <SPAN CLASS="MATH"><I>&#945;</I> =</SPAN>
     *      <TT>alpha</TT> and <SPAN CLASS="MATH"><I>&#946;</I> =</SPAN> <TT>beta</TT> and default domain <SPAN CLASS="MATH">(0, 1)</SPAN>.
@@ -169,11 +270,27 @@ public class BetaDist extends ContinuousDistribution {
       return Math.exp(logFactor + temp);
    }
 
+   protected void densityBlock (double[] x, double[] out, int start, int n) {
+      final double am1 = alpha - 1;
+      final double bm1 = beta - 1;
+      for (int i = start; i < start + n; i++) {
+         if (x[i] <= a || x[i] >= b)
+            out[i] = 0;
+         else {
+            double temp = am1 * Math.log(x[i] - a) + bm1 * Math.log(b - x[i]);
+            out[i] = Math.exp(logFactor + temp);
+         }
+      }
+   }
+
    public double cdf (double x) {
       return cdf (alpha, beta, decPrec, (x - a)/bminusa);
    }
 
    public double inverseF (double u) {
+      InverseDistFromDensity inv = prepInv;
+      if (inv != null)
+         return inv.inverseF (u);
       return a + (b - a)*inverseF (alpha, beta,  decPrec, u);
    }
 
@@ -1000,7 +1117,18 @@ mainloop:
       sum = 0.0;
       for (int i = 0; i < n; i++)
          sum += (x[i] - mean) * (x[i] - mean);
-      double var = sum / ((double) n - 1.0);
+
+      return getMLE ((double) n, mean, sum, a, b);
+   }
+
+
+   // Same as getMLE (x, n), from the number n of observations, their mean,
+   // the sum of their squared deviations from the mean, and the sums a of
+   // their logarithms and b of the logarithms of their complements to 1.
+   // Used also by MLEAccumulator.
+   static double[] getMLE (double n, double mean, double ssd, double a,
+                           double b) {
+      double var = ssd / (n - 1.0);
 
       Optim system = new Optim (a, b);
 
@@ -1185,6 +1313,60 @@ mainloop:
       return b;
    }
 
+
+   /**
+    * Prepares a fast inverse for the current parameters of this object.
+    *   The tables of an {@link InverseDistFromDensity} with <SPAN CLASS="MATH"><I>u</I></SPAN>-resolution
+    *   <TT>eps</TT> and interpolating polynomials of order 5 are computed
+    *   once, then the method <TT>inverseF</TT> and the array method
+    *   <TT>inverseF</TT> of this object interpolate in these tables
+    *   instead of computing the inverse with the methods of this class.
+    *   The set-up usually takes a few milliseconds, after which the inverse
+    *   is typically tens to hundreds of times faster, with an error
+    *   <SPAN CLASS="MATH">| <I>F</I>(<I>x</I>) - <I>u</I>|</SPAN> close to <TT>eps</TT> or less.
+    *   When <SPAN CLASS="MATH"><I>&#945;</I> &lt; 1</SPAN>, the density is infinite at <SPAN CLASS="MATH"><I>a</I></SPAN>, so the tables
+    *   are computed for 
+    * <SPAN CLASS="MATH"><I>Y</I><SUP><I>&#945;</I></SUP></SPAN>, where 
+    * <SPAN CLASS="MATH"><I>Y</I> = (<I>X</I> - <I>a</I>)/(<I>b</I> - <I>a</I>)</SPAN>,
+    *   whose density is bounded, and similarly for 
+    * <SPAN CLASS="MATH">(1 - <I>Y</I>)<SUP><I>&#946;</I></SUP></SPAN> when
+    *   <SPAN CLASS="MATH"><I>&#946;</I> &lt; 1</SPAN>; if both are smaller than 1, <SPAN CLASS="MATH"><I>Y</I></SPAN> is split at <SPAN CLASS="MATH">1/2</SPAN>
+    *   and each half has its own tables. The error is unchanged by these maps.
+    *   Near <SPAN CLASS="MATH"><I>b</I></SPAN> when <SPAN CLASS="MATH"><I>&#946;</I> &lt; 1</SPAN>, the error is limited, as for
+    *   the exact inverse, by the spacing of the floating-point numbers
+    *   near <SPAN CLASS="MATH"><I>b</I></SPAN>.
+    *   The set-up time and an estimate of the error are given by the
+    *   methods <TT>getSetupTime</TT> and <TT>estimateUerror</TT> of
+    *   {@link #getPreparedInverse getPreparedInverse}.
+    *   The tables are not modified afterwards, so this object can be used
+    *   by several threads once the inverse is prepared.
+    *   They are discarded when the parameters are changed.
+    *   Restrictions: 
+    * <SPAN CLASS="MATH">10<SUP>-15</SUP> &lt;= <texttt>eps</texttt> &lt;= 10<SUP>-3</SUP></SPAN>.
+    * 
+    * @param eps the <SPAN CLASS="MATH"><I>u</I></SPAN>-resolution of the inverse
+    * 
+    * 
+    */
+   public void prepareInverse (double eps) {
+      if (alpha < 1.0)
+         prepInv = new SplitInverse (alpha, beta, a, b, eps, false);
+      else if (beta < 1.0)
+         prepInv = new SplitInverse (beta, alpha, a, b, eps, true);
+      else
+         prepInv = new InverseDistFromDensity (this, getMean(), eps, 5);
+   }
+
+
+   /**
+    * Returns the inverse prepared by {@link #prepareInverse prepareInverse}
+    *   for the current parameters, or <TT>null</TT> if there is none.
+    * 
+    */
+   public InverseDistFromDensity getPreparedInverse() {
+      return prepInv;
+   }
+
     public void setParams (double alpha, double beta,
                            double a, double b, int d) {
       if (alpha <= 0.0)
@@ -1208,9 +1390,26 @@ mainloop:
       Beta = Math.exp(logBeta);
 //      this.factor = 1.0 / (Beta * Math.pow (bminusa, alpha + beta - 1));
       this.logFactor = - logBeta - Math.log (bminusa) * (alpha + beta - 1);
+      prepInv = null;
     } 
 
 
+   /**
+    * Returns a <TT>BetaDist</TT> with the same parameters, computing with
+    *   <TT>decPrec</TT> = <SPAN CLASS="MATH">min(<I>d</I> + 2, 15)</SPAN> decimal digits, or this object
+    *   if it already uses this value of <TT>decPrec</TT>.
+    *   See {@link ContinuousDistribution#withPrecision(int) ContinuousDistribution.withPrecision}.
+    * 
+    */
+   @SuppressWarnings("deprecation")
+   public ContinuousDistribution withPrecision (int d) {
+      int p = decPrecFor (d);
+      if (p == decPrec)
+         return this;
+      return new BetaDist (alpha, beta, a, b, p);
+   }
+
+
    /**
     * Return a table containing parameters of the current distribution.
     *    This table is put in regular order: [<SPAN CLASS="MATH"><I>&#945;</I></SPAN>, <SPAN CLASS="MATH"><I>&#946;</I></SPAN>].
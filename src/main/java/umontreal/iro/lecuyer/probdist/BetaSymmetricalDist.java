@@ -135,18 +135,23 @@ public class BetaSymmetricalDist extends BetaDist {
    }
 
 
+   @SuppressWarnings("deprecation")
    public double cdf (double x) {
-      return calcCdf (alpha, x, decPrec, logFactor, logBeta, logCeta, Ceta);
+      return calcCdf (alpha, x, decPrec, logFactor, logBeta, logCeta, Ceta,
+                      null);
    }
 
    public double barF (double x) {
       return calcCdf (alpha, 1.0 - x, decPrec, logFactor, logBeta,
-                      logCeta, Ceta);
+                      logCeta, Ceta, null);
    }
 
    public double inverseF (double u) {
+      InverseDistFromDensity inv = prepInv;
+      if (inv != null)
+         return inv.inverseF (u);
       return calcInverseF (alpha, u, decPrec, logFactor, logBeta,
-                           logCeta, Ceta);
+                           logCeta, Ceta, null);
    }
 
    /**
@@ -164,7 +169,7 @@ public class BetaSymmetricalDist extends BetaDist {
     * 
     */
    public static double cdf (double alpha, int d, double x) {
-      return calcCdf (alpha, x, d, Num.DBL_MIN, 0.0, 0.0, 0.0);
+      return calcCdf (alpha, x, d, Num.DBL_MIN, 0.0, 0.0, 0.0, null);
    }
 
 
@@ -197,7 +202,7 @@ public class BetaSymmetricalDist extends BetaDist {
     * 
     */
    public static double inverseF (double alpha, double u) {
-      return calcInverseF (alpha, u, 14, Num.DBL_MIN, 0.0, 0.0, 0.0);
+      return calcInverseF (alpha, u, 14, Num.DBL_MIN, 0.0, 0.0, 0.0, null);
    }
 
    /*----------------------------------------------------------------------*/
@@ -675,8 +680,31 @@ public class BetaSymmetricalDist extends BetaDist {
 
    /*---------------------------------------------------------------------*/
 
+   /*
+    * Returns the constants {B, logB, logC, C} computed with d decimal
+    * digits by the static methods, when called without consts.  The array
+    * methods of StudentDist compute them once and give them as consts.
+    */
+   static double[] constants (double alpha, int d) {
+      double [] bc = new double[] {0.0, 0.0, 0.0, 0.0};
+      CalcB4 (alpha, bc, EPSARRAY[d]);
+      bc[3] = Math.exp(bc[2]);
+      return bc;
+   }
+
+   static double cdf (double alpha, int d, double x, double[] consts) {
+      return calcCdf (alpha, x, d, Num.DBL_MIN, 0.0, 0.0, 0.0, consts);
+   }
+
+   static double inverseF (double alpha, double u, double[] consts) {
+      return calcInverseF (alpha, u, 14, Num.DBL_MIN, 0.0, 0.0, 0.0, consts);
+   }
+
+   /*---------------------------------------------------------------------*/
+
    private static double calcInverseF (double alpha, double u, int d,
-          double logFact, double logBeta, double logCeta, double Ceta) {
+          double logFact, double logBeta, double logCeta, double Ceta,
+          double[] consts) {
       if (alpha <= 0.0)
          throw new IllegalArgumentException ("alpha <= 0");
       if (u > 1.0 || u < 0.0)
@@ -708,7 +736,10 @@ public class BetaSymmetricalDist extends BetaDist {
       double x;
       double C = 0.0, B = 0.0, logB = 0.0, logC = 0.0;
 
-      if (logFact == Num.DBL_MIN) {
+      if (logFact == Num.DBL_MIN && consts != null) {
+         B = consts[0]; logB = consts[1]; logC = consts[2];
+         C = consts[3];
+      } else if (logFact == Num.DBL_MIN) {
          double [] bc = new double[] {0.0, 0.0, 0.0};
          CalcB4 (alpha, bc, EPSARRAY[d]);
          B = bc[0]; logB = bc[1]; logC = bc[2];
@@ -749,7 +780,8 @@ public class BetaSymmetricalDist extends BetaDist {
    /*---------------------------------------------------------------------*/
 
    private static double calcCdf (double alpha, double x, int d,
-           double logFact, double logBeta, double logCeta, double Ceta) {
+           double logFact, double logBeta, double logCeta, double Ceta,
+           double[] consts) {
       double temp, u, logB = 0.0, logC = 0.0, C = 0.0;
       boolean isUpper;                   /* True if x > 0.5 */
       double B = 0.0;                    /* Beta(alpha, alpha) */
@@ -775,7 +807,10 @@ public class BetaSymmetricalDist extends BetaDist {
       } else
          isUpper = false;
 
-      if (logFact == Num.DBL_MIN) {
+      if (logFact == Num.DBL_MIN && consts != null) {
+         B = consts[0]; logB = consts[1]; logC = consts[2];
+         C = consts[3];
+      } else if (logFact == Num.DBL_MIN) {
          double [] bc = new double[3];
          bc[0] = B; bc[1] = logB; bc[2] = logC;
          CalcB4 (alpha, bc, EPSILON);
@@ -973,6 +1008,7 @@ public class BetaSymmetricalDist extends BetaDist {
       supportA = this.a = a;
       supportB = this.b = b;
       bminusa = b - a;
+      prepInv = null;
     }
 
    private void setParams (double alpha, int d) {
@@ -992,6 +1028,25 @@ public class BetaSymmetricalDist extends BetaDist {
     }
 
 
+   /**
+    * Returns a <TT>BetaSymmetricalDist</TT> with the same parameters, computing with
+    *   <TT>decPrec</TT> = <SPAN CLASS="MATH">min(<I>d</I> + 2, 15)</SPAN> decimal digits, or this object
+    *   if it already uses this value of <TT>decPrec</TT>.
+    *   See {@link ContinuousDistribution#withPrecision(int) ContinuousDistribution.withPrecision}.
+    * 
+    */
+   @SuppressWarnings("deprecation")
+   public ContinuousDistribution withPrecision (int d) {
+      int p = decPrecFor (d);
+      if (p == decPrec)
+         return this;
+      BetaSymmetricalDist dist = new BetaSymmetricalDist (alpha, p);
+      if (a != 0.0 || b != 1.0)
+         dist.setParams (alpha, alpha, a, b, p);
+      return dist;
+   }
+
+
    /**
     * Return a table containing the parameter of the current distribution.
     * 
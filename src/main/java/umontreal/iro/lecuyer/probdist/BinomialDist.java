@@ -85,15 +85,18 @@ public class BinomialDist extends DiscreteDistributionInt {
    }
 
 
-   public static double MAXN = 100000;
+   @Deprecated
+   public static double MAXN = 100000;   // Ignored, see setMaxTableSize
 
 
    /**
     * Creates an object that contains the binomial terms, for 
     * <SPAN CLASS="MATH">0&nbsp;&lt;=&nbsp;<I>x</I>&nbsp;&lt;=&nbsp;<I>n</I></SPAN>, and the corresponding
     *    cumulative function.
-    *    These values are computed and stored in dynamic arrays, unless
-    *    <SPAN CLASS="MATH"><I>n</I></SPAN> exceeds <TT>MAXN</TT>.
+    *    These values are computed at their first use and stored in dynamic
+    *    arrays, of at most
+    *    {@link DiscreteDistributionInt#getMaxTableSize getMaxTableSize}
+    *    values.
     * 
     */
    public BinomialDist (int n, double p) {
@@ -121,6 +124,7 @@ public class BinomialDist extends DiscreteDistributionInt {
             return 1.0;
       }
 
+      requireTables();
       if (pdf == null)
          return prob (n, p, q, x);
 
@@ -147,7 +151,10 @@ public class BinomialDist extends DiscreteDistributionInt {
       if (p == 1.0)
          return 0.0;
 
+      requireTables();
       if (cdf != null) {
+         if (truncated && (x < xmin || x >= xmax))
+            return cdf (n, p, x);
          if (x >= xmax)
             return 1.0;
          if (x < xmin) {
@@ -190,7 +197,10 @@ public class BinomialDist extends DiscreteDistributionInt {
       if (p == 1.0)
          return 1.0;
 
+      requireTables();
       if (cdf != null) {
+         if (truncated && (x <= xmin || x > xmax))
+            return barF (n, p, x);
          if (x > xmax) {
             // Add IMAX dominant terms to get a few decimals in the tail
             final double q = 1.0 - p;
@@ -222,7 +232,8 @@ public class BinomialDist extends DiscreteDistributionInt {
 
 
    public int inverseFInt (double u) {
-      if ((cdf == null) || (u <= EPS2))
+      requireTables();
+      if ((cdf == null) || (u <= EPS2) || !tablesCover (u))
          return inverseF (n, p, u);
       else
          return super.inverseFInt (u);
@@ -692,6 +703,21 @@ public class BinomialDist extends DiscreteDistributionInt {
 
  
    private void setBinomial (int n, double p) {
+      if (p < 0.0 || p > 1.0)
+         throw new IllegalArgumentException ("p not in range (0, 1)");
+      if (n <= 0)
+         throw new IllegalArgumentException ("n <= 0");
+      supportA = 0;
+      supportB = n;
+
+      this.n = n;
+      this.p = p;
+      this.q = 1.0 - p;
+      resetTables();
+   }
+
+
+   protected void createTables() {
      /*
       * Compute all probability terms of the binomial distribution; start near
       * the mean, and calculate probabilities on each side until they become
@@ -702,39 +728,55 @@ public class BinomialDist extends DiscreteDistributionInt {
       * terms will be meaningless.
       */
 
-      if (p < 0.0 || p > 1.0)
-         throw new IllegalArgumentException ("p not in range (0, 1)");
-      if (n <= 0)
-         throw new IllegalArgumentException ("n <= 0");
-      supportA = 0;
-      supportB = n;
-      double q = 1.0 - p;
       final double EPS = DiscreteDistributionInt.EPSILON * EPS_EXTRA;
-
-      this.n = n;
-      this.p = p;
-      this.q = q;
-
       int i, mid;
       int imin, imax;
       double z = 0.0;
       double[] P;     // Binomial "probability" terms
       double[] F;     // Binomial cumulative "probabilities"
 
-      // For n > MAXN, we shall not use pre-computed arrays
-      if (n > MAXN) {
-         pdf = null;
-         cdf = null;
+      // the maximum term in absolute value
+      mid = (int)((n + 1)*Math.abs (p)/(Math.abs (p) + Math.abs (q)));
+      if (mid > n)
+         mid = n;
+
+      if (n >= getMaxTableSize()) {
+         // The tables would be too large: keep only the window of
+         // getMaxTableSize() values centered on the mode, and sum the
+         // terms outside the window until they become negligible (a
+         // subnormal term may no longer decrease, so it stops there).
+         final int len = getMaxTableSize();
+         final int a = Math.min (Math.max (0, mid - (len - 1)/2),
+                                 n + 1 - len);
+         final int b = a + len - 1;
+         double below = 0.0, above = 0.0, term;
+         P = new double[len];
+         P[mid - a] = term = prob (n, p, q, mid);
+         z = q/p;
+         for (i = mid; i > 0; i--) {
+            term = term*z*i/(n - i + 1);
+            if (i > a)
+               P[i - 1 - a] = term;
+            else if ((below += term) == 0.0 || term <= EPSILON*below
+                     || term < Double.MIN_NORMAL)
+               break;
+         }
+         term = P[mid - a];
+         z = p/q;
+         for (i = mid; i < n; i++) {
+            term = term*z*(n - i)/(i + 1);
+            if (i < b)
+               P[i + 1 - a] = term;
+            else if ((above += term) == 0.0 || term <= EPSILON*above
+                     || term < Double.MIN_NORMAL)
+               break;
+         }
+         setTruncatedTables (a, P, below, above);
          return;
       }
 
       P = new double[1 + n];
       F = new double[1 + n];
-
-      // the maximum term in absolute value
-      mid = (int)((n + 1)*Math.abs (p)/(Math.abs (p) + Math.abs (q)));
-      if (mid > n)
-         mid = n;
       P[mid] = prob (n, p, q, mid);
 
       if (p != 0.0 || p != -0.0)
@@ -101,6 +101,52 @@ public class ChiSquareDist extends ContinuousDistribution {
       return inverseF (n, u);
    }
 
+   protected void densityBlock (double[] x, double[] out, int start, int m) {
+      final double e = n/2.0 - 1;
+      for (int i = start; i < start + m; i++)
+         out[i] = x[i] <= 0 ? 0.0
+                  : Math.exp (e*Math.log (x[i]) - x[i]/2.0 - C1);
+   }
+
+   @SuppressWarnings("deprecation")
+   protected void cdfBlock (double[] x, double[] out, int start, int m) {
+      if (decPrec <= 0)
+         throw new IllegalArgumentException ("d <= 0");
+      final double lnGam = Num.lnGamma (n/2.0);
+      for (int i = start; i < start + m; i++) {
+         if (x[i] <= 0.0)
+            out[i] = 0.0;
+         else if (x[i] >= XBIG*n)
+            out[i] = 1.0;
+         else
+            out[i] = GammaDist.cdf (n/2.0, decPrec, x[i]/2.0, lnGam);
+      }
+   }
+
+   @SuppressWarnings("deprecation")
+   protected void barFBlock (double[] x, double[] out, int start, int m) {
+      if (decPrec <= 0)
+         throw new IllegalArgumentException ("d <= 0");
+      final double lnGam = Num.lnGamma (n/2.0);
+      for (int i = start; i < start + m; i++)
+         out[i] = x[i] <= 0.0 ? 1.0
+                  : GammaDist.barF (n/2.0, decPrec, x[i]/2.0, lnGam);
+   }
+
+   protected void inverseFBlock (double[] u, double[] out, int start, int m) {
+      final double G = Num.lnGamma (n / 2.0);
+      for (int i = start; i < start + m; i++) {
+         if (u[i] < 0.0 || u[i] > 1.0)
+            throw new IllegalArgumentException ("u must be in [0,1]");
+         if (u[i] == 1.0)
+            out[i] = Double.POSITIVE_INFINITY;
+         else if (u[i] == 0.0)
+            out[i] = 0.0;
+         else
+            out[i] = inverseF (n, u[i], G);
+      }
+   }
+
    public double getMean() {
       return ChiSquareDist.getMean (n);
    }
@@ -191,19 +237,27 @@ public class ChiSquareDist extends ContinuousDistribution {
          return Double.POSITIVE_INFINITY;
       if (u == 0.0)
          return 0.0;
+      return inverseF (n, u, Num.lnGamma (n / 2.0));
+   }
+
+
+   /*
+    * The computation of inverseF (n, u) for 0 < u < 1, where G is
+    * Num.lnGamma (n / 2.0), which the array method computes once.
+    */
+   private static double inverseF (int n, double u, double G) {
 
       final double E = 0.5e-5;    // Precision of this approximation
       final double AA = 0.6931471805;
-      double A, XX, X, C, G, CH, Q, P1, P2, T, B, S1, S2, S3, S4, S5, S6;
+      double A, XX, X, C, CH, Q, P1, P2, T, B, S1, S2, S3, S4, S5, S6;
 
       if (u < 0.00001 || u > 1.0 - 1.0e-5)
-         return 2.0 * GammaDist.inverseF (n / 2.0, 7, u);
+         return 2.0 * GammaDist.inverseF (n / 2.0, 7, u, G);
       if (u >= 1.0)
          return n * XBIG;
       if (u >= 0.999998)
          return (n + 4.0 * Math.sqrt (2.0 * n));
 
-      G = Num.lnGamma (n / 2.0);
       XX = 0.5 * n;
       C = XX - 1.0;
 
@@ -223,8 +277,9 @@ public class ChiSquareDist extends ContinuousDistribution {
 
       Q = CH;
       P1 = 0.5 * CH;
-      P2 = u - GammaDist.cdf (XX, 5, P1);
-      if (GammaDist.cdf (XX, 5, P1) == -1.0)
+      double temp = GammaDist.cdf (XX, 5, P1, G);
+      P2 = u - temp;
+      if (temp == -1.0)
          throw new IllegalArgumentException ("RESULT = -1");
 
       T = P2 * Math.exp (XX * AA + G + P1 - C * Math.log (CH));
@@ -242,11 +297,10 @@ public class ChiSquareDist extends ContinuousDistribution {
       CH = CH + T * (1.0 + 0.5 * T * S1 - B * C * (S1 - B * (S2 -
                B * (S3 - B * (S4 - B * (S5 - B * S6))))));
 
-      double temp;
       while (Math.abs (Q / CH - 1.0) > E) {
          Q = CH;
          P1 = 0.5 * CH;
-         temp = GammaDist.cdf (XX, 6, P1);
+         temp = GammaDist.cdf (XX, 6, P1, G);
          P2 = u - temp;
 
          if (temp == -1.0)
@@ -430,6 +484,32 @@ public class ChiSquareDist extends ContinuousDistribution {
    }
 
 
+   /**
+    * Returns a {@link ChiSquareDistQuick} with the same parameter <SPAN CLASS="MATH"><I>n</I></SPAN>
+    *   if <TT>d</TT> is at most its precision, which depends on <SPAN CLASS="MATH"><I>n</I></SPAN>,
+    *   and this object otherwise.
+    *   See {@link ContinuousDistribution#withPrecision(int) ContinuousDistribution.withPrecision}.
+    * 
+    */
+   public ContinuousDistribution withPrecision (int d) {
+      checkPrecision (d);
+      if (d <= quickDigits (n))
+         return new ChiSquareDistQuick (n);
+      return this;
+   }
+
+
+   // Decimal digits of precision of ChiSquareDistQuick with n degrees
+   // of freedom.
+   static int quickDigits (int n) {
+      if (n == 2)
+         return 13;
+      if (n == 1 || n >= 50)
+         return 5;
+      return 2;
+   }
+
+
    /**
     * Return a table containing the parameters of the current distribution.
     * 
@@ -54,6 +54,19 @@ public class ChiSquareDistQuick extends ChiSquareDist {
       return inverseF (n, u);
    }
 
+   protected void inverseFBlock (double[] u, double[] out, int start, int m) {
+      // Uses the inverseF of the present class, not that of ChiSquareDist
+      for (int i = start; i < start + m; i++)
+         out[i] = inverseF (n, u[i]);
+   }
+
+   public ContinuousDistribution withPrecision (int d) {
+      checkPrecision (d);
+      if (d <= quickDigits (n))
+         return this;
+      return new ChiSquareDist (n);
+   }
+
    /**
     * Computes a quick-and-dirty approximation of <SPAN CLASS="MATH"><I>F</I><SUP>-1</SUP>(<I>u</I>)</SPAN>, 
     *   where <SPAN CLASS="MATH"><I>F</I></SPAN> is the <EM>chi-square</EM> distribution with <SPAN CLASS="MATH"><I>n</I></SPAN> degrees of freedom.
@@ -29,6 +29,12 @@ package umontreal.iro.lecuyer.probdist;
 import umontreal.iro.lecuyer.util.PrintfFormat;
 import umontreal.iro.lecuyer.util.Num;
 import umontreal.iro.lecuyer.functions.MathFunction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 
 /**
@@ -68,6 +74,61 @@ public abstract class ContinuousDistribution implements Distribution  {
     0.5E-33, 0.5E-34, 0.5E-35
     };
 
+   private static final int CDF = 0;
+   private static final int BARF = 1;
+   private static final int DENSITY = 2;
+   private static final int INVERSEF = 3;
+   private static final int MIN_BLOCK = 1024;   // smallest parallel block
+   private static volatile int parallelThreshold = Integer.MAX_VALUE;
+
+   private void evaluateBlock (int fun, double[] x, double[] out, int start,
+                               int n) {
+      switch (fun) {
+         case CDF:      cdfBlock (x, out, start, n);      break;
+         case BARF:     barFBlock (x, out, start, n);     break;
+         case DENSITY:  densityBlock (x, out, start, n);  break;
+         default:       inverseFBlock (x, out, start, n);
+      }
+   }
+
+   private void evaluate (final int fun, final double[] x,
+                          final double[] out, int start, int n) {
+      // Checks the arguments, then computes fun for the values
+      // x[start..start+n-1], by blocks in parallel if n is large enough.
+      if (n < 0)
+         throw new IllegalArgumentException ("n < 0");
+      if (start < 0 || start + n > x.length || start + n > out.length)
+         throw new IllegalArgumentException ("array too short");
+      if (n < Math.max (parallelThreshold, 2*MIN_BLOCK)) {
+         evaluateBlock (fun, x, out, start, n);
+         return;
+      }
+      int nb = Math.min (n / MIN_BLOCK,
+                         4*ForkJoinPool.getCommonPoolParallelism());
+      List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+      for (int j = 0; j < nb; j++) {
+         final int a = start + (int)((long)n*j/nb);
+         final int b = start + (int)((long)n*(j + 1)/nb);
+         tasks.add (new Callable<Void>() {
+            public Void call() {
+               evaluateBlock (fun, x, out, a, b - a);
+               return null;
+            }
+         });
+      }
+      try {
+         for (Future<Void> f : ForkJoinPool.commonPool().invokeAll (tasks))
+            f.get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException ("interrupted");
+      } catch (ExecutionException e) {
+         if (e.getCause() instanceof RuntimeException)
+            throw (RuntimeException) e.getCause();
+         throw new IllegalStateException (e.getCause());
+      }
+   }
+
    /**
     * Returns <SPAN CLASS="MATH"><I>f</I> (<I>x</I>)</SPAN>, the density evaluated at $x$.
     * 
@@ -472,4 +533,236 @@ public abstract class ContinuousDistribution implements Distribution  {
    public void setXsup (double xb) {
       supportB = xb;
    }
+
+
+   /**
+    * Returns a distribution equal to this one, whose methods compute
+    *  approximations with at least roughly <TT>d</TT> decimal digits of
+    *  precision, using the fastest implementation known to meet this
+    *  precision.  A program which needs only a few digits, for example in
+    *  the inner loop of a simulation, can thus avoid paying for the full
+    *  precision.  The returned object may be this object, a new object of
+    *  a faster class with the same parameters, or a new object of the same
+    *  class computing with fewer digits (see <TT>decPrec</TT>).
+    *  The following table gives the choices made by the subclasses that
+    *  override this method, where <SPAN CLASS="MATH"><I>n</I></SPAN> is the parameter of the distribution.
+    *  The precisions were measured by comparing the methods <TT>cdf</TT>,
+    *  <TT>barF</TT> and <TT>inverseF</TT> of both implementations (the
+    *  error on the inverse is absolute for 
+    * <SPAN CLASS="MATH">| <I>x</I>|&nbsp;&lt;=&nbsp;1</SPAN> and relative otherwise),
+    *  except for the Kolmogorov-Smirnov and Anderson-Darling distributions,
+    *  where they are those documented for the distribution functions of the
+    *  faster classes.
+    *  The speedup is the ratio of the times taken by <TT>inverseF</TT>.
+    * 
+    * <P>
+    * <DIV ALIGN="CENTER">
+    * <TABLE CELLPADDING=3 BORDER="1">
+    * <TR><TD ALIGN="LEFT">Class</TD>
+    * <TD ALIGN="LEFT">Faster implementation</TD>
+    * <TD ALIGN="LEFT">Used when</TD>
+    * <TD ALIGN="CENTER">Speedup of <TT>inverseF</TT></TD>
+    * </TR>
+    * <TR><TD ALIGN="LEFT"><TT>NormalDist</TT></TD>
+    * <TD ALIGN="LEFT"><TT>NormalDistQuick</TT></TD>
+    * <TD ALIGN="LEFT"><SPAN CLASS="MATH"><I>d</I> &lt;= 6</SPAN></TD>
+    * <TD ALIGN="CENTER">4</TD>
+    * </TR>
+    * <TR><TD ALIGN="LEFT"><TT>StudentDist</TT></TD>
+    * <TD ALIGN="LEFT"><TT>StudentDistQuick</TT></TD>
+    * <TD ALIGN="LEFT"><SPAN CLASS="MATH"><I>d</I> &lt;= 4 for 3 &lt;= <I>n</I> &lt; 10, <I>d</I> &lt;= 6 for 10 &lt;= <I>n</I> &lt; 100, <I>d</I> &lt;= 10 for <I>n</I> &gt;= 100</SPAN></TD>
+    * <TD ALIGN="CENTER">2 to 13</TD>
+    * </TR>
+    * <TR><TD ALIGN="LEFT"><TT>ChiSquareDist</TT></TD>
+    * <TD ALIGN="LEFT"><TT>ChiSquareDistQuick</TT></TD>
+    * <TD ALIGN="LEFT"><SPAN CLASS="MATH"><I>d</I> &lt;= 13 for <I>n</I> = 2, <I>d</I> &lt;= 5 for <I>n</I> = 1 or <I>n</I> &gt;= 50, <I>d</I> &lt;= 2 otherwise</SPAN></TD>
+    * <TD ALIGN="CENTER">3 to 24</TD>
+    * </TR>
+    * <TR><TD ALIGN="LEFT"><TT>KolmogorovSmirnovDist</TT></TD>
+    * <TD ALIGN="LEFT"><TT>KolmogorovSmirnovDistQuick</TT></TD>
+    * <TD ALIGN="LEFT"><SPAN CLASS="MATH"><I>d</I> &lt;= 10 for <I>n</I> &lt;= 500, <I>d</I> &lt;= 6 for <I>n</I> &lt;= 100000</SPAN></TD>
+    * <TD ALIGN="CENTER">1.5 to 7</TD>
+    * </TR>
+    * <TR><TD ALIGN="LEFT"><TT>AndersonDarlingDist</TT></TD>
+    * <TD ALIGN="LEFT"><TT>AndersonDarlingDistQuick</TT></TD>
+    * <TD ALIGN="LEFT"><SPAN CLASS="MATH"><I>d</I> &lt;= 2 for <I>n</I> &gt; 6</SPAN></TD>
+    * <TD ALIGN="CENTER">--</TD>
+    * </TR>
+    * <TR><TD ALIGN="LEFT"><TT>GammaDist</TT>, <TT>BetaDist</TT>, <TT>BetaSymmetricalDist</TT></TD>
+    * <TD ALIGN="LEFT">same class, <TT>decPrec</TT> = min(d + 2, 15)</TD>
+    * <TD ALIGN="LEFT"><SPAN CLASS="MATH"><I>d</I> &lt;= 12</SPAN></TD>
+    * <TD ALIGN="CENTER">1.5 to 4</TD>
+    * </TR>
+    * </TABLE>
+    * </DIV>
+    * 
+    * <P>
+    * The default implementation returns this object.
+    *  Restrictions: 
+    * <SPAN CLASS="MATH">1&nbsp;&lt;=&nbsp;<I>d</I>&nbsp;&lt;=&nbsp;15</SPAN>.
+    * 
+    * @param d the number of decimal digits of precision required
+    * 
+    *    @return a distribution equal to this one with this precision
+    * 
+    */
+   public ContinuousDistribution withPrecision (int d) {
+      checkPrecision (d);
+      return this;
+   }
+
+   // Throws an exception if d is not a valid number of decimal digits.
+   static void checkPrecision (int d) {
+      if (d <= 0)
+         throw new IllegalArgumentException ("d <= 0");
+      if (d > Num.DBL_DIG)
+         throw new IllegalArgumentException ("d > " + Num.DBL_DIG);
+   }
+
+   // Value of decPrec giving roughly d decimal digits of precision,
+   // for the methods whose precision is controlled by decPrec.
+   static int decPrecFor (int d) {
+      checkPrecision (d);
+      return Math.min (d + 2, Num.DBL_DIG);
+   }
+
+
+   /**
+    * Computes <TT>out[i]</TT> = <TT>cdf(x[i])</TT> for
+    *    <TT>i</TT> = <TT>start</TT>,..., <TT>start + n - 1</TT>.
+    *    The arrays <TT>x</TT> and <TT>out</TT> may be the same.
+    *    The values are the same as with <TT>n</TT> calls to
+    *    {@link #cdf(double) cdf}, but some subclasses compute them
+    *    faster, by computing the constants that depend only on the parameters
+    *    once for the whole array.  If <TT>n</TT> is at least the
+    *    parallel threshold (see {@link #setParallelThreshold setParallelThreshold}),
+    *    the values are computed by several threads.
+    * 
+    * @param x values at which the distribution function is evaluated
+    * 
+    *    @param out array in which the results are stored
+    * 
+    *    @param start index of the first value in <TT>x</TT> and <TT>out</TT>
+    * 
+    *    @param n number of values
+    * 
+    *    @exception IllegalArgumentException if <TT>n</TT> is negative or
+    *      if an array is too short
+    * 
+    * 
+    */
+   public void cdf (double[] x, double[] out, int start, int n) {
+      evaluate (CDF, x, out, start, n);
+   }
+
+
+   /**
+    * Similar to {@link #cdf(double[],double[],int,int) cdf}<TT>(x, out, start, n)</TT>,
+    *    for the complementary distribution function.
+    * 
+    */
+   public void barF (double[] x, double[] out, int start, int n) {
+      evaluate (BARF, x, out, start, n);
+   }
+
+
+   /**
+    * Similar to {@link #cdf(double[],double[],int,int) cdf}<TT>(x, out, start, n)</TT>,
+    *    for the density.
+    * 
+    */
+   public void density (double[] x, double[] out, int start, int n) {
+      evaluate (DENSITY, x, out, start, n);
+   }
+
+
+   /**
+    * Similar to {@link #cdf(double[],double[],int,int) cdf}<TT>(u, out, start, n)</TT>,
+    *    for the inverse distribution function.  For example,
+    *    <TT>inverseF (u, u, 0, u.length)</TT> replaces the uniforms of
+    *    <TT>u</TT> by the corresponding values of <SPAN CLASS="MATH"><I>F</I><SUP>-1</SUP></SPAN>.
+    * 
+    */
+   public void inverseF (double[] u, double[] out, int start, int n) {
+      evaluate (INVERSEF, u, out, start, n);
+   }
+
+
+   /**
+    * Sets to <TT>n</TT> the parallel threshold of the array methods of all
+    *    continuous distributions: arrays of at least <TT>n</TT> values are
+    *    divided into blocks computed in parallel in the common pool of
+    *    {@link java.util.concurrent.ForkJoinPool ForkJoinPool}.
+    *    This requires the methods of the distributions to be thread-safe,
+    *    which is the case for the distributions of this package, whose
+    *    parameters are not modified during the computation.
+    *    By default, the threshold is <TT>Integer.MAX_VALUE</TT>, that is,
+    *    the computation is sequential.
+    * 
+    * @param n the parallel threshold
+    * 
+    *    @exception IllegalArgumentException if <TT>n</TT> &lt; 1
+    * 
+    * 
+    */
+   public static void setParallelThreshold (int n) {
+      if (n < 1)
+         throw new IllegalArgumentException ("n < 1");
+      parallelThreshold = n;
+   }
+
+
+   /**
+    * Returns the parallel threshold of the array methods.
+    * 
+    */
+   public static int getParallelThreshold() {
+      return parallelThreshold;
+   }
+
+
+   /**
+    * Computes <TT>out[i]</TT> = <TT>cdf(x[i])</TT> for
+    *    <TT>i</TT> = <TT>start</TT>,..., <TT>start + n - 1</TT>, for the
+    *    array methods.  The default implementation calls
+    *    {@link #cdf(double) cdf} <TT>n</TT> times; subclasses may override it
+    *    with a faster computation giving the same values.
+    *    The arguments have been checked, and this method may be called
+    *    concurrently for disjoint blocks of the arrays.
+    * 
+    */
+   protected void cdfBlock (double[] x, double[] out, int start, int n) {
+      for (int i = start; i < start + n; i++)
+         out[i] = cdf (x[i]);
+   }
+
+
+   /**
+    * Same as {@link #cdfBlock cdfBlock}, for the complementary distribution function.
+    * 
+    */
+   protected void barFBlock (double[] x, double[] out, int start, int n) {
+      for (int i = start; i < start + n; i++)
+         out[i] = barF (x[i]);
+   }
+
+
+   /**
+    * Same as {@link #cdfBlock cdfBlock}, for the density.
+    * 
+    */
+   protected void densityBlock (double[] x, double[] out, int start, int n) {
+      for (int i = start; i < start + n; i++)
+         out[i] = density (x[i]);
+   }
+
+
+   /**
+    * Same as {@link #cdfBlock cdfBlock}, for the inverse distribution function.
+    * 
+    */
+   protected void inverseFBlock (double[] u, double[] out, int start, int n) {
+      for (int i = start; i < start + n; i++)
+         out[i] = inverseF (u[i]);
+   }
 }
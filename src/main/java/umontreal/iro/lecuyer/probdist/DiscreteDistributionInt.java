@@ -49,8 +49,12 @@ package umontreal.iro.lecuyer.probdist;
  * The non-static methods require the creation of an object of
  * class {@link umontreal.iro.lecuyer.probdist.DiscreteDistributionInt DiscreteDistributionInt};
  * all the non-negligible terms of the mass and distribution functions will be
- * precomputed by the constructor and kept in arrays. Subsequent accesses
- * will be very fast.
+ * precomputed and kept in arrays. Subsequent accesses will be very fast.
+ * For the distributions that support it, such as {@link PoissonDist} and
+ * {@link BinomialDist}, the arrays are computed at the first call of a
+ * method that needs them, rather than by the constructor, so an object
+ * used only for its mean or its parameters costs no table. The size of the
+ * arrays is bounded by {@link #setMaxTableSize setMaxTableSize}.
  * The static methods do not require the construction of an object.
  * These static methods are not specified in this abstract class because
  * the number and types of their parameters depend on the distribution.
@@ -95,6 +99,18 @@ public abstract class DiscreteDistributionInt implements Distribution {
    protected int supportA = Integer.MIN_VALUE;
    protected int supportB = Integer.MAX_VALUE;
 
+   // When the tables are truncated to a window of getMaxTableSize() values
+   // around the mode, cdfBelow = F(xmin - 1) and barFAbove = bar_F(xmax + 1)
+   // are the masses outside the tables, summed from the terms outside.
+   protected boolean truncated = false;
+   protected double cdfBelow = 0.0;
+   protected double barFAbove = 0.0;
+
+   private boolean indexedSearch = false;
+   private GuideTable guide = null;   // built lazily from cdf
+   private volatile boolean tablesReady = true;
+   private static volatile int maxTableSize = 100000;
+
 
    /**
     * Returns <SPAN CLASS="MATH"><I>p</I>(<I>x</I>)</SPAN>, the probability of $x$.
@@ -213,7 +229,9 @@ public abstract class DiscreteDistributionInt implements Distribution {
     * Returns the inverse distribution function
     *   <SPAN CLASS="MATH"><I>F</I><SUP>-1</SUP>(<I>u</I>)</SPAN>, where 
     * <SPAN CLASS="MATH">0&nbsp;&lt;=&nbsp;<I>u</I>&nbsp;&lt;=&nbsp;1</SPAN>.
-    *   The default implementation uses binary search.
+    *   The default implementation uses binary search, or the guide tables
+    *   if {@link #setIndexedSearch setIndexedSearch}<TT>(true)</TT> has been
+    *   called; both searches return the same values.
     * 
     * @param u value in the interval <SPAN CLASS="MATH">(0, 1)</SPAN> for which
     *              the inverse distribution function is evaluated
@@ -235,12 +253,16 @@ public abstract class DiscreteDistributionInt implements Distribution {
          return supportA;
       if (u >= 1.0)
          return supportB;
+      requireTables();
 
 
       // Remember: the upper part of cdf contains the complementary distribu-
       // tion for xmed < s <= xmax, and the lower part of cdf the
       // distribution for xmin <= x <= xmed
 
+      if (indexedSearch)
+         return indexedInverseFInt (u);
+
       if (u <= cdf[xmed - xmin]) {
          // In the lower part of cdf
          if (u <= cdf[0])
@@ -276,4 +298,304 @@ public abstract class DiscreteDistributionInt implements Distribution {
       return i + xmin;
    }
 
+
+   /**
+    * Selects the search used by the default implementation of
+    *    {@link #inverseFInt inverseFInt}. If <TT>indexed</TT> is <TT>true</TT>,
+    *    the inverse is computed by indexed search (the method of Chen and Asau):
+    *    the interval <SPAN CLASS="MATH">[0, 1]</SPAN> is divided into as many cells as there are
+    *    values in the precomputed tables, and a guide table gives, for each
+    *    cell, where to start a sequential search in the table of the
+    *    distribution function.  The expected number of comparisons is then
+    *    bounded by a constant, instead of growing logarithmically with the
+    *    size of the table as for binary search.  The guide tables are
+    *    built at the first call of the inverse, and built again when
+    *    the parameters of the distribution are changed.  If <TT>indexed</TT> is
+    *    <TT>false</TT> (the default), binary search is used.
+    * 
+    * <P>
+    * The two searches return exactly the same values, so
+    *    inversion stays monotone and the choice has no effect on
+    *    simulations with common random numbers.  Indexed search pays off
+    *    when the inverse is called many times with the same parameters,
+    *    for instance with a {@link PoissonDist} of large mean.
+    * 
+    * @param indexed <TT>true</TT> to use indexed search,
+    *    <TT>false</TT> to use binary search
+    * 
+    * 
+    */
+   public void setIndexedSearch (boolean indexed) {
+      indexedSearch = indexed;
+      if (!indexed)
+         guide = null;
+   }
+
+
+   /**
+    * Returns <TT>true</TT> if the default implementation of
+    *    {@link #inverseFInt inverseFInt} uses indexed search, and
+    *    <TT>false</TT> if it uses binary search.
+    * 
+    * @return <TT>true</TT> if indexed search is used
+    * 
+    */
+   public boolean getIndexedSearch() {
+      return indexedSearch;
+   }
+
+
+   /**
+    * Sets to <TT>n</TT> the maximal number of values of <SPAN CLASS="MATH"><I>x</I></SPAN> kept in the
+    *    tables of the mass and distribution functions by the distributions
+    *    that build their tables lazily ({@link PoissonDist},
+    *    {@link BinomialDist}, {@link NegativeBinomialDist},
+    *    {@link HypergeometricDist} and their subclasses).
+    *    When the non-negligible terms would need larger tables, only the
+    *    window of <TT>n</TT> values centered on the mode is kept,
+    *    with the masses of the two tails outside the window, and the methods
+    *    fall back on the static methods outside the window.  The
+    *    probabilities in the window and the masses of the tails are
+    *    computed from the mode by the recurrence between successive
+    *    probabilities, then normalized so that their total is 1, so they
+    *    may differ from the static methods in the last bits.
+    *    Each value takes 16 bytes, thus about 1.6 MB with the default.
+    *    This bound replaces the deprecated fields <TT>PoissonDist.MAXLAMBDA</TT>,
+    *    <TT>BinomialDist.MAXN</TT>, <TT>NegativeBinomialDist.MAXN</TT> and
+    *    <TT>HypergeometricDist.MAXN</TT>,
+    *    which are ignored: for example, a {@link PoissonDist} with
+    *    <SPAN CLASS="MATH"><I>&#955;</I> &gt; 10<SUP>5</SUP></SPAN>, which had no tables, now has a window.
+    *    The new bound applies to the tables built after the call.
+    *    The default is 100000.
+    * 
+    * @param n maximal number of values in the tables
+    * 
+    *    @exception IllegalArgumentException if <TT>n</TT> &lt; 1
+    * 
+    * 
+    */
+   public static void setMaxTableSize (int n) {
+      if (n < 1)
+         throw new IllegalArgumentException ("n < 1");
+      maxTableSize = n;
+   }
+
+
+   /**
+    * Returns the maximal number of values kept in the tables.
+    * 
+    */
+   public static int getMaxTableSize() {
+      return maxTableSize;
+   }
+
+
+   /**
+    * Returns the number of bytes taken by the precomputed tables of this
+    *    object, or 0 if they have not been computed yet.  This method does
+    *    not compute the tables.
+    * 
+    * @return the memory used by the tables, in bytes
+    * 
+    */
+   public long getTableMemory() {
+      if (!tablesReady)
+         return 0;
+      long mem = 0;
+      double[] t = pdf;
+      if (t != null)
+         mem += 8L*t.length;
+      t = cdf;
+      if (t != null)
+         mem += 8L*t.length;
+      GuideTable g = guide;
+      if (g != null)
+         mem += 4L*(g.lower.length + g.upper.length);
+      return mem;
+   }
+
+
+   /**
+    * Discards the tables of this object; they will be computed by
+    *    {@link #createTables createTables} at the first call of
+    *    {@link #requireTables requireTables}.  The subclasses that build
+    *    their tables lazily call this method when their parameters change.
+    * 
+    */
+   protected void resetTables() {
+      synchronized (this) {
+         pdf = null;
+         cdf = null;
+         guide = null;
+         truncated = false;
+         cdfBelow = barFAbove = 0.0;
+         tablesReady = false;
+      }
+   }
+
+
+   /**
+    * Computes the tables by calling {@link #createTables createTables},
+    *    if they have been discarded by {@link #resetTables resetTables}
+    *    and not computed since.  The methods that use <TT>pdf</TT> or
+    *    <TT>cdf</TT> call this method first.  It is thread-safe.
+    * 
+    */
+   protected final void requireTables() {
+      if (!tablesReady) {
+         synchronized (this) {
+            if (!tablesReady) {
+               createTables();
+               tablesReady = true;
+            }
+         }
+      }
+   }
+
+
+   /**
+    * Computes the tables <TT>pdf</TT> and <TT>cdf</TT> and the fields
+    *    <TT>xmin</TT>, <TT>xmed</TT> and <TT>xmax</TT>, or leaves the
+    *    tables <TT>null</TT>.  It must use only the static methods of the
+    *    distribution, since the non-static ones call
+    *    {@link #requireTables requireTables}.  The default implementation
+    *    does nothing.
+    * 
+    */
+   protected void createTables() {
+   }
+
+
+   /**
+    * Sets the tables to the truncated tables of the values
+    *    <TT>a</TT>,..., <TT>a + P.length - 1</TT>, where <TT>P</TT> contains
+    *    their probabilities, and <TT>below</TT> and <TT>above</TT> are
+    *    the masses <SPAN CLASS="MATH"><I>F</I>(<I>a</I> - 1)</SPAN> and <SPAN CLASS="MATH">bar(F)(<I>a</I> + <I>P</I>.<I>length</I>)</SPAN> of
+    *    the two tails.  The probabilities are normalized so that their sum
+    *    with the masses of the tails is 1, and the array <TT>P</TT> becomes
+    *    the table <TT>pdf</TT>.
+    * 
+    */
+   protected void setTruncatedTables (int a, double[] P, double below,
+                                      double above) {
+      final int last = P.length - 1;
+      // Renormalize the sum of probabilities to 1
+      double sum = below + above;
+      for (int j = 0; j <= last; j++)
+         sum += P[j];
+      for (int j = 0; j <= last; j++)
+         P[j] /= sum;
+      below /= sum;
+      above /= sum;
+
+      double[] F = new double[P.length];
+      F[0] = below + P[0];
+      int i = 0;
+      while (i < last && F[i] < 0.5) {
+         i++;
+         F[i] = F[i - 1] + P[i];
+      }
+      xmed = a + i;
+      if (i < last) {
+         F[last] = above + P[last];
+         for (int j = last - 1; j > i; j--)
+            F[j] = P[j] + F[j + 1];
+      }
+      xmin = a;
+      xmax = a + last;
+      pdf = P;
+      cdf = F;
+      truncated = true;
+      cdfBelow = below;
+      barFAbove = above;
+   }
+
+
+   /**
+    * Returns <TT>true</TT> if the inverse of <TT>u</TT> is in the
+    *    tables, that is, if they are not truncated or if
+    *    <TT>cdfBelow</TT> &lt; <TT>u</TT> &lt;= 1 - <TT>barFAbove</TT>.
+    * 
+    */
+   protected boolean tablesCover (double u) {
+      return !truncated || (u > cdfBelow && u <= 1.0 - barFAbove);
+   }
+
+
+   // Same as the binary search in inverseFInt, for 0 < u < 1, but starts
+   // a sequential search at the index given by the guide table of the cell
+   // of u.  The comparisons are the same, so the result is the same.
+   private int indexedInverseFInt (double u) {
+      GuideTable g = guide;
+      if (g == null || g.cdf != cdf) {
+         g = new GuideTable (cdf, xmed - xmin);
+         guide = g;
+      }
+      final double[] F = g.cdf;
+      int i;
+      if (u <= F[g.med]) {
+         // In the lower part of cdf
+         i = g.lower[(int)(u * g.m)];
+         while (u > F[i])
+            i++;
+      } else {
+         // In the upper part of cdf
+         u = 1 - u;
+         final int last = F.length - 1;
+         if (u < F[last])
+            return xmax;
+         int c = (int)(u * g.m);
+         i = c < g.upper.length ? g.upper[c] : g.med + 1;
+         while (i <= last && u < F[i])
+            i++;
+         i--;
+      }
+      return i + xmin;
+   }
+
+
+   /*
+     Guide tables for the cdf array, with m = cdf.length cells [c/m, (c+1)/m)
+     in [0, 1], the cell of x being (int)(x*m).  For the lower part
+     (k <= med), lower[c] is the smallest k with cell(cdf[k]) >= c: if
+     u <= cdf[med] is in cell c, the smallest k with u <= cdf[k] is at least
+     lower[c].  For the upper part (k > med), where cdf is non-increasing,
+     upper[c] is the smallest k > med with cell(cdf[k]) <= c: if 1 - u is in
+     cell c, the smallest k with cdf[k] <= 1 - u is at least upper[c].
+     The fields are final, so a table can be shared by threads without
+     synchronization.
+   */
+   private static final class GuideTable {
+      final double[] cdf;
+      final int med;
+      final double m;
+      final int[] lower;
+      final int[] upper;
+
+      GuideTable (double[] cdf, int med) {
+         this.cdf = cdf;
+         this.med = med;
+         m = cdf.length;
+         final int last = cdf.length - 1;
+
+         int n = (int)(cdf[med] * m) + 1;
+         lower = new int[n];
+         int k = 0;
+         for (int c = 0; c < n; c++) {
+            while (k < med && (int)(cdf[k] * m) < c)
+               k++;
+            lower[c] = k;
+         }
+
+         n = med < last ? (int)(cdf[med + 1] * m) + 1 : 0;
+         upper = new int[n];
+         k = med + 1;
+         for (int c = n - 1; c >= 0; c--) {
+            while (k <= last && (int)(cdf[k] * m) > c)
+               k++;
+            upper[c] = k;
+         }
+      }
+   }
+
 }
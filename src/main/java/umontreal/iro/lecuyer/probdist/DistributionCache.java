@@ -0,0 +1,284 @@
+
+
+/*
+ * Class:        DistributionCache
+ * Description:  bounded cache of distribution objects keyed by their
+                 class and parameters
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.probdist;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+
+/**
+ * Keeps the objects whose construction is expensive, such as
+ * distributions with precomputed tables, in a bounded cache, with
+ * a key made of their class and of the values of their parameters.
+ * When the cache is full, the least recently used object is removed.
+ * The objects of the cache are shared: they must not be modified once
+ * they are in the cache (for instance, the parameters of a cached
+ * distribution must not be changed).
+ * The methods of this class are thread-safe, and an object of the cache
+ * may be used by several threads when its methods do not modify it, as
+ * the methods <TT>cdf</TT>, <TT>inverseF</TT>, etc., of the distributions.
+ * 
+ * <P>
+ * The static methods <TT>nextInt</TT> of {@link umontreal.iro.lecuyer.randvar.PoissonGen PoissonGen},
+ * {@link umontreal.iro.lecuyer.randvar.BinomialGen BinomialGen},
+ * {@link umontreal.iro.lecuyer.randvar.NegativeBinomialGen NegativeBinomialGen} and
+ * {@link umontreal.iro.lecuyer.randvar.HypergeometricGen HypergeometricGen},
+ * and the method
+ * {@link DistributionFactory#getCachedDistribution DistributionFactory.getCachedDistribution}
+ * use the default cache returned by {@link #getDefault getDefault}.  Its
+ * capacity is 0 by default, so nothing is kept, and these static methods
+ * then compute each value without building the tables of the distribution.
+ * When a simulation uses a small set of parameter values many times, the
+ * tables are built once by setting a positive capacity, e.g.,
+ * <TT>DistributionCache.getDefault().setCapacity (100)</TT>.  The counters
+ * of hits and misses show if the capacity is large enough.
+ * 
+ */
+public class DistributionCache {
+   private static final DistributionCache defaultCache =
+      new DistributionCache (0);
+
+   private final LinkedHashMap<Key,Object> map =
+      new LinkedHashMap<Key,Object> (16, 0.75f, true) {
+         protected boolean removeEldestEntry (Map.Entry<Key,Object> e) {
+            return size() > capacity;
+         }
+      };
+   private volatile int capacity;
+   private long hits = 0;
+   private long misses = 0;
+
+
+
+   /**
+    * Constructs a cache that can contain at most <TT>capacity</TT> objects.
+    * 
+    * @param capacity the maximal number of objects in the cache
+    * 
+    *    @exception IllegalArgumentException if <TT>capacity</TT> is negative
+    * 
+    * 
+    */
+   public DistributionCache (int capacity) {
+      if (capacity < 0)
+         throw new IllegalArgumentException ("capacity < 0");
+      this.capacity = capacity;
+   }
+
+
+   /**
+    * Returns the default cache, used by the static methods of the
+    *    generators and by {@link DistributionFactory}.
+    * 
+    * @return the default cache
+    * 
+    */
+   public static DistributionCache getDefault() {
+      return defaultCache;
+   }
+
+
+   /**
+    * Returns the object of class <TT>type</TT> with parameters
+    *    <TT>params</TT> from the cache.  If there is none, the object is
+    *    constructed by <TT>setup</TT>, added to the cache, and returned.
+    *    The construction is done outside of the lock of the cache, so
+    *    several threads may construct the same object at the same time; only
+    *    one of them is kept.  The array <TT>params</TT> is copied only when
+    *    the object is added to the cache, so the caller may modify it
+    *    afterwards.
+    * 
+    * @param type the class of the object, which is part of the key
+    * 
+    *    @param params the values of the parameters of the object
+    * 
+    *    @param setup constructs the object if it is not in the cache
+    * 
+    *    @return the object with the given class and parameters
+    * 
+    */
+   public <T> T get (Class<T> type, double[] params,
+                     Supplier<? extends T> setup) {
+      return type.cast (get (new Key (type, params, null), setup));
+   }
+
+
+   /**
+    * Similar to {@link #get(Class,double[],Supplier) get}<TT>(Class, double[], Supplier)</TT>,
+    *    with the parameters given by the string <TT>params</TT>.
+    * 
+    */
+   public <T> T get (Class<T> type, String params,
+                     Supplier<? extends T> setup) {
+      return type.cast (get (new Key (type, null, params), setup));
+   }
+
+
+   private Object get (Key key, Supplier<?> setup) {
+      synchronized (this) {
+         Object obj = map.get (key);
+         if (obj != null) {
+            hits++;
+            return obj;
+         }
+         misses++;
+      }
+      Object obj = setup.get();
+      synchronized (this) {
+         Object prev = map.get (key);
+         if (prev != null)
+            return prev;
+         if (obj != null && capacity > 0)
+            map.put (key.copy(), obj);
+      }
+      return obj;
+   }
+
+
+   /**
+    * Returns the maximal number of objects in this cache.
+    * 
+    * @return the capacity of the cache
+    * 
+    */
+   public int getCapacity() {
+      return capacity;
+   }
+
+
+   /**
+    * Sets the maximal number of objects in this cache to <TT>capacity</TT>.
+    *    If the cache contains more objects, the least recently used ones
+    *    are removed.
+    * 
+    * @param capacity the maximal number of objects in the cache
+    * 
+    *    @exception IllegalArgumentException if <TT>capacity</TT> is negative
+    * 
+    * 
+    */
+   public synchronized void setCapacity (int capacity) {
+      if (capacity < 0)
+         throw new IllegalArgumentException ("capacity < 0");
+      this.capacity = capacity;
+      java.util.Iterator<Key> it = map.keySet().iterator();
+      while (map.size() > capacity) {
+         it.next();
+         it.remove();
+      }
+   }
+
+
+   /**
+    * Returns the number of objects in this cache.
+    * 
+    * @return the number of objects in the cache
+    * 
+    */
+   public synchronized int size() {
+      return map.size();
+   }
+
+
+   /**
+    * Returns the number of calls to <TT>get</TT> which found the object
+    *    in the cache.
+    * 
+    * @return the number of hits
+    * 
+    */
+   public synchronized long getHits() {
+      return hits;
+   }
+
+
+   /**
+    * Returns the number of calls to <TT>get</TT> which had to construct
+    *    the object.
+    * 
+    * @return the number of misses
+    * 
+    */
+   public synchronized long getMisses() {
+      return misses;
+   }
+
+
+   /**
+    * Removes all the objects from this cache, and resets the counters of
+    *    hits and misses to 0.
+    * 
+    */
+   public synchronized void clear() {
+      map.clear();
+      hits = misses = 0;
+   }
+
+
+   public synchronized String toString() {
+      return "DistributionCache: " + map.size() + " objects (capacity " +
+             capacity + "), " + hits + " hits, " + misses + " misses";
+   }
+
+
+   private static final class Key {
+      private final Class<?> type;
+      private final double[] params;
+      private final String str;
+      private final int hash;
+
+      Key (Class<?> type, double[] params, String str) {
+         this.type = type;
+         this.params = params;
+         this.str = str;
+         hash = 31*(31*type.hashCode() + Arrays.hashCode (params)) +
+                (str == null ? 0 : str.hashCode());
+      }
+
+      // A key that does not share the array of the caller, to be kept.
+      Key copy() {
+         return params == null ? this : new Key (type, params.clone(), str);
+      }
+
+      public int hashCode() {
+         return hash;
+      }
+
+      public boolean equals (Object o) {
+         if (!(o instanceof Key))
+            return false;
+         Key k = (Key) o;
+         return hash == k.hash && type == k.type &&
+                Arrays.equals (params, k.params) &&
+                (str == null ? k.str == null : str.equals (k.str));
+      }
+   }
+
+}
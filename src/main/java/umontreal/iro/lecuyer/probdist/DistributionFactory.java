@@ -400,6 +400,25 @@ public class DistributionFactory {
    }
 
 
+   /**
+    * Returns a distribution whose parameters are estimated by the maximum
+    *    likelihood method from the observations accumulated by <TT>acc</TT>.
+    *    This gives the same distribution as the other
+    *    <TT>getDistributionMLE</TT> methods with all these observations in
+    *    a table, without keeping them in memory.
+    * 
+    * @param acc the accumulator of observations
+    * 
+    *    @return the distribution
+    *    @exception IllegalStateException if <TT>acc</TT> has no observation
+    * 
+    * 
+    */
+   public static Distribution getDistributionMLE (MLEAccumulator acc) {
+      return acc.getDistribution();
+   }
+
+
    /**
     * Uses the Java Reflection API to construct a {@link ContinuousDistribution}
     *   object by executing the code contained in the string <TT>str</TT>.
@@ -469,4 +488,31 @@ public class DistributionFactory {
    public static DiscreteDistributionInt getDiscreteDistributionInt (String str) {
       return (DiscreteDistributionInt)getDistribution (str);
    }
+
+
+   /**
+    * Same as {@link #getContinuousDistribution getContinuousDistribution}, but for
+    *   any distribution, and the distribution is taken from the default cache of
+    *   {@link DistributionCache#getDefault DistributionCache.getDefault}, with the
+    *   string <TT>str</TT> as key, if it is there, and added to the cache
+    *   otherwise.  The returned distribution may thus be shared with other
+    *   callers, so its parameters must not be changed.  This avoids
+    *   constructing the same distribution many times, if the capacity of the
+    *   default cache is positive.
+    * 
+    * @param str string that contains a call to the constructor of a
+    *      distribution
+    * 
+    *    @return a distribution object, or <TT>null</TT> if it could not
+    *      be instantiated
+    *    @exception IllegalArgumentException if parsing problems occured when
+    *      reading <TT>str</TT>
+    * 
+    * 
+    */
+   public static Distribution getCachedDistribution (String str) {
+      final String s = str.trim();
+      return DistributionCache.getDefault().get (Distribution.class, s,
+                                                 () -> getDistribution (s));
+   }
 }
@@ -58,15 +58,16 @@ public class GammaDist extends ContinuousDistribution {
    private double alpha;
    private double lambda;
    private double logFactor;      // Log (lambda^alpha / Gamma (alpha))
+   private volatile InverseDistFromDensity prepInv; // prepared inverse, or null
    private static final double ALIM = 1.0E5;
 
    private static class Function implements MathFunction {
       // For MLE
-      private int n;
+      private double n;
       private double empiricalMean;
       private double sumLn;
 
-      public Function (int n, double empiricalMean, double sumLn) {
+      public Function (double n, double empiricalMean, double sumLn) {
          this.n = n;
          this.empiricalMean = empiricalMean;
          this.sumLn = sumLn;
@@ -82,16 +83,46 @@ public class GammaDist extends ContinuousDistribution {
    private static class myFunc implements MathFunction {
       // For inverseF
       protected int d;
-      protected double alp, u;
+      protected double alp, u, lnGam;
 
-      public myFunc (double alp, int d, double u) {
+      public myFunc (double alp, int d, double u, double lnGam) {
          this.alp = alp;
          this.d = d;
          this.u = u;
+         this.lnGam = lnGam;
       }
 
       public double evaluate (double x) {
-         return u - GammaDist.cdf(alp, d, x);
+         return u - GammaDist.cdf(alp, d, x, lnGam);
+      }
+   }
+
+
+   private static class PowerInverse extends InverseDistFromDensity {
+      // Prepared inverse for alpha < 1, where the density is infinite at 0.
+      // The tables are those of T = (lambda X)^alpha, whose density
+      // exp(-t^(1/alpha)) / Gamma(alpha + 1) is bounded, and
+      // X = T^(1/alpha) / lambda. Since the map is increasing, the
+      // u-error of X is that of T.
+      private double alpha, lambda;
+
+      public PowerInverse (final double alpha, double lambda, double eps) {
+         super (new MathFunction() {
+                   final double lnGam1 = Num.lnGamma (alpha + 1.0);
+                   public double evaluate (double t) {
+                      return Math.exp (-Math.pow (t, 1.0/alpha) - lnGam1);
+                   }
+                }, 0.5, eps, 5, 0.0, Double.POSITIVE_INFINITY);
+         this.alpha = alpha;
+         this.lambda = lambda;
+      }
+
+      public double density (double x) {
+         return GammaDist.density (alpha, lambda, x);
+      }
+
+      public double inverseF (double u) {
+         return Math.pow (super.inverseF (u), 1.0/alpha) / lambda;
       }
    }
 
@@ -182,9 +213,55 @@ public class GammaDist extends ContinuousDistribution {
    }
 
    public double inverseF (double u) {
+      InverseDistFromDensity inv = prepInv;
+      if (inv != null)
+         return inv.inverseF (u);
       return inverseF (alpha, decPrec, u)/lambda;
    }
 
+   protected void densityBlock (double[] x, double[] out, int start, int n) {
+      final double am1 = alpha - 1.0;
+      for (int i = start; i < start + n; i++) {
+         if (x[i] <= 0)
+            out[i] = 0.0;
+         else {
+            double z = logFactor + am1 * Math.log(x[i]) - lambda * x[i];
+            out[i] = z > -XBIGM ? Math.exp (z) : 0.0;
+         }
+      }
+   }
+
+   @SuppressWarnings("deprecation")
+   protected void cdfBlock (double[] x, double[] out, int start, int n) {
+      if (decPrec <= 0)
+         throw new IllegalArgumentException ("d <= 0");
+      final double lnGam = Num.lnGamma (alpha);
+      for (int i = start; i < start + n; i++)
+         out[i] = cdf (alpha, decPrec, lambda*x[i], lnGam);
+   }
+
+   @SuppressWarnings("deprecation")
+   protected void barFBlock (double[] x, double[] out, int start, int n) {
+      if (decPrec <= 0)
+         throw new IllegalArgumentException ("d <= 0");
+      final double lnGam = Num.lnGamma (alpha);
+      for (int i = start; i < start + n; i++)
+         out[i] = barF (alpha, decPrec, lambda*x[i], lnGam);
+   }
+
+   @SuppressWarnings("deprecation")
+   protected void inverseFBlock (double[] u, double[] out, int start, int n) {
+      InverseDistFromDensity inv = prepInv;
+      if (inv != null) {
+         for (int i = start; i < start + n; i++)
+            out[i] = inv.inverseF (u[i]);
+         return;
+      }
+      final double lnGam = Num.lnGamma (alpha);
+      for (int i = start; i < start + n; i++)
+         out[i] = inverseF (alpha, decPrec, u[i], lnGam)/lambda;
+   }
+
    public double getMean() {
       return GammaDist.getMean (alpha, lambda);
    }
@@ -242,6 +319,17 @@ public class GammaDist extends ContinuousDistribution {
         throw new IllegalArgumentException ("alpha <= 0");
       if (d <= 0)
         throw new IllegalArgumentException ("d <= 0");
+      return cdf (alpha, d, x, Double.NaN);
+   }
+
+
+   /*
+    * The computations of cdf (alpha, d, x), barF (alpha, d, x) and
+    * inverseF (alpha, d, u), without checking alpha and d, where lnGam is
+    * Num.lnGamma (alpha), or NaN if it has not been computed yet.  The
+    * array methods compute lnGam once for the whole array.
+    */
+   static double cdf (double alpha, int d, double x, double lnGam) {
       if (x <= 0.0)
          return 0.0;
       if (1.0 == alpha)
@@ -265,7 +353,9 @@ public class GammaDist extends ContinuousDistribution {
 
       if (x <= 1.0 || x < alpha) {
          double factor, z, rn, term;
-         factor = Math.exp (alpha*Math.log (x) - x - Num.lnGamma (alpha));
+         if (Double.isNaN (lnGam))
+            lnGam = Num.lnGamma (alpha);
+         factor = Math.exp (alpha*Math.log (x) - x - lnGam);
          final double EPS = EPSARRAY[d];
          z = 1.0;
          term = 1.0;
@@ -278,7 +368,7 @@ public class GammaDist extends ContinuousDistribution {
          return z*factor/alpha;
 
       } else
-         return 1.0 - barF (alpha, d, x);
+         return 1.0 - barF (alpha, d, x, lnGam);
    }
 
 
@@ -300,6 +390,11 @@ public class GammaDist extends ContinuousDistribution {
         throw new IllegalArgumentException ("alpha <= 0");
       if (d <= 0)
         throw new IllegalArgumentException ("d <= 0");
+      return barF (alpha, d, x, Double.NaN);
+   }
+
+
+   static double barF (double alpha, int d, double x, double lnGam) {
       if (x <= 0.0)
          return 1.0;
       if (1.0 == alpha)
@@ -322,14 +417,16 @@ public class GammaDist extends ContinuousDistribution {
       }
 
       if (x <= 1.0 || x < alpha)
-         return 1.0 - cdf (alpha, d, x);
+         return 1.0 - cdf (alpha, d, x, lnGam);
 
       double[] V = new double[6];
       final double EPS = EPSARRAY[d];
       final double RENORM = 1.0E100;
       double R, dif;
       int i;
-      double factor = Math.exp (alpha*Math.log (x) - x - Num.lnGamma (alpha));
+      if (Double.isNaN (lnGam))
+         lnGam = Num.lnGamma (alpha);
+      double factor = Math.exp (alpha*Math.log (x) - x - lnGam);
 
       double A = 1.0 - alpha;
       double B = A + x + 1.0;
@@ -381,6 +478,11 @@ public class GammaDist extends ContinuousDistribution {
    public static double inverseF (double alpha, int d, double u) {
       if (alpha <= 0.0)
          throw new IllegalArgumentException ("alpha <= 0");
+      return inverseF (alpha, d, u, Double.NaN);
+   }
+
+
+   static double inverseF (double alpha, int d, double u, double lnGam) {
       if (u > 1.0 || u < 0.0)
          throw new IllegalArgumentException ("u not in [0,1]");
       if (u <= 0.0)
@@ -392,16 +494,18 @@ public class GammaDist extends ContinuousDistribution {
       if (d > 15)
          d = 15;
       final double EPS = Math.pow (10.0, -d);
+      if (Double.isNaN (lnGam))
+         lnGam = Num.lnGamma (alpha);
 
       double sigma = GammaDist.getStandardDeviation (alpha, 1.0);
       double x = NormalDist.inverseF (alpha, sigma, u);
-      double v = GammaDist.cdf (alpha, d, x);
+      double v = GammaDist.cdf (alpha, d, x, lnGam);
       double xmax;
       if (alpha < 1.0)
          xmax = 100.0;
       else
          xmax = alpha + 40.0 * sigma;
-      myFunc f = new myFunc (alpha, d, u);
+      myFunc f = new myFunc (alpha, d, u, lnGam);
 
      if (u <= 1.0e-8 || alpha <= 1.5) {
          if (v < u)
@@ -435,15 +539,11 @@ public class GammaDist extends ContinuousDistribution {
     * 
     */
    public static double[] getMLE (double[] x, int n) {
-      double parameters[];
       double sum = 0.0;
       double sumLn = 0.0;
       double empiricalMean;
-      double alphaMME;
-      double a;
       final double LN_EPS = Num.LN_DBL_MIN - Num.LN2;
 
-      parameters = new double[2];
       if (n <= 0)
          throw new IllegalArgumentException ("n <= 0");
       for (int i = 0; i < n; i++)
@@ -461,7 +561,21 @@ public class GammaDist extends ContinuousDistribution {
          sum += (x[i] - empiricalMean) * (x[i] - empiricalMean);
       }
 
-      alphaMME = (empiricalMean * empiricalMean * (double) n) / sum;
+      return getMLE ((double) n, empiricalMean, sum, sumLn);
+   }
+
+
+   // Same as getMLE (x, n), from the number n of observations, their mean,
+   // the sum of their squared deviations from the mean, and the sum of
+   // their logarithms.  Used also by MLEAccumulator.
+   static double[] getMLE (double n, double empiricalMean, double ssd,
+                           double sumLn) {
+      double parameters[];
+      double alphaMME;
+      double a;
+
+      parameters = new double[2];
+      alphaMME = (empiricalMean * empiricalMean * n) / ssd;
       if ((a = alphaMME - 10.0) <= 0) {
          a = 1.0e-5;
       }
@@ -565,6 +679,52 @@ public class GammaDist extends ContinuousDistribution {
    }
 
 
+   /**
+    * Prepares a fast inverse for the current parameters of this object.
+    *   The tables of an {@link InverseDistFromDensity} with <SPAN CLASS="MATH"><I>u</I></SPAN>-resolution
+    *   <TT>eps</TT> and interpolating polynomials of order 5 are computed
+    *   once, then the method <TT>inverseF</TT> and the array method
+    *   <TT>inverseF</TT> of this object interpolate in these tables
+    *   instead of computing the inverse with the methods of this class.
+    *   The set-up usually takes a few milliseconds, after which the inverse
+    *   is typically tens to hundreds of times faster, with an error
+    *   <SPAN CLASS="MATH">| <I>F</I>(<I>x</I>) - <I>u</I>|</SPAN> close to <TT>eps</TT> or less.
+    *   When <SPAN CLASS="MATH"><I>&#945;</I> &lt; 1</SPAN>, the density is infinite at 0, so the tables
+    *   are computed for 
+    * <SPAN CLASS="MATH"><I>T</I> = (<I>&#955;X</I>)<SUP><I>&#945;</I></SUP></SPAN>, whose density is bounded,
+    *   and the inverse returns 
+    * <SPAN CLASS="MATH"><I>T</I><SUP>1/<I>&#945;</I></SUP>/<I>&#955;</I></SPAN>; the error is unchanged by this map.
+    *   The set-up time and an estimate of the error are given by the
+    *   methods <TT>getSetupTime</TT> and <TT>estimateUerror</TT> of
+    *   {@link #getPreparedInverse getPreparedInverse}.
+    *   The tables are not modified afterwards, so this object can be used
+    *   by several threads once the inverse is prepared.
+    *   They are discarded when the parameters are changed.
+    *   Restrictions: 
+    * <SPAN CLASS="MATH">10<SUP>-15</SUP> &lt;= <texttt>eps</texttt> &lt;= 10<SUP>-3</SUP></SPAN>.
+    * 
+    * @param eps the <SPAN CLASS="MATH"><I>u</I></SPAN>-resolution of the inverse
+    * 
+    * 
+    */
+   public void prepareInverse (double eps) {
+      if (alpha < 1.0)
+         prepInv = new PowerInverse (alpha, lambda, eps);
+      else
+         prepInv = new InverseDistFromDensity (this, alpha/lambda, eps, 5);
+   }
+
+
+   /**
+    * Returns the inverse prepared by {@link #prepareInverse prepareInverse}
+    *   for the current parameters, or <TT>null</TT> if there is none.
+    * 
+    */
+   public InverseDistFromDensity getPreparedInverse() {
+      return prepInv;
+   }
+
+
    public void setParams (double alpha, double lambda, int d) {
       if (alpha <= 0)
          throw new IllegalArgumentException ("alpha <= 0");
@@ -576,9 +736,26 @@ public class GammaDist extends ContinuousDistribution {
       this.decPrec = d;
       logFactor    = alpha * Math.log(lambda) - Num.lnGamma (alpha);
       supportA = 0.0;
+      prepInv = null;
     } 
 
 
+   /**
+    * Returns a <TT>GammaDist</TT> with the same parameters, computing with
+    *   <TT>decPrec</TT> = <SPAN CLASS="MATH">min(<I>d</I> + 2, 15)</SPAN> decimal digits, or this object
+    *   if it already uses this value of <TT>decPrec</TT>.
+    *   See {@link ContinuousDistribution#withPrecision(int) ContinuousDistribution.withPrecision}.
+    * 
+    */
+   @SuppressWarnings("deprecation")
+   public ContinuousDistribution withPrecision (int d) {
+      int p = decPrecFor (d);
+      if (p == decPrec)
+         return this;
+      return new GammaDist (alpha, lambda, p);
+   }
+
+
    /**
     * Return a table containing the parameters of the current distribution.
     *    This table is put in regular order: [<SPAN CLASS="MATH"><I>&#945;</I></SPAN>, <SPAN CLASS="MATH"><I>&#955;</I></SPAN>].
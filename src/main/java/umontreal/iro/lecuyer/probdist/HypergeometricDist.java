@@ -54,7 +54,8 @@ public class HypergeometricDist extends DiscreteDistributionInt {
    private double p0;
 
 
-   public static double MAXN = 100000;
+   @Deprecated
+   public static double MAXN = 100000;   // Ignored, see setMaxTableSize
 
 
    /**
@@ -70,6 +71,7 @@ public class HypergeometricDist extends DiscreteDistributionInt {
    public double prob (int x) {
       if (x < supportA || x > supportB)
          return 0.0;
+      requireTables();
       if (pdf == null || x < xmin || x > xmax)
          return prob (m, l, k, x);
       return pdf[x - xmin];
@@ -80,7 +82,10 @@ public class HypergeometricDist extends DiscreteDistributionInt {
          return 0.0;
       if (x >= supportB)
          return 1.0;
+      requireTables();
       if (cdf != null) {
+         if (truncated && x >= xmax)
+            return cdf (m, l, k, x);
          if (x >= xmax)
             return 1.0;
          if (x < xmin)
@@ -100,8 +105,9 @@ public class HypergeometricDist extends DiscreteDistributionInt {
          return 1.0;
       if (x > supportB)
          return 0.0;
+      requireTables();
       if (cdf != null) {
-         if (x > xmax)
+         if (x > xmax || (truncated && x <= xmin))
             return barF (m, l, k, x);
          if (x <= xmin)
             return 1.0;
@@ -354,14 +360,18 @@ public class HypergeometricDist extends DiscreteDistributionInt {
    }
 
    private void setHypergeometric() {
-      int imin = Math.max (0, k - l + m);
-      int imax = Math.min (k, m);
-      supportA = imin;
-      supportB = imax;
+      supportA = Math.max (0, k - l + m);
+      supportB = Math.min (k, m);
+      resetTables();
+   }
+
+
+   protected void createTables() {
+      int imin = supportA;
+      int imax = supportB;
       int ns = imax - imin + 1;
-      if (ns > MAXN) {
-         pdf = null;
-         cdf = null;
+      if (ns > getMaxTableSize()) {
+         createTruncatedTables (imin, imax);
          return;
       }
 
@@ -418,6 +428,41 @@ public class HypergeometricDist extends DiscreteDistributionInt {
    }
 
 
+   // Keeps only the window of getMaxTableSize() values centered on the
+   // mode, and sums the terms outside the window until they become
+   // negligible (a subnormal term may no longer decrease, so it stops
+   // there).
+   private void createTruncatedTables (int imin, int imax) {
+      final int len = getMaxTableSize();
+      final int mode = (int)((k + 1.0)*(m + 1.0)/(l + 2.0));
+      final int a = Math.min (Math.max (imin, mode - (len - 1)/2),
+                              imax + 1 - len);
+      final int b = a + len - 1;
+      double below = 0.0, above = 0.0, term;
+      double[] P = new double[len];
+      int i;
+      P[mode - a] = term = prob (m, l, k, mode);
+      for (i = mode; i > imin; i--) {
+         term = term*i/(m - i + 1)*(l - m - k + i)/(k - i + 1);
+         if (i > a)
+            P[i - 1 - a] = term;
+         else if ((below += term) == 0.0 || term <= EPSILON*below
+                  || term < Double.MIN_NORMAL)
+            break;
+      }
+      term = P[mode - a];
+      for (i = mode; i < imax; i++) {
+         term = term*(m - i)/(i + 1)*(k - i)/(l - m - k + i + 1);
+         if (i < b)
+            P[i + 1 - a] = term;
+         else if ((above += term) == 0.0 || term <= EPSILON*above
+                  || term < Double.MIN_NORMAL)
+            break;
+      }
+      setTruncatedTables (a, P, below, above);
+   }
+
+
    /**
     * Return a table containing the parameters of the current distribution.
     *    This table is put in regular order: [<SPAN CLASS="MATH"><I>m</I></SPAN>, <SPAN CLASS="MATH"><I>l</I></SPAN>, <SPAN CLASS="MATH"><I>k</I></SPAN>].
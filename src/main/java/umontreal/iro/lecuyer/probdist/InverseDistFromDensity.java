@@ -28,6 +28,14 @@ package umontreal.iro.lecuyer.probdist;
    import umontreal.iro.lecuyer.functions.MathFunction;
 import umontreal.iro.lecuyer.util.Misc;
 import umontreal.iro.lecuyer.functions.MathFunctionUtil;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 
 
@@ -66,6 +74,16 @@ import umontreal.iro.lecuyer.functions.MathFunctionUtil;
  *  <TT>inverseF</TT> thousands of times or more, then using this class will 
  * be very efficient.
  * 
+ * <P>
+ * The set-up can be shortened in three ways.  The tables can be computed in
+ * parallel, by the constructors with argument <TT>parallel</TT>.  They can be
+ * saved in binary form by {@link #writeTables writeTables}, and read back
+ * in a later run by the constructors with an <TT>InputStream</TT>, which
+ * take a negligible time.  Finally, the object is not modified after its
+ * construction, so it can be shared by several generators, including
+ * generators used by different threads (see for example
+ * {@link umontreal.iro.lecuyer.randvar.InverseFromDensityGen InverseFromDensityGen}).
+ * 
  */
 public class InverseDistFromDensity extends ContinuousDistribution  {
    private final boolean DEBUG = false;
@@ -109,6 +127,10 @@ public class InverseDistFromDensity extends ContinuousDistribution  {
    private double epstail;    // = 0.05*epsu*I0;
    private boolean lcutF = false;    // cut-off flag, left tail
    private boolean rcutF = false;   // cut-off flag, right tail
+   private double setupTime;  // time taken by the set-up, in seconds
+
+   // Identifies the binary form of the tables: "SSJIDFD1"
+   private static final long MAGIC = 0x53534A4944464431L;
 
 
    protected void printArray (double[] U) {
@@ -135,6 +157,7 @@ public class InverseDistFromDensity extends ContinuousDistribution  {
 
 
    private void init (double xc, double epsu, int n) {
+      long t0 = System.nanoTime();
       double[] zs = new double[n + 1];
       double[] ys = new double[n + 1];   // ksi[]
       double[] xs = new double[n + 1];
@@ -227,6 +250,163 @@ public class InverseDistFromDensity extends ContinuousDistribution  {
       }
       reserve(-Kmax, n);
       createIndex (Kmax);
+      setupTime = 1.0e-9*(System.nanoTime() - t0);
+   }
+
+
+   /*
+    * Same as init, but the computational domain [bl, br] is divided into
+    * chunks of equal length whose intervals are computed in parallel.  Each
+    * chunk starts with the initial step h of init, and its last interval is
+    * shortened to end at the end of the chunk; the cdf at the start of
+    * each chunk is the sum of the integrals over the previous ones.
+    */
+   private void initParallel (double xc, double epsu, int n) {
+      long t0 = System.nanoTime();
+      epsu = 0.9*epsu;
+      findSupport(xc);
+
+      double I0 = MathFunctionUtil.gaussLobatto (m_dens, bleft, bright, 1.0e-6);
+      if (I0 > 1.1 || I0 < 0.9)
+         throw new IllegalStateException("NOT a probability density");
+      epstail = 0.05*epsu*I0;
+      epstail = Math.min(epstail, 1.e-10);
+      epstail = Math.max(epstail, 1.e-15);
+      final double tol = epstail;
+      findCutoff (bleft, epstail, false);    // left tail
+      findCutoff (bright, epstail, true);    // right tail
+
+      final int nchunks = 4*Runtime.getRuntime().availableProcessors();
+      final double[] ends = new double[nchunks + 1];
+      for (int j = 0; j < nchunks; j++)
+         ends[j] = bl + j*(br - bl)/nchunks;
+      ends[nchunks] = br;
+      final double h = (br - bl) / K0;
+      final double eps = epsu;
+      final int deg = n;
+      List<Callable<Chunk>> tasks = new ArrayList<Callable<Chunk>>();
+      for (int j = 0; j < nchunks; j++) {
+         final double a = ends[j];
+         final double b = ends[j + 1];
+         tasks.add (new Callable<Chunk>() {
+            public Chunk call() {
+               return tabulate (a, b, Math.min (h, b - a), eps, tol, deg);
+            }
+         });
+      }
+      List<Chunk> chunks = new ArrayList<Chunk>();
+      try {
+         for (Future<Chunk> f : ForkJoinPool.commonPool().invokeAll (tasks))
+            chunks.add (f.get());
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException ("interrupted during the set-up");
+      } catch (ExecutionException e) {
+         if (e.getCause() instanceof RuntimeException)
+            throw (RuntimeException) e.getCause();
+         throw new IllegalStateException (e.getCause());
+      }
+
+      int k = 0;
+      for (Chunk c : chunks)
+         k += c.x.size();
+      Kmax = k;
+      A = new double[Kmax + 1];
+      F = new double[Kmax + 1];
+      X = new double[Kmax + 1][];
+      U = new double[Kmax + 1][];
+      C = new double[Kmax + 1][];
+      if (lcutF)
+         F[0] = epstail;
+      else
+         F[0] = 0;
+      k = 0;
+      for (Chunk c : chunks) {
+         for (int i = 0; i < c.x.size(); i++) {
+            A[k] = c.a.get (i);
+            X[k] = c.x.get (i);
+            U[k] = c.u.get (i);
+            C[k] = c.c.get (i);
+            F[k+1] = F[k] + U[k][n];
+            if (F[k+1] > 1.01)
+               throw new IllegalStateException("Unable to compute CDF");
+            k++;
+         }
+      }
+      X[Kmax] = new double[n+1];
+      U[Kmax] = new double[n+1];
+      C[Kmax] = new double[n+1];
+      A[Kmax] = br;
+      F[Kmax] = 1;
+      while (k > 0 && F[k] >= 1.) {
+         F[k] = 1.;
+         k--;
+      }
+      createIndex (Kmax);
+      setupTime = 1.0e-9*(System.nanoTime() - t0);
+   }
+
+
+   // The intervals computed for a chunk of the domain.
+   private static final class Chunk {
+      final List<Double> a = new ArrayList<Double>();      // left ends
+      final List<double[]> x = new ArrayList<double[]>();  // x-values
+      final List<double[]> u = new ArrayList<double[]>();  // u-values
+      final List<double[]> c = new ArrayList<double[]>();  // coefficients
+   }
+
+
+   // Computes the intervals of [a, b], as in init, starting with step h.
+   private Chunk tabulate (double a, double b, double h, double epsu,
+                           double tol, int n) {
+      double[] zs = new double[n + 1];
+      double[] ys = new double[n + 1];
+      double[] vs = new double[n + 1];
+      final double HMIN = 1.0e-12;     // smallest integration step h
+      calcChebyZ(zs, n);
+      Chunk chunk = new Chunk();
+      double x = a;
+      double eps = 0;
+      while (x < b) {
+         if (h > b - x)
+            h = b - x;
+         double[] xs, us, cs;
+         while (true) {
+            xs = new double[n + 1];
+            us = new double[n + 1];
+            cs = new double[n + 1];
+            calcChebyX(zs, xs, n, h);
+            calcU(m_dens, x, xs, us, n, tol);
+            Misc.interpol(n, us, xs, cs);
+            NTest(us, vs, n);
+            for (int j = 1; j <= n; j++)
+               ys[j] = Misc.evalPoly(n, us, cs, vs[j]);
+            try {
+               eps = calcEps(m_dens, x, ys, vs, n, tol);
+            } catch (IllegalArgumentException e) {
+               if (0.5*h < HMIN)
+                  break;
+               h = 0.5 * h;
+               continue;
+            }
+            if (eps <= epsu || 0.8*h < HMIN)
+               break;
+            h = 0.8 * h;
+         }
+         chunk.a.add (x);
+         chunk.x.add (xs);
+         chunk.u.add (us);
+         chunk.c.add (cs);
+         if (h >= b - x)
+            x = b;
+         else
+            x += h;
+         if (eps < epsu / 3.0)
+            h = 1.3 * h;
+         if (h < HMIN)
+            h = HMIN;
+      }
+      return chunk;
    }
 
    /**
@@ -256,6 +436,27 @@ public class InverseDistFromDensity extends ContinuousDistribution  {
    } 
 
 
+   /**
+    * Same as
+    * {@link #InverseDistFromDensity(ContinuousDistribution,double,double,int) InverseDistFromDensity}<TT>(dist, xc, eps, order)</TT>,
+    * but if <TT>parallel</TT> is <TT>true</TT>, the domain of the density is
+    * divided into a few chunks per processor, whose tables are computed in
+    * parallel in the common pool of {@link java.util.concurrent.ForkJoinPool ForkJoinPool}.
+    * The <SPAN CLASS="MATH"><I>u</I></SPAN>-resolution is the same, but the intervals, hence the values
+    * of the inverse, are not exactly those of the sequential set-up.
+    * The method <TT>density</TT> of <TT>dist</TT> must be thread-safe.
+    * 
+    */
+   public InverseDistFromDensity (ContinuousDistribution dist, double xc,
+                                  double eps, int order, boolean parallel)  {
+      setParams (dist, null, xc, eps, order);
+      if (parallel)
+         initParallel (xc, eps, order);
+      else
+         init (xc, eps, order);
+   }
+
+
    /**
     * Given a continuous probability density <TT>dens</TT>,
     * this class will compute tables for the numerical inverse of
@@ -274,6 +475,74 @@ public class InverseDistFromDensity extends ContinuousDistribution  {
    } 
 
 
+   /**
+    * Same as the previous constructor, but if <TT>parallel</TT> is
+    * <TT>true</TT>, the tables are computed in parallel as described in
+    * {@link #InverseDistFromDensity(ContinuousDistribution,double,double,int,boolean) InverseDistFromDensity}<TT>(dist, xc, eps, order, parallel)</TT>.
+    * The function <TT>dens</TT> must be thread-safe.
+    * 
+    */
+   public InverseDistFromDensity (MathFunction dens, double xc, double eps,
+                                  int order, double xleft, double xright,
+                                  boolean parallel)  {
+      supportA = xleft;
+      supportB = xright;
+      setParams (null, dens, xc, eps, order);
+      if (parallel)
+         initParallel (xc, eps, order);
+      else
+         init (xc, eps, order);
+   }
+
+
+   /**
+    * Reads the tables written by {@link #writeTables writeTables} from
+    * <TT>in</TT>, for the distribution <TT>dist</TT>, which must be the
+    * distribution whose tables were written.  Exactly the bytes of the
+    * tables are read from <TT>in</TT>, which is not closed.
+    * The inverse then gives the same values as with the object whose tables
+    * were written.
+    * 
+    * @param dist the distribution of the tables
+    * 
+    *    @param in the stream from which the tables are read
+    * 
+    *    @exception IOException if an I/O error occurs, or if <TT>in</TT>
+    *      does not contain valid tables
+    * 
+    * 
+    */
+   public InverseDistFromDensity (ContinuousDistribution dist,
+                                  InputStream in) throws IOException {
+      readTables (in);
+      double a = supportA;
+      double b = supportB;
+      setParams (dist, null, xc, epsu0, order);
+      supportA = a;
+      supportB = b;
+   }
+
+
+   /**
+    * Similar to the previous constructor, for the probability density
+    * <TT>dens</TT>.  The boundaries of the density are read from <TT>in</TT>.
+    * 
+    * @param dens the probability density of the tables
+    * 
+    *    @param in the stream from which the tables are read
+    * 
+    *    @exception IOException if an I/O error occurs, or if <TT>in</TT>
+    *      does not contain valid tables
+    * 
+    * 
+    */
+   public InverseDistFromDensity (MathFunction dens, InputStream in)
+          throws IOException {
+      readTables (in);
+      setParams (null, dens, xc, epsu0, order);
+   }
+
+
    /**
     * Computes the probability density at $x$.
     * 
@@ -345,6 +614,49 @@ public class InverseDistFromDensity extends ContinuousDistribution  {
    }
 
 
+   /**
+    * Returns the time taken by the set-up of this object, in seconds, that
+    * is, the time to compute the tables, or to read them if they were read
+    * from a stream.
+    * 
+    */
+   public double getSetupTime() {
+      return setupTime;
+   }
+
+
+   /**
+    * Returns the largest error
+    * <SPAN CLASS="MATH">| <I>F</I>(<I>x</I><SUB>i</SUB>) - <I>u</I><SUB>i</SUB>|</SPAN> over the
+    * <TT>n</TT> points <SPAN CLASS="MATH"><I>u</I><SUB>i</SUB> = (<I>i</I> + 1/2)/<I>n</I></SPAN>,
+    * where <SPAN CLASS="MATH"><I>x</I><SUB>i</SUB></SPAN> is the value of {@link #inverseF inverseF}
+    * at <SPAN CLASS="MATH"><I>u</I><SUB>i</SUB></SPAN> and <SPAN CLASS="MATH"><I>F</I></SPAN> is the distribution function of
+    * <TT>dist</TT>, which must be the distribution of this object.
+    * This gives an estimate of the <SPAN CLASS="MATH"><I>u</I></SPAN>-error of the inverse, which
+    * should not exceed the <SPAN CLASS="MATH"><I>u</I></SPAN>-resolution <TT>eps</TT> (apart from the
+    * error of the distribution function itself).
+    * 
+    * @param dist the distribution of this object
+    * 
+    *    @param n the number of points
+    * 
+    *    @return the largest error at the <TT>n</TT> points
+    * 
+    */
+   public double estimateUerror (ContinuousDistribution dist, int n) {
+      if (n < 1)
+         throw new IllegalArgumentException ("n < 1");
+      double err = 0.0;
+      for (int i = 0; i < n; i++) {
+         double u = (i + 0.5) / n;
+         double e = Math.abs (dist.cdf (inverseF (u)) - u);
+         if (e > err)
+            err = e;
+      }
+      return err;
+   }
+
+
    /**
     * Return a table containing the parameters of the current distribution.
     *    This table is returned as: [<TT>xc</TT>, <TT>eps</TT>, <TT>order</TT>].
@@ -366,6 +678,108 @@ public class InverseDistFromDensity extends ContinuousDistribution  {
    }
 
 
+   /**
+    * Writes the tables of this object to <TT>out</TT> in binary form,
+    *    without closing it.  The tables contain the intervals, the
+    *    coefficients of the interpolating polynomials, and the parameters
+    *    of the tails, that is, about
+    *    <SPAN CLASS="MATH">8(2<I>order</I> + 4)</SPAN> bytes per interval.  They can be read back
+    *    by the constructors with an <TT>InputStream</TT>.
+    * 
+    * @param out the stream to which the tables are written
+    * 
+    *    @exception IOException if an I/O error occurs, or if the tables
+    *      are larger than the largest byte array, about 2 GB
+    * 
+    * 
+    */
+   public void writeTables (OutputStream out) throws IOException {
+      final double[] params = { xc, epsu0, supportA, supportB, bl, br,
+         epstail, llc, lc1, lc2, lc3, rlc, rc1, rc2, rc3 };
+      long size = tableSize (order, Kmax);
+      if (size > MAX_TABLE_SIZE)
+         throw new IOException ("tables of InverseDistFromDensity too large");
+      ByteBuffer buf = ByteBuffer.allocate ((int) size);
+      buf.putLong (MAGIC);
+      buf.putInt (order);
+      buf.putInt (Kmax);
+      for (double p : params)
+         buf.putDouble (p);
+      buf.put ((byte) (lcutF ? 1 : 0));
+      buf.put ((byte) (rcutF ? 1 : 0));
+      for (int k = 0; k <= Kmax; k++) {
+         buf.putDouble (A[k]);
+         buf.putDouble (F[k]);
+      }
+      for (int k = 0; k < Kmax; k++)
+         for (int j = 0; j <= order; j++) {
+            buf.putDouble (U[k][j]);
+            buf.putDouble (C[k][j]);
+         }
+      out.write (buf.array());
+      out.flush();
+   }
+
+
+   // Number of bytes of the tables written by writeTables.
+   private static long tableSize (int order, int Kmax) {
+      return 16 + 15*8 + 2 + 16L*(Kmax + 1L) + 16L*Kmax*(order + 1L);
+   }
+
+   // Largest tables that fit in a byte array.
+   private static final long MAX_TABLE_SIZE = Integer.MAX_VALUE - 8;
+
+
+   private void readTables (InputStream in) throws IOException {
+      long t0 = System.nanoTime();
+      DataInputStream din = new DataInputStream (in);
+      if (din.readLong() != MAGIC)
+         throw new IOException ("not the tables of an InverseDistFromDensity");
+      order = din.readInt();
+      Kmax = din.readInt();
+      if (order < 3 || order > 12 || Kmax < 1)
+         throw new IOException ("invalid tables of InverseDistFromDensity");
+      long size = tableSize (order, Kmax);
+      if (size > MAX_TABLE_SIZE)
+         throw new IOException ("tables of InverseDistFromDensity too large");
+      byte[] bytes = new byte[(int) size - 16];
+      din.readFully (bytes);
+      ByteBuffer buf = ByteBuffer.wrap (bytes);
+      xc = buf.getDouble();
+      epsu0 = buf.getDouble();
+      supportA = buf.getDouble();
+      supportB = buf.getDouble();
+      bl = buf.getDouble();
+      br = buf.getDouble();
+      epstail = buf.getDouble();
+      llc = buf.getDouble();
+      lc1 = buf.getDouble();
+      lc2 = buf.getDouble();
+      lc3 = buf.getDouble();
+      rlc = buf.getDouble();
+      rc1 = buf.getDouble();
+      rc2 = buf.getDouble();
+      rc3 = buf.getDouble();
+      lcutF = buf.get() != 0;
+      rcutF = buf.get() != 0;
+      A = new double[Kmax + 1];
+      F = new double[Kmax + 1];
+      U = new double[Kmax + 1][order + 1];
+      C = new double[Kmax + 1][order + 1];
+      for (int k = 0; k <= Kmax; k++) {
+         A[k] = buf.getDouble();
+         F[k] = buf.getDouble();
+      }
+      for (int k = 0; k < Kmax; k++)
+         for (int j = 0; j <= order; j++) {
+            U[k][j] = buf.getDouble();
+            C[k][j] = buf.getDouble();
+         }
+      createIndex (Kmax);
+      setupTime = 1.0e-9*(System.nanoTime() - t0);
+   }
+
+
    private void createIndex (int Kmax) {
       // create table for indexed search
       Imax = 2*Kmax;
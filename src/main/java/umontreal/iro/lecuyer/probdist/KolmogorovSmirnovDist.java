@@ -444,6 +444,33 @@ public class KolmogorovSmirnovDist extends ContinuousDistribution {
    }
 
 
+   /**
+    * Returns a {@link KolmogorovSmirnovDistQuick} with the same parameter
+    *   <SPAN CLASS="MATH"><I>n</I></SPAN> if <TT>d</TT> is at most its precision, that is,
+    *   <SPAN CLASS="MATH"><I>d</I>&nbsp;&lt;=&nbsp;10</SPAN> for <SPAN CLASS="MATH"><I>n</I>&nbsp;&lt;=&nbsp;500</SPAN> and <SPAN CLASS="MATH"><I>d</I>&nbsp;&lt;=&nbsp;6</SPAN> for
+    *   <SPAN CLASS="MATH">500 &lt; <I>n</I>&nbsp;&lt;=&nbsp;100000</SPAN>, and this object otherwise.
+    *   See {@link ContinuousDistribution#withPrecision(int) ContinuousDistribution.withPrecision}.
+    * 
+    */
+   public ContinuousDistribution withPrecision (int d) {
+      checkPrecision (d);
+      if (d <= quickDigits (n))
+         return new KolmogorovSmirnovDistQuick (n);
+      return this;
+   }
+
+
+   // Decimal digits of precision of KolmogorovSmirnovDistQuick with
+   // parameter n, the smallest of those of cdf and barF.
+   static int quickDigits (int n) {
+      if (n <= NEXACT)
+         return 10;
+      if (n <= 100000)
+         return 6;
+      return 1;
+   }
+
+
    /**
     * Returns an array containing the parameter <SPAN CLASS="MATH"><I>n</I></SPAN> of this object.
     * 
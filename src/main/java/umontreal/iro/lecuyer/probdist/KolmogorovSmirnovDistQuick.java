@@ -89,6 +89,13 @@ public class KolmogorovSmirnovDistQuick extends KolmogorovSmirnovDist  {
       return inverseF (n, u);
    }
 
+   public ContinuousDistribution withPrecision (int d) {
+      checkPrecision (d);
+      if (d <= quickDigits (n))
+         return this;
+      return new KolmogorovSmirnovDist (n);
+   }
+
 
    /**
     * Computes the density for the  distribution with parameter <SPAN CLASS="MATH"><I>n</I></SPAN>.
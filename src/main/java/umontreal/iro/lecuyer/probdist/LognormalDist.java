@@ -104,6 +104,31 @@ public class LognormalDist extends ContinuousDistribution {
       return inverseF (mu, sigma, u);
    }
 
+   protected void densityBlock (double[] x, double[] out, int start, int n) {
+      final double s2 = 2*sigma*sigma;
+      final double c = Math.sqrt (2*Math.PI)*sigma;
+      for (int i = start; i < start + n; i++) {
+         if (x[i] <= 0)
+            out[i] = 0;
+         else {
+            double diff = Math.log (x[i]) - mu;
+            out[i] = Math.exp (-diff*diff/s2)/(c*x[i]);
+         }
+      }
+   }
+
+   protected void cdfBlock (double[] x, double[] out, int start, int n) {
+      for (int i = start; i < start + n; i++)
+         out[i] = x[i] <= 0.0 ? 0.0
+                  : NormalDist.cdf01 ((Math.log (x[i]) - mu)/sigma);
+   }
+
+   protected void barFBlock (double[] x, double[] out, int start, int n) {
+      for (int i = start; i < start + n; i++)
+         out[i] = x[i] <= 0.0 ? 1.0
+                  : NormalDist.barF01 ((Math.log (x[i]) - mu)/sigma);
+   }
+
    public double getMean() {
       return LognormalDist.getMean (mu, sigma);
    }
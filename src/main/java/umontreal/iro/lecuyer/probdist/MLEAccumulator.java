@@ -0,0 +1,396 @@
+
+
+/*
+ * Class:        MLEAccumulator
+ * Description:  maximum likelihood estimation from observations given
+                 by chunks
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.probdist;
+
+import umontreal.iro.lecuyer.util.Num;
+
+
+/**
+ * Estimates the parameters of a distribution by the maximum likelihood
+ * method, from observations given one by one or by chunks, without
+ * keeping them in memory.  The object accumulates the statistics on which
+ * the estimators depend (number of observations, sums, sums of
+ * logarithms, sums of squared deviations, etc.), and
+ * {@link #getMLE getMLE} returns the same estimates as the static method
+ * <TT>getMLE (x, n)</TT> of the distribution class with all the
+ * observations in an array (up to the rounding errors of the sums, which
+ * are not done in the same order).
+ *
+ * <P>
+ * The supported classes are {@link NormalDist}, {@link LognormalDist},
+ * {@link GammaDist}, {@link WeibullDist}, {@link BetaDist},
+ * {@link ExponentialDist}, {@link PoissonDist},
+ * {@link NegativeBinomialDist} and {@link GeometricDist}.
+ * For the discrete distributions, the observations must be integers.
+ * For {@link NegativeBinomialDist}, the accumulator keeps the number
+ * of observations of each value, so its memory grows with the largest
+ * observation.
+ * For {@link WeibullDist}, the estimator of the shape parameter
+ * is the root of an equation that depends on each observation: there
+ * are no statistics of fixed size, and the accumulator keeps the
+ * observations.
+ *
+ * <P>
+ * To process a large sample in parallel, one accumulator is used for
+ * each part of the sample, in a different thread, and the accumulators
+ * are then merged with {@link #merge merge}.  The methods of this class
+ * are not synchronized: an accumulator must not be modified by several
+ * threads at the same time.
+ *
+ */
+public class MLEAccumulator {
+   private static final double LN_EPS = Num.LN_DBL_MIN - Num.LN2;
+
+   // Kinds of distribution, indices in CLASSES.
+   private static final int NORMAL = 0;
+   private static final int LOGNORMAL = 1;
+   private static final int GAMMA = 2;
+   private static final int WEIBULL = 3;
+   private static final int BETA = 4;
+   private static final int EXPONENTIAL = 5;
+   private static final int POISSON = 6;
+   private static final int NEGATIVE_BINOMIAL = 7;
+   private static final int GEOMETRIC = 8;
+   private static final Class<?>[] CLASSES = {
+      NormalDist.class, LognormalDist.class, GammaDist.class,
+      WeibullDist.class, BetaDist.class, ExponentialDist.class,
+      PoissonDist.class, NegativeBinomialDist.class, GeometricDist.class };
+
+   private final Class<? extends Distribution> distClass;
+   private final int kind;
+
+   private long n;
+   private double sum;            // sum of the x_i
+   private double mean;           // running mean of the x_i
+   private double ssd;            // sum of squared deviations from mean
+   private double sumLn;          // sum of the ln x_i
+   private double meanLn;         // running mean of the ln x_i
+   private double ssdLn;          // sum of squared deviations from meanLn
+   private double sumLn1;         // sum of the ln (1 - x_i)
+   private double[] obs;          // the observations, for WeibullDist
+   private long[] count;          // count[j] = number of x_i = j
+   private int max;               // largest x_i, for NegativeBinomialDist
+
+
+
+   /**
+    * Constructs an accumulator, with no observation, for the
+    *    distributions of class <TT>distClass</TT>.
+    *
+    * @param distClass the class of the distribution
+    *
+    *    @exception IllegalArgumentException if <TT>distClass</TT> is not one
+    *      of the supported classes
+    *
+    *
+    */
+   public MLEAccumulator (Class<? extends Distribution> distClass) {
+      int k = 0;
+      while (k < CLASSES.length && CLASSES[k] != distClass)
+         k++;
+      if (k == CLASSES.length)
+         throw new IllegalArgumentException
+            ("no streaming maximum likelihood estimator for " + distClass);
+      this.distClass = distClass;
+      kind = k;
+      init();
+   }
+
+
+   /**
+    * Removes all the observations.
+    *
+    */
+   public void init() {
+      n = 0;
+      sum = mean = ssd = 0.0;
+      sumLn = meanLn = ssdLn = 0.0;
+      sumLn1 = 0.0;
+      obs = kind == WEIBULL ? new double[16] : null;
+      count = kind == NEGATIVE_BINOMIAL ? new long[16] : null;
+      max = 0;
+   }
+
+
+   /**
+    * Returns the class of the distribution whose parameters are estimated.
+    *
+    */
+   public Class<? extends Distribution> getDistributionClass() {
+      return distClass;
+   }
+
+
+   /**
+    * Returns the number of observations.
+    *
+    */
+   public long numberObs() {
+      return n;
+   }
+
+
+   /**
+    * Adds the observation <TT>x</TT>.
+    *
+    * @param x the observation
+    *
+    *    @exception IllegalArgumentException if the distribution is discrete
+    *      and <TT>x</TT> is not an integer, or if it is a negative binomial
+    *      distribution and <TT>x</TT> is negative
+    *
+    *
+    */
+   public void add (double x) {
+      if (kind >= POISSON && x != Math.rint (x))
+         throw new IllegalArgumentException ("x is not an integer");
+      if (kind == NEGATIVE_BINOMIAL && x < 0.0)
+         throw new IllegalArgumentException ("x < 0");
+      n++;
+      sum += x;
+      switch (kind) {
+      case NORMAL:
+      case GAMMA:
+      case BETA:
+      case NEGATIVE_BINOMIAL:
+         // Welford's update of the mean and sum of squared deviations
+         double d = x - mean;
+         mean += d / n;
+         ssd += d * (x - mean);
+         break;
+      default:
+         break;
+      }
+      switch (kind) {
+      case LOGNORMAL:
+         double ln = x > 0.0 ? Math.log (x) : LN_EPS;
+         sumLn += ln;
+         double d = ln - meanLn;
+         meanLn += d / n;
+         ssdLn += d * (ln - meanLn);
+         break;
+      case GAMMA:
+         sumLn += x <= 0.0 ? LN_EPS : Math.log (x);
+         break;
+      case WEIBULL:
+         if (n > obs.length)
+            obs = java.util.Arrays.copyOf (obs, 2*obs.length);
+         obs[(int)(n - 1)] = x;
+         break;
+      case BETA:
+         sumLn += x > 0.0 ? Math.log (x) : -709.0;
+         sumLn1 += x < 1.0 ? Math.log1p (-x) : -709.0;
+         break;
+      case NEGATIVE_BINOMIAL:
+         int j = (int) x;
+         if (j >= count.length)
+            count = java.util.Arrays.copyOf (count,
+                                  Math.max (j + 1, 2*count.length));
+         count[j]++;
+         if (j > max)
+            max = j;
+         break;
+      default:
+         break;
+      }
+   }
+
+
+   /**
+    * Adds the <TT>n</TT> observations
+    *    <TT>x[start..(start+n-1)]</TT>.
+    *
+    * @param x array containing the observations
+    *
+    *    @param start index of the first observation to add
+    *
+    *    @param n number of observations to add
+    *
+    *
+    */
+   public void add (double[] x, int start, int n) {
+      for (int i = start; i < start + n; i++)
+         add (x[i]);
+   }
+
+
+   /**
+    * Adds the <TT>n</TT> observations
+    *    <TT>x[start..(start+n-1)]</TT>.
+    *
+    * @param x array containing the observations
+    *
+    *    @param start index of the first observation to add
+    *
+    *    @param n number of observations to add
+    *
+    *
+    */
+   public void add (int[] x, int start, int n) {
+      for (int i = start; i < start + n; i++)
+         add ((double) x[i]);
+   }
+
+
+   /**
+    * Adds to this accumulator all the observations of <TT>other</TT>,
+    *    which is not modified.  The estimates are then the same as if all
+    *    the observations had been added to this accumulator.
+    *
+    * @param other the accumulator whose observations are added
+    *
+    *    @exception IllegalArgumentException if <TT>other</TT> estimates the
+    *      parameters of a different class of distributions
+    *
+    *
+    */
+   public void merge (MLEAccumulator other) {
+      if (other.distClass != distClass)
+         throw new IllegalArgumentException ("different distribution classes");
+      if (other.n == 0)
+         return;
+      long m = n + other.n;
+      // Chan's formulas for the mean and sum of squared deviations
+      double d = other.mean - mean;
+      mean += d * other.n / m;
+      ssd += other.ssd + d * d * ((double) n * other.n / m);
+      d = other.meanLn - meanLn;
+      meanLn += d * other.n / m;
+      ssdLn += other.ssdLn + d * d * ((double) n * other.n / m);
+      sum += other.sum;
+      sumLn += other.sumLn;
+      sumLn1 += other.sumLn1;
+      if (obs != null) {
+         if (m > obs.length)
+            obs = java.util.Arrays.copyOf (obs, (int) Math.max (m, 2*obs.length));
+         System.arraycopy (other.obs, 0, obs, (int) n, (int) other.n);
+      }
+      if (count != null) {
+         if (other.max >= count.length)
+            count = java.util.Arrays.copyOf (count, other.max + 1);
+         for (int j = 0; j <= other.max; j++)
+            count[j] += other.count[j];
+         if (other.max > max)
+            max = other.max;
+      }
+      n = m;
+   }
+
+
+   /**
+    * Estimates the parameters of the distribution by the maximum likelihood
+    *    method, from all the observations added so far, and returns them in
+    *    the same order as the method <TT>getMLE (x, n)</TT> of the
+    *    distribution class.
+    *
+    * @return the parameters
+    *
+    *    @exception IllegalStateException if there is no observation
+    *
+    *
+    */
+   public double[] getMLE() {
+      if (n <= 0)
+         throw new IllegalStateException ("no observation");
+      switch (kind) {
+      case NORMAL:
+         return new double[] { sum / n, Math.sqrt (ssd / n) };
+      case LOGNORMAL:
+         return new double[] { sumLn / n, Math.sqrt (ssdLn / n) };
+      case GAMMA:
+         return GammaDist.getMLE ((double) n, sum / n, ssd, sumLn);
+      case WEIBULL:
+         if (n > Integer.MAX_VALUE)
+            throw new IllegalStateException ("too many observations");
+         return WeibullDist.getMLE (obs, (int) n);
+      case BETA:
+         return BetaDist.getMLE ((double) n, sum / n, ssd, sumLn, sumLn1);
+      case EXPONENTIAL:
+         return new double[] { (double) n / sum };
+      case POISSON:
+         return new double[] { sum / n };
+      case NEGATIVE_BINOMIAL:
+         // Fj[j] = number of observations larger than j
+         double[] Fj = new double[max];
+         long prop = 0;
+         for (int j = max - 1; j >= 0; j--) {
+            prop += count[j + 1];
+            Fj[j] = prop;
+         }
+         return NegativeBinomialDist.getMLE ((double) n, sum / n, ssd / n, Fj);
+      case GEOMETRIC:
+         return new double[] { 1.0 / (sum / n + 1.0) };
+      default:
+         throw new IllegalStateException();
+      }
+   }
+
+
+   /**
+    * Returns a new distribution of the class given to the constructor,
+    *    whose parameters are estimated by {@link #getMLE getMLE}.
+    *
+    * @return the distribution
+    *
+    *    @exception IllegalStateException if there is no observation
+    *
+    *
+    */
+   public Distribution getDistribution() {
+      double[] p = getMLE();
+      switch (kind) {
+      case NORMAL:
+         return new NormalDist (p[0], p[1]);
+      case LOGNORMAL:
+         return new LognormalDist (p[0], p[1]);
+      case GAMMA:
+         return new GammaDist (p[0], p[1]);
+      case WEIBULL:
+         return new WeibullDist (p[0], p[1], p[2]);
+      case BETA:
+         return new BetaDist (p[0], p[1]);
+      case EXPONENTIAL:
+         return new ExponentialDist (p[0]);
+      case POISSON:
+         return new PoissonDist (p[0]);
+      case NEGATIVE_BINOMIAL:
+         return new NegativeBinomialDist (p[0], p[1]);
+      case GEOMETRIC:
+         return new GeometricDist (p[0]);
+      default:
+         throw new IllegalStateException();
+      }
+   }
+
+
+   public String toString() {
+      return "MLEAccumulator for " + distClass.getSimpleName() + " with "
+             + n + " observations";
+   }
+
+}
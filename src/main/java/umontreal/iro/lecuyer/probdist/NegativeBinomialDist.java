@@ -79,16 +79,16 @@ public class NegativeBinomialDist extends DiscreteDistributionInt {
 
 
    private static class Function implements MathFunction {
-      protected int m;
+      protected double m;
       protected int max;
       protected double mean;
-      protected int[] Fj;
+      protected double[] Fj;
 
-      public Function (int m, int max, double mean, int[] Fj) {
+      public Function (double m, int max, double mean, double[] Fj) {
          this.m = m;
          this.max = max;
          this.mean = mean;
-         this.Fj = new int[Fj.length];
+         this.Fj = new double[Fj.length];
          System.arraycopy(Fj, 0, this.Fj, 0, Fj.length);
       }
 
@@ -160,7 +160,8 @@ public class NegativeBinomialDist extends DiscreteDistributionInt {
 */
 
 
-   public static double MAXN = 100000;
+   @Deprecated
+   public static double MAXN = 100000;   // Ignored, see setMaxTableSize
 
 
    protected NegativeBinomialDist() {}
@@ -171,6 +172,7 @@ public class NegativeBinomialDist extends DiscreteDistributionInt {
     * Creates an object that contains the probability
     *    terms and the distribution function for
     *    the negative binomial distribution with parameters <SPAN CLASS="MATH"><I>n</I></SPAN> and <SPAN CLASS="MATH"><I>p</I></SPAN>.
+    *    These values are computed at their first use.
     * 
     */
    public NegativeBinomialDist (double n, double p) {
@@ -191,6 +193,7 @@ public class NegativeBinomialDist extends DiscreteDistributionInt {
             return 1.0;
       }
 
+      requireTables();
       if (pdf == null)
          return prob (n, p, x);
 
@@ -208,7 +211,10 @@ public class NegativeBinomialDist extends DiscreteDistributionInt {
       if (p <= 0.0)    // In fact, p == 0
          return 0.0;
 
+      requireTables();
       if (cdf != null) {
+         if (truncated && x >= xmax)
+            return cdf (n, p, x);
          if (x >= xmax)
             return 1.0;
          if (x < xmin)
@@ -232,9 +238,12 @@ public class NegativeBinomialDist extends DiscreteDistributionInt {
       if (p <= 0.0)   // In fact, p == 0
          return 1.0;
 
+      requireTables();
       if (cdf == null)
          //return BinomialDist.cdf (x - 1 + n, p, n - 1);
          return BetaDist.barF (n, x, 15, p);
+      if (truncated && x <= xmin)
+         return barF (n, p, x);
 
       if (x > xmax)
          //return BinomialDist.cdf (x - 1 + n, p, n - 1);
@@ -250,7 +259,8 @@ public class NegativeBinomialDist extends DiscreteDistributionInt {
    }
 
    public int inverseFInt (double u) {
-      if ((cdf == null) || (u <= EPS2))
+      requireTables();
+      if ((cdf == null) || (u <= EPS2) || !tablesCover (u))
          return inverseF (n, p, u);
       else
          return super.inverseFInt (u);
@@ -575,7 +585,6 @@ public class NegativeBinomialDist extends DiscreteDistributionInt {
     * 
     */
    public static double[] getMLE (int[] x, int m) {
-      double estimGamma;
       if (m <= 0)
          throw new IllegalArgumentException ("m<= 0");
 
@@ -594,24 +603,35 @@ public class NegativeBinomialDist extends DiscreteDistributionInt {
          var += (x[i] - mean) * (x[i] - mean);
       var /= (double) m;
 
+      // count[j] = number of x[i] = j, and Fj[j] = number of x[i] > j
+      int[] count = new int[(int) max + 1];
+      for (int i = 0; i < m; i++)
+         if (x[i] > 0)
+            count[x[i]]++;
+      double[] Fj = new double[(int) max];
+      int prop = 0;
+      for (int j = (int) max - 1; j >= 0; j--) {
+         prop += count[j + 1];
+         Fj[j] = prop;
+      }
+
+      return getMLE ((double) m, mean, var, Fj);
+   }
+
+
+   // Same as getMLE (x, m), from the number m of observations, their mean
+   // and variance, and Fj[j], the number of observations larger than j,
+   // for j = 0,..., Fj.length - 1, where Fj.length is their maximum.
+   // Used also by MLEAccumulator.
+   static double[] getMLE (double m, double mean, double var, double[] Fj) {
+      double estimGamma;
       if (mean >= var)
           throw new UnsupportedOperationException("mean >= variance");
 
       estimGamma = (mean * mean) / ( var - mean );
 
-      int[] Fj = new int[(int) max];
-      for (int j = 0; j < max; j++)
-      {
-         int prop = 0;
-         for (int i = 0; i < m; i++)
-            if (x[i] > j)
-               prop++;
-
-         Fj[j] = prop;
-      }
-
       double[] param = new double[3];
-      Function f = new Function (m, (int) max, mean, Fj);
+      Function f = new Function (m, Fj.length, mean, Fj);
       param[1] = RootFinder.brentDekker (estimGamma/10, estimGamma*10, f, 1e-5);
 
       param[2] = param[1] / (param[1] + mean);
@@ -734,40 +754,42 @@ public class NegativeBinomialDist extends DiscreteDistributionInt {
     * 
     */
    public void setParams (double n, double p) {
+      if (p < 0.0 || p > 1.0)
+         throw new IllegalArgumentException ("p not in [0, 1]");
+      if (n <= 0.0)
+         throw new IllegalArgumentException ("n <= 0");
+
+      supportA = 0;
+      this.n  = n;
+      this.p  = p;
+      resetTables();
+   }
+
+
+   protected void createTables() {
       /* *
       *  Compute all probability terms of the negative binomial distribution;
       *  start at the mode, and calculate probabilities on each side until they
       *  become smaller than EPSILON. Set all others to 0.
       */
-      supportA = 0;
       int i, mode, Nmax;
       int imin, imax;
       double sum;
       double[] P;     // Negative Binomial mass probabilities
       double[] F;     // Negative Binomial cumulative
 
-      if (p < 0.0 || p > 1.0)
-         throw new IllegalArgumentException ("p not in [0, 1]");
-      if (n <= 0.0)
-         throw new IllegalArgumentException ("n <= 0");
-
-      this.n  = n;
-      this.p  = p;
-
       // Compute the mode (at the maximum term)
       mode = 1 + (int) Math.floor((n*(1.0 - p) - 1.0)/p);
 
       /* *
-       For mode > MAXN, we shall not use pre-computed arrays.
+       For a huge mode, we shall not use pre-computed arrays.
        mode < 0 should be impossible, unless overflow of long occur, in
        which case mode will be = LONG_MIN.
       */
 
-      if (mode < 0.0 || mode > MAXN) {
-         pdf = null;
-         cdf = null;
+      if (mode < 0.0 || mode > Integer.MAX_VALUE - getMaxTableSize()
+          || p <= 0.0)
          return;
-      }
 
       /* *
         In theory, the negative binomial distribution has an infinite range.
@@ -775,7 +797,39 @@ public class NegativeBinomialDist extends DiscreteDistributionInt {
         Nmax = Mean + 16 * Standard deviation.
       */
 
-      Nmax = (int)(n*(1.0 - p)/p + 16*Math.sqrt (n*(1.0 - p)/(p*p)));
+      final double mean = n*(1.0 - p)/p;
+      if (mean + 16*Math.sqrt (mean/p) >= getMaxTableSize()) {
+         // The tables would be too large: keep only the window of
+         // getMaxTableSize() values centered on the mode, and sum the
+         // terms outside the window until they become negligible (a
+         // subnormal term may no longer decrease, so it stops there).
+         final int len = getMaxTableSize();
+         final int a = Math.max (0, mode - (len - 1)/2);
+         final int b = a + len - 1;
+         double below = 0.0, above = 0.0, term;
+         P = new double[len];
+         P[mode - a] = term = prob (n, p, mode);
+         for (i = mode; i > 0; i--) {
+            term = term*i/((1.0 - p)*(n + i - 1));
+            if (i > a)
+               P[i - 1 - a] = term;
+            else if ((below += term) == 0.0 || term <= EPSILON*below
+                     || term < Double.MIN_NORMAL)
+               break;
+         }
+         term = P[mode - a];
+         for (i = mode; i < Integer.MAX_VALUE; i++) {
+            term = term*(1.0 - p)*(n + i)/(i + 1);
+            if (i < b)
+               P[i + 1 - a] = term;
+            else if ((above += term) == 0.0 || term <= EPSILON*above
+                     || term < Double.MIN_NORMAL)
+               break;
+         }
+         setTruncatedTables (a, P, below, above);
+         return;
+      }
+      Nmax = (int)(mean + 16*Math.sqrt (mean/p));
       if (Nmax < 32)
          Nmax = 32;
       P = new double[1 + Nmax];
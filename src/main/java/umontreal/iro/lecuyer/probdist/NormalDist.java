@@ -54,6 +54,7 @@ public class NormalDist extends ContinuousDistribution {
    protected double mu;
    protected double sigma;
    protected static final double RAC2PI = 2.50662827463100050; // Sqrt(2*Pi)
+   static final int QUICK_DIGITS = 6;   // precision of NormalDistQuick
 
    private static final double[]  AbarF = {
          6.10143081923200418E-1,
@@ -124,6 +125,29 @@ public class NormalDist extends ContinuousDistribution {
       return mu + sigma * inverseF01 (u);
    }
 
+   protected void densityBlock (double[] x, double[] out, int start, int n) {
+      final double c = RAC2PI*sigma;
+      for (int i = start; i < start + n; i++) {
+         double z = (x[i] - mu)/sigma;
+         out[i] = Math.exp (-0.5*z*z)/ c;
+      }
+   }
+
+   protected void cdfBlock (double[] x, double[] out, int start, int n) {
+      for (int i = start; i < start + n; i++)
+         out[i] = cdf01 ((x[i] - mu)/sigma);
+   }
+
+   protected void barFBlock (double[] x, double[] out, int start, int n) {
+      for (int i = start; i < start + n; i++)
+         out[i] = barF01 ((x[i] - mu)/sigma);
+   }
+
+   protected void inverseFBlock (double[] u, double[] out, int start, int n) {
+      for (int i = start; i < start + n; i++)
+         out[i] = mu + sigma * inverseF01 (u[i]);
+   }
+
    public double getMean() {
       return NormalDist.getMean (mu, sigma);
    }
@@ -614,6 +638,20 @@ public class NormalDist extends ContinuousDistribution {
    }
 
 
+   /**
+    * Returns a {@link NormalDistQuick} with the same parameters if
+    *   <SPAN CLASS="MATH"><I>d</I>&nbsp;&lt;=&nbsp;6</SPAN>, and this object otherwise.
+    *   See {@link ContinuousDistribution#withPrecision(int) ContinuousDistribution.withPrecision}.
+    * 
+    */
+   public ContinuousDistribution withPrecision (int d) {
+      checkPrecision (d);
+      if (d <= QUICK_DIGITS)
+         return new NormalDistQuick (mu, sigma);
+      return this;
+   }
+
+
    /**
     * Return a table containing the parameters of the current distribution.
     *    This table is put in regular order: [<SPAN CLASS="MATH"><I>&#956;</I></SPAN>, <SPAN CLASS="MATH"><I>&#963;</I></SPAN>].
@@ -48,7 +48,7 @@ public class NormalDistQuick extends NormalDist  {
 
 
   /* *************************************************************/
-  /*  These public methods are necessary so that the methods cdf01,
+  /*  These methods are necessary so that the methods cdf01,
    *  barF01 and inverseF01 that are used are those of the present
    *  class and not those of 'NormalDist'
    */
@@ -64,6 +64,28 @@ public class NormalDistQuick extends NormalDist  {
    public double inverseF (double u) {
       return mu + sigma * inverseF01 (u);
    }
+
+   protected void cdfBlock (double[] x, double[] out, int start, int n) {
+      for (int i = start; i < start + n; i++)
+         out[i] = cdf01 ((x[i] - mu)/sigma);
+   }
+
+   protected void barFBlock (double[] x, double[] out, int start, int n) {
+      for (int i = start; i < start + n; i++)
+         out[i] = barF01 ((x[i] - mu)/sigma);
+   }
+
+   protected void inverseFBlock (double[] u, double[] out, int start, int n) {
+      for (int i = start; i < start + n; i++)
+         out[i] = mu + sigma * inverseF01 (u[i]);
+   }
+
+   public ContinuousDistribution withPrecision (int d) {
+      checkPrecision (d);
+      if (d <= QUICK_DIGITS)
+         return this;
+      return new NormalDist (mu, sigma);
+   }
    /* ************************************************************/
 
    private static final double V[] = {
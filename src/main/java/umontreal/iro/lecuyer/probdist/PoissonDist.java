@@ -64,14 +64,16 @@ public class PoissonDist extends DiscreteDistributionInt {
 
 
 
-   public static double MAXLAMBDA = 100000;
+   @Deprecated
+   public static double MAXLAMBDA = 100000;   // Ignored, see setMaxTableSize
 
 
    /**
     * Creates an object that contains
     *    the probability and distribution functions, for the Poisson
     *    distribution with parameter <TT>lambda</TT>, which are
-    *    computed and stored in dynamic arrays inside that object.
+    *    computed at their first use and stored in dynamic arrays inside
+    *    that object.
     * 
     */
    public PoissonDist (double lambda) {
@@ -82,6 +84,7 @@ public class PoissonDist extends DiscreteDistributionInt {
    public double prob (int x) {
       if (x < 0)
          return 0.0;
+      requireTables();
       if (pdf == null)
          return prob (lambda, x);
       if (x > xmax || x < xmin)
@@ -104,8 +107,11 @@ public class PoissonDist extends DiscreteDistributionInt {
          cdf (lambda, x) = 1 - chiSquare (2x + 2, 2*lambda)
 
          which equals also 1 - gamma (x + 1, lambda) */
+      requireTables();
       if (cdf == null)
          return GammaDist.barF (x + 1.0, 15, lambda);
+      if (truncated && (x < xmin || x >= xmax))
+         return cdf (lambda, x);
 
       if (x >= xmax)
          return 1.0;
@@ -149,8 +155,11 @@ public class PoissonDist extends DiscreteDistributionInt {
          cdf (lambda, x) = 1 - GammaDist.cdf (x + 1, lambda)
        */
 
+      requireTables();
       if (cdf == null)
          return GammaDist.cdf ((double)x, 15, lambda);
+      if (truncated && (x <= xmin || x > xmax))
+         return barF (lambda, x);
 
       if (x > xmax)
 //         return GammaDist.cdf ((double)x, 15, lambda);
@@ -166,7 +175,8 @@ public class PoissonDist extends DiscreteDistributionInt {
 
 
    public int inverseFInt (double u) {
-      if ((cdf == null) || (u <= EPSILON))
+      requireTables();
+      if ((cdf == null) || (u <= EPSILON) || !tablesCover (u))
          return inverseF (lambda, u);
       return super.inverseFInt (u);
    }
@@ -515,7 +525,15 @@ public class PoissonDist extends DiscreteDistributionInt {
     * 
     */
    public void setLambda (double lambda) {
+      if (lambda < 0.0)
+         throw new IllegalArgumentException ("lambda < 0");
       supportA = 0;
+      this.lambda = lambda;
+      resetTables();
+   }
+
+
+   protected void createTables() {
       double epsilon;
       int i, mid, Nmax;
       int imin, imax;
@@ -523,23 +541,48 @@ public class PoissonDist extends DiscreteDistributionInt {
       double[] P;    // Poisson probability terms
       double[] F;    // Poisson cumulative probabilities
 
-      if (lambda < 0.0)
-         throw new IllegalArgumentException ("lambda < 0");
-      this.lambda = lambda;
-
-      // For lambda > MAXLAMBDAPOISSON, we do not use pre-computed arrays
-      if (lambda > MAXLAMBDA) {
-         pdf = null;
-         cdf = null;
-         return;
-      }
-
       // In theory, the Poisson distribution has an infinite range. But
       // for i > Nmax, probabilities should be extremely small.
+      // For huge lambda, we do not use pre-computed arrays.
+      if (lambda + 16*(2 + Math.sqrt (lambda)) + getMaxTableSize()
+          > Integer.MAX_VALUE)
+         return;
       Nmax = (int)(lambda + 16*(2 + Math.sqrt (lambda)));
+      mid = (int)lambda;
+
+      if (Nmax >= getMaxTableSize()) {
+         // The tables would be too large: keep only the window of
+         // getMaxTableSize() values centered on the mode, and sum the
+         // terms outside the window until they become negligible (a
+         // subnormal term may no longer decrease, so it stops there).
+         final int n = getMaxTableSize();
+         final int a = Math.max (0, mid - (n - 1)/2);
+         final int b = a + n - 1;
+         double below = 0.0, above = 0.0, term;
+         P = new double[n];
+         P[mid - a] = term = prob (lambda, mid);
+         for (i = mid; i > 0; i--) {
+            term = term*i/lambda;
+            if (i > a)
+               P[i - 1 - a] = term;
+            else if ((below += term) == 0.0 || term <= EPSILON*below
+                     || term < Double.MIN_NORMAL)
+               break;
+         }
+         term = P[mid - a];
+         for (i = mid; i < Integer.MAX_VALUE; i++) {
+            term = term*lambda/(i + 1);
+            if (i < b)
+               P[i + 1 - a] = term;
+            else if ((above += term) == 0.0 || term <= EPSILON*above
+                     || term < Double.MIN_NORMAL)
+               break;
+         }
+         setTruncatedTables (a, P, below, above);
+         return;
+      }
       P = new double[1 + Nmax];
 
-      mid = (int)lambda;
       epsilon = EPSILON * EPS_EXTRA/prob (lambda, mid);
       // For large lambda, mass will lose a few digits of precision
       // We shall normalize by explicitly summing all terms >= epsilon
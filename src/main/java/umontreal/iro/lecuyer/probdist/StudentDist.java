@@ -46,6 +46,7 @@ import umontreal.iro.lecuyer.functions.MathFunction;
 public class StudentDist extends ContinuousDistribution {
    protected int n;
    private double factor;
+   private volatile InverseDistFromDensity prepInv; // prepared inverse, or null
    private static final int NLIM1 = 100000;
 /*
    private static double cdfPeizer (int n, double x) {
@@ -142,9 +143,49 @@ public class StudentDist extends ContinuousDistribution {
    }
 
    public double inverseF (double u) {
+      InverseDistFromDensity inv = prepInv;
+      if (inv != null)
+         return inv.inverseF (u);
       return inverseF (n, u);
    }
 
+   protected void densityBlock (double[] x, double[] out, int start, int m) {
+      final double e = (n + 1)/2.0;
+      for (int i = start; i < start + m; i++)
+         out[i] = factor*Math.pow (1.0 / (1.0 + x[i]*x[i]/n), e);
+   }
+
+   protected void cdfBlock (double[] x, double[] out, int start, int m) {
+      final double[] bc = (n > 2 && n <= NLIM1) ?
+         BetaSymmetricalDist.constants (0.5*n, 15) : null;
+      for (int i = start; i < start + m; i++)
+         out[i] = cdf (n, x[i], bc);
+   }
+
+   protected void barFBlock (double[] x, double[] out, int start, int m) {
+      if (n <= 2) {
+         super.barFBlock (x, out, start, m);
+         return;
+      }
+      final double[] bc = (n <= NLIM1) ?
+         BetaSymmetricalDist.constants (0.5*n, 15) : null;
+      for (int i = start; i < start + m; i++)
+         out[i] = cdf (n, -x[i], bc);
+   }
+
+   protected void inverseFBlock (double[] u, double[] out, int start, int m) {
+      InverseDistFromDensity inv = prepInv;
+      if (inv != null) {
+         for (int i = start; i < start + m; i++)
+            out[i] = inv.inverseF (u[i]);
+         return;
+      }
+      final double[] bc = (n > 2 && n <= NLIM1) ?
+         BetaSymmetricalDist.constants (0.5*n, 14) : null;
+      for (int i = start; i < start + m; i++)
+         out[i] = inverseF (n, u[i], bc);
+   }
+
    public double getMean() {
       return StudentDist.getMean (n);
    }
@@ -178,6 +219,16 @@ public class StudentDist extends ContinuousDistribution {
     * 
     */
    public static double cdf (int n, double x) {
+      return cdf (n, x, null);
+   }
+
+
+   /*
+    * The computations of cdf (n, x) and inverseF (n, u), where bc contains
+    * the constants of BetaSymmetricalDist for alpha = n/2, or is null.
+    * The array methods compute bc once for the whole array.
+    */
+   private static double cdf (int n, double x, double[] bc) {
       if (n <= 0)
         throw new IllegalArgumentException ("n <= 0");
       if (n == 1)
@@ -200,7 +251,7 @@ public class StudentDist extends ContinuousDistribution {
 
       if (n == 2)
          return z;
-      return BetaSymmetricalDist.cdf (0.5*n, 15, z);
+      return BetaSymmetricalDist.cdf (0.5*n, 15, z, bc);
    }
 
 
@@ -258,6 +309,11 @@ public class StudentDist extends ContinuousDistribution {
     * 
     */
    public static double inverseF (int n, double u) {
+      return inverseF (n, u, null);
+   }
+
+
+   private static double inverseF (int n, double u, double[] bc) {
         if (n < 1)
             throw new IllegalArgumentException ("Student:   n < 1");
         if (u > 1.0 || u < 0.0)
@@ -275,7 +331,7 @@ public class StudentDist extends ContinuousDistribution {
 
         if (n > NLIM1)
            return invGaver(n, u);
-        double z = BetaSymmetricalDist.inverseF (0.5*n, u);
+        double z = BetaSymmetricalDist.inverseF (0.5*n, u, bc);
         return (z - 0.5) * Math.sqrt(n / (z*(1.0 - z)));
    }
 
@@ -417,6 +473,73 @@ public class StudentDist extends ContinuousDistribution {
         throw new IllegalArgumentException ("n <= 0");
       this.n = n;
       factor = Num.gammaRatioHalf(n/2.0) / Math.sqrt (n*Math.PI);
+      prepInv = null;
+   }
+
+
+   /**
+    * Prepares a fast inverse for the current parameters of this object.
+    *   The tables of an {@link InverseDistFromDensity} with <SPAN CLASS="MATH"><I>u</I></SPAN>-resolution
+    *   <TT>eps</TT> and interpolating polynomials of order 5 are computed
+    *   once, then the method <TT>inverseF</TT> and the array method
+    *   <TT>inverseF</TT> of this object interpolate in these tables
+    *   instead of computing the inverse with the methods of this class.
+    *   The set-up usually takes a few milliseconds, after which the inverse
+    *   is typically tens to hundreds of times faster, with an error
+    *   <SPAN CLASS="MATH">| <I>F</I>(<I>x</I>) - <I>u</I>|</SPAN> close to <TT>eps</TT> or less.
+    *   The set-up time and an estimate of the error are given by the
+    *   methods <TT>getSetupTime</TT> and <TT>estimateUerror</TT> of
+    *   {@link #getPreparedInverse getPreparedInverse}.
+    *   The tables are not modified afterwards, so this object can be used
+    *   by several threads once the inverse is prepared.
+    *   They are discarded when the parameters are changed.
+    *   Restrictions: 
+    * <SPAN CLASS="MATH">10<SUP>-15</SUP> &lt;= <texttt>eps</texttt> &lt;= 10<SUP>-3</SUP></SPAN>.
+    * 
+    * @param eps the <SPAN CLASS="MATH"><I>u</I></SPAN>-resolution of the inverse
+    * 
+    * 
+    */
+   public void prepareInverse (double eps) {
+      prepInv = new InverseDistFromDensity (this, 0.0, eps, 5);
+   }
+
+
+   /**
+    * Returns the inverse prepared by {@link #prepareInverse prepareInverse}
+    *   for the current parameters, or <TT>null</TT> if there is none.
+    * 
+    */
+   public InverseDistFromDensity getPreparedInverse() {
+      return prepInv;
+   }
+
+
+   /**
+    * Returns a {@link StudentDistQuick} with the same parameter <SPAN CLASS="MATH"><I>n</I></SPAN>
+    *   if <SPAN CLASS="MATH"><I>n</I>&nbsp;&gt;=&nbsp;3</SPAN> and <TT>d</TT> is at most its precision, which
+    *   increases with <SPAN CLASS="MATH"><I>n</I></SPAN>, and this object otherwise.
+    *   See {@link ContinuousDistribution#withPrecision(int) ContinuousDistribution.withPrecision}.
+    * 
+    */
+   public ContinuousDistribution withPrecision (int d) {
+      checkPrecision (d);
+      if (n > 2 && d <= quickDigits (n))
+         return new StudentDistQuick (n);
+      return this;
+   }
+
+
+   // Decimal digits of precision of StudentDistQuick with n degrees of
+   // freedom (it uses the same exact formulae for n <= 2).
+   static int quickDigits (int n) {
+      if (n <= 2)
+         return Num.DBL_DIG;
+      if (n < 10)
+         return 4;
+      if (n < 100)
+         return 6;
+      return 10;
    }
 
 
@@ -51,7 +51,7 @@ public class StudentDistQuick extends StudentDist {
       super (n);
    }
 
-  /*  These public methods are necessary so that the methods cdf,
+  /*  These methods are necessary so that the methods cdf,
    *  barF and inverseF used are those of the present
    *  class and not those of the mother class.
    */
@@ -65,9 +65,40 @@ public class StudentDistQuick extends StudentDist {
    }
 
    public double inverseF (double u) {
+      InverseDistFromDensity inv = getPreparedInverse();
+      if (inv != null)
+         return inv.inverseF (u);
       return inverseF (n, u);
    }
 
+   protected void cdfBlock (double[] x, double[] out, int start, int m) {
+      for (int i = start; i < start + m; i++)
+         out[i] = cdf (n, x[i]);
+   }
+
+   protected void barFBlock (double[] x, double[] out, int start, int m) {
+      for (int i = start; i < start + m; i++)
+         out[i] = barF (n, x[i]);
+   }
+
+   protected void inverseFBlock (double[] u, double[] out, int start, int m) {
+      InverseDistFromDensity inv = getPreparedInverse();
+      if (inv != null) {
+         for (int i = start; i < start + m; i++)
+            out[i] = inv.inverseF (u[i]);
+         return;
+      }
+      for (int i = start; i < start + m; i++)
+         out[i] = inverseF (n, u[i]);
+   }
+
+   public ContinuousDistribution withPrecision (int d) {
+      checkPrecision (d);
+      if (d <= quickDigits (n))
+         return this;
+      return new StudentDist (n);
+   }
+
    /**
     * Returns an approximation
     *   of the Student <SPAN CLASS="MATH"><I>t</I></SPAN>-distribution function with <SPAN CLASS="MATH"><I>n</I></SPAN> degrees of freedom.
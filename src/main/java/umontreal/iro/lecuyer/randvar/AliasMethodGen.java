@@ -0,0 +1,139 @@
+
+
+/*
+ * Class:        AliasMethodGen
+ * Description:  random variate generator for finite discrete distributions,
+                 using the alias method
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+package umontreal.iro.lecuyer.randvar;
+import umontreal.iro.lecuyer.rng.*;
+import umontreal.iro.lecuyer.probdist.*;
+
+
+/**
+ * This class implements a random variate generator for an arbitrary
+ * discrete distribution over <SPAN CLASS="MATH"><I>n</I></SPAN> real values, using the <EM>alias</EM>
+ * method of Walker, with the tables built by the algorithm of Vose.
+ * The setup of the tables takes <SPAN CLASS="MATH"><I>O</I>(<I>n</I>)</SPAN> time, and each value is then
+ * generated in constant time, whatever the value of <SPAN CLASS="MATH"><I>n</I></SPAN>, with two
+ * uniforms.  The values need not be sorted.
+ * See {@link AliasMethodIntGen} for the details of the method; like the
+ * latter, this generator is not monotone, so it is not appropriate with
+ * common random numbers or quasi-Monte Carlo methods.
+ * 
+ */
+public class AliasMethodGen extends RandomVariateGen  {
+   private static final int BLOCK = 512;   // values per block of uniforms
+   private final AliasTable table;
+   private final double[] values;
+   private double[] u;                     // uniforms for nextArrayOfDouble
+
+
+
+   /**
+    * Creates an alias method generator for the distribution <TT>dist</TT>,
+    *   using stream <TT>s</TT>.
+    * 
+    */
+   public AliasMethodGen (RandomStream s, DiscreteDistribution dist)  {
+      super (s, dist);
+      int n = dist.getN();
+      values = new double[n];
+      double[] w = new double[n];
+      for (int i = 0; i < n; i++) {
+         values[i] = dist.getValue (i);
+         w[i] = dist.prob (i);
+      }
+      table = new AliasTable (w);
+   }
+
+
+   /**
+    * Creates an alias method generator for the distribution over the
+    *   values <TT>values[i]</TT>, with probabilities proportional to
+    *   <TT>weights[i]</TT>, using stream <TT>s</TT>.  The two arrays must have the
+    *   same length.
+    * 
+    * @param s the stream used by this generator
+    * 
+    *    @param values the values of the distribution
+    * 
+    *    @param weights the weights of the values
+    * 
+    *    @exception IllegalArgumentException if the arrays do not have the same
+    *      length, if a weight is negative, or if the sum of the weights is
+    *      not positive and finite
+    * 
+    * 
+    */
+   public AliasMethodGen (RandomStream s, double[] values, double[] weights)  {
+      super (s, null);
+      if (values.length != weights.length)
+         throw new IllegalArgumentException
+            ("values and weights must have the same length");
+      this.values = values.clone();
+      table = new AliasTable (weights);
+   }
+
+
+   /**
+    * Changes the probabilities of the values to values proportional to
+    *   <TT>weights</TT>, and rebuilds the tables, without allocating new arrays.
+    *   After this call, {@link #getDistribution getDistribution} returns <TT>null</TT>.
+    * 
+    * @param weights the new weights of the values
+    * 
+    *    @exception IllegalArgumentException if <TT>weights</TT> does not have one
+    *      weight for each value, if a weight is negative, or if the sum of the
+    *      weights is not positive and finite
+    * 
+    * 
+    */
+   public void setWeights (double[] weights)  {
+      if (weights.length != values.length)
+         throw new IllegalArgumentException
+            ("weights must have one weight for each value");
+      table.setWeights (weights);
+      dist = null;
+   }
+
+
+   public double nextDouble() {
+      return values[table.index (stream.nextDouble(), stream.nextDouble())];
+   }
+
+   public void nextArrayOfDouble (double[] v, int start, int n) {
+      if (n <= 0)
+         throw new IllegalArgumentException ("n must be positive.");
+      if (u == null)
+         u = new double[2*BLOCK];
+      while (n > 0) {
+         int m = Math.min (n, BLOCK);
+         stream.nextArrayOfDouble (u, 0, 2*m);
+         for (int i = 0; i < m; i++)
+            v[start + i] = values[table.index (u[2*i], u[2*i + 1])];
+         start += m;
+         n -= m;
+      }
+   }
+
+}
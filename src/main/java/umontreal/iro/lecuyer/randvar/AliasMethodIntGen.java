@@ -0,0 +1,176 @@
+
+
+/*
+ * Class:        AliasMethodIntGen
+ * Description:  random variate generator for discrete distributions over
+                 the integers, using the alias method
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.randvar;
+import umontreal.iro.lecuyer.rng.*;
+import umontreal.iro.lecuyer.probdist.*;
+
+
+/**
+ * This class implements a random variate generator for an arbitrary
+ * discrete distribution over a finite interval of integers
+ * <SPAN CLASS="MATH">[<I>x</I><SUB>min</SUB>, <I>x</I><SUB>min</SUB> + <I>n</I> - 1]</SPAN>, using the <EM>alias</EM> method of
+ * Walker, with the tables built by the algorithm of Vose.
+ * The setup of the tables takes <SPAN CLASS="MATH"><I>O</I>(<I>n</I>)</SPAN> time, and each value is then
+ * generated in constant time, whatever the value of <SPAN CLASS="MATH"><I>n</I></SPAN>, with
+ * two uniforms: the first one chooses one of <SPAN CLASS="MATH"><I>n</I></SPAN> equiprobable columns,
+ * and the second one chooses between the two values of this column.
+ * Inversion with binary search, as in
+ * {@link umontreal.iro.lecuyer.probdist.DiscreteDistributionInt#inverseFInt DiscreteDistributionInt.inverseFInt},
+ * takes <SPAN CLASS="MATH"><I>O</I>(log<I>n</I>)</SPAN> time instead.
+ * 
+ * <P>
+ * The alias method is not monotone: the generated value is not an
+ * increasing function of the uniforms, so it is not appropriate with
+ * common random numbers or quasi-Monte Carlo methods, for which inversion
+ * should be used.  The probabilities can be changed with
+ * {@link #setWeights setWeights}, which rebuilds the tables in <SPAN CLASS="MATH"><I>O</I>(<I>n</I>)</SPAN>
+ * time without allocating new arrays if <SPAN CLASS="MATH"><I>n</I></SPAN> does not change.
+ * 
+ */
+public class AliasMethodIntGen extends RandomVariateGenInt  {
+   private static final int BLOCK = 512;   // values per block of uniforms
+   private final AliasTable table;
+   private final int xmin;
+   private double[] u;                     // uniforms for nextArrayOfInt
+
+
+
+   /**
+    * Creates an alias method generator for the distribution <TT>dist</TT>,
+    *   using stream <TT>s</TT>.  The tables contain the values <SPAN CLASS="MATH"><I>x</I></SPAN> of the
+    *   support, around the median, for which the probability of the
+    *   values smaller than <SPAN CLASS="MATH"><I>x</I></SPAN>, or larger than <SPAN CLASS="MATH"><I>x</I></SPAN>, is at least
+    *   {@link umontreal.iro.lecuyer.probdist.DiscreteDistributionInt#EPSILON DiscreteDistributionInt.EPSILON}, as for the tables of the
+    *   distributions of package <TT>probdist</TT>.
+    * 
+    */
+   public AliasMethodIntGen (RandomStream s, DiscreteDistributionInt dist)  {
+      super (s, dist);
+      int med = dist.inverseFInt (0.5);
+      int a = med;
+      while (a > dist.getXinf() &&
+             dist.cdf (a - 1) >= DiscreteDistributionInt.EPSILON)
+         a--;
+      int b = med;
+      while (b < dist.getXsup() &&
+             dist.barF (b + 1) >= DiscreteDistributionInt.EPSILON)
+         b++;
+      double[] w = new double[b - a + 1];
+      for (int x = a; x <= b; x++)
+         w[x - a] = dist.prob (x);
+      xmin = a;
+      table = new AliasTable (w);
+   }
+
+
+   /**
+    * Creates an alias method generator for the distribution over the
+    *   integers <SPAN CLASS="MATH"><I>x</I><SUB>min</SUB> + <I>i</I></SPAN>, for 
+    * <SPAN CLASS="MATH"><I>i</I> = 0,&#8230;, <I>n</I> - 1</SPAN>, with probabilities
+    *   proportional to <TT>weights[i]</TT>, using stream <TT>s</TT>, where
+    *   <SPAN CLASS="MATH"><I>n</I></SPAN> is the length of <TT>weights</TT>.
+    * 
+    * @param s the stream used by this generator
+    * 
+    *    @param xmin the smallest value
+    * 
+    *    @param weights the weights of the values
+    * 
+    *    @exception IllegalArgumentException if a weight is negative, or if
+    *      the sum of the weights is not positive and finite
+    * 
+    * 
+    */
+   public AliasMethodIntGen (RandomStream s, int xmin, double[] weights)  {
+      super (s, null);
+      this.xmin = xmin;
+      table = new AliasTable (weights);
+   }
+
+
+   /**
+    * Changes the probabilities to values proportional to
+    *   <TT>weights</TT>, and rebuilds the tables.  The length of <TT>weights</TT> gives the
+    *   new number of values, from the same <SPAN CLASS="MATH"><I>x</I><SUB>min</SUB></SPAN>.  After this call,
+    *   {@link #getDistribution getDistribution} returns <TT>null</TT>.
+    * 
+    * @param weights the new weights of the values
+    * 
+    *    @exception IllegalArgumentException if a weight is negative, or if
+    *      the sum of the weights is not positive and finite
+    * 
+    * 
+    */
+   public void setWeights (double[] weights)  {
+      table.setWeights (weights);
+      dist = null;
+   }
+
+
+   /**
+    * Returns the smallest value <SPAN CLASS="MATH"><I>x</I><SUB>min</SUB></SPAN> of the tables.
+    * 
+    */
+   public int getXmin()  {
+      return xmin;
+   }
+
+
+   /**
+    * Returns the largest value <SPAN CLASS="MATH"><I>x</I><SUB>min</SUB> + <I>n</I> - 1</SPAN> of the tables.
+    * 
+    */
+   public int getXmax()  {
+      return xmin + table.size() - 1;
+   }
+
+
+   public int nextInt() {
+      return xmin + table.index (stream.nextDouble(), stream.nextDouble());
+   }
+
+   public double nextDouble() {
+      return nextInt();
+   }
+
+   public void nextArrayOfInt (int[] v, int start, int n) {
+      if (n < 0)
+         throw new IllegalArgumentException ("n must be non-negative.");
+      if (u == null)
+         u = new double[2*BLOCK];
+      while (n > 0) {
+         int m = Math.min (n, BLOCK);
+         stream.nextArrayOfDouble (u, 0, 2*m);
+         for (int i = 0; i < m; i++)
+            v[start + i] = xmin + table.index (u[2*i], u[2*i + 1]);
+         start += m;
+         n -= m;
+      }
+   }
+
+}
@@ -0,0 +1,114 @@
+
+
+/*
+ * Class:        AliasTable
+ * Description:  tables of the alias method for discrete distributions
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.randvar;
+
+
+/*
+  Tables of the alias method of Walker for a distribution over the indices
+  0,...,n-1, built by the algorithm of Vose in O(n) time.  Column j is chosen
+  with probability 1/n; it gives j with probability q[j], and alias[j]
+  otherwise.  The arrays are reused when the weights are changed without
+  changing their number.
+*/
+final class AliasTable {
+   private int n;
+   private double[] q;       // probability of keeping the column
+   private int[] alias;      // the other value of the column
+   private int[] work;       // the small and large columns during setup
+
+   AliasTable (double[] weights) {
+      setWeights (weights);
+   }
+
+   int size() {
+      return n;
+   }
+
+   // Builds the tables for the probabilities proportional to weights.
+   void setWeights (double[] weights) {
+      final int len = weights.length;
+      if (len == 0)
+         throw new IllegalArgumentException ("no weights");
+      double sum = 0.0;
+      for (int i = 0; i < len; i++) {
+         if (!(weights[i] >= 0.0))
+            throw new IllegalArgumentException ("weights[" + i + "] < 0");
+         sum += weights[i];
+      }
+      if (!(sum > 0.0) || Double.isInfinite (sum))
+         throw new IllegalArgumentException
+            ("the sum of the weights must be positive and finite");
+      if (q == null || q.length != len) {
+         q = new double[len];
+         alias = new int[len];
+         work = new int[len];
+      }
+      n = len;
+
+      // The small columns (q < 1) are in work[0..s-1], the large ones in
+      // work[l..n-1].  Each step fills a small column with a large one.
+      final double f = n / sum;
+      int s = 0;
+      int l = n;
+      for (int i = 0; i < n; i++) {
+         q[i] = weights[i] * f;
+         if (q[i] < 1.0)
+            work[s++] = i;
+         else
+            work[--l] = i;
+      }
+      while (s > 0 && l < n) {
+         int a = work[--s];
+         int g = work[l];
+         alias[a] = g;
+         q[g] = (q[g] + q[a]) - 1.0;
+         if (q[g] < 1.0) {
+            l++;
+            work[s++] = g;
+         }
+      }
+      // What remains has q = 1, up to round-off errors
+      while (l < n) {
+         int g = work[l++];
+         q[g] = 1.0;
+         alias[g] = g;
+      }
+      while (s > 0) {
+         int a = work[--s];
+         q[a] = 1.0;
+         alias[a] = a;
+      }
+   }
+
+   // Returns the index given by the uniforms u1 (column) and u2.
+   int index (double u1, double u2) {
+      int j = (int)(u1 * n);
+      if (j >= n)
+         j = n - 1;
+      return u2 < q[j] ? j : alias[j];
+   }
+}
@@ -0,0 +1,173 @@
+
+
+/*
+ * Class:        BinomialBTRSGen
+ * Description:  random variate generators having the binomial distribution
+                 using the transformed rejection method with squeeze
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+package umontreal.iro.lecuyer.randvar;
+import umontreal.iro.lecuyer.probdist.*;
+import umontreal.iro.lecuyer.rng.*;
+
+
+/**
+ * This class implements random variate generators having the <EM>binomial</EM>
+ * distribution (see {@link BinomialGen}), using the transformed rejection
+ * method with squeeze (<EM>BTRS</EM>) of Hörmann when
+ * <SPAN CLASS="MATH"><I>n</I>min(<I>p</I>, 1 - <I>p</I>)&nbsp;&gt;=&nbsp;10</SPAN>, and inversion by sequential search from 0
+ * otherwise (from <SPAN CLASS="MATH"><I>n</I></SPAN> if <SPAN CLASS="MATH"><I>p</I> &gt; 1/2</SPAN>).
+ * The expected time is bounded by a constant, whatever <SPAN CLASS="MATH"><I>n</I></SPAN> and <SPAN CLASS="MATH"><I>p</I></SPAN>.
+ * 
+ * <P>
+ * As for {@link PoissonPTRSGen}, no table depending on the parameters is
+ * computed and no object is allocated, so the static method
+ * {@link #nextInt(RandomStream,int,double) nextInt} is appropriate when the
+ * parameters change at almost every call, for example for the thinning of
+ * populations of varying sizes.  This method is not monotone, so it is
+ * not appropriate with common random numbers or quasi-Monte Carlo methods.
+ * 
+ */
+public class BinomialBTRSGen extends BinomialGen  {
+
+
+
+   /**
+    * Creates a binomial random variate generator with parameters <SPAN CLASS="MATH"><I>n</I></SPAN> and <SPAN CLASS="MATH"><I>p</I></SPAN>,
+    *   using stream <TT>s</TT>.
+    * 
+    */
+   public BinomialBTRSGen (RandomStream s, int n, double p)  {
+      super (s, null);
+      setParams (n, p);
+   }
+
+
+   /**
+    * Creates a random variate generator for the <EM>binomial</EM>
+    *    distribution <TT>dist</TT> and stream <TT>s</TT>.
+    * 
+    */
+   public BinomialBTRSGen (RandomStream s, BinomialDist dist)  {
+      super (s, dist);
+   }
+
+
+   /**
+    * Generates a new integer from the <EM>binomial</EM> distribution with
+    *   parameters
+    *    <SPAN CLASS="MATH"><I>n</I> =</SPAN>&nbsp;<TT>n</TT> and <SPAN CLASS="MATH"><I>p</I> =</SPAN>&nbsp;<TT>p</TT>, using the given stream <TT>s</TT>.
+    * 
+    */
+   public static int nextInt (RandomStream s, int n, double p)  {
+      if (p < 0.0 || p > 1.0)
+         throw new IllegalArgumentException ("p not in range [0, 1]");
+      if (n <= 0)
+         throw new IllegalArgumentException ("n <= 0");
+      return btrs (s, n, p);
+   }
+
+
+   public int nextInt() {
+      return btrs (stream, n, p);
+   }
+
+
+   // Sequential search from 0, for n*p < 10 and p <= 1/2 (algorithm BINV of
+   // Kachitvichyanukul and Schmeiser).  The search is restarted in the (very
+   // rare) case where the sum of the probabilities does not reach u
+   // because of round-off errors.
+   private static int inversion (RandomStream s, int n, double p) {
+      final double q = 1.0 - p;
+      final double r = p / q;
+      final double a = (n + 1)*r;
+      final double f0 = Math.exp (n*Math.log1p (-p));
+      while (true) {
+         double u = s.nextDouble();
+         double f = f0;
+         int k = 0;
+         while (u > f && k < n) {
+            u -= f;
+            k++;
+            f *= a/k - r;
+         }
+         if (u <= f)
+            return k;
+      }
+   }
+
+
+/* **************************************************************************
+ * GENERATION METHOD : Transformed Rejection with Squeeze (BTRS)             *
+ *                                                                           *
+ * REFERENCE: - W. Hoermann (1993): The generation of binomial random        *
+ *              variates, J. Statist. Comput. Simul. 46, 101-110.            *
+ *                                                                           *
+ * The log of the ratio of the probabilities of k and of the mode m in       *
+ * step 2 is computed with the Stirling series, as in algorithm BTRD.        *
+ ****************************************************************************/
+   private static int btrs (RandomStream s, int n, double p) {
+      if (p == 0.0)
+         return 0;
+      if (p == 1.0)
+         return n;
+      if (p > 0.5)
+         return n - btrs (s, n, 1.0 - p);
+      final double q = 1.0 - p;
+      final double spq = Math.sqrt (n*p*q);
+      if (n*p < 10.0)
+         return inversion (s, n, p);
+
+      final double b = 1.15 + 2.53*spq;
+      final double a = -0.0873 + 0.0248*b + 0.01*p;
+      final double c = n*p + 0.5;
+      final double alpha = (2.83 + 5.1/b)*spq;
+      final double vr = 0.92 - 4.2/b;
+      final double r = p / q;
+      final int m = (int)((n + 1)*p);
+      final double nm = n - m + 1.0;
+      final double h = (m + 0.5)*Math.log ((m + 1.0)/(r*nm))
+         + PoissonPTRSGen.lnFactorialCorrection (m)
+         + PoissonPTRSGen.lnFactorialCorrection (n - m);
+
+      while (true) {
+         // Step 1
+         final double u = s.nextDouble() - 0.5;
+         double v = s.nextDouble();
+         final double us = 0.5 - Math.abs (u);
+         final double x = Math.floor ((2.0*a/us + b)*u + c);
+         if (us >= 0.07 && v <= vr)
+            return (int)x;
+         if (x < 0.0 || x > n)
+            continue;
+         // Step 2
+         final int k = (int)x;
+         final double nk = n - k + 1.0;
+         v = Math.log (v*alpha/(a/(us*us) + b));
+         if (v <= h + (n + 1.0)*Math.log (nm/nk)
+                  + (k + 0.5)*Math.log (nk*r/(k + 1.0))
+                  - PoissonPTRSGen.lnFactorialCorrection (k)
+                  - PoissonPTRSGen.lnFactorialCorrection (n - k))
+            return k;
+      }
+   }
+
+}
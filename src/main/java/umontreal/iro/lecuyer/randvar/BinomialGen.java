@@ -80,9 +80,18 @@ public class BinomialGen extends RandomVariateGenInt  {
     * Generates a new integer from the <EM>binomial</EM> distribution with
     *   parameters
     *    <SPAN CLASS="MATH"><I>n</I> =</SPAN>&nbsp;<TT>n</TT> and <SPAN CLASS="MATH"><I>p</I> =</SPAN>&nbsp;<TT>p</TT>, using the given stream <TT>s</TT>.
+    *   If the capacity of the default
+    *   {@link umontreal.iro.lecuyer.probdist.DistributionCache DistributionCache} is positive, the
+    *   distribution object, with its tables, is taken from this cache, and
+    *   the value is computed as by the non-static method <TT>nextInt</TT>.
     * 
     */
    public static int nextInt (RandomStream s, int n, double p) {
+      DistributionCache cache = DistributionCache.getDefault();
+      if (cache.getCapacity() > 0)
+         return cache.get (BinomialDist.class, new double[] { n, p },
+                           () -> new BinomialDist (n, p))
+                .inverseFInt (s.nextDouble());
       return BinomialDist.inverseF (n, p, s.nextDouble());
    }
 
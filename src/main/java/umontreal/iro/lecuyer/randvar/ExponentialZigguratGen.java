@@ -0,0 +1,138 @@
+
+
+/*
+ * Class:        ExponentialZigguratGen
+ * Description:  exponential random variate generators using the
+                 ziggurat method
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.randvar;
+import umontreal.iro.lecuyer.rng.*;
+import umontreal.iro.lecuyer.probdist.*;
+
+
+/**
+ * This class implements <EM>exponential</EM> random variate generators
+ * using the <EM>ziggurat</EM> method of Marsaglia and Tsang, with 256
+ * layers, as in {@link NormalZigguratGen}.  The variate is obtained from a
+ * single uniform, with one multiplication and one comparison with a table,
+ * with probability 0.978.  Otherwise, one more uniform is used to accept or
+ * reject the point in the region between the rectangle and the density, or
+ * to generate a variate in the tail, which is exponential.
+ *
+ * <P>
+ * The layer is given by the 8 most significant bits of the uniform, and
+ * the position of the point in the layer by the remaining bits, i.e., about
+ * 24 bits with a stream giving uniforms with 32 bits of precision.
+ * The method {@link #nextArrayOfDouble nextArrayOfDouble} obtains the uniforms
+ * by blocks from the stream, and returns the same values as successive
+ * calls to {@link #nextDouble(()) nextDouble}.
+ *
+ */
+public class ExponentialZigguratGen extends ExponentialGen  {
+
+   // The ziggurat for f(x) = exp(-x), x >= 0, with 256 layers of area V,
+   // as in NormalZigguratGen; the constants R and V are those of Marsaglia
+   // and Tsang (2000).
+   private static final int N = 256;
+   private static final double R = 7.69711747013104972;
+   private static final double V = 0.0039496598225815571993;
+   private static final double[] X = new double[N + 1];
+   private static final double[] F = new double[N + 1];
+   private static final double[] Q = new double[N];   // X[i+1]/X[i]
+   static {
+      X[0] = V / Math.exp (-R);
+      X[1] = R;
+      F[1] = Math.exp (-R);
+      for (int i = 1; i < N - 1; i++) {
+         X[i + 1] = -Math.log (V/X[i] + F[i]);
+         F[i + 1] = Math.exp (-X[i + 1]);
+      }
+      X[N] = 0.0;
+      F[N] = 1.0;
+      for (int i = 0; i < N; i++)
+         Q[i] = X[i + 1] / X[i];
+   }
+
+
+
+   /**
+    * Creates an exponential random variate generator with
+    *  parameter <SPAN CLASS="MATH"><I>&#955;</I></SPAN> = <TT>lambda</TT>, using stream <TT>s</TT>.
+    *
+    */
+   public ExponentialZigguratGen (RandomStream s, double lambda)  {
+      super (s, null);
+      setParams (lambda);
+   }
+
+
+   /**
+    * Creates a new generator for the exponential
+    *    distribution <TT>dist</TT> and stream <TT>s</TT>.
+    *
+    */
+   public ExponentialZigguratGen (RandomStream s, ExponentialDist dist)  {
+      super (s, dist);
+   }
+
+
+   /**
+    * Generates a new exponential variate with parameter
+    *    <SPAN CLASS="MATH"><I>&#955;</I> =</SPAN>&nbsp;<TT>lambda</TT>, using stream <TT>s</TT>.
+    *
+    */
+   public static double nextDouble (RandomStream s, double lambda)  {
+      return nextStandard (s) / lambda;
+   }
+
+
+   public double nextDouble() {
+      return nextStandard (stream) / lambda;
+   }
+
+   public void nextArrayOfDouble (double[] v, int start, int n) {
+      if (n <= 0)
+         throw new IllegalArgumentException ("n must be positive.");
+      UniformBlock b = new UniformBlock (stream, v, start, n);
+      while (!b.isFull())
+         b.put (nextStandard (b) / lambda);
+   }
+
+   // Returns an exponential variate with mean 1.
+   private static double nextStandard (RandomStream s) {
+      while (true) {
+         double u = 256.0*s.nextDouble();
+         int i = (int)u;
+         u -= i;
+         i &= N - 1;
+         double x = u*X[i];
+         if (u < Q[i])
+            return x;
+         if (i == 0)
+            return R - Math.log (s.nextDouble());
+         if (F[i] + s.nextDouble()*(F[i + 1] - F[i]) < Math.exp (-x))
+            return x;
+      }
+   }
+
+}
@@ -81,9 +81,18 @@ public class HypergeometricGen extends RandomVariateGenInt  {
     * Generates a new variate from the <EM>hypergeometric</EM> distribution with
     *    parameters <SPAN CLASS="MATH"><I>m</I> =</SPAN>&nbsp;<TT>m</TT>, <SPAN CLASS="MATH"><I>l</I> =</SPAN>&nbsp;<TT>l</TT> and <SPAN CLASS="MATH"><I>k</I> =</SPAN>&nbsp;<TT>k</TT>,
     *    using stream <TT>s</TT>.
+    *    If the capacity of the default
+    *    {@link umontreal.iro.lecuyer.probdist.DistributionCache DistributionCache} is positive, the
+    *    distribution object, with its tables, is taken from this cache, and
+    *    the value is computed as by the non-static method <TT>nextInt</TT>.
     * 
     */
    public static int nextInt (RandomStream s, int m, int l, int k) {
+      DistributionCache cache = DistributionCache.getDefault();
+      if (cache.getCapacity() > 0)
+         return cache.get (HypergeometricDist.class, new double[] { m, l, k },
+                           () -> new HypergeometricDist (m, l, k))
+                .inverseFInt (s.nextDouble());
       return HypergeometricDist.inverseF (m, l, k, s.nextDouble());
    }
 
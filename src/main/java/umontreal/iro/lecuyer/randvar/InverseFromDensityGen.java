@@ -267,6 +267,22 @@ public class InverseFromDensityGen extends RandomVariateGen  {
    } 
 
 
+   /**
+    * Creates a new generator using the precomputed tables of <TT>dist</TT>
+    * and stream <TT>stream</TT>. <TT>dist</TT> may be obtained by calling
+    * method <TT>getDistribution</TT> of another generator, or be created
+    * directly, for example by reading tables saved with
+    * {@link umontreal.iro.lecuyer.probdist.InverseDistFromDensity#writeTables writeTables}.
+    * The tables are not modified by the generators, so the same
+    * <TT>dist</TT> can be shared by many generators, even in different threads.
+    * 
+    */
+   public InverseFromDensityGen (RandomStream stream,
+                                 InverseDistFromDensity dist)  {
+      super (stream, dist);
+   }
+
+
    /**
     * Generates a new random variate.
     * 
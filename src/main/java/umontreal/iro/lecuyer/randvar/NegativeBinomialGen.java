@@ -79,9 +79,19 @@ public class NegativeBinomialGen extends RandomVariateGenInt  {
     * Generates a new variate from the <EM>negative binomial</EM> distribution,
     *  with parameters <SPAN CLASS="MATH"><I>&#947;</I> =</SPAN>&nbsp;<TT>gamma</TT> and <SPAN CLASS="MATH"><I>p</I> =</SPAN>&nbsp;<TT>p</TT>,
     *  using stream <TT>s</TT>.
+    *   If the capacity of the default
+    *   {@link umontreal.iro.lecuyer.probdist.DistributionCache DistributionCache} is positive, the
+    *   distribution object, with its tables, is taken from this cache, and
+    *   the value is computed as by the non-static method <TT>nextInt</TT>.
     * 
     */
    public static int nextInt (RandomStream s, double gamma, double p)  {
+      DistributionCache cache = DistributionCache.getDefault();
+      if (cache.getCapacity() > 0)
+         return cache.get (NegativeBinomialDist.class,
+                           new double[] { gamma, p },
+                           () -> new NegativeBinomialDist (gamma, p))
+                .inverseFInt (s.nextDouble());
       return NegativeBinomialDist.inverseF (gamma, p, s.nextDouble());
    }
 
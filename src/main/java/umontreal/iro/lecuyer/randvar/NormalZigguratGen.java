@@ -0,0 +1,170 @@
+
+
+/*
+ * Class:        NormalZigguratGen
+ * Description:  normal random variate generators using the ziggurat
+                 method
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.randvar;
+import umontreal.iro.lecuyer.rng.*;
+import umontreal.iro.lecuyer.probdist.*;
+
+
+/**
+ * This class implements <EM>normal</EM> random variate generators using
+ * the <EM>ziggurat</EM> method of Marsaglia and Tsang, with 256 layers.
+ * The area under the density is covered by 255 horizontal rectangles and
+ * a base layer containing the tail, all of the same area.  A layer is
+ * chosen at random, then a point in this layer, which is accepted
+ * immediately if it falls inside the rectangle contained in the
+ * density; this happens with probability 0.985, and then the variate is
+ * obtained from a single uniform, with one multiplication and one comparison
+ * with a table.  Otherwise, one more uniform is used to accept or reject the
+ * point in the region between the rectangle and the density, or the
+ * method of Marsaglia is used in the tail.
+ *
+ * <P>
+ * The layer and the sign of the variate are given by the 9 most significant
+ * bits of the uniform, and the position of the point in the layer by the
+ * remaining bits.  With a stream giving uniforms with 32 bits of precision,
+ * this position thus has about 23 bits of precision; it has more with
+ * the increased precision of the streams.
+ * The method {@link #nextArrayOfDouble nextArrayOfDouble} obtains the uniforms
+ * by blocks from the stream, and returns the same values as successive
+ * calls to {@link #nextDouble(()) nextDouble}.
+ *
+ */
+public class NormalZigguratGen extends NormalGen  {
+
+   // The ziggurat for f(x) = exp(-x^2/2), x >= 0, with 256 layers of area
+   // V: layer i covers [0, X[i]] x [F[i], F[i+1]], where F[i] = f(X[i]).
+   // The base layer 0 is [0, R] x [0, f(R)] plus the tail beyond R = X[1],
+   // so X[0] = V/f(R).  The constants R and V are those of Doornik (2005).
+   private static final int N = 256;
+   private static final double R = 3.6541528853610088;
+   private static final double V = 0.00492867323399;
+   private static final double[] X = new double[N + 1];
+   private static final double[] F = new double[N + 1];
+   private static final double[] Q = new double[N];   // X[i+1]/X[i]
+   static {
+      X[0] = V / Math.exp (-0.5*R*R);
+      X[1] = R;
+      F[1] = Math.exp (-0.5*R*R);
+      for (int i = 1; i < N - 1; i++) {
+         X[i + 1] = Math.sqrt (-2.0*Math.log (V/X[i] + F[i]));
+         F[i + 1] = Math.exp (-0.5*X[i + 1]*X[i + 1]);
+      }
+      X[N] = 0.0;
+      F[N] = 1.0;
+      for (int i = 0; i < N; i++)
+         Q[i] = X[i + 1] / X[i];
+   }
+
+
+
+   /**
+    * Creates a normal random variate generator with mean <TT>mu</TT>
+    *   and standard deviation <TT>sigma</TT>, using stream <TT>s</TT>.
+    *
+    */
+   public NormalZigguratGen (RandomStream s, double mu, double sigma)  {
+      super (s, null);
+      setParams (mu, sigma);
+   }
+
+
+   /**
+    * Creates a standard normal random variate generator with mean
+    *   <TT>0</TT> and standard deviation <TT>1</TT>, using stream <TT>s</TT>.
+    *
+    */
+   public NormalZigguratGen (RandomStream s)  {
+      this (s, 0.0, 1.0);
+   }
+
+
+   /**
+    * Creates a random variate generator for the normal distribution
+    *   <TT>dist</TT> and stream <TT>s</TT>.
+    *
+    */
+   public NormalZigguratGen (RandomStream s, NormalDist dist)  {
+      super (s, dist);
+      if (dist != null)
+         setParams (dist.getMu(), dist.getSigma());
+   }
+
+
+   /**
+    * Generates a variate from the normal distribution with
+    *    parameters <SPAN CLASS="MATH"><I>&#956;</I> =</SPAN>&nbsp;<TT>mu</TT> and <SPAN CLASS="MATH"><I>&#963;</I> =</SPAN>&nbsp;<TT>sigma</TT>, using
+    *    stream <TT>s</TT>.
+    *
+    */
+   public static double nextDouble (RandomStream s, double mu, double sigma)  {
+      return mu + sigma*nextStandard (s);
+   }
+
+
+   public double nextDouble() {
+      return mu + sigma*nextStandard (stream);
+   }
+
+   public void nextArrayOfDouble (double[] v, int start, int n) {
+      if (n <= 0)
+         throw new IllegalArgumentException ("n must be positive.");
+      UniformBlock b = new UniformBlock (stream, v, start, n);
+      while (!b.isFull())
+         b.put (mu + sigma*nextStandard (b));
+   }
+
+   // Returns a standard normal variate.
+   private static double nextStandard (RandomStream s) {
+      while (true) {
+         double u = 512.0*s.nextDouble();
+         int j = (int)u;
+         u -= j;
+         int i = (j >> 1) & (N - 1);
+         double x = u*X[i];
+         if (u >= Q[i]) {
+            if (i == 0)
+               x = tail (s);
+            else if (F[i] + s.nextDouble()*(F[i + 1] - F[i]) >=
+                     Math.exp (-0.5*x*x))
+               continue;
+         }
+         return (j & 1) == 0 ? x : -x;
+      }
+   }
+
+   // Returns a variate from the tail beyond R (Marsaglia, 1964).
+   private static double tail (RandomStream s) {
+      double x, y;
+      do {
+         x = -Math.log (s.nextDouble()) / R;
+         y = -Math.log (s.nextDouble());
+      } while (y + y < x*x);
+      return R + x;
+   }
+
+}
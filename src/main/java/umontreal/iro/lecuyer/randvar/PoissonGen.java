@@ -77,9 +77,18 @@ public class PoissonGen extends RandomVariateGenInt  {
    /**
     * A static method for generating a random variate from a 
     *   <EM>Poisson</EM> distribution with parameter <SPAN CLASS="MATH"><I>&#955;</I></SPAN> = <TT>lambda</TT>.
+    *   If the capacity of the default
+    *   {@link umontreal.iro.lecuyer.probdist.DistributionCache DistributionCache} is positive, the
+    *   distribution object, with its tables, is taken from this cache, and
+    *   the value is computed as by the non-static method <TT>nextInt</TT>.
     * 
     */
    public static int nextInt (RandomStream s, double lambda)  {
+      DistributionCache cache = DistributionCache.getDefault();
+      if (cache.getCapacity() > 0)
+         return cache.get (PoissonDist.class, new double[] { lambda },
+                           () -> new PoissonDist (lambda))
+                .inverseFInt (s.nextDouble());
       return PoissonDist.inverseF (lambda, s.nextDouble());
    }
 
@@ -0,0 +1,180 @@
+
+
+/*
+ * Class:        PoissonPTRSGen
+ * Description:  random variate generators having the Poisson distribution
+                 using the transformed rejection method with squeeze
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.randvar;
+import umontreal.iro.lecuyer.probdist.*;
+import umontreal.iro.lecuyer.rng.*;
+
+
+/**
+ * This class implements random variate generators having the <EM>Poisson</EM>
+ * distribution (see {@link PoissonGen}), using the transformed rejection
+ * method with squeeze (<EM>PTRS</EM>) of Hörmann for
+ * <SPAN CLASS="MATH"><I>&#955;</I>&nbsp;&gt;=&nbsp;10</SPAN>, and inversion by sequential search from 0 for
+ * <SPAN CLASS="MATH"><I>&#955;</I> &lt; 10</SPAN>.
+ * The PTRS method needs about 2.2 uniforms per value on average, and
+ * its expected time is bounded by a constant, whatever <SPAN CLASS="MATH"><I>&#955;</I></SPAN>.
+ * 
+ * <P>
+ * No table depending on <SPAN CLASS="MATH"><I>&#955;</I></SPAN> is computed: the few constants of the
+ * method are computed at each call, and no object is allocated.  The static
+ * method {@link #nextInt(RandomStream,double) nextInt} is thus appropriate when
+ * <SPAN CLASS="MATH"><I>&#955;</I></SPAN> changes at almost every call, for example for a Poisson process
+ * whose rate changes with time, for which
+ * {@link PoissonGen#nextInt(RandomStream,double) PoissonGen.nextInt} and
+ * {@link PoissonDist} compute the distribution for each new value of
+ * <SPAN CLASS="MATH"><I>&#955;</I></SPAN>.  This method is not monotone, so it is not appropriate with
+ * common random numbers or quasi-Monte Carlo methods.
+ * 
+ */
+public class PoissonPTRSGen extends PoissonGen  {
+
+   // log(k!) - [(k + 1/2) log(k + 1) - (k + 1) + log(2 pi)/2], k = 0,...,9
+   private static final double[] FC = {
+      0.08106146679532726, 0.04134069595540929, 0.02767792568499834,
+      0.02079067210376509, 0.01664469118982119, 0.01387612882307075,
+      0.01189670994589177, 0.01041126526197209, 0.009255462182712733,
+      0.008330563433362871 };
+   private static final double HALF_LN_2PI = 0.9189385332046727;
+
+
+
+   /**
+    * Creates a Poisson random variate generator with
+    *   parameter <SPAN CLASS="MATH"><I>&#955;</I> =</SPAN> <TT>lambda</TT>, using stream <TT>s</TT>.
+    * 
+    */
+   public PoissonPTRSGen (RandomStream s, double lambda)  {
+      super (s, null);
+      setParams (lambda);
+   }
+
+
+   /**
+    * Creates a new random variate generator using the Poisson
+    *     distribution <TT>dist</TT> and stream <TT>s</TT>.
+    * 
+    */
+   public PoissonPTRSGen (RandomStream s, PoissonDist dist)  {
+      super (s, dist);
+   }
+
+
+   /**
+    * Generates a new integer from the <EM>Poisson</EM> distribution with
+    *   parameter <SPAN CLASS="MATH"><I>&#955;</I> =</SPAN>&nbsp;<TT>lambda</TT>, using the given stream <TT>s</TT>.
+    * 
+    */
+   public static int nextInt (RandomStream s, double lambda)  {
+      if (lambda <= 0.0)
+         throw new IllegalArgumentException ("lambda <= 0");
+      if (lambda < 10.0)
+         return inversion (s, lambda);
+      return ptrs (s, lambda);
+   }
+
+
+   public int nextInt() {
+      if (lambda < 10.0)
+         return inversion (stream, lambda);
+      return ptrs (stream, lambda);
+   }
+
+
+   // Returns log(k!) - [(k + 1/2) log(k + 1) - (k + 1) + log(2 pi)/2],
+   // from the Stirling series for k >= 10.
+   static double lnFactorialCorrection (int k) {
+      if (k < 10)
+         return FC[k];
+      final double x = k + 1.0;
+      final double x2 = x*x;
+      return (1.0/12.0 - (1.0/360.0 - 1.0/1260.0/x2)/x2)/x;
+   }
+
+
+   // Sequential search from 0, for lambda < 10.  The search is restarted
+   // in the (very rare) case where the sum of the probabilities does not
+   // reach u because of round-off errors.
+   private static int inversion (RandomStream s, double lambda) {
+      final double p0 = Math.exp (-lambda);
+      while (true) {
+         double u = s.nextDouble();
+         double p = p0;
+         int k = 0;
+         while (u > p) {
+            u -= p;
+            k++;
+            p *= lambda / k;
+            if (p == 0.0)
+               break;
+         }
+         if (u <= p)
+            return k;
+      }
+   }
+
+
+/* **************************************************************************
+ * GENERATION METHOD : Transformed Rejection with Squeeze (PTRS)             *
+ *                                                                           *
+ * REFERENCE: - W. Hoermann (1993): The transformed rejection method for     *
+ *              generating Poisson random variables,                         *
+ *              Insurance: Mathematics and Economics 12, 39-45.              *
+ *                                                                           *
+ * The log of the probability of k in step 3 is computed with the Stirling   *
+ * series, in a form without cancellation for large lambda.                  *
+ ****************************************************************************/
+   private static int ptrs (RandomStream s, double lambda) {
+      final double slam = Math.sqrt (lambda);
+      final double loglam = Math.log (lambda);
+      final double b = 0.931 + 2.53*slam;
+      final double a = -0.059 + 0.02483*b;
+      final double lninvalpha = Math.log (1.1239 + 1.1328/(b - 3.4));
+      final double vr = 0.9277 - 3.6224/(b - 2.0);
+
+      while (true) {
+         // Step 1
+         final double u = s.nextDouble() - 0.5;
+         final double v = s.nextDouble();
+         final double us = 0.5 - Math.abs (u);
+         final double x = Math.floor ((2.0*a/us + b)*u + lambda + 0.43);
+         if (us >= 0.07 && v <= vr)
+            return (int)x;
+         // Step 2
+         if (x < 0.0 || (us < 0.013 && v > us))
+            continue;
+         // Step 3
+         final int k = (int)x;
+         final double lnpk = k*(loglam - Math.log (k + 1.0))
+            - 0.5*Math.log (k + 1.0) + (k + 1.0 - lambda)
+            - HALF_LN_2PI - lnFactorialCorrection (k);
+         if (Math.log (v) + lninvalpha - Math.log (a/(us*us) + b) <= lnpk)
+            return k;
+      }
+   }
+
+}
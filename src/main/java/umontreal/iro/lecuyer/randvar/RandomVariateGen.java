@@ -27,6 +27,7 @@
 package umontreal.iro.lecuyer.randvar;
 import umontreal.iro.lecuyer.rng.RandomStream;
 import umontreal.iro.lecuyer.probdist.Distribution;
+import umontreal.iro.lecuyer.probdist.ContinuousDistribution;
 
 /**
  * This is the base class for all random variate generators over the real line.
@@ -61,6 +62,20 @@ public class RandomVariateGen  {
    protected Distribution dist;
    // the distribution used by this generator
 
+   // True for the classes whose method nextDouble is that of this class,
+   // which generates by inversion.
+   private static final ClassValue<Boolean> INVERSION =
+         new ClassValue<Boolean>() {
+      protected Boolean computeValue (Class<?> c) {
+         try {
+            return c.getMethod ("nextDouble").getDeclaringClass() ==
+                   RandomVariateGen.class;
+         } catch (NoSuchMethodException e) {
+            return false;
+         }
+      }
+   };
+
 
 
  // This constructor is needed for subclasses with no associated distribution.
@@ -103,6 +118,10 @@ public class RandomVariateGen  {
     *    starting from index <TT>start</TT>.
     *    By default, this method calls {@link #nextDouble() nextDouble()} <TT>n</TT>
     *    times, but one can override it in subclasses for better efficiency.
+    *    If the generator uses inversion, as this class does, the uniforms are
+    *    obtained with one call to <TT>nextArrayOfDouble</TT> of the stream, and
+    *    inverted with one call to the array method <TT>inverseF</TT> of the
+    *    distribution; the values are the same.
     *  
     * @param v array in which the variates will be stored
     * 
@@ -115,8 +134,13 @@ public class RandomVariateGen  {
    public void nextArrayOfDouble (double[] v, int start, int n)  {
       if (n <= 0)
          throw new IllegalArgumentException ("n must be positive.");
-      for (int i = 0; i < n; i++)
-         v[start + i] = nextDouble();
+      if (dist instanceof ContinuousDistribution &&
+          INVERSION.get (getClass())) {
+         stream.nextArrayOfDouble (v, start, n);
+         ((ContinuousDistribution) dist).inverseF (v, v, start, n);
+      } else
+         for (int i = 0; i < n; i++)
+            v[start + i] = nextDouble();
    }
 
 
@@ -0,0 +1,114 @@
+
+
+/*
+ * Class:        UniformBlock
+ * Description:  uniforms obtained by blocks for the array methods of
+                 rejection generators
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.randvar;
+
+import umontreal.iro.lecuyer.rng.RandomStream;
+
+
+/*
+  Gives the uniforms of a stream to a method that generates the values
+  v[start..start+n-1] of an array, where each value needs one or more
+  uniforms (e.g., a rejection method).  The uniforms are obtained by blocks
+  with nextArrayOfDouble, and stored in v itself, after the values already
+  generated: since each value needs at least one uniform, a block never
+  contains more uniforms than the number of values still to generate, so
+  the stream gives exactly the same uniforms as with successive calls to
+  nextDouble, and is left in the same state.
+
+  The method calls nextDouble for its uniforms, and put for each value,
+  in the order of the array.  The reset methods are applied to the stream
+  and discard the uniforms of the current block, so the next block starts
+  at the new state of the stream.
+*/
+final class UniformBlock implements RandomStream {
+   private final RandomStream stream;
+   private final double[] v;
+   private final int end;
+   private int k;         // index of the next value
+   private int p;         // index of the next uniform
+
+   UniformBlock (RandomStream stream, double[] v, int start, int n) {
+      this.stream = stream;
+      this.v = v;
+      end = start + n;
+      k = p = start;
+      if (n > 0)
+         stream.nextArrayOfDouble (v, start, n);
+   }
+
+   // Stores the next value of the array.
+   void put (double x) {
+      v[k++] = x;
+   }
+
+   // True if all the values have been stored.
+   boolean isFull() {
+      return k >= end;
+   }
+
+   public double nextDouble() {
+      if (p >= end) {
+         stream.nextArrayOfDouble (v, k, end - k);
+         p = k;
+      }
+      return v[p++];
+   }
+
+   public void nextArrayOfDouble (double[] u, int start, int n) {
+      for (int i = start; i < start + n; i++)
+         u[i] = nextDouble();
+   }
+
+   public int nextInt (int i, int j) {
+      return i + (int)(nextDouble() * (j - i + 1.0));
+   }
+
+   public void nextArrayOfInt (int i, int j, int[] u, int start, int n) {
+      for (int x = start; x < start + n; x++)
+         u[x] = nextInt (i, j);
+   }
+
+   public void resetStartStream() {
+      stream.resetStartStream();
+      p = end;
+   }
+
+   public void resetStartSubstream() {
+      stream.resetStartSubstream();
+      p = end;
+   }
+
+   public void resetNextSubstream() {
+      stream.resetNextSubstream();
+      p = end;
+   }
+
+   public String toString() {
+      return "UniformBlock of " + stream.toString();
+   }
+}
@@ -0,0 +1,367 @@
+
+
+/*
+ * Class:        F2LinearJump
+ * Description:  jump-ahead by characteristic polynomials for the
+                 F2-linear generators
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.rng;
+
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/*
+  Jump-ahead for an F2-linear recurrence x_n = A x_{n-1} whose
+  characteristic polynomial P(z) has degree k (Haramoto, Matsumoto,
+  Nishimura, Panneton and L'Ecuyer, 2008).  Since P(A) x = 0 for all the
+  states x reached by the recurrence, A^s x = g(A) x, where
+  g(z) = z^s mod P(z), and g(A) x is the sum of the states A^j x for the
+  coefficients g_j = 1, which needs at most k steps of the generator
+  instead of a 2^k x 2^k matrix.
+
+  The state stored by some generators contains a few bits which are
+  overwritten at each step without being read (e.g. the low bits of the
+  components of LFSR113); the modulus is then z P(z) rather than P(z),
+  so that the term j = 0 never appears for s > 0.
+
+  P is found once per generator class by applying the Berlekamp-Massey
+  algorithm to one bit of the xor of the state words over 2k steps, and the powers z^(2^e) mod z P(z)
+  used by jump are cached.  The polynomials z^s mod z P(z) computed by
+  advance are also cached for the last few values of s, since computing
+  one takes log2(s) squarings modulo z P(z) (about 0.3 s for s near 2^100
+  with MT19937), while applying it takes at most k steps.  The polynomials are stored as arrays of ints,
+  the coefficient of z^i being bit i % 32 of word i / 32.
+*/
+abstract class F2LinearJump<G> {
+
+   private final int k;           // degree of P
+   private final int size;        // number of ints in the state
+   private final int nw;          // number of ints in a polynomial
+   private int[] modulus;         // z P(z)
+   private int[][] multiples;     // u z P(z), indexed by its 8 leading bits
+   private int[][] powers = new int[0][];   // z^(2^e) mod z P(z)
+   // z^s mod z P(z) for the last values of s used by advance
+   private final Map<BigInteger,int[]> polys =
+      new LinkedHashMap<BigInteger,int[]> (16, 0.75f, true) {
+         protected boolean removeEldestEntry (Map.Entry<BigInteger,int[]> e) {
+            return size() > NUM_POLYS;
+         }
+      };
+   private static final int NUM_POLYS = 8;
+
+
+   /*
+      k is the degree of the characteristic polynomial, and size is the
+      number of ints in the arrays of getState and setState.
+   */
+   F2LinearJump (int k, int size) {
+      this.k = k;
+      this.size = size;
+      nw = (k + 2 + 31) >>> 5;
+   }
+
+   // Copies the current state of gen in x[0..size-1].
+   abstract void getState (G gen, int[] x);
+
+   // Sets the current state of gen to x[0..size-1].
+   abstract void setState (G gen, int[] x);
+
+   // Advances gen by one step of the recurrence.
+   abstract void step (G gen);
+
+
+   /*
+      Advances gen by steps steps.
+   */
+   void advance (G gen, BigInteger steps) {
+      if (steps.signum() < 0)
+         throw new IllegalArgumentException ("steps must be non-negative");
+      if (steps.bitLength() < 31 && steps.intValue() < 2*k) {
+         for (int i = steps.intValue(); i > 0; i--)
+            step (gen);
+         return;
+      }
+      apply (gen, getPolynomial (gen, steps));
+   }
+
+
+   /*
+      Advances gen by 2^e steps.
+   */
+   void jump (G gen, int e) {
+      if (e < 0)
+         throw new IllegalArgumentException ("e must be non-negative");
+      if (e < 31 && (1 << e) < 2*k) {
+         for (int i = 1 << e; i > 0; i--)
+            step (gen);
+         return;
+      }
+      apply (gen, getPower (gen, e));
+   }
+
+
+   // Replaces the state x of gen by g(A) x.
+   private void apply (G gen, int[] g) {
+      int[] x = new int[size];
+      int[] acc = new int[size];
+      int deg = degree (g);
+      for (int j = 0; j <= deg; j++) {
+         if ((g[j >>> 5] & (1 << (j & 31))) != 0) {
+            getState (gen, x);
+            for (int i = 0; i < size; i++)
+               acc[i] ^= x[i];
+         }
+         if (j < deg)
+            step (gen);
+      }
+      setState (gen, acc);
+   }
+
+
+   private synchronized int[] getPower (G gen, int e) {
+      if (e < powers.length)
+         return powers[e];
+      getModulus (gen);
+      int[][] p = new int[e + 1][];
+      System.arraycopy (powers, 0, p, 0, powers.length);
+      int i = powers.length;
+      if (i == 0) {
+         p[0] = new int[nw];
+         p[0][0] = 2;
+         i = 1;
+      }
+      for (; i <= e; i++)
+         p[i] = squareMod (p[i - 1]);
+      powers = p;
+      return p[e];
+   }
+
+
+   private synchronized int[] getPolynomial (G gen, BigInteger steps) {
+      int[] g = polys.get (steps);
+      if (g != null)
+         return g;
+      int[] q = getModulus (gen);
+      g = new int[nw];
+      g[0] = 1;
+      for (int i = steps.bitLength() - 1; i >= 0; i--) {
+         g = squareMod (g);
+         if (steps.testBit (i))
+            multiplyByZ (g, q);
+      }
+      polys.put (steps, g);
+      return g;
+   }
+
+
+   private synchronized int[] getModulus (G gen) {
+      if (modulus == null) {
+         int[] q = findModulus (gen);
+         multiples = findMultiples (q);
+         modulus = q;
+      }
+      return modulus;
+   }
+
+
+   /*
+      Returns the multiples u(z) q(z), deg u < 8, indexed by their
+      coefficients of z^(k+1),...,z^(k+8), so that squareMod can cancel
+      8 coefficients at a time.
+   */
+   private int[][] findMultiples (int[] q) {
+      int deg = k + 1;
+      int mw = (deg + 8 + 31) >>> 5;
+      int[][] t = new int[256][];
+      t[0] = new int[mw];
+      for (int b = 0; b < 8; b++) {
+         int[] r = new int[mw];
+         xorShifted (r, q, b, mw);
+         for (int c = 0; c < b; c++)
+            if ((r[(deg + c) >>> 5] & (1 << ((deg + c) & 31))) != 0)
+               for (int i = 0; i < mw; i++)
+                  r[i] ^= t[1 << c][i];
+         t[1 << b] = r;
+      }
+      for (int v = 3; v < 256; v++)
+         if ((v & (v - 1)) != 0) {
+            int[] lo = t[v & -v];
+            int[] hi = t[v & (v - 1)];
+            t[v] = new int[mw];
+            for (int i = 0; i < mw; i++)
+               t[v][i] = lo[i] ^ hi[i];
+         }
+      return t;
+   }
+
+
+   // Computes z P(z) from 2k steps of gen, whose state is then restored.
+   private int[] findModulus (G gen) {
+      int[] x = new int[size];
+      int[] save = new int[size];
+      getState (gen, save);
+      int n = 2*k;
+      int[] seq = new int[n];
+      step (gen);
+      for (int j = 0; j < n; j++) {
+         getState (gen, x);
+         int w = 0;
+         for (int i = 0; i < size; i++)
+            w ^= x[i];
+         seq[j] = w;
+         step (gen);
+      }
+      setState (gen, save);
+      for (int b = 31; b >= 0; b--) {
+         int[] c = berlekampMassey (seq, b);
+         if (c != null) {
+            // z P(z) = z^(k+1) C(1/z)
+            int[] q = new int[nw];
+            for (int t = 1; t <= k + 1; t++)
+               if ((c[(k + 1 - t) >>> 5] & (1 << ((k + 1 - t) & 31))) != 0)
+                  q[t >>> 5] |= 1 << (t & 31);
+            return q;
+         }
+      }
+      throw new IllegalStateException
+         ("Cannot find the characteristic polynomial of the generator");
+   }
+
+
+   /*
+      Returns the connection polynomial C(z) = 1 + c_1 z + ... + c_k z^k of
+      the sequence of bits b of seq, or null if its linear complexity is not k.
+   */
+   private int[] berlekampMassey (int[] seq, int b) {
+      int n = seq.length;
+      int len = (n >>> 5) + 2;
+      // r holds the sequence in reverse order, so that the discrepancy
+      // is a scalar product of C with a window of r
+      int[] r = new int[len];
+      for (int j = 0; j < n; j++)
+         if ((seq[j] & (1 << b)) != 0)
+            r[(n - 1 - j) >>> 5] |= 1 << ((n - 1 - j) & 31);
+      int[] c = new int[len];
+      int[] bb = new int[len];
+      int[] t = new int[len];
+      c[0] = bb[0] = 1;
+      int lc = 0;
+      int m = 1;
+      for (int j = 0; j < n; j++) {
+         int off = n - 1 - j;
+         int d = 0;
+         for (int i = 0; i <= (lc >>> 5); i++)
+            d ^= c[i] & window (r, off + (i << 5));
+         if (Integer.bitCount (d) % 2 == 0)
+            m++;
+         else if (2*lc <= j) {
+            System.arraycopy (c, 0, t, 0, len);
+            xorShifted (c, bb, m, len);
+            lc = j + 1 - lc;
+            int[] tmp = bb;
+            bb = t;
+            t = tmp;
+            m = 1;
+         } else {
+            xorShifted (c, bb, m, len);
+            m++;
+         }
+      }
+      return lc == k ? c : null;
+   }
+
+   // The 32 bits of a starting at bit pos.
+   private static int window (int[] a, int pos) {
+      int q = pos >>> 5;
+      int s = pos & 31;
+      if (q >= a.length)
+         return 0;
+      int w = a[q] >>> s;
+      if (s != 0 && q + 1 < a.length)
+         w |= a[q + 1] << (32 - s);
+      return w;
+   }
+
+   // a ^= b z^shift, truncated to len words.
+   private static void xorShifted (int[] a, int[] b, int shift, int len) {
+      int ws = shift >>> 5;
+      int bs = shift & 31;
+      for (int i = 0; i < b.length && i + ws < len; i++) {
+         if (b[i] == 0)
+            continue;
+         a[i + ws] ^= b[i] << bs;
+         if (bs != 0 && i + ws + 1 < len)
+            a[i + ws + 1] ^= b[i] >>> (32 - bs);
+      }
+   }
+
+   private static int degree (int[] a) {
+      for (int i = a.length - 1; i >= 0; i--)
+         if (a[i] != 0)
+            return (i << 5) + 31 - Integer.numberOfLeadingZeros (a[i]);
+      return -1;
+   }
+
+   // Returns g^2 mod z P(z), for deg g <= k.
+   private int[] squareMod (int[] g) {
+      int len = 2*nw + 1;
+      int[] s = new int[len];
+      for (int i = 0; i < nw; i++) {
+         int w = g[i];
+         if (w == 0)
+            continue;
+         s[2*i] = spread (w & 0xFFFF);
+         s[2*i + 1] = spread (w >>> 16);
+      }
+      for (int j = (k - 1) >>> 3; j >= 0; j--) {
+         int v = window (s, k + 1 + 8*j) & 0xFF;
+         if (v != 0)
+            xorShifted (s, multiples[v], 8*j, len);
+      }
+      int[] res = new int[nw];
+      System.arraycopy (s, 0, res, 0, nw);
+      return res;
+   }
+
+   // Inserts a 0 between the bits of the low 16 bits of w.
+   private static int spread (int w) {
+      w = (w | (w << 8)) & 0x00FF00FF;
+      w = (w | (w << 4)) & 0x0F0F0F0F;
+      w = (w | (w << 2)) & 0x33333333;
+      w = (w | (w << 1)) & 0x55555555;
+      return w;
+   }
+
+   // g = z g mod q, for deg g <= k.
+   private void multiplyByZ (int[] g, int[] q) {
+      for (int i = nw - 1; i > 0; i--)
+         g[i] = (g[i] << 1) | (g[i - 1] >>> 31);
+      g[0] <<= 1;
+      if ((g[(k + 1) >>> 5] & (1 << ((k + 1) & 31))) != 0)
+         for (int i = 0; i < nw; i++)
+            g[i] ^= q[i];
+   }
+
+}
@@ -168,28 +168,30 @@ public class F2NL607  extends WELL607base {
     */
    public F2NL607()  {
       //linear part
-      initialisation();
+      synchronized (F2NL607.class) {
+         initialisation();
 
-      constructed = true;
+         constructed = true;
 
-      state = new int[BUFFER_SIZE];
-      stream = new int[R];
-      substream = new int[R];
+         state = new int[BUFFER_SIZE];
+         stream = new int[R];
+         substream = new int[R];
 
-      for(int i = 0; i < R; i++)
-         stream[i] = curr_stream[i];
+         for(int i = 0; i < R; i++)
+            stream[i] = curr_stream[i];
 
-//    advanceSeed(curr_stream, Apz);
-      advanceSeed(curr_stream, WELL607.pz);
+   //    advanceSeed(curr_stream, Apz);
+         advanceSeed(curr_stream, WELL607.pz);
 
-      //non-linear part
-      nlState = new int[nlData.length];
-      nlStream = new int[nlData.length];
-      nlSubstream = new int[nlData.length];
+         //non-linear part
+         nlState = new int[nlData.length];
+         nlStream = new int[nlData.length];
+         nlSubstream = new int[nlData.length];
 
-      for(int i = 0; i < nlData.length; i++) {
-         nlStream[i] = curr_nlStream[i];
-         curr_nlStream[i] += nlJumpZ[i];
+         for(int i = 0; i < nlData.length; i++) {
+            nlStream[i] = curr_nlStream[i];
+            curr_nlStream[i] += nlJumpZ[i];
+         }
       }
 
       resetStartStream();
@@ -248,7 +250,7 @@ public class F2NL607  extends WELL607base {
     * 
     * 
     */
-   public static void setPackageLinearSeed (int seed[])  {
+   public static synchronized void setPackageLinearSeed (int seed[])  {
       verifySeed(seed);
 
       for(int i = 0; i < R; i++)
@@ -309,7 +311,7 @@ public class F2NL607  extends WELL607base {
     * 
     * 
     */
-   public static void setPackageNonLinearSeed (int seed[])  {
+   public static synchronized void setPackageNonLinearSeed (int seed[])  {
       if (seed.length < nlData.length)
          throw new IllegalArgumentException("Seed must contain " +
                                             nlData.length + " values");
@@ -416,7 +418,7 @@ public class F2NL607  extends WELL607base {
     * 
     * 
     */
-   public static void setNonLinearData (int[][] data)  {
+   public static synchronized void setNonLinearData (int[][] data)  {
       if(constructed)
          throw new IllegalStateException("setNonLinearData can only be " +
                                          "called before the creation of " +
@@ -470,7 +472,7 @@ public class F2NL607  extends WELL607base {
     * 
     * 
     */
-   public static void setScrambleData (RandomStream rand, int steps,
+   public static synchronized void setScrambleData (RandomStream rand, int steps,
                                        int[] size)  {
       if (constructed)
          throw new IllegalStateException("setScrambleData can only be " +
@@ -575,5 +577,50 @@ public class F2NL607  extends WELL607base {
          result += 0x100000000L;
       return result * NORM;
    }
+
+   protected void nextArrayOfValues (double[] v, int start, int n) {
+      final int[][] nld = nlData;
+      final int[] nls = nlState;
+      final int[] st = state;
+      int si = state_i;
+      int z0, z1, z2, nonLin;
+      long result;
+      for (int ii = start; ii < start + n; ii++) {
+         nonLin = 0;
+         for (int i = 0; i < nld.length; i++) {
+            if (nls[i] >= nld[i].length - 1)
+               nls[i] = 0;
+            else
+               nls[i]++;
+            nonLin += nld[i][nls[i]];
+         }
+         z0 = (st[(si + R1) & MASK_STATE] & MASKL) |
+              (st[(si + R2) & MASK_STATE] & MASKU);
+         z1 = (st[si] ^ (st[si] >>> 19)) ^
+              (st[(si + M1) & MASK_STATE] ^
+               (st[(si + M1) & MASK_STATE] >>> 11));
+         z2 = (st[(si + M2) & MASK_STATE] ^
+               (st[(si + M2) & MASK_STATE] << (14))) ^
+              st[(si + M3) & MASK_STATE];
+         st[si] = z1 ^ z2;
+         st[(si - 1) & MASK_STATE] = (z0 ^ (z0 >>> 18)) ^
+                                     z1 ^ (st[si] ^ (st[si] << 5));
+         si = (si - 1) & MASK_STATE;
+         result = (st[si] ^ nonLin);
+         if(result <= 0)
+            result += 0x100000000L;
+         v[ii] = result * NORM;
+      }
+      state_i = si;
+   }
+
+
+   public void nextArrayOfDouble (double[] u, int start, int n) {
+      nextBlockOfDouble (u, start, n);
+   }
+
+   public void nextArrayOfInt (int i, int j, int[] u, int start, int n) {
+      nextBlockOfInt (i, j, u, start, n);
+   }
 }
 
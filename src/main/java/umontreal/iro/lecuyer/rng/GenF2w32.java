@@ -26,6 +26,7 @@
 
 package umontreal.iro.lecuyer.rng;
 
+import java.math.BigInteger;
 import umontreal.iro.lecuyer.util.BitVector;
 import umontreal.iro.lecuyer.util.BitMatrix;
 import java.io.Serializable;
@@ -314,20 +315,22 @@ public class GenF2w32 extends RandomStreamBase  {
     * 
     */
    public GenF2w32()  {
-      if (!initialised)
-         initialisation();
+      synchronized (GenF2w32.class) {
+         if (!initialised)
+            initialisation();
 
-      //stream = polyBase.createElem();
-      //substream = polyBase.createElem();
-      stream = new int[R];
-      substream = new int[R];
-      state = new int[R];
+         //stream = polyBase.createElem();
+         //substream = polyBase.createElem();
+         stream = new int[R];
+         substream = new int[R];
+         state = new int[R];
 
-      for(int i = 0; i < R; i++)
-         stream[i] = curr_stream[i];
-      //stream.copyFrom(curr_stream);
+         for(int i = 0; i < R; i++)
+            stream[i] = curr_stream[i];
+         //stream.copyFrom(curr_stream);
 
-      advanceSeed(curr_stream, Apz);
+         advanceSeed(curr_stream, Apz);
+      }
       //      curr_stream = curr_stream.multiply(jumpZ);
 
       resetStartStream();
@@ -356,7 +359,7 @@ public class GenF2w32 extends RandomStreamBase  {
     * 
     * 
     */
-   public static void setPackageSeed (int seed[])  {
+   public static synchronized void setPackageSeed (int seed[])  {
       if (!initialised)
          initialisation();
       if (seed.length < R)
@@ -425,6 +428,68 @@ public class GenF2w32 extends RandomStreamBase  {
       return res;
    } 
 
+   // Jump-ahead by the characteristic polynomial, one step being one
+   // call to nextValue
+   private static final F2LinearJump<GenF2w32> JUMP =
+         new F2LinearJump<GenF2w32> (800, R) {
+      void getState (GenF2w32 gen, int[] x) {
+         int si = gen.state_i < 0 ? R - 1 : gen.state_i;
+         for (int i = 0; i < R; i++)
+            x[i] = gen.state[(si + i) % R];
+      }
+      void setState (GenF2w32 gen, int[] x) {
+         for (int i = 0; i < R; i++)
+            gen.state[i] = x[i];
+         gen.state_i = 0;
+      }
+      void step (GenF2w32 gen) {
+         gen.nextValue();
+      }
+   };
+
+
+   /**
+    * Advances the current state of this stream by <TT>steps</TT> values,
+    *    as if <TT>nextValue</TT> had been called <TT>steps</TT> times,
+    *    in a time that does not depend on <TT>steps</TT>.
+    *    The new state is <SPAN CLASS="MATH"><I>g</I>(<B>A</B>)<B>x</B></SPAN>, where <SPAN CLASS="MATH"><B>x</B></SPAN> is the current state,
+    *    <SPAN CLASS="MATH"><B>A</B></SPAN> is the transition matrix, and <SPAN CLASS="MATH"><I>g</I>(<I>z</I>)</SPAN> is <SPAN CLASS="MATH"><I>z</I><SUP>steps</SUP></SPAN>
+    *    modulo the characteristic polynomial of the recurrence;
+    *    this takes at most <SPAN CLASS="MATH"><I>k</I> = 800</SPAN> steps of the generator.
+    *    The characteristic polynomial is computed the first time
+    *    a jump is made by a stream of this class.
+    *    The beginning of the stream and of the current substream is not changed.
+    * 
+    * @param steps the number of values to skip
+    * 
+    *    @exception IllegalArgumentException if <TT>steps</TT> is negative
+    * 
+    * 
+    */
+   public void advance (BigInteger steps)  {
+      JUMP.advance (this, steps);
+   }
+
+
+   /**
+    * Advances the current state of this stream by <SPAN CLASS="MATH">2<SUP>e</SUP></SPAN> values.
+    *    This is equivalent to <TT>advance (BigInteger.ONE.shiftLeft (e))</TT>,
+    *    but the polynomials <SPAN CLASS="MATH"><I>z</I><SUP>2<SUP>e</SUP></SUP></SPAN> modulo the characteristic polynomial
+    *    are kept and shared by all the streams of this class, so that
+    *    splitting a stream in many parts of length <SPAN CLASS="MATH">2<SUP>e</SUP></SPAN> costs a single
+    *    polynomial computation.
+    * 
+    * @param e the base-2 logarithm of the number of values to skip
+    * 
+    *    @exception IllegalArgumentException if <TT>e</TT> is negative
+    * 
+    * 
+    */
+   public void jump (int e)  {
+      JUMP.jump (this, e);
+   }
+
+
 
    /**
     * Clones the current generator and return its copy.
@@ -26,6 +26,7 @@
 
 package umontreal.iro.lecuyer.rng; 
 
+import java.math.BigInteger;
 import java.io.Serializable;
 
 
@@ -76,54 +77,56 @@ public class LFSR113 extends RandomStreamBase  {
       stream = new int[4];
       substream = new int[4];
 
-      for(int i = 0; i < 4; i++)
-         stream[i] = curr_stream[i];
+      synchronized (LFSR113.class) {
+         for(int i = 0; i < 4; i++)
+            stream[i] = curr_stream[i];
 
-      resetStartStream();
+         resetStartStream();
 
 
-      // Les operations qui suivent permettent de faire sauter en avant
-      // de 2^90 iterations chacunes des composantes du generateur.
-      // L'etat interne apres le saut est cependant legerement different
-      // de celui apres 2^90 iterations puisqu'il ignore l'etat dans
-      // lequel se retrouvent les premiers bits de chaque composantes,
-      // puisqu'ils sont ignores dans la recurrence. L'etat redevient
-      // identique a ce que l'on aurait avec des iterations normales
-      // apres un appel a nextValue().
+         // Les operations qui suivent permettent de faire sauter en avant
+         // de 2^90 iterations chacunes des composantes du generateur.
+         // L'etat interne apres le saut est cependant legerement different
+         // de celui apres 2^90 iterations puisqu'il ignore l'etat dans
+         // lequel se retrouvent les premiers bits de chaque composantes,
+         // puisqu'ils sont ignores dans la recurrence. L'etat redevient
+         // identique a ce que l'on aurait avec des iterations normales
+         // apres un appel a nextValue().
 
-      int z, b;
+         int z, b;
 
-      z = curr_stream[0] & -2;
-      b = (z <<  6) ^ z;
-      z = (z) ^ (z << 2) ^ (z << 3) ^ (z << 10) ^ (z << 13) ^
-         (z << 16) ^ (z << 19) ^ (z << 22) ^ (z << 25) ^
-         (z << 27) ^ (z << 28) ^
-         (b >>> 3) ^ (b >>> 4) ^ (b >>> 6) ^ (b >>> 9) ^ (b >>> 12) ^
-         (b >>> 15) ^ (b >>> 18) ^ (b >>> 21);
-      curr_stream[0] = z;
+         z = curr_stream[0] & -2;
+         b = (z <<  6) ^ z;
+         z = (z) ^ (z << 2) ^ (z << 3) ^ (z << 10) ^ (z << 13) ^
+            (z << 16) ^ (z << 19) ^ (z << 22) ^ (z << 25) ^
+            (z << 27) ^ (z << 28) ^
+            (b >>> 3) ^ (b >>> 4) ^ (b >>> 6) ^ (b >>> 9) ^ (b >>> 12) ^
+            (b >>> 15) ^ (b >>> 18) ^ (b >>> 21);
+         curr_stream[0] = z;
 
 
-      z = curr_stream[1] & -8;
-      b = (z <<  2) ^ z;
-      z = (b >>> 13) ^ (z << 16);
-      curr_stream[1] = z;
+         z = curr_stream[1] & -8;
+         b = (z <<  2) ^ z;
+         z = (b >>> 13) ^ (z << 16);
+         curr_stream[1] = z;
 
 
-      z = curr_stream[2] & -16;
-      b = (z <<  13) ^ z;
-      z = (z << 2) ^ (z << 4) ^ (z << 10) ^ (z << 12) ^ (z << 13) ^
-         (z << 17) ^ (z << 25) ^
-         (b >>> 3) ^ (b >>> 11) ^ (b >>> 15) ^ (b >>> 16) ^ (b >>> 24);
-      curr_stream[2] = z;
+         z = curr_stream[2] & -16;
+         b = (z <<  13) ^ z;
+         z = (z << 2) ^ (z << 4) ^ (z << 10) ^ (z << 12) ^ (z << 13) ^
+            (z << 17) ^ (z << 25) ^
+            (b >>> 3) ^ (b >>> 11) ^ (b >>> 15) ^ (b >>> 16) ^ (b >>> 24);
+         curr_stream[2] = z;
 
 
-      z = curr_stream[3] & -128;
-      b = (z <<  3) ^ z;
-      z = (z << 9) ^ (z << 10) ^ (z << 11) ^ (z << 14) ^ (z << 16) ^
-         (z << 18) ^ (z << 23) ^ (z << 24) ^
-         (b >>> 1) ^ (b >>> 2) ^ (b >>> 7) ^ (b >>> 9) ^ (b >>> 11) ^
-         (b >>> 14) ^ (b >>> 15) ^ (b >>> 16) ^ (b >>> 23) ^ (b >>> 24);
-      curr_stream[3] = z;
+         z = curr_stream[3] & -128;
+         b = (z <<  3) ^ z;
+         z = (z << 9) ^ (z << 10) ^ (z << 11) ^ (z << 14) ^ (z << 16) ^
+            (z << 18) ^ (z << 23) ^ (z << 24) ^
+            (b >>> 1) ^ (b >>> 2) ^ (b >>> 7) ^ (b >>> 9) ^ (b >>> 11) ^
+            (b >>> 14) ^ (b >>> 15) ^ (b >>> 16) ^ (b >>> 23) ^ (b >>> 24);
+         curr_stream[3] = z;
+      }
    }
 
 
@@ -152,7 +155,7 @@ public class LFSR113 extends RandomStreamBase  {
     * 
     * 
     */
-   public static void setPackageSeed (int[] seed)  {
+   public static synchronized void setPackageSeed (int[] seed)  {
       checkSeed (seed);
       for(int i = 0; i < 4; i++)
          curr_stream[i] = seed[i];
@@ -205,6 +208,70 @@ public class LFSR113 extends RandomStreamBase  {
       return new int[]{z0, z1, z2, z3};
    } 
 
+   // Jump-ahead by the characteristic polynomial, one step being one
+   // call to nextValue
+   private static final F2LinearJump<LFSR113> JUMP =
+         new F2LinearJump<LFSR113> (113, 4) {
+      void getState (LFSR113 gen, int[] x) {
+         x[0] = gen.z0;
+         x[1] = gen.z1;
+         x[2] = gen.z2;
+         x[3] = gen.z3;
+      }
+      void setState (LFSR113 gen, int[] x) {
+         gen.z0 = x[0];
+         gen.z1 = x[1];
+         gen.z2 = x[2];
+         gen.z3 = x[3];
+      }
+      void step (LFSR113 gen) {
+         gen.nextNumber();
+      }
+   };
+
+
+   /**
+    * Advances the current state of this stream by <TT>steps</TT> values,
+    *    as if <TT>nextValue</TT> had been called <TT>steps</TT> times,
+    *    in a time that does not depend on <TT>steps</TT>.
+    *    The new state is <SPAN CLASS="MATH"><I>g</I>(<B>A</B>)<B>x</B></SPAN>, where <SPAN CLASS="MATH"><B>x</B></SPAN> is the current state,
+    *    <SPAN CLASS="MATH"><B>A</B></SPAN> is the transition matrix, and <SPAN CLASS="MATH"><I>g</I>(<I>z</I>)</SPAN> is <SPAN CLASS="MATH"><I>z</I><SUP>steps</SUP></SPAN>
+    *    modulo the characteristic polynomial of the recurrence;
+    *    this takes at most <SPAN CLASS="MATH"><I>k</I> = 113</SPAN> steps of the generator.
+    *    The characteristic polynomial is computed the first time
+    *    a jump is made by a stream of this class.
+    *    The beginning of the stream and of the current substream is not changed.
+    * 
+    * @param steps the number of values to skip
+    * 
+    *    @exception IllegalArgumentException if <TT>steps</TT> is negative
+    * 
+    * 
+    */
+   public void advance (BigInteger steps)  {
+      JUMP.advance (this, steps);
+   }
+
+
+   /**
+    * Advances the current state of this stream by <SPAN CLASS="MATH">2<SUP>e</SUP></SPAN> values.
+    *    This is equivalent to <TT>advance (BigInteger.ONE.shiftLeft (e))</TT>,
+    *    but the polynomials <SPAN CLASS="MATH"><I>z</I><SUP>2<SUP>e</SUP></SUP></SPAN> modulo the characteristic polynomial
+    *    are kept and shared by all the streams of this class, so that
+    *    splitting a stream in many parts of length <SPAN CLASS="MATH">2<SUP>e</SUP></SPAN> costs a single
+    *    polynomial computation.
+    * 
+    * @param e the base-2 logarithm of the number of values to skip
+    * 
+    *    @exception IllegalArgumentException if <TT>e</TT> is negative
+    * 
+    * 
+    */
+   public void jump (int e)  {
+      JUMP.jump (this, e);
+   }
+
+
 
    /**
     * Clones the current generator and return its copy.
@@ -369,6 +436,10 @@ public class LFSR113 extends RandomStreamBase  {
       return nextNumber() * NORM;
    }
 
+   protected int nextValueBits() {
+      return (int)nextNumber();
+   }
+
    public int nextInt (int i, int j) {
       if (i > j)
          throw new IllegalArgumentException(i + " is larger than " + j + ".");
@@ -384,4 +455,70 @@ public class LFSR113 extends RandomStreamBase  {
       return (int) (res / q) + i;
    }
 
+   protected void nextArrayOfValues (double[] v, int start, int n) {
+      int s0 = z0, s1 = z1, s2 = z2, s3 = z3;
+      int b;
+      long r;
+      for (int ii = start; ii < start + n; ii++) {
+         b  = (((s0 <<   6) ^ s0) >>> 13);
+         s0 = (((s0 &   -2) << 18) ^ b);
+         b  = (((s1 <<   2) ^ s1) >>> 27);
+         s1 = (((s1 &   -8) <<  2) ^ b);
+         b  = (((s2 <<  13) ^ s2) >>> 21);
+         s2 = (((s2 &  -16) <<  7) ^ b);
+         b  = (((s3 <<   3) ^ s3) >>> 12);
+         s3 = (((s3 & -128) << 13) ^ b);
+         r = (s0 ^ s1 ^ s2 ^ s3);
+         if (r <= 0)
+            r += 0x100000000L;
+         v[ii] = r * NORM;
+      }
+      z0 = s0;  z1 = s1;  z2 = s2;  z3 = s3;
+   }
+
+   public void nextArrayOfDouble (double[] u, int start, int n) {
+      nextBlockOfDouble (u, start, n);
+   }
+
+   public void nextArrayOfInt (int i, int j, int[] u, int start, int n) {
+      if(u == null)
+         throw new NullPointerException("The array must be " +
+                                        "initialized.");
+      if (u.length < n + start)
+         throw new IndexOutOfBoundsException("The array is too small.");
+      if(start < 0)
+         throw new IndexOutOfBoundsException("Must start at a " +
+                                             "non-negative index.");
+      if(n < 0)
+         throw new IllegalArgumentException("Must have a non-negative " +
+                                            "number of elements.");
+      if (n == 0)
+         return;
+      if (i > j)
+         throw new IllegalArgumentException(i + " is larger than " + j + ".");
+      long d = j-i+1L;
+      long q = 0x100000000L / d;
+      long lim = 0x100000000L - 0x100000000L % d;
+      int s0 = z0, s1 = z1, s2 = z2, s3 = z3;
+      int b;
+      long res;
+      for (int ii = start; ii < start + n; ii++) {
+         do {
+            b  = (((s0 <<   6) ^ s0) >>> 13);
+            s0 = (((s0 &   -2) << 18) ^ b);
+            b  = (((s1 <<   2) ^ s1) >>> 27);
+            s1 = (((s1 &   -8) <<  2) ^ b);
+            b  = (((s2 <<  13) ^ s2) >>> 21);
+            s2 = (((s2 &  -16) <<  7) ^ b);
+            b  = (((s3 <<   3) ^ s3) >>> 12);
+            s3 = (((s3 & -128) << 13) ^ b);
+            res = (s0 ^ s1 ^ s2 ^ s3);
+            if (res <= 0)
+               res += 0x100000000L;
+         } while (res >= lim);
+         u[ii] = (int) (res / q) + i;
+      }
+      z0 = s0;  z1 = s1;  z2 = s2;  z3 = s3;
+   }
+
 }
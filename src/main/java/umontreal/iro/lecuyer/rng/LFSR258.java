@@ -26,6 +26,7 @@
 
 package umontreal.iro.lecuyer.rng;  
 
+import java.math.BigInteger;
 import java.io.Serializable;
 /*
 import umontreal.iro.lecuyer.util.BitVector;
@@ -82,84 +83,86 @@ public class LFSR258 extends RandomStreamBase  {
         stream = new long[5];
         substream = new long[5];
 
-        for(int i = 0; i < 5; i++)
-            stream[i] = curr_stream[i];
-
-        resetStartStream();
-
-
-
-        // Les operations qui suivent permettent de faire sauter en avant
-        // de 2^200 iterations chacunes des composantes du generateur.
-        // L'etat interne apres le saut est cependant legerement different
-        // de celui apres 2^200 iterations puisqu'il ignore l'etat dans
-        // lequel se retrouvent les premiers bits de chaque composantes,
-        // puisqu'ils sont ignores dans la recurrence. L'etat redevient
-        // identique a ce que l'on aurait avec des iterations normales
-        // apres un appel a nextValue().
-
-        long z, b;
-
-        z = curr_stream[0] & 0xfffffffffffffffeL;
-        b = z ^ (z << 1);
-        z = (b >>> 61) ^ (b >>> 59) ^ (b >>> 58) ^ (b >>> 57) ^ (b >>> 51) ^
-            (b >>> 47) ^ (b >>> 46) ^ (b >>> 45) ^ (b >>> 43) ^ (b >>> 39) ^
-            (b >>> 30) ^ (b >>> 29) ^ (b >>> 23) ^ (b >>> 15) ^ (z << 2) ^
-            (z << 4) ^ (z << 5) ^ (z << 6) ^ (z << 12) ^ (z << 16) ^
-            (z << 17) ^ (z << 18) ^ (z << 20) ^ (z << 24) ^ (z << 33) ^
-            (z << 34) ^ (z << 40) ^ (z << 48);
-        curr_stream[0] = z;
-
-
-        z = curr_stream[1] & 0xfffffffffffffe00L;
-        b = z ^ (z << 24);
-        z = (b >>> 52) ^ (b >>> 50) ^ (b >>> 49) ^ (b >>> 46) ^ (b >>> 43) ^
-            (b >>> 40) ^ (b >>> 37) ^ (b >>> 34) ^ (b >>> 30) ^ (b >>> 28) ^
-            (b >>> 26) ^ (b >>> 25) ^ (b >>> 23) ^ (b >>> 21) ^ (b >>> 20) ^
-            (b >>> 19) ^ (b >>> 17) ^ (b >>> 15) ^ (b >>> 13) ^ (b >>> 12) ^
-            (b >>> 10) ^ (b >>> 8) ^ (b >>> 7) ^ (b >>> 6) ^ (b >>> 2) ^
-            (z << 1) ^ (z << 4) ^ (z << 6) ^ (z << 7) ^ (z << 11) ^ (z << 14) ^
-            (z << 15) ^ (z << 16) ^ (z << 17) ^ (z << 21) ^ (z << 22) ^
-            (z << 25) ^ (z << 27) ^ (z << 29) ^ (z << 30) ^ (z << 32) ^
-            (z << 34) ^ (z << 35) ^ (z << 36) ^ (z << 38) ^ (z << 40) ^
-            (z << 42) ^ (z << 43) ^ (z << 45) ^ (z << 47) ^ (z << 48) ^
-            (z << 49) ^ (z << 53);
-        curr_stream[1] = z;
-
-
-        z = curr_stream[2] & 0xfffffffffffff000L;
-        b = z ^ (z << 3);
-        z = (b >>> 49) ^ (b >>> 45) ^ (b >>> 41) ^ (b >>> 40) ^ (b >>> 32) ^
-            (b >>> 27) ^ (b >>> 23) ^ (b >>> 14) ^ (b >>> 1) ^ (z << 2) ^
-            (z << 3) ^ (z << 7) ^ (z << 11) ^ (z << 12) ^ (z << 20) ^
-            (z << 25) ^ (z << 29) ^ (z << 38) ^ (z << 51);
-        curr_stream[2] = z;
-
-
-
-        z = curr_stream[3] & 0xfffffffffffe0000L;
-        b = z ^ (z << 5);
-        z = (b >>> 45) ^ (b >>> 32) ^ (b >>> 27) ^ (b >>> 22) ^ (b >>> 17) ^
-            (b >>> 13) ^ (b >>> 12) ^ (b >>> 7) ^ (b >>> 3) ^ (b >>> 2) ^
-            (z << 3) ^ (z << 15) ^ (z << 20) ^ (z << 25) ^ (z << 30) ^
-            (z << 34) ^ (z << 35) ^ (z << 40) ^ (z << 44) ^ (z << 45);
-        curr_stream[3] = z;
-
-
-        z = curr_stream[4] & 0xffffffffff800000L;
-        b = z ^ (z << 3);
-        z = (b >>> 40) ^ (b >>> 39) ^ (b >>> 38) ^ (b >>> 37) ^ (b >>> 35) ^
-            (b >>> 34) ^ (b >>> 31) ^ (b >>> 30) ^ (b >>> 29) ^ (b >>> 28) ^
-            (b >>> 27) ^ (b >>> 26) ^ (b >>> 24) ^ (b >>> 23) ^ (b >>> 21) ^
-            (b >>> 20) ^ (b >>> 18) ^ (b >>> 15) ^ (b >>> 12) ^ (b >>> 10) ^
-            (b >>> 9) ^ (b >>> 7) ^ (b >>> 6) ^ (b >>> 5) ^ (b >>> 4) ^
-            (b >>> 3) ^ (z << 1) ^ (z << 2) ^ (z << 3) ^ (z << 4) ^ (z << 6) ^
-            (z << 7) ^ (z << 10) ^ (z << 11) ^ (z << 12) ^ (z << 13) ^
-            (z << 14) ^ (z << 15) ^ (z << 17) ^ (z << 18) ^ (z << 20) ^
-            (z << 21) ^ (z << 23) ^ (z << 26) ^ (z << 29) ^ (z << 31) ^
-            (z << 32) ^ (z << 34) ^ (z << 35) ^ (z << 36) ^ (z << 37) ^
-            (z << 38);
-        curr_stream[4] = z;
+        synchronized (LFSR258.class) {
+           for(int i = 0; i < 5; i++)
+               stream[i] = curr_stream[i];
+
+           resetStartStream();
+
+
+
+           // Les operations qui suivent permettent de faire sauter en avant
+           // de 2^200 iterations chacunes des composantes du generateur.
+           // L'etat interne apres le saut est cependant legerement different
+           // de celui apres 2^200 iterations puisqu'il ignore l'etat dans
+           // lequel se retrouvent les premiers bits de chaque composantes,
+           // puisqu'ils sont ignores dans la recurrence. L'etat redevient
+           // identique a ce que l'on aurait avec des iterations normales
+           // apres un appel a nextValue().
+
+           long z, b;
+
+           z = curr_stream[0] & 0xfffffffffffffffeL;
+           b = z ^ (z << 1);
+           z = (b >>> 61) ^ (b >>> 59) ^ (b >>> 58) ^ (b >>> 57) ^ (b >>> 51) ^
+               (b >>> 47) ^ (b >>> 46) ^ (b >>> 45) ^ (b >>> 43) ^ (b >>> 39) ^
+               (b >>> 30) ^ (b >>> 29) ^ (b >>> 23) ^ (b >>> 15) ^ (z << 2) ^
+               (z << 4) ^ (z << 5) ^ (z << 6) ^ (z << 12) ^ (z << 16) ^
+               (z << 17) ^ (z << 18) ^ (z << 20) ^ (z << 24) ^ (z << 33) ^
+               (z << 34) ^ (z << 40) ^ (z << 48);
+           curr_stream[0] = z;
+
+
+           z = curr_stream[1] & 0xfffffffffffffe00L;
+           b = z ^ (z << 24);
+           z = (b >>> 52) ^ (b >>> 50) ^ (b >>> 49) ^ (b >>> 46) ^ (b >>> 43) ^
+               (b >>> 40) ^ (b >>> 37) ^ (b >>> 34) ^ (b >>> 30) ^ (b >>> 28) ^
+               (b >>> 26) ^ (b >>> 25) ^ (b >>> 23) ^ (b >>> 21) ^ (b >>> 20) ^
+               (b >>> 19) ^ (b >>> 17) ^ (b >>> 15) ^ (b >>> 13) ^ (b >>> 12) ^
+               (b >>> 10) ^ (b >>> 8) ^ (b >>> 7) ^ (b >>> 6) ^ (b >>> 2) ^
+               (z << 1) ^ (z << 4) ^ (z << 6) ^ (z << 7) ^ (z << 11) ^ (z << 14) ^
+               (z << 15) ^ (z << 16) ^ (z << 17) ^ (z << 21) ^ (z << 22) ^
+               (z << 25) ^ (z << 27) ^ (z << 29) ^ (z << 30) ^ (z << 32) ^
+               (z << 34) ^ (z << 35) ^ (z << 36) ^ (z << 38) ^ (z << 40) ^
+               (z << 42) ^ (z << 43) ^ (z << 45) ^ (z << 47) ^ (z << 48) ^
+               (z << 49) ^ (z << 53);
+           curr_stream[1] = z;
+
+
+           z = curr_stream[2] & 0xfffffffffffff000L;
+           b = z ^ (z << 3);
+           z = (b >>> 49) ^ (b >>> 45) ^ (b >>> 41) ^ (b >>> 40) ^ (b >>> 32) ^
+               (b >>> 27) ^ (b >>> 23) ^ (b >>> 14) ^ (b >>> 1) ^ (z << 2) ^
+               (z << 3) ^ (z << 7) ^ (z << 11) ^ (z << 12) ^ (z << 20) ^
+               (z << 25) ^ (z << 29) ^ (z << 38) ^ (z << 51);
+           curr_stream[2] = z;
+
+
+
+           z = curr_stream[3] & 0xfffffffffffe0000L;
+           b = z ^ (z << 5);
+           z = (b >>> 45) ^ (b >>> 32) ^ (b >>> 27) ^ (b >>> 22) ^ (b >>> 17) ^
+               (b >>> 13) ^ (b >>> 12) ^ (b >>> 7) ^ (b >>> 3) ^ (b >>> 2) ^
+               (z << 3) ^ (z << 15) ^ (z << 20) ^ (z << 25) ^ (z << 30) ^
+               (z << 34) ^ (z << 35) ^ (z << 40) ^ (z << 44) ^ (z << 45);
+           curr_stream[3] = z;
+
+
+           z = curr_stream[4] & 0xffffffffff800000L;
+           b = z ^ (z << 3);
+           z = (b >>> 40) ^ (b >>> 39) ^ (b >>> 38) ^ (b >>> 37) ^ (b >>> 35) ^
+               (b >>> 34) ^ (b >>> 31) ^ (b >>> 30) ^ (b >>> 29) ^ (b >>> 28) ^
+               (b >>> 27) ^ (b >>> 26) ^ (b >>> 24) ^ (b >>> 23) ^ (b >>> 21) ^
+               (b >>> 20) ^ (b >>> 18) ^ (b >>> 15) ^ (b >>> 12) ^ (b >>> 10) ^
+               (b >>> 9) ^ (b >>> 7) ^ (b >>> 6) ^ (b >>> 5) ^ (b >>> 4) ^
+               (b >>> 3) ^ (z << 1) ^ (z << 2) ^ (z << 3) ^ (z << 4) ^ (z << 6) ^
+               (z << 7) ^ (z << 10) ^ (z << 11) ^ (z << 12) ^ (z << 13) ^
+               (z << 14) ^ (z << 15) ^ (z << 17) ^ (z << 18) ^ (z << 20) ^
+               (z << 21) ^ (z << 23) ^ (z << 26) ^ (z << 29) ^ (z << 31) ^
+               (z << 32) ^ (z << 34) ^ (z << 35) ^ (z << 36) ^ (z << 37) ^
+               (z << 38);
+           curr_stream[4] = z;
+        }
 
     }
 
@@ -189,7 +192,7 @@ public class LFSR258 extends RandomStreamBase  {
     * 
     * 
     */
-    public static void setPackageSeed (long seed[])  {
+    public static synchronized void setPackageSeed (long seed[])  {
        checkSeed (seed);
        for(int i = 0; i < 5; i++)
           curr_stream[i] = seed[i];
@@ -243,6 +246,75 @@ public class LFSR258 extends RandomStreamBase  {
         return new long[]{z0, z1, z2, z3, z4};
     } 
 
+   // Jump-ahead by the characteristic polynomial, one step being one
+   // call to nextValue
+   private static final F2LinearJump<LFSR258> JUMP =
+         new F2LinearJump<LFSR258> (258, 10) {
+      void getState (LFSR258 gen, int[] x) {
+         long[] z = {gen.z0, gen.z1, gen.z2, gen.z3, gen.z4};
+         for (int i = 0; i < 5; i++) {
+            x[2*i] = (int)z[i];
+            x[2*i + 1] = (int)(z[i] >>> 32);
+         }
+      }
+      void setState (LFSR258 gen, int[] x) {
+         long[] z = new long[5];
+         for (int i = 0; i < 5; i++)
+            z[i] = (x[2*i] & 0xFFFFFFFFL) | ((long)x[2*i + 1] << 32);
+         gen.z0 = z[0];
+         gen.z1 = z[1];
+         gen.z2 = z[2];
+         gen.z3 = z[3];
+         gen.z4 = z[4];
+      }
+      void step (LFSR258 gen) {
+         gen.nextNumber();
+      }
+   };
+
+
+   /**
+    * Advances the current state of this stream by <TT>steps</TT> values,
+    *    as if <TT>nextValue</TT> had been called <TT>steps</TT> times,
+    *    in a time that does not depend on <TT>steps</TT>.
+    *    The new state is <SPAN CLASS="MATH"><I>g</I>(<B>A</B>)<B>x</B></SPAN>, where <SPAN CLASS="MATH"><B>x</B></SPAN> is the current state,
+    *    <SPAN CLASS="MATH"><B>A</B></SPAN> is the transition matrix, and <SPAN CLASS="MATH"><I>g</I>(<I>z</I>)</SPAN> is <SPAN CLASS="MATH"><I>z</I><SUP>steps</SUP></SPAN>
+    *    modulo the characteristic polynomial of the recurrence;
+    *    this takes at most <SPAN CLASS="MATH"><I>k</I> = 258</SPAN> steps of the generator.
+    *    The characteristic polynomial is computed the first time
+    *    a jump is made by a stream of this class.
+    *    The beginning of the stream and of the current substream is not changed.
+    * 
+    * @param steps the number of values to skip
+    * 
+    *    @exception IllegalArgumentException if <TT>steps</TT> is negative
+    * 
+    * 
+    */
+   public void advance (BigInteger steps)  {
+      JUMP.advance (this, steps);
+   }
+
+
+   /**
+    * Advances the current state of this stream by <SPAN CLASS="MATH">2<SUP>e</SUP></SPAN> values.
+    *    This is equivalent to <TT>advance (BigInteger.ONE.shiftLeft (e))</TT>,
+    *    but the polynomials <SPAN CLASS="MATH"><I>z</I><SUP>2<SUP>e</SUP></SUP></SPAN> modulo the characteristic polynomial
+    *    are kept and shared by all the streams of this class, so that
+    *    splitting a stream in many parts of length <SPAN CLASS="MATH">2<SUP>e</SUP></SPAN> costs a single
+    *    polynomial computation.
+    * 
+    * @param e the base-2 logarithm of the number of values to skip
+    * 
+    *    @exception IllegalArgumentException if <TT>e</TT> is negative
+    * 
+    * 
+    */
+   public void jump (int e)  {
+      JUMP.jump (this, e);
+   }
+
+
 
    /**
     * Clones the current generator and return its copy.
@@ -391,6 +463,15 @@ public class LFSR258 extends RandomStreamBase  {
     }
 
 
+   protected int nextValueBits() {
+      return (int)(nextNumber() >>> 32);
+   }
+
+   public long nextLong() {
+      return anti ? ~nextNumber() : nextNumber();
+   }
+
+
    public int nextInt (int i, int j) {
       if (i > j)
           throw new IllegalArgumentException(i + " is larger than " + j + ".");
@@ -407,6 +488,73 @@ public class LFSR258 extends RandomStreamBase  {
    }
 
 
+   protected void nextArrayOfValues (double[] v, int start, int n) {
+      long s0 = z0, s1 = z1, s2 = z2, s3 = z3, s4 = z4;
+      long b, res;
+      for (int ii = start; ii < start + n; ii++) {
+         b  = (((s0 <<  1) ^ s0) >>> 53);
+         s0 = (((s0 & 0xFFFFFFFFFFFFFFFEL) << 10) ^ b);
+         b  = (((s1 << 24) ^ s1) >>> 50);
+         s1 = (((s1 & 0xFFFFFFFFFFFFFE00L) <<  5) ^ b);
+         b  = (((s2 <<  3) ^ s2) >>> 23);
+         s2 = (((s2 & 0xFFFFFFFFFFFFF000L) << 29) ^ b);
+         b  = (((s3 <<  5) ^ s3) >>> 24);
+         s3 = (((s3 & 0xFFFFFFFFFFFE0000L) << 23) ^ b);
+         b  = (((s4 <<  3) ^ s4) >>> 33);
+         s4 = (((s4 & 0xFFFFFFFFFF800000L) <<  8) ^ b);
+         res = (s0 ^ s1 ^ s2 ^ s3 ^ s4);
+         v[ii] = (res <= 0) ? (res * NORM + MAX) : res * NORM;
+      }
+      z0 = s0;  z1 = s1;  z2 = s2;  z3 = s3;  z4 = s4;
+   }
+
+
+   public void nextArrayOfDouble (double[] u, int start, int n) {
+      nextBlockOfDouble (u, start, n);
+   }
+
+
+   public void nextArrayOfInt (int i, int j, int[] u, int start, int n) {
+      if(u == null)
+         throw new NullPointerException("The array must be " +
+                                        "initialized.");
+      if (u.length < n + start)
+         throw new IndexOutOfBoundsException("The array is too small.");
+      if(start < 0)
+         throw new IndexOutOfBoundsException("Must start at a " +
+                                             "non-negative index.");
+      if(n < 0)
+         throw new IllegalArgumentException("Must have a non-negative " +
+                                            "number of elements.");
+      if (n == 0)
+         return;
+      if (i > j)
+          throw new IllegalArgumentException(i + " is larger than " + j + ".");
+      long d = j-i+1;
+      long q = 0x4000000000000000L / d;
+      long lim = 0x4000000000000000L - 0x4000000000000000L % d;
+      long s0 = z0, s1 = z1, s2 = z2, s3 = z3, s4 = z4;
+      long b, res;
+      for (int ii = start; ii < start + n; ii++) {
+         do {
+            b  = (((s0 <<  1) ^ s0) >>> 53);
+            s0 = (((s0 & 0xFFFFFFFFFFFFFFFEL) << 10) ^ b);
+            b  = (((s1 << 24) ^ s1) >>> 50);
+            s1 = (((s1 & 0xFFFFFFFFFFFFFE00L) <<  5) ^ b);
+            b  = (((s2 <<  3) ^ s2) >>> 23);
+            s2 = (((s2 & 0xFFFFFFFFFFFFF000L) << 29) ^ b);
+            b  = (((s3 <<  5) ^ s3) >>> 24);
+            s3 = (((s3 & 0xFFFFFFFFFFFE0000L) << 23) ^ b);
+            b  = (((s4 <<  3) ^ s4) >>> 33);
+            s4 = (((s4 & 0xFFFFFFFFFF800000L) <<  8) ^ b);
+            res = (s0 ^ s1 ^ s2 ^ s3 ^ s4) >>> 2;
+         } while (res >= lim);
+         u[ii] = i + (int) (res / q);
+      }
+      z0 = s0;  z1 = s1;  z2 = s2;  z3 = s3;  z4 = s4;
+   }
+
+
     /*
      Methodes qui permettent de generer les series de shifts des
      methodes de sauts en avant.
@@ -31,6 +31,7 @@ import umontreal.iro.lecuyer.rng.RandomStream;
 import umontreal.iro.lecuyer.rng.RandomStreamBase;
 import umontreal.iro.lecuyer.util.ArithmeticMod;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -85,8 +86,18 @@ public class MRG31k3p extends RandomStreamBase  {
    //stream and substream variables
    private int[] stream;
    private int[] substream;
-   private static int[] curr_stream = {12345, 12345, 12345,
-                                       12345, 12345, 12345};
+
+   // The package seed (seed of the first stream) and the number of
+   // streams created from it so far; see MRG32k3a.
+   private static final class SeedAllocator {
+      final int[] seed;
+      final AtomicLong count = new AtomicLong();
+      SeedAllocator (int[] seed) {
+         this.seed = seed;
+      }
+   }
+   private static volatile SeedAllocator allocator = new SeedAllocator
+      (new int[] {12345, 12345, 12345, 12345, 12345, 12345});
 
    //streams constants :
    private static final int[][] A1p0 =
@@ -116,6 +127,23 @@ public class MRG31k3p extends RandomStreamBase  {
        {1241679051, 1431130166, 1464208080},
        {1401213391, 1178684362, 1431130166}};
 
+   // A1p134^{2^j} and A2p134^{2^j}, for j = 0,...,62, used to jump
+   // directly to the seed of any stream.
+   private static final int[][][] A1p134pow = new int[63][][];
+   private static final int[][][] A2p134pow = new int[63][][];
+   static {
+      A1p134pow[0] = A1p134;
+      A2p134pow[0] = A2p134;
+      for (int j = 1; j < 63; j++) {
+         A1p134pow[j] = new int[3][3];
+         A2p134pow[j] = new int[3][3];
+         ArithmeticMod.matMatModM (A1p134pow[j-1], A1p134pow[j-1],
+                                   A1p134pow[j], M1);
+         ArithmeticMod.matMatModM (A2p134pow[j-1], A2p134pow[j-1],
+                                   A2p134pow[j], M2);
+      }
+   }
+
 
    //multiply the first half of v by A with a modulo of m1
    //and the second half by B with a modulo of m2
@@ -136,15 +164,35 @@ public class MRG31k3p extends RandomStreamBase  {
 
    }
 
+   // Puts in v the seed of stream k, which is k Z steps ahead of seed.
+   private static void streamSeed (int[] seed, long k, int[] v) {
+      for (int i = 0; i < 6; i++)
+         v[i] = seed[i];
+      for (int j = 0; k != 0; j++, k >>>= 1)
+         if ((k & 1L) != 0)
+            multMatVect (v, A1p134pow[j], M1, A2p134pow[j], M2);
+   }
+
 
 
    /**
     * Constructs a new stream, initialized at its beginning.
     *   Its seed is 
     * <SPAN CLASS="MATH"><I>Z</I> = 2<SUP>134</SUP></SPAN> steps away from the previous seed.
+    *   Streams may be created concurrently by several threads, as in
+    *   {@link MRG32k3a}.
     * 
     */
    public MRG31k3p()  {
+      SeedAllocator a = allocator;
+      init (a.seed, a.count.getAndIncrement());
+   }
+
+   private MRG31k3p (int[] seed, long k) {
+      init (seed, k);
+   }
+
+   private void init (int[] seed, long k) {
       name = null;
 
       prec53 = false;
@@ -152,12 +200,9 @@ public class MRG31k3p extends RandomStreamBase  {
 
       stream = new int[6];
       substream = new int[6];
-      for(int i = 0; i < 6; i++)
-         stream[i] = curr_stream[i];
+      streamSeed (seed, k, stream);
 
       resetStartStream();
-
-      multMatVect(curr_stream, A1p134, M1, A2p134, M2);
    }
 
 
@@ -173,6 +218,27 @@ public class MRG31k3p extends RandomStreamBase  {
       this.name = name;
    }
 
+
+   /**
+    * Constructs and returns stream number <TT>k</TT>, whose seed is
+    *   <SPAN CLASS="MATH"><I>kZ</I></SPAN> steps ahead of the initial seed of the package given by
+    *   {@link #setPackageSeed setPackageSeed}, for <SPAN CLASS="MATH"><I>k</I> &#8805; 0</SPAN>.
+    *   See {@link MRG32k3a#forStreamIndex MRG32k3a.forStreamIndex}.
+    *   Since the period of the generator is approximately <SPAN CLASS="MATH">2<SUP>185</SUP></SPAN>,
+    *   the streams with indices larger than <SPAN CLASS="MATH">2<SUP>51</SUP></SPAN> overlap with
+    *   the first ones.
+    * 
+    * @param k index of the stream
+    * 
+    *    @return stream number <TT>k</TT>
+    * 
+    */
+   public static MRG31k3p forStreamIndex (long k)  {
+      if (k < 0)
+         throw new IllegalArgumentException ("k must be non-negative");
+      return new MRG31k3p (allocator.seed, k);
+   }
+
    /**
     * Sets the initial seed for the class <TT>MRG31k3p</TT> to the six
     *   integers of the vector <TT>seed[0..5]</TT>.
@@ -201,8 +267,10 @@ public class MRG31k3p extends RandomStreamBase  {
 
       if (seed[5] >= M2 || seed[3] >= M2 || seed[4] >= M2)
          throw new IllegalArgumentException ("The last 3 values must be less than " + M2);
+      int[] s = new int[6];
       for (int i = 0; i < 6;  ++i)
-         curr_stream[i] = seed[i];
+         s[i] = seed[i];
+      allocator = new SeedAllocator (s);
    } 
 
 
@@ -346,4 +414,50 @@ public class MRG31k3p extends RandomStreamBase  {
          return (x11 - x21) * NORM;
    }
 
+   protected void nextArrayOfValues (double[] v, int start, int n) {
+      int s11 = x11, s12 = x12, s13 = x13, s21 = x21, s22 = x22, s23 = x23;
+      int y1, y2;
+      for (int ii = start; ii < start + n; ii++) {
+         y1 = ((s12 & MASK12) << 22) + (s12 >>> 9)
+              + ((s13 & MASK13) << 7) + (s13 >>> 24);
+         if(y1 < 0 || y1 >= M1)
+            y1 -= M1;
+         y1 += s13;
+         if(y1 < 0 || y1 >= M1)
+            y1 -= M1;
+         s13 = s12;
+         s12 = s11;
+         s11 = y1;
+
+         y1 = ((s21 & MASK2) << 15) + (MULT2 * (s21 >>> 16));
+         if(y1 < 0 || y1 >= M2)
+            y1 -= M2;
+         y2 = ((s23 & MASK2) << 15) + (MULT2 * (s23 >>> 16));
+         if(y2 < 0 || y2 >= M2)
+            y2 -= M2;
+         y2 += s23;
+         if(y2 < 0 || y2 >= M2)
+            y2 -= M2;
+         y2 += y1;
+         if(y2 < 0 || y2 >= M2)
+            y2 -= M2;
+         s23 = s22;
+         s22 = s21;
+         s21 = y2;
+
+         v[ii] = (s11 <= s21) ? (s11 - s21 + M1) * NORM : (s11 - s21) * NORM;
+      }
+      x11 = s11;  x12 = s12;  x13 = s13;
+      x21 = s21;  x22 = s22;  x23 = s23;
+   }
+
+
+   public void nextArrayOfDouble (double[] u, int start, int n) {
+      nextBlockOfDouble (u, start, n);
+   }
+
+   public void nextArrayOfInt (int i, int j, int[] u, int start, int n) {
+      nextBlockOfInt (i, j, u, start, n);
+   }
+
 }
@@ -29,6 +29,7 @@ package umontreal.iro.lecuyer.rng;
 import umontreal.iro.lecuyer.util.ArithmeticMod;
 import umontreal.iro.lecuyer.util.PrintfFormat;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -113,11 +114,57 @@ public class MRG32k3a extends RandomStreamBase  {
          };
 
 
+   // A1p127^{2^j} and A2p127^{2^j}, for j = 0,...,62, used to jump
+   // directly to the seed of any stream.
+   private static final double A1p127pow[][][] = new double[63][][];
+   private static final double A2p127pow[][][] = new double[63][][];
+   static {
+      A1p127pow[0] = A1p127;
+      A2p127pow[0] = A2p127;
+      for (int j = 1; j < 63; j++) {
+         A1p127pow[j] = new double[3][3];
+         A2p127pow[j] = new double[3][3];
+         ArithmeticMod.matMatModM (A1p127pow[j-1], A1p127pow[j-1],
+                                   A1p127pow[j], m1);
+         ArithmeticMod.matMatModM (A2p127pow[j-1], A2p127pow[j-1],
+                                   A2p127pow[j], m2);
+      }
+   }
+
+   // A1p0^{2^j} and A2p0^{2^j}, for j = 0,...,62, used to advance the
+   // state by any number of steps.
+   private static final double A1p0pow[][][] = new double[63][][];
+   private static final double A2p0pow[][][] = new double[63][][];
+   static {
+      A1p0pow[0] = A1p0;
+      A2p0pow[0] = A2p0;
+      for (int j = 1; j < 63; j++) {
+         A1p0pow[j] = new double[3][3];
+         A2p0pow[j] = new double[3][3];
+         ArithmeticMod.matMatModM (A1p0pow[j-1], A1p0pow[j-1],
+                                   A1p0pow[j], m1);
+         ArithmeticMod.matMatModM (A2p0pow[j-1], A2p0pow[j-1],
+                                   A2p0pow[j], m2);
+      }
+   }
+
+
    // Private variables for each stream   %%%%%%%%%%%%%%%%%%%%%%%%
 
-   // Default seed of the package for the first stream
-   private static double nextSeed[] = {12345, 12345, 12345,
-                                       12345, 12345, 12345};
+   // The package seed (seed of the first stream) and the number of
+   // streams created from it so far.  setPackageSeed replaces the whole
+   // object, so that streams can be created by several threads at once
+   // without locking: each new stream takes a distinct index from the
+   // counter and computes its own seed from the package seed.
+   private static final class SeedAllocator {
+      final double[] seed;
+      final AtomicLong count = new AtomicLong();
+      SeedAllocator (double[] seed) {
+         this.seed = seed;
+      }
+   }
+   private static volatile SeedAllocator allocator = new SeedAllocator
+      (new double[] {12345, 12345, 12345, 12345, 12345, 12345});
    private double Cg0, Cg1, Cg2, Cg3, Cg4, Cg5;
    private double Bg[] = new double[6];
    private double Ig[] = new double[6];
@@ -144,6 +191,15 @@ public class MRG32k3a extends RandomStreamBase  {
          v[i + 3] = vv[i];
    }
 
+   // Puts in v the seed of stream k, which is k Z steps ahead of seed.
+   private static void streamSeed (double[] seed, long k, double[] v) {
+      for (int i = 0; i < 6; i++)
+         v[i] = seed[i];
+      for (int j = 0; k != 0; j++, k >>>= 1)
+         if ((k & 1L) != 0)
+            multMatVect (v, A1p127pow[j], m1, A2p127pow[j], m2);
+   }
+
 
 
    /**
@@ -154,17 +210,28 @@ public class MRG32k3a extends RandomStreamBase  {
     *    {@link #setPackageSeed(long[]) setPackageSeed} if this is the first stream created,
     *    otherwise it is <SPAN CLASS="MATH"><I>Z</I></SPAN> steps ahead of that of the stream most recently
     *    created in this class.
+    *    Streams may be created concurrently by several threads: each
+    *    one then gets a distinct seed, but which thread gets which seed
+    *    depends on the timing. Use {@link #forStreamIndex forStreamIndex}
+    *    to obtain reproducible streams in this case.
     * 
     */
    public MRG32k3a()  {
+      SeedAllocator a = allocator;
+      init (a.seed, a.count.getAndIncrement());
+   } 
+
+   private MRG32k3a (double[] seed, long k) {
+      init (seed, k);
+   }
+
+   private void init (double[] seed, long k) {
       name = null;
       anti = false;
       prec53 = false;
-      for(int i = 0; i < 6; i++)
-         Ig[i] = nextSeed[i];
+      streamSeed (seed, k, Ig);
       resetStartStream();
-      multMatVect(nextSeed, A1p127, m1, A2p127, m2);
-   } 
+   }
 
 
    /**
@@ -180,6 +247,32 @@ public class MRG32k3a extends RandomStreamBase  {
    } 
 
 
+   /**
+    * Constructs and returns stream number <TT>k</TT>, whose seed
+    *    <SPAN CLASS="MATH"><I>I</I><SUB>g</SUB></SPAN> is <SPAN CLASS="MATH"><I>kZ</I></SPAN> steps ahead of the initial seed of the package given by
+    *    {@link #setPackageSeed(long[]) setPackageSeed}, for <SPAN CLASS="MATH"><I>k</I> &#8805; 0</SPAN>.
+    *    This is the same stream as the <SPAN CLASS="MATH">(<I>k</I> + 1)</SPAN>-th stream created by
+    *    the constructor after the package seed was set, but it does not depend
+    *    on the streams created so far, and creating it does not change the
+    *    seed of the next stream created by the constructor.
+    *    The seed is obtained in <SPAN CLASS="MATH"><I>O</I>(log <I>k</I>)</SPAN> time, by multiplying the
+    *    package seed by powers of <SPAN CLASS="MATH"><I>A</I><SUP><I>Z</I></SUP></SPAN> precomputed when the class is loaded.
+    *    This method uses no shared mutable state, so that each thread of a
+    *    parallel simulation can create its own streams, and always get the
+    *    same streams for the same indices.
+    *  
+    * @param k index of the stream
+    * 
+    *    @return stream number <TT>k</TT>
+    * 
+    */
+   public static MRG32k3a forStreamIndex (long k)  {
+      if (k < 0)
+         throw new IllegalArgumentException ("k must be non-negative");
+      return new MRG32k3a (allocator.seed, k);
+   }
+
+
    /**
     * Sets the initial seed for the class <TT>MRG32k3a</TT> to the
     *    six integers in the vector <TT>seed[0..5]</TT>.
@@ -216,8 +309,10 @@ public class MRG32k3a extends RandomStreamBase  {
       if (seed[5] >= m2 || seed[3] >= m2 || seed[4] >= m2)
          throw new IllegalArgumentException
              ("The last 3 values must be less than " + m2);
+      double[] s = new double[6];
       for (int i = 0; i < 6;  ++i)
-         nextSeed[i] = seed[i];
+         s[i] = seed[i];
+      allocator = new SeedAllocator (s);
    }
 
 
@@ -282,6 +377,26 @@ public class MRG32k3a extends RandomStreamBase  {
       resetStartSubstream();
    }
 
+   // Moves to the beginning of the stream Z steps ahead of the beginning
+   // of this stream, which becomes the new initial seed (for
+   // MRG32k3aGenerator.leap).
+   void resetNextStream() {
+      multMatVect(Ig, A1p127, m1, A2p127, m2);
+      resetStartStream();
+   }
+
+   // Advances the current state by n steps of the recurrence, without
+   // changing the beginning of the stream and substream (for the
+   // parallel streams of MRG32k3aGenerator).
+   void advanceState (long n) {
+      double[] v = {Cg0, Cg1, Cg2, Cg3, Cg4, Cg5};
+      for (int j = 0; n != 0; j++, n >>>= 1)
+         if ((n & 1L) != 0)
+            multMatVect (v, A1p0pow[j], m1, A2p0pow[j], m2);
+      Cg0 = v[0];  Cg1 = v[1];  Cg2 = v[2];
+      Cg3 = v[3];  Cg4 = v[4];  Cg5 = v[5];
+   }
+
 
    /**
     * Returns the current state <SPAN CLASS="MATH"><I>C</I><SUB>g</SUB></SPAN> of this stream.
@@ -408,5 +523,41 @@ public class MRG32k3a extends RandomStreamBase  {
       return ((p1 > p2) ? (p1 - p2) * norm : (p1 - p2 + m1) * norm);
    }
 
+   protected void nextArrayOfValues (double[] v, int start, int n) {
+      double s0 = Cg0, s1 = Cg1, s2 = Cg2, s3 = Cg3, s4 = Cg4, s5 = Cg5;
+      int k;
+      double p1, p2;
+      for (int ii = start; ii < start + n; ii++) {
+         p1 = a12 * s1 - a13n * s0;
+         k = (int)(p1 / m1);
+         p1 -= k * m1;
+         if (p1 < 0.0)
+            p1 += m1;
+         s0 = s1;
+         s1 = s2;
+         s2 = p1;
+         p2 = a21 * s5 - a23n * s3;
+         k  = (int)(p2 / m2);
+         p2 -= k * m2;
+         if (p2 < 0.0)
+            p2 += m2;
+         s3 = s4;
+         s4 = s5;
+         s5 = p2;
+         v[ii] = (p1 > p2) ? (p1 - p2) * norm : (p1 - p2 + m1) * norm;
+      }
+      Cg0 = s0;  Cg1 = s1;  Cg2 = s2;
+      Cg3 = s3;  Cg4 = s4;  Cg5 = s5;
+   }
+
+
+   public void nextArrayOfDouble (double[] u, int start, int n) {
+      nextBlockOfDouble (u, start, n);
+   }
+
+   public void nextArrayOfInt (int i, int j, int[] u, int start, int n) {
+      nextBlockOfInt (i, j, u, start, n);
+   }
+
 }
 
@@ -0,0 +1,439 @@
+
+
+/*
+ * Class:        MRG32k3aGenerator
+ * Description:  presents an MRG32k3a stream as a splittable and leapable
+                 java.util.random.RandomGenerator
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.rng;
+
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.random.RandomGenerator;
+import java.util.stream.DoubleStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+
+/**
+ * A {@link RandomGeneratorAdapter} for an {@link MRG32k3a} stream, which
+ * also implements <TT>RandomGenerator.SplittableGenerator</TT> and
+ * <TT>RandomGenerator.LeapableGenerator</TT> (hence
+ * <TT>JumpableGenerator</TT>) using the streams and substreams of
+ * <TT>MRG32k3a</TT>.
+ *
+ * <P>
+ * A <EM>jump</EM> moves the stream to the beginning of its next substream,
+ * as <TT>resetNextSubstream</TT>, and a <EM>leap</EM> moves it to the
+ * beginning of the next stream, i.e., <SPAN CLASS="MATH"><I>Z</I> = 2<SUP>127</SUP></SPAN> values ahead of the
+ * beginning of the current stream.  Thus <TT>jumps(n)</TT> and
+ * <TT>rngs(n)</TT> return generators on <SPAN CLASS="MATH"><I>n</I></SPAN> successive substreams, which can be
+ * given to <SPAN CLASS="MATH"><I>n</I></SPAN> threads, and <TT>leaps(n)</TT> returns generators on
+ * <SPAN CLASS="MATH"><I>n</I></SPAN> successive streams.
+ *
+ * <P>
+ * A generator obtained by <TT>split</TT> is a new stream whose seed is made
+ * of six numbers generated by the source; its position in the period of
+ * <TT>MRG32k3a</TT> is thus random but completely determined by the
+ * state of the source, and it overlaps the other streams with a
+ * negligible probability since the period is near <SPAN CLASS="MATH">2<SUP>191</SUP></SPAN>.
+ * A deterministic splitting scheme based on substreams would not work
+ * here, because <TT>split</TT> can be applied recursively to any depth.
+ *
+ * <P>
+ * The <TT>DoubleStream</TT>'s returned by the <TT>doubles</TT> methods
+ * do not use <TT>split</TT>: when such a stream is run in parallel, each part
+ * of the stream is given a copy of the generator advanced directly to the
+ * position of its first value.  A parallel stream thus returns exactly the
+ * same numbers as a sequential one, whatever the number of threads, and
+ * leaves the generator in the same state.  The streams returned by
+ * <TT>ints</TT> and <TT>longs</TT> are the default ones of
+ * <TT>RandomGenerator</TT>, which should be used sequentially.
+ *
+ */
+public class MRG32k3aGenerator extends RandomGeneratorAdapter
+          implements RandomGenerator.SplittableGenerator,
+                     RandomGenerator.LeapableGenerator  {
+
+   private static final double JUMP_DISTANCE = 7.555786372591432e22;   // 2^76
+   private static final double LEAP_DISTANCE = 1.7014118346046923e38;  // 2^127
+   private static final long M1 = 4294967087L;
+   private static final long M2 = 4294944443L;
+
+   private MRG32k3a stream;
+
+
+
+   /**
+    * Constructs a generator on a new stream <TT>new MRG32k3a()</TT>.
+    *
+    */
+   public MRG32k3aGenerator()  {
+      this (new MRG32k3a());
+   }
+
+
+   /**
+    * Constructs a generator that obtains its numbers from the stream
+    *    <TT>stream</TT>.  The jumps and leaps change the state of this stream.
+    *
+    * @param stream the stream used by the generator
+    *
+    *
+    */
+   public MRG32k3aGenerator (MRG32k3a stream)  {
+      super (stream);
+      this.stream = stream;
+   }
+
+
+   /**
+    * Returns the stream used by this generator.
+    *
+    * @return the underlying stream
+    *
+    */
+   public MRG32k3a getStream()  {
+      return stream;
+   }
+
+
+   /**
+    * Returns a new generator on a copy of the stream of this generator,
+    *    with the same state.
+    *
+    * @return a copy of this generator
+    *
+    */
+   public MRG32k3aGenerator copy()  {
+      return new MRG32k3aGenerator (stream.clone());
+   }
+
+
+   /**
+    * Moves the stream to the beginning of its next substream,
+    *    by calling <TT>resetNextSubstream</TT>.
+    *
+    */
+   public void jump()  {
+      stream.resetNextSubstream();
+   }
+
+
+   /**
+    * Returns the length <SPAN CLASS="MATH">2<SUP>76</SUP></SPAN> of the substreams.
+    *
+    * @return <SPAN CLASS="MATH">2<SUP>76</SUP></SPAN>
+    *
+    */
+   public double jumpDistance()  {
+      return JUMP_DISTANCE;
+   }
+
+
+   /**
+    * Moves the stream to the beginning of the next stream, which is
+    *    <SPAN CLASS="MATH"><I>Z</I> = 2<SUP>127</SUP></SPAN> values ahead of the beginning of the current stream.
+    *    This next stream becomes the stream of this generator: its substreams
+    *    are the ones visited by <TT>jump</TT>.
+    *
+    */
+   public void leap()  {
+      stream.resetNextStream();
+   }
+
+
+   /**
+    * Returns the length <SPAN CLASS="MATH">2<SUP>127</SUP></SPAN> of the streams.
+    *
+    * @return <SPAN CLASS="MATH">2<SUP>127</SUP></SPAN>
+    *
+    */
+   public double leapDistance()  {
+      return LEAP_DISTANCE;
+   }
+
+
+   /**
+    * Equivalent to <TT>split (this)</TT>.
+    *
+    * @return a new generator
+    *
+    */
+   public MRG32k3aGenerator split()  {
+      return split (this);
+   }
+
+
+   /**
+    * Returns a generator on a new stream whose seed is made of six
+    *    numbers generated by <TT>source</TT>, uniformly over the valid seeds of
+    *    <TT>MRG32k3a</TT>.  The new stream has the precision mode of the stream
+    *    of this generator.
+    *
+    * @param source the generator giving the seed
+    *
+    *    @return a new generator
+    *
+    */
+   public MRG32k3aGenerator split (RandomGenerator.SplittableGenerator
+                                   source)  {
+      long[] seed = new long[6];
+      do {
+         for (int i = 0; i < 3; i++)
+            seed[i] = source.nextLong (M1);
+      } while (seed[0] == 0 && seed[1] == 0 && seed[2] == 0);
+      do {
+         for (int i = 3; i < 6; i++)
+            seed[i] = source.nextLong (M2);
+      } while (seed[3] == 0 && seed[4] == 0 && seed[5] == 0);
+      MRG32k3a s = stream.clone();
+      s.setSeed (seed);
+      return new MRG32k3aGenerator (s);
+   }
+
+
+   /**
+    * Returns an infinite stream of generators obtained by
+    *    <TT>split (source)</TT>.
+    *
+    * @param source the generator giving the seeds
+    *
+    *    @return an infinite stream of generators
+    *
+    */
+   public Stream<RandomGenerator.SplittableGenerator> splits
+          (RandomGenerator.SplittableGenerator source)  {
+      return Stream.generate
+         (() -> (RandomGenerator.SplittableGenerator) split (source));
+   }
+
+
+   /**
+    * Returns a stream of <TT>n</TT> generators obtained by
+    *    <TT>split (source)</TT>.
+    *
+    * @param n the number of generators
+    *
+    *    @param source the generator giving the seeds
+    *
+    *    @return a stream of <TT>n</TT> generators
+    *
+    */
+   public Stream<RandomGenerator.SplittableGenerator> splits
+          (long n, RandomGenerator.SplittableGenerator source)  {
+      if (n < 0)
+         throw new IllegalArgumentException ("n must be non-negative");
+      return splits (source).limit (n);
+   }
+
+
+   /**
+    * Equivalent to <TT>splits (n, this)</TT>.
+    *
+    * @param n the number of generators
+    *
+    *    @return a stream of <TT>n</TT> generators
+    *
+    */
+   public Stream<RandomGenerator.SplittableGenerator> splits (long n)  {
+      return splits (n, this);
+   }
+
+
+   /**
+    * Returns <TT>jumps()</TT>, i.e., generators on the successive
+    *    substreams, starting at the current state.
+    *
+    * @return an infinite stream of generators
+    *
+    */
+   public Stream<RandomGenerator> rngs()  {
+      return jumps();
+   }
+
+
+   /**
+    * Returns <TT>jumps (n)</TT>.
+    *
+    * @param n the number of generators
+    *
+    *    @return a stream of <TT>n</TT> generators
+    *
+    */
+   public Stream<RandomGenerator> rngs (long n)  {
+      return jumps (n);
+   }
+
+
+   /**
+    * Returns an infinite stream of uniforms generated by
+    *    <TT>nextDouble</TT>.  The stream can be run in parallel, and returns
+    *    then the same numbers as sequentially.
+    *
+    * @return a stream of uniforms over <SPAN CLASS="MATH">(0, 1)</SPAN>
+    *
+    */
+   public DoubleStream doubles()  {
+      return doubles (Long.MAX_VALUE);
+   }
+
+
+   /**
+    * Returns a stream of <TT>n</TT> uniforms generated by
+    *    <TT>nextDouble</TT>.  The stream can be run in parallel, and returns
+    *    then the same numbers as sequentially.
+    *
+    * @param n the number of values
+    *
+    *    @return a stream of <TT>n</TT> uniforms over <SPAN CLASS="MATH">(0, 1)</SPAN>
+    *
+    *    @exception IllegalArgumentException if <TT>n</TT> is negative
+    *
+    */
+   public DoubleStream doubles (long n)  {
+      return doubles (n, 0.0, 1.0);
+   }
+
+
+   /**
+    * Returns an infinite stream of uniforms over
+    *    <SPAN CLASS="MATH">[<I>a</I>, <I>b</I>)</SPAN>, where <SPAN CLASS="MATH"><I>a</I> =</SPAN>&nbsp;<TT>origin</TT> and <SPAN CLASS="MATH"><I>b</I> =</SPAN>&nbsp;<TT>bound</TT>, obtained
+    *    as <SPAN CLASS="MATH"><I>a</I> + (<I>b</I> - <I>a</I>)<I>u</I></SPAN> from the values <SPAN CLASS="MATH"><I>u</I></SPAN> of <TT>nextDouble</TT>.
+    *
+    * @param origin the lower bound <SPAN CLASS="MATH"><I>a</I></SPAN>
+    *
+    *    @param bound the upper bound <SPAN CLASS="MATH"><I>b</I></SPAN>
+    *
+    *    @return a stream of uniforms over <SPAN CLASS="MATH">[<I>a</I>, <I>b</I>)</SPAN>
+    *
+    *    @exception IllegalArgumentException if <SPAN CLASS="MATH"><I>a</I>&#8805;<I>b</I></SPAN> or
+    *     <SPAN CLASS="MATH"><I>b</I> - <I>a</I></SPAN> is not finite
+    *
+    */
+   public DoubleStream doubles (double origin, double bound)  {
+      return doubles (Long.MAX_VALUE, origin, bound);
+   }
+
+
+   /**
+    * Returns a stream of <TT>n</TT> uniforms over
+    *    <SPAN CLASS="MATH">[<I>a</I>, <I>b</I>)</SPAN>, as in {@link #doubles(double,double) doubles}<TT>(origin, bound)</TT>.
+    *
+    * @param n the number of values
+    *
+    *    @param origin the lower bound <SPAN CLASS="MATH"><I>a</I></SPAN>
+    *
+    *    @param bound the upper bound <SPAN CLASS="MATH"><I>b</I></SPAN>
+    *
+    *    @return a stream of <TT>n</TT> uniforms over <SPAN CLASS="MATH">[<I>a</I>, <I>b</I>)</SPAN>
+    *
+    *    @exception IllegalArgumentException if <TT>n</TT> is negative,
+    *     <SPAN CLASS="MATH"><I>a</I>&#8805;<I>b</I></SPAN>, or <SPAN CLASS="MATH"><I>b</I> - <I>a</I></SPAN> is not finite
+    *
+    */
+   public DoubleStream doubles (long n, double origin, double bound)  {
+      if (n < 0)
+         throw new IllegalArgumentException ("n must be non-negative");
+      if (!(origin < bound) || Double.isInfinite (bound - origin))
+         throw new IllegalArgumentException
+            ("origin must be smaller than bound, with a finite difference");
+      return StreamSupport.doubleStream
+         (new DoublesSpliterator (this, 0, n, origin, bound), false);
+   }
+
+
+   // Moves the stream n calls to nextDouble ahead.
+   private void advance (long n) {
+      stream.advanceState (stream.prec53 ? 2*n : n);
+   }
+
+
+   /*
+      The values index,...,fence-1 of gen, whose current position is that of
+      value index.  trySplit gives the first half to a copy of gen, and
+      advances gen to the second half.
+   */
+   private static final class DoublesSpliterator
+         implements Spliterator.OfDouble {
+      private final MRG32k3aGenerator gen;
+      private long index;
+      private final long fence;
+      private final double origin, bound;
+
+      DoublesSpliterator (MRG32k3aGenerator gen, long index, long fence,
+                          double origin, double bound) {
+         this.gen = gen;
+         this.index = index;
+         this.fence = fence;
+         this.origin = origin;
+         this.bound = bound;
+      }
+
+      public DoublesSpliterator trySplit() {
+         long m = (index + fence) >>> 1;
+         if (m <= index)
+            return null;
+         DoublesSpliterator s = new DoublesSpliterator
+            (gen.copy(), index, m, origin, bound);
+         gen.advance (m - index);
+         index = m;
+         return s;
+      }
+
+      public long estimateSize() {
+         return fence - index;
+      }
+
+      public int characteristics() {
+         return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+            | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+      }
+
+      private double next() {
+         double u = gen.nextDouble();
+         if (origin == 0.0 && bound == 1.0)
+            return u;
+         double x = origin + (bound - origin) * u;
+         return x < bound ? x : Math.nextDown (bound);
+      }
+
+      public boolean tryAdvance (DoubleConsumer consumer) {
+         if (consumer == null)
+            throw new NullPointerException();
+         if (index >= fence)
+            return false;
+         consumer.accept (next());
+         index++;
+         return true;
+      }
+
+      public void forEachRemaining (DoubleConsumer consumer) {
+         if (consumer == null)
+            throw new NullPointerException();
+         for (; index < fence; index++)
+            consumer.accept (next());
+      }
+   }
+
+}
@@ -29,6 +29,7 @@ package umontreal.iro.lecuyer.rng;
 import umontreal.iro.lecuyer.util.ArithmeticMod;
 import umontreal.iro.lecuyer.util.PrintfFormat;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -102,11 +103,37 @@ public class MRG32k3aL extends RandomStreamBase  {
          };
 
 
+   // A1p127^{2^j} and A2p127^{2^j}, for j = 0,...,62, used to jump
+   // directly to the seed of any stream.
+   private static final long A1p127pow[][][] = new long[63][][];
+   private static final long A2p127pow[][][] = new long[63][][];
+   static {
+      A1p127pow[0] = A1p127;
+      A2p127pow[0] = A2p127;
+      for (int j = 1; j < 63; j++) {
+         A1p127pow[j] = new long[3][3];
+         A2p127pow[j] = new long[3][3];
+         ArithmeticMod.matMatModM (A1p127pow[j-1], A1p127pow[j-1],
+                                   A1p127pow[j], m1);
+         ArithmeticMod.matMatModM (A2p127pow[j-1], A2p127pow[j-1],
+                                   A2p127pow[j], m2);
+      }
+   }
+
+
    // Private variables for each stream   %%%%%%%%%%%%%%%%%%%%%%%%
 
-   // Default seed of the package for the first stream
-   private static long nextSeed[] = {12345, 12345, 12345,
-                                       12345, 12345, 12345};
+   // The package seed (seed of the first stream) and the number of
+   // streams created from it so far; see MRG32k3a.
+   private static final class SeedAllocator {
+      final long[] seed;
+      final AtomicLong count = new AtomicLong();
+      SeedAllocator (long[] seed) {
+         this.seed = seed;
+      }
+   }
+   private static volatile SeedAllocator allocator = new SeedAllocator
+      (new long[] {12345, 12345, 12345, 12345, 12345, 12345});
    private long Cg0, Cg1, Cg2, Cg3, Cg4, Cg5;
    private long Bg[] = new long[6];
    private long Ig[] = new long[6];
@@ -133,17 +160,33 @@ public class MRG32k3aL extends RandomStreamBase  {
          v[i + 3] = vv[i];
    }
 
+   // Puts in v the seed of stream k, which is k Z steps ahead of seed.
+   private static void streamSeed (long[] seed, long k, long[] v) {
+      for (int i = 0; i < 6; i++)
+         v[i] = seed[i];
+      for (int j = 0; k != 0; j++, k >>>= 1)
+         if ((k & 1L) != 0)
+            multMatVect (v, A1p127pow[j], m1, A2p127pow[j], m2);
+   }
+
 
 
    public MRG32k3aL()  {
+      SeedAllocator a = allocator;
+      init (a.seed, a.count.getAndIncrement());
+   } 
+
+   private MRG32k3aL (long[] seed, long k) {
+      init (seed, k);
+   }
+
+   private void init (long[] seed, long k) {
       name = null;
       anti = false;
       prec53 = false;
-      for(int i = 0; i < 6; i++)
-         Ig[i] = nextSeed[i];
+      streamSeed (seed, k, Ig);
       resetStartStream();
-      multMatVect(nextSeed, A1p127, m1, A2p127, m2);
-   } 
+   }
 
 
    /**
@@ -156,6 +199,19 @@ public class MRG32k3aL extends RandomStreamBase  {
    } 
 
 
+   /**
+    * @param k index of the stream
+    * 
+    *    @return stream number <TT>k</TT>
+    * 
+    */
+   public static MRG32k3aL forStreamIndex (long k)  {
+      if (k < 0)
+         throw new IllegalArgumentException ("k must be non-negative");
+      return new MRG32k3aL (allocator.seed, k);
+   }
+
+
    /**
     * @param seed array of 6 elements representing the seed
     * 
@@ -179,8 +235,10 @@ public class MRG32k3aL extends RandomStreamBase  {
       if (seed[5] >= m2 || seed[3] >= m2 || seed[4] >= m2)
          throw new IllegalArgumentException
              ("The last 3 values must be less than " + m2);
+      long[] s = new long[6];
       for (int i = 0; i < 6;  ++i)
-         nextSeed[i] = seed[i];
+         s[i] = seed[i];
+      allocator = new SeedAllocator (s);
    }
 
 
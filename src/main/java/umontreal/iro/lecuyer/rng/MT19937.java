@@ -27,6 +27,7 @@
 
 package umontreal.iro.lecuyer.rng;
 
+import java.math.BigInteger;
 import umontreal.iro.lecuyer.util.PrintfFormat;
 
 import java.io.ObjectInputStream;
@@ -126,6 +127,78 @@ public class MT19937 extends RandomStreamBase  {
       return retour;
    }
 
+   // Jump-ahead by the characteristic polynomial, one step being one
+   // regeneration of the block of N values
+   private static final F2LinearJump<MT19937> JUMP =
+         new F2LinearJump<MT19937> (19937, N) {
+      void getState (MT19937 gen, int[] x) {
+         System.arraycopy (gen.state, 0, x, 0, N);
+      }
+      void setState (MT19937 gen, int[] x) {
+         System.arraycopy (x, 0, gen.state, 0, N);
+      }
+      void step (MT19937 gen) {
+         gen.nextState();
+      }
+   };
+
+
+   /**
+    * Advances the current state of this stream by <TT>steps</TT> values,
+    *    as if <TT>nextValue</TT> had been called <TT>steps</TT> times,
+    *    in a time that does not depend on <TT>steps</TT>.
+    *    The new state is <SPAN CLASS="MATH"><I>g</I>(<B>A</B>)<B>x</B></SPAN>, where <SPAN CLASS="MATH"><B>x</B></SPAN> is the current state,
+    *    <SPAN CLASS="MATH"><B>A</B></SPAN> is the transition matrix, and <SPAN CLASS="MATH"><I>g</I>(<I>z</I>)</SPAN> is <SPAN CLASS="MATH"><I>z</I><SUP>steps</SUP></SPAN>
+    *    modulo the characteristic polynomial of the recurrence;
+    *    this takes at most <SPAN CLASS="MATH"><I>k</I></SPAN> regenerations of the block of
+    *    624 values, with <SPAN CLASS="MATH"><I>k</I> = 19937</SPAN>.
+    *    The characteristic polynomial is computed the first time
+    *    a jump is made by a stream of this class (about 1 s), and
+    *    <SPAN CLASS="MATH"><I>g</I>(<I>z</I>)</SPAN> is computed by about
+    *    <SPAN CLASS="MATH">log<SUB>2</SUB></SPAN><TT>steps</TT> squarings modulo this polynomial
+    *    (about 0.3 s for <SPAN CLASS="MATH">2<SUP>100</SUP></SPAN> steps).  The polynomials
+    *    <SPAN CLASS="MATH"><I>g</I>(<I>z</I>)</SPAN> of the last few values of <TT>steps</TT> are kept, so
+    *    repeated jumps by the same distance take only the regenerations
+    *    (about 20 ms).
+    *    The beginning of the stream and of the current substream is not changed.
+    * 
+    * @param steps the number of values to skip
+    * 
+    *    @exception IllegalArgumentException if <TT>steps</TT> is negative
+    * 
+    * 
+    */
+   public void advance (BigInteger steps)  {
+      if (steps.signum() < 0)
+         throw new IllegalArgumentException ("steps must be non-negative");
+      // p values are taken from the current block and the following ones
+      BigInteger p = steps.add (BigInteger.valueOf (state_i));
+      if (p.signum() == 0)
+         return;
+      BigInteger[] qr =
+         p.subtract (BigInteger.ONE).divideAndRemainder (BigInteger.valueOf (N));
+      JUMP.advance (this, qr[0]);
+      state_i = qr[1].intValue() + 1;
+   }
+
+
+   /**
+    * Advances the current state of this stream by <SPAN CLASS="MATH">2<SUP>e</SUP></SPAN> values.
+    *    This is equivalent to <TT>advance (BigInteger.ONE.shiftLeft (e))</TT>.
+    * 
+    * @param e the base-2 logarithm of the number of values to skip
+    * 
+    *    @exception IllegalArgumentException if <TT>e</TT> is negative
+    * 
+    * 
+    */
+   public void jump (int e)  {
+      if (e < 0)
+         throw new IllegalArgumentException ("e must be non-negative");
+      advance (BigInteger.ONE.shiftLeft (e));
+   }
+
+
    public void resetStartStream() {
       seedRng.resetStartStream();
       fillSeed();
@@ -159,28 +232,33 @@ public class MT19937 extends RandomStreamBase  {
       return sb.toString();
    }
 
-   protected double nextValue() {
+   // Computes the next N elements of the state.
+   private void nextState() {
       int y;
+      int kk;
 
-      if(state_i >= N) {
-         int kk;
+      for(kk=0; kk < N - M; kk++) {
+         y = (state[kk] & UPPER_MASK) | (state[kk+1] & LOWER_MASK);
+         state[kk] = state[kk + M] ^ (y >>> 1) ^
+                     MULT_MATRIX_A[y & 0x1];
+      }
+      for(; kk < N - 1; kk++) {
+         y = (state[kk] & UPPER_MASK) | (state[kk+1] & LOWER_MASK);
+         state[kk] = state[kk + (M - N)] ^ (y >>> 1) ^
+                     MULT_MATRIX_A[y & 0x1];
+      }
+      y = (state[N-1] & UPPER_MASK) | (state[0] & LOWER_MASK);
+      state[N-1] = state[M-1] ^ (y >>> 1) ^
+                   MULT_MATRIX_A[y & 0x1];
 
-         for(kk=0; kk < N - M; kk++) {
-            y = (state[kk] & UPPER_MASK) | (state[kk+1] & LOWER_MASK);
-            state[kk] = state[kk + M] ^ (y >>> 1) ^
-                        MULT_MATRIX_A[y & 0x1];
-         }
-         for(; kk < N - 1; kk++) {
-            y = (state[kk] & UPPER_MASK) | (state[kk+1] & LOWER_MASK);
-            state[kk] = state[kk + (M - N)] ^ (y >>> 1) ^
-                        MULT_MATRIX_A[y & 0x1];
-         }
-         y = (state[N-1] & UPPER_MASK) | (state[0] & LOWER_MASK);
-         state[N-1] = state[M-1] ^ (y >>> 1) ^
-                      MULT_MATRIX_A[y & 0x1];
+      state_i = 0;
+   }
 
-         state_i = 0;
-      }
+   private int nextNumber() {
+      int y;
+
+      if(state_i >= N)
+         nextState();
 
       y = state[state_i++];
 
@@ -190,10 +268,52 @@ public class MT19937 extends RandomStreamBase  {
       y ^= (y << 15) & 0xefc60000;
       y ^= (y >>> 18);
 
+      return y;
+   }
+
+   protected int nextValueBits() {
+      return nextNumber();
+   }
+
+   protected double nextValue() {
+      int y = nextNumber();
+
       long r = (y <= 0) ? y + 0x100000000L : y;
 
       return r * NORM;
    }
 
+   protected void nextArrayOfValues (double[] v, int start, int n) {
+      final int[] st = state;
+      int y;
+      long r;
+      int ii = start;
+      while (ii < start + n) {
+         if(state_i >= N)
+            nextState();
+         int si = state_i;
+         int end = Math.min (start + n, ii + N - si);
+         for (; ii < end; ii++) {
+            y = st[si++];
+            y ^= (y >>> 11);
+            y ^= (y << 7) & 0x9d2c5680;
+            y ^= (y << 15) & 0xefc60000;
+            y ^= (y >>> 18);
+            r = (y <= 0) ? y + 0x100000000L : y;
+            v[ii] = r * NORM;
+         }
+         state_i = si;
+      }
+   }
+
+
+   public void nextArrayOfDouble (double[] u, int start, int n) {
+      nextBlockOfDouble (u, start, n);
+   }
+
+   public void nextArrayOfInt (int i, int j, int[] u, int start, int n) {
+      nextBlockOfInt (i, j, u, start, n);
+   }
+
 
 }
@@ -0,0 +1,384 @@
+
+
+/*
+ * Class:        Philox4x32
+ * Description:  counter-based random number generator Philox4x32-10
+                 proposed by Salmon, Moraes, Dror and Shaw
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.rng;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Extends {@link RandomStreamBase} using the counter-based generator
+ * Philox4x32-10 proposed by Salmon, Moraes, Dror and Shaw.
+ * This generator has no recurrence: the output is obtained by applying
+ * 10 rounds of a bijection, parameterized by a 64-bit <EM>key</EM>, to a
+ * 128-bit <EM>counter</EM>, and each value of the counter gives a block of
+ * four 32-bit integers.  Each of these integers gives one number returned by
+ * <TT>nextValue</TT>, with 32 bits of precision.
+ *
+ * <P>
+ * The streams are identified by the key, which is the package seed plus the
+ * index of the stream (modulo <SPAN CLASS="MATH">2<SUP>64</SUP></SPAN>).
+ * The first 64 bits of the counter give the index of the block in the
+ * current substream, and the last 64 bits give the index of the substream.
+ * Each stream thus contains <SPAN CLASS="MATH">2<SUP>64</SUP></SPAN> substreams of length <SPAN CLASS="MATH">2<SUP>66</SUP></SPAN>,
+ * and any substream, or any position in a substream, is reached in constant time,
+ * without computing the preceding numbers.
+ * In particular, {@link #forStreamIndex forStreamIndex} and {@link #seek seek}
+ * allow a parallel simulation to assign the streams and the positions
+ * in these streams to the threads without any sequential seeding step.
+ * The default package seed is 0.
+ *
+ * <P>
+ * The numbers are computed four at a time, so
+ * {@link #nextArrayOfDouble nextArrayOfDouble} is significantly faster
+ * than successive calls to {@link #nextDouble nextDouble}, while returning the
+ * same numbers.
+ *
+ */
+public class Philox4x32 extends RandomStreamBase  {
+
+   private static final long serialVersionUID = 261018L;
+   //La date de modification a l'envers, lire 18/10/2026
+
+   private static final double NORM = 1.0 / 0x100000001L;   // 1/(2^32 + 1)
+
+   // Multipliers and Weyl increments of the key, from Salmon et al.
+   private static final long M0 = 0xD2511F53L;
+   private static final long M1 = 0xCD9E8D57L;
+   private static final int W0 = 0x9E3779B9;
+   private static final int W1 = 0xBB67AE85;
+
+   // The package seed and the number of streams created from it so far;
+   // see MRG32k3a.
+   private static final class SeedAllocator {
+      final long seed;
+      final AtomicLong count = new AtomicLong();
+      SeedAllocator (long seed) {
+         this.seed = seed;
+      }
+   }
+   private static volatile SeedAllocator allocator = new SeedAllocator (0L);
+
+   private int k0, k1;        // the key
+   private long substream;    // index of the current substream
+   private long nextBlock;    // index of the next block to compute
+   private int[] buf = new int[4];    // the last block computed
+   private int bufIdx;        // index of the next number in buf
+
+
+
+   /**
+    * Constructs a new stream, whose key is the key of the previous
+    *    stream plus 1, or the package seed for the first stream.
+    *    Streams may be created concurrently by several threads, as in
+    *    {@link MRG32k3a}.
+    *
+    */
+   public Philox4x32()  {
+      SeedAllocator a = allocator;
+      init (a.seed + a.count.getAndIncrement());
+   }
+
+   private Philox4x32 (long key) {
+      init (key);
+   }
+
+   private void init (long key) {
+      name = null;
+      anti = false;
+      prec53 = false;
+      k0 = (int)key;
+      k1 = (int)(key >>> 32);
+      resetStartStream();
+   }
+
+
+   /**
+    * Constructs a new stream with an identifier <TT>name</TT>
+    *    (used when printing the stream state).
+    *
+    * @param name name of the stream
+    *
+    */
+   public Philox4x32 (String name)  {
+      this();
+      this.name = name;
+   }
+
+
+   /**
+    * Constructs and returns stream number <TT>k</TT>, whose key is the
+    *    package seed plus <TT>k</TT>, in constant time.
+    *    This is the same stream as the <SPAN CLASS="MATH">(<I>k</I> + 1)</SPAN>-th stream created by
+    *    the constructor after the package seed was set, but it does not depend
+    *    on the streams created so far.
+    *
+    * @param k index of the stream
+    *
+    *    @return stream number <TT>k</TT>
+    *
+    */
+   public static Philox4x32 forStreamIndex (long k)  {
+      if (k < 0)
+         throw new IllegalArgumentException ("k must be non-negative");
+      return new Philox4x32 (allocator.seed + k);
+   }
+
+
+   /**
+    * Sets the package seed to <TT>seed</TT>.
+    *    This will be the key of the first stream created after this call.
+    *    Any 64-bit value is a valid seed.
+    *
+    * @param seed the package seed
+    *
+    *
+    */
+   public static void setPackageSeed (long seed)  {
+      allocator = new SeedAllocator (seed);
+   }
+
+
+   /**
+    * Sets the key of this stream to <TT>seed</TT>, and resets the stream
+    *    to the beginning of its first substream.
+    *    This method only affects this stream.
+    *
+    * @param seed the new key of this stream
+    *
+    *
+    */
+   public void setSeed (long seed)  {
+      k0 = (int)seed;
+      k1 = (int)(seed >>> 32);
+      resetStartStream();
+   }
+
+
+   /**
+    * Returns the key of this stream.
+    *
+    * @return the key of this stream
+    *
+    */
+   public long getSeed()  {
+      return (k0 & 0xFFFFFFFFL) | ((long)k1 << 32);
+   }
+
+
+   /**
+    * Returns the index of the current substream.
+    *
+    * @return the index of the current substream
+    *
+    */
+   public long getSubstream()  {
+      return substream;
+   }
+
+
+   /**
+    * Reinitializes the stream to the beginning of substream <TT>k</TT>,
+    *    in constant time.
+    *    Substream 0 is the beginning of the stream, and
+    *    {@link #resetNextSubstream resetNextSubstream} goes from
+    *    substream <SPAN CLASS="MATH"><I>k</I></SPAN> to substream <SPAN CLASS="MATH"><I>k</I> + 1</SPAN>.
+    *
+    * @param k index of the substream
+    *
+    *
+    */
+   public void setSubstream (long k)  {
+      substream = k;
+      resetStartSubstream();
+   }
+
+
+   /**
+    * Returns the position of the stream in the current substream, i.e.,
+    *    the number of values returned by <TT>nextValue</TT> since the
+    *    beginning of the substream.
+    *    In the high precision mode, each call to <TT>nextDouble</TT>
+    *    advances this position by 2.
+    *
+    * @return the position in the current substream
+    *
+    */
+   public long getPosition()  {
+      return 4*nextBlock - (4 - bufIdx);
+   }
+
+
+   /**
+    * Moves the stream to position <TT>position</TT> of the
+    *    current substream, in constant time.
+    *    After this call, {@link #getPosition getPosition} returns
+    *    <TT>position</TT>, and the stream returns the same numbers as
+    *    after calling <TT>resetStartSubstream</TT> and generating
+    *    <TT>position</TT> values with <TT>nextValue</TT>.
+    *
+    * @param position the new position in the current substream
+    *
+    *    @exception IllegalArgumentException if <TT>position</TT> is negative
+    *
+    *
+    */
+   public void seek (long position)  {
+      if (position < 0)
+         throw new IllegalArgumentException ("position must be non-negative");
+      nextBlock = position >>> 2;
+      bufIdx = 4;
+      int r = (int)(position & 3);
+      if (r != 0) {
+         philox (nextBlock++, substream, k0, k1, buf);
+         bufIdx = r;
+      }
+   }
+
+
+   public void resetStartStream()  {
+      substream = 0;
+      resetStartSubstream();
+   }
+
+   public void resetStartSubstream()  {
+      nextBlock = 0;
+      bufIdx = 4;
+   }
+
+   public void resetNextSubstream()  {
+      substream++;
+      resetStartSubstream();
+   }
+
+
+   public String toString()  {
+      StringBuffer sb = new StringBuffer();
+      if (name == null)
+         sb.append ("The state of the Philox4x32 is: ");
+      else
+         sb.append ("The state of " + name + " is: ");
+      sb.append ("key = " + getSeed() + ", substream = " + substream +
+                 ", position = " + getPosition());
+      return sb.toString();
+   }
+
+
+   /**
+    * Clones the current generator and return its copy.
+    *
+    * @return A deep copy of the current generator
+    *
+    */
+   public Philox4x32 clone()  {
+      Philox4x32 retour = (Philox4x32)super.clone();
+      retour.buf = buf.clone();
+      return retour;
+   }
+
+
+   // Puts in x the block number ctr of the given substream for the key
+   // (k0, k1): 10 rounds of Philox4x32 applied to the counter
+   // (ctr, substream), whose 32-bit words are in little-endian order.
+   private static void philox (long ctr, long substream, int k0, int k1,
+                               int[] x) {
+      int c0 = (int)ctr;
+      int c1 = (int)(ctr >>> 32);
+      int c2 = (int)substream;
+      int c3 = (int)(substream >>> 32);
+      long p0, p1;
+      for (int round = 0; round < 10; round++) {
+         if (round > 0) {
+            k0 += W0;
+            k1 += W1;
+         }
+         p0 = M0 * (c0 & 0xFFFFFFFFL);
+         p1 = M1 * (c2 & 0xFFFFFFFFL);
+         c0 = (int)(p1 >>> 32) ^ c1 ^ k0;
+         c2 = (int)(p0 >>> 32) ^ c3 ^ k1;
+         c1 = (int)p1;
+         c3 = (int)p0;
+      }
+      x[0] = c0;
+      x[1] = c1;
+      x[2] = c2;
+      x[3] = c3;
+   }
+
+   private static double toDouble (int w) {
+      long r = w;
+      if (r <= 0)
+         r += 0x100000000L;
+      return r * NORM;
+   }
+
+   protected double nextValue()  {
+      if (bufIdx == 4) {
+         philox (nextBlock++, substream, k0, k1, buf);
+         bufIdx = 0;
+      }
+      return toDouble (buf[bufIdx++]);
+   }
+
+   protected int nextValueBits()  {
+      if (bufIdx == 4) {
+         philox (nextBlock++, substream, k0, k1, buf);
+         bufIdx = 0;
+      }
+      return buf[bufIdx++];
+   }
+
+   protected void nextArrayOfValues (double[] v, int start, int n) {
+      int ii = start;
+      int end = start + n;
+      while (bufIdx < 4 && ii < end)
+         v[ii++] = toDouble (buf[bufIdx++]);
+      final int[] x = buf;
+      for (; ii + 4 <= end; ii += 4) {
+         philox (nextBlock++, substream, k0, k1, x);
+         v[ii] = toDouble (x[0]);
+         v[ii + 1] = toDouble (x[1]);
+         v[ii + 2] = toDouble (x[2]);
+         v[ii + 3] = toDouble (x[3]);
+      }
+      if (ii < end) {
+         philox (nextBlock++, substream, k0, k1, x);
+         bufIdx = 0;
+         while (ii < end)
+            v[ii++] = toDouble (x[bufIdx++]);
+      }
+   }
+
+   public void nextArrayOfDouble (double[] u, int start, int n) {
+      nextBlockOfDouble (u, start, n);
+   }
+
+   public void nextArrayOfInt (int i, int j, int[] u, int start, int n) {
+      nextBlockOfInt (i, j, u, start, n);
+   }
+
+}
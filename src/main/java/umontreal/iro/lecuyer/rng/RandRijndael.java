@@ -27,6 +27,9 @@
 package umontreal.iro.lecuyer.rng; 
 
 import java.io.Serializable; 
+import java.security.GeneralSecurityException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
 
 /**
  * Implements a RNG using the Rijndael block cipher algorithm
@@ -49,6 +52,11 @@ import java.io.Serializable;
  * <A NAME="tex2html1"
  *   HREF="http://www.esat.kuleuven.ac.be/~rijmen/rijndael/">Rijndael creators' page</A>
  * .
+ * When the Java platform provides AES through <TT>javax.crypto</TT>
+ * (as all standard platforms do, often with hardware instructions),
+ * the blocks are instead encrypted by the platform, many
+ * successive blocks at a time. This gives exactly the same numbers,
+ * much faster; see {@link #setUseJCE setUseJCE}.
  * 
  */
 public class RandRijndael extends RandomStreamBase  {
@@ -70,14 +78,27 @@ public class RandRijndael extends RandomStreamBase  {
 
    private byte[] state;
    private byte[] output;
-   private int outputPos;
+   private int outputPos;     // position in the current block
+   private int outputOff;     // offset of the current block in output
+   private int outputEnd;     // number of bytes encrypted in output
+
+   private static final byte[] KEY = {1, 2, 3, 4, 5, 6, 7, 8,
+                                      9, 10, 11, 12, 13, 14, 15, 16};
+
+   // Maximal number of blocks encrypted at once by javax.crypto.
+   // After a reset, the number of blocks starts at 1 and doubles
+   // at each call, so that short substreams remain cheap.
+   private static final int NUM_BLOCKS = 64;
+   private static final boolean JCE_AVAILABLE = isJCEAvailable();
+   private boolean useJCE = JCE_AVAILABLE;
+   private int numBlocks;
+   private transient Cipher cipher;
+   private transient byte[] counters;
 
    static
    {
       try {
-         key = Rijndael_Algorithm.makeKey(new byte[]{1,2,3,4,5,6,7,8,
-                                          9,10,11,12,13,14,15,16},
-                                          BLOCK_SIZE);
+         key = Rijndael_Algorithm.makeKey(KEY, BLOCK_SIZE);
       } catch(Exception e) {
          //pour que Java soit certain que la clef est initialisee
          key = new Object[0];
@@ -93,6 +114,16 @@ public class RandRijndael extends RandomStreamBase  {
       while((pos < b.length) && (++b[pos++] == 0));
    }
 
+   private static boolean isJCEAvailable() {
+      try {
+         Cipher c = Cipher.getInstance ("AES/ECB/NoPadding");
+         c.init (Cipher.ENCRYPT_MODE, new SecretKeySpec (KEY, "AES"));
+         return true;
+      } catch (GeneralSecurityException e) {
+         return false;
+      }
+   }
+
  
 
    /**
@@ -105,10 +136,12 @@ public class RandRijndael extends RandomStreamBase  {
 
       state = new byte[BLOCK_SIZE];
 
-      for(int i = 0; i < BLOCK_SIZE; i++)
-         stream[i] = curr_stream[i];
+      synchronized (RandRijndael.class) {
+         for(int i = 0; i < BLOCK_SIZE; i++)
+            stream[i] = curr_stream[i];
 
-      iterate(curr_stream, JUMP_STREAM);
+         iterate(curr_stream, JUMP_STREAM);
+      }
 
       resetStartStream();
    }
@@ -137,7 +170,7 @@ public class RandRijndael extends RandomStreamBase  {
     * 
     * 
     */
-   public static void setPackageSeed (byte seed[])  {
+   public static synchronized void setPackageSeed (byte seed[])  {
       if(seed.length != BLOCK_SIZE)
          throw new IllegalArgumentException("Seed must contain " +
                                             BLOCK_SIZE + " values");
@@ -187,6 +220,40 @@ public class RandRijndael extends RandomStreamBase  {
    } 
 
 
+   /**
+    * Selects the implementation of AES used by this stream: that of
+    *   <TT>javax.crypto</TT> if <TT>jce</TT> is <TT>true</TT>, and
+    *   the Cryptix implementation otherwise.  Both give exactly the same
+    *   numbers.  By default, a stream uses <TT>javax.crypto</TT> whenever
+    *   the platform supports it.
+    * 
+    * @param jce <TT>true</TT> to use the AES implementation of <TT>javax.crypto</TT>
+    * 
+    *   @exception UnsupportedOperationException if <TT>jce</TT> is
+    *    <TT>true</TT> and <TT>javax.crypto</TT> does not provide AES
+    * 
+    * 
+    */
+   public void setUseJCE (boolean jce)  {
+      if (jce && !JCE_AVAILABLE)
+         throw new UnsupportedOperationException
+            ("AES is not available from javax.crypto");
+      useJCE = jce;
+   } 
+
+
+   /**
+    * Returns <TT>true</TT> if this stream uses the AES implementation
+    *   of <TT>javax.crypto</TT>.
+    * 
+    * @return <TT>true</TT> if this stream uses <TT>javax.crypto</TT>
+    * 
+    */
+   public boolean getUseJCE()  {
+      return useJCE;
+   } 
+
+
    /**
     * Clones the current generator and return its copy.
     *  
@@ -209,6 +276,8 @@ public class RandRijndael extends RandomStreamBase  {
       for (int i=0; i<output.length; i++) {
          retour.output[i] = output[i];
       }
+      retour.cipher = null;
+      retour.counters = null;
 
       return retour;
    }
@@ -225,6 +294,8 @@ public class RandRijndael extends RandomStreamBase  {
    public void resetStartSubstream() {
       for(int i = 0; i < BLOCK_SIZE; i++)
          state[i] = substream[i];
+      outputEnd = 0;
+      numBlocks = 1;
       nextOutput();
    }
 
@@ -250,23 +321,58 @@ public class RandRijndael extends RandomStreamBase  {
    }
 
    private void nextOutput() {
-      output = Rijndael_Algorithm.blockEncrypt(state, 0, key, BLOCK_SIZE);
+      outputOff += BLOCK_SIZE;
+      if (outputOff >= outputEnd) {
+         if (useJCE)
+            encryptCounters();
+         else {
+            output = Rijndael_Algorithm.blockEncrypt(state, 0, key, BLOCK_SIZE);
+            outputEnd = BLOCK_SIZE;
+         }
+         outputOff = 0;
+      }
       outputPos = 0;
       iterate(state,0);
    }
 
+   // Encrypts numBlocks successive blocks, starting with the block
+   // state, using the AES implementation of javax.crypto.
+   private void encryptCounters() {
+      final int len = numBlocks*BLOCK_SIZE;
+      if (counters == null)
+         counters = new byte[NUM_BLOCKS*BLOCK_SIZE];
+      if (output == null || output.length != NUM_BLOCKS*BLOCK_SIZE)
+         output = new byte[NUM_BLOCKS*BLOCK_SIZE];
+      byte[] c = state.clone();
+      for (int b = 0; b < len; b += BLOCK_SIZE) {
+         System.arraycopy (c, 0, counters, b, BLOCK_SIZE);
+         iterate(c, 0);
+      }
+      try {
+         if (cipher == null) {
+            cipher = Cipher.getInstance ("AES/ECB/NoPadding");
+            cipher.init (Cipher.ENCRYPT_MODE, new SecretKeySpec (KEY, "AES"));
+         }
+         cipher.doFinal (counters, 0, len, output, 0);
+      } catch (GeneralSecurityException e) {
+         throw new IllegalStateException (e);
+      }
+      outputEnd = len;
+      numBlocks = Math.min (2*numBlocks, NUM_BLOCKS);
+   }
+
    protected double nextValue() {
       if(outputPos > BLOCK_SIZE - 4)
          nextOutput();
 
 
-      long val = output[outputPos++] & 0xFF;
+      long val = output[outputOff + outputPos++] & 0xFF;
       val <<= 8;
-      val |= output[outputPos++] & 0xFF;
+      val |= output[outputOff + outputPos++] & 0xFF;
       val <<= 8;
-      val |= output[outputPos++] & 0xFF;
+      val |= output[outputOff + outputPos++] & 0xFF;
       val <<= 8;
-      val |= output[outputPos++] & 0xFF;
+      val |= output[outputOff + outputPos++] & 0xFF;
 
 
       /*
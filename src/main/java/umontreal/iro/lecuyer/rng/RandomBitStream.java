@@ -0,0 +1,109 @@
+
+
+/*
+ * Class:        RandomBitStream
+ * Description:  random streams returning random bits and 53-bit uniforms
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.rng;
+
+
+/**
+ * Extends {@link RandomStream} with methods returning random bits
+ * directly, rather than uniforms over <SPAN CLASS="MATH">(0, 1)</SPAN>.
+ * These methods allow the generators whose recurrence produces 64 bits
+ * at each step, such as {@link LFSR258}, to return a long integer or a
+ * uniform with 53 bits of precision after a single step, while the
+ * high precision mode of {@link RandomStreamBase} always takes two steps.
+ * They also give integers in an interval without the small bias of the
+ * floating-point multiplication used by <TT>nextInt</TT>.
+ *
+ * <P>
+ * The class {@link RandomStreamBase} implements this interface for all
+ * the generators of SSJ, from the 32 most significant bits of
+ * <TT>nextValue</TT>; the generators that produce integers override these
+ * methods with exact versions.  These methods do not depend on
+ * the precision mode of the stream.
+ *
+ */
+public interface RandomBitStream extends RandomStream  {
+
+
+   /**
+    * Returns 64 random bits from this stream.  Depending on the
+    *    generator, this advances the state by one or two steps.
+    *
+    * @return 64 random bits
+    *
+    */
+   public long nextLong();
+
+
+   /**
+    * Returns <TT>k</TT> random bits from this stream, in the <TT>k</TT>
+    *    least significant bits of the returned value, the other bits being 0.
+    *    For <SPAN CLASS="MATH"><I>k</I>&#8804;32</SPAN>, this uses only one step of the generator.
+    *
+    * @param k the number of bits, between 1 and 64
+    *
+    *    @return <TT>k</TT> random bits
+    *
+    *    @exception IllegalArgumentException if <TT>k</TT> is not between
+    *     1 and 64
+    *
+    */
+   public long nextBits (int k);
+
+
+   /**
+    * Returns a uniform random number over <SPAN CLASS="MATH">(0, 1)</SPAN> with 53 bits of
+    *    precision, obtained from the 53 most significant bits of
+    *    {@link #nextLong nextLong} as
+    * <SPAN CLASS="MATH">(<I>x</I> + 1/2)/2<SUP>53</SUP></SPAN>.  This number is never 0 or 1.
+    *
+    * @return a uniform over <SPAN CLASS="MATH">(0, 1)</SPAN> with 53 bits of precision
+    *
+    */
+   public double nextDouble53();
+
+
+   /**
+    * Returns a (pseudo)random number from the discrete uniform
+    *    distribution over the integers
+    * <SPAN CLASS="MATH">{<I>i</I>, <I>i</I> + 1,..., <I>j</I>}</SPAN>, without bias.
+    *    This uses the multiplication method of Lemire: if <SPAN CLASS="MATH"><I>x</I></SPAN> is made of
+    *    32 random bits and <SPAN CLASS="MATH"><I>d</I> = <I>j</I> - <I>i</I> + 1</SPAN>, the result is <SPAN CLASS="MATH"><I>i</I> + &lfloor;<I>xd</I>/2<SUP>32</SUP>&rfloor;</SPAN>,
+    *    and <SPAN CLASS="MATH"><I>x</I></SPAN> is rejected when <SPAN CLASS="MATH"><I>xd</I> mod 2<SUP>32</SUP></SPAN> is smaller than
+    *    <SPAN CLASS="MATH">2<SUP>32</SUP> mod <I>d</I></SPAN>, which happens with probability smaller than
+    *    <SPAN CLASS="MATH"><I>d</I>/2<SUP>32</SUP></SPAN>.  Unlike <TT>nextInt</TT>, the number of steps of the generator
+    *    used by this method is thus random.
+    *
+    * @param i smallest integer that can be generated
+    *
+    *    @param j greatest integer that can be generated
+    *
+    *    @return the generated integer
+    *
+    */
+   public int nextBoundedInt (int i, int j);
+
+}
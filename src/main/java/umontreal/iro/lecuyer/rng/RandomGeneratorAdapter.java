@@ -0,0 +1,135 @@
+
+
+/*
+ * Class:        RandomGeneratorAdapter
+ * Description:  presents a random stream as a java.util.random.RandomGenerator
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.rng;
+
+import java.util.random.RandomGenerator;
+
+
+/**
+ * Presents a {@link RandomStream} as a <TT>java.util.random.RandomGenerator</TT>,
+ * so that it can be used wherever the JDK expects such a generator, and
+ * also gives access to the default methods of this interface, e.g.,
+ * <TT>nextGaussian</TT>, or <TT>doubles()</TT> to create a
+ * <TT>DoubleStream</TT>.
+ * The adapter has no state of its own: each number is taken from the
+ * underlying stream, whose <TT>reset...</TT> methods can still be used
+ * to move around in the stream.
+ *
+ * <P>
+ * The method <TT>nextDouble</TT> returns the value of <TT>nextDouble</TT> for
+ * the stream, so that the adapter generates exactly the same uniforms as the
+ * stream.  The methods <TT>nextLong</TT> and <TT>nextInt</TT> use the
+ * methods of {@link RandomBitStream} if the stream implements this interface,
+ * as the generators of SSJ do, and otherwise the 32 most significant bits
+ * of one call to <TT>nextDouble</TT> per 32 bits.
+ * The other methods are the default methods of <TT>RandomGenerator</TT>,
+ * which all rely on these three.
+ *
+ * <P>
+ * This class requires Java 17 or later.  An adapter is not thread-safe,
+ * like the stream it uses.  See {@link MRG32k3aGenerator} for a generator
+ * that can also be split, for use by parallel streams.
+ *
+ */
+public class RandomGeneratorAdapter implements RandomGenerator  {
+
+   private RandomStream stream;
+   private RandomBitStream bits;
+
+
+
+   /**
+    * Constructs an adapter that obtains its numbers from the stream
+    *    <TT>stream</TT>.
+    *
+    * @param stream the random stream used by the adapter
+    *
+    *
+    */
+   public RandomGeneratorAdapter (RandomStream stream)  {
+      if (stream == null)
+         throw new NullPointerException ("stream is null");
+      this.stream = stream;
+      if (stream instanceof RandomBitStream)
+         bits = (RandomBitStream) stream;
+   }
+
+
+   /**
+    * Returns the random stream used by this adapter.
+    *
+    * @return the underlying random stream
+    *
+    */
+   public RandomStream getStream()  {
+      return stream;
+   }
+
+
+   /**
+    * Returns <TT>getStream().nextDouble()</TT>.
+    *
+    * @return a uniform over <SPAN CLASS="MATH">(0, 1)</SPAN>
+    *
+    */
+   public double nextDouble()  {
+      return stream.nextDouble();
+   }
+
+
+   /**
+    * Returns 32 random bits from the stream.
+    *
+    * @return 32 random bits
+    *
+    */
+   public int nextInt()  {
+      if (bits != null)
+         return (int)bits.nextBits (32);
+      return (int)(long)(stream.nextDouble() * 4294967296.0);
+   }
+
+
+   /**
+    * Returns 64 random bits from the stream.
+    *
+    * @return 64 random bits
+    *
+    */
+   public long nextLong()  {
+      if (bits != null)
+         return bits.nextLong();
+      long hi = (long)(stream.nextDouble() * 4294967296.0);
+      return (hi << 32) | (long)(stream.nextDouble() * 4294967296.0);
+   }
+
+
+   public String toString()  {
+      return "RandomGeneratorAdapter for " + stream.toString();
+   }
+
+}
@@ -50,12 +50,20 @@ import java.io.Serializable;
  * around 30 to 32 bits of precision.
  * 
  * <P>
+ * The methods of {@link RandomBitStream} obtain their bits from
+ * {@link #nextValueBits nextValueBits}, which takes the 32 most significant
+ * bits of <TT>nextValue</TT> by default.  The generators whose output is
+ * an integer override it (and <TT>nextLong</TT>, for 64-bit generators),
+ * so that these bits are exact.
+ * 
+ * <P>
  * {@link RandomStreamBase} and its subclasses are implementing the {@link Serializable} interface.
  * Each class has a serial number wich represent the class version. 
  * For instance <TT>70510</TT> means that the last change was the <TT>10th May 2007</TT>.
  * 
  */
 public abstract class RandomStreamBase implements CloneableRandomStream,
+                                                  RandomBitStream,
                                                   Serializable  {
 
    private static final long serialVersionUID = 70510L;
@@ -64,6 +72,7 @@ public abstract class RandomStreamBase implements CloneableRandomStream,
    //constants
    protected static double invtwo24 = 5.9604644775390625e-8;  //2^(-24)
    private static double EPSILON = 5.5511151231257827e-17;    //2^(-54)
+   private static final double TWOM53 = 1.1102230246251565e-16;  //2^(-53)
 
    protected String name = null;
 
@@ -122,6 +131,31 @@ public abstract class RandomStreamBase implements CloneableRandomStream,
    protected abstract double nextValue();
 
 
+   /**
+    * Puts in <TT>v[start..start+n-1]</TT> the next <TT>n</TT> numbers
+    *   returned by {@link #nextValue nextValue}, in the same order.
+    *   This method calls <TT>nextValue</TT> <TT>n</TT> times and does not check
+    *   its arguments.  A generator may override it with a loop that keeps its
+    *   state in local variables, in which case
+    *   {@link #nextArrayOfDouble nextArrayOfDouble} and
+    *   {@link #nextArrayOfInt nextArrayOfInt} can be overridden by calls to
+    *   {@link #nextBlockOfDouble nextBlockOfDouble} and
+    *   {@link #nextBlockOfInt nextBlockOfInt}.
+    * 
+    * @param v the array in which the numbers will be stored
+    * 
+    *   @param start the first index of <TT>v</TT> to be used
+    * 
+    *   @param n the number of values to put in <TT>v</TT>
+    * 
+    * 
+    */
+   protected void nextArrayOfValues (double[] v, int start, int n)   {
+      for (int ii = start; ii < start + n; ii++)
+         v[ii] = nextValue();
+   }
+
+
    /**
     * Returns a uniform random number between 0 and 1 from the stream. 
     *   Its behavior depends on the last call to {@link #increasedPrecision increasedPrecision}.
@@ -174,6 +208,8 @@ public abstract class RandomStreamBase implements CloneableRandomStream,
     *   <TT>i</TT> and <TT>j</TT>. This method always uses the highest order bits
     *   of the random number. It should be overridden if a faster implementation 
     *   exists for the specific generator.
+    *   The result has a small bias when <TT>j - i + 1</TT> is not a power of 2;
+    *   {@link #nextBoundedInt nextBoundedInt} has no bias.
     * 
     * @param i the smallest possible returned integer
     * 
@@ -227,6 +263,214 @@ public abstract class RandomStreamBase implements CloneableRandomStream,
    } 
 
 
+   /**
+    * Returns the 32 most significant bits of the next number returned
+    *   by {@link #nextValue nextValue}, as an <TT>int</TT>, and advances the
+    *   state of the stream by one step.  The default implementation returns
+    *   the integer part of <SPAN CLASS="MATH">2<SUP>32</SUP><I>u</I></SPAN>, where <SPAN CLASS="MATH"><I>u</I></SPAN> is the value of
+    *   <TT>nextValue</TT>.  A generator whose output is a 32-bit integer
+    *   should override this method to return this integer.
+    * 
+    * @return 32 random bits
+    * 
+    */
+   protected int nextValueBits()  {
+      return (int)(long)(nextValue() * 4294967296.0);
+   }
+
+
+   // The next 32 bits, complemented if the stream is antithetic.
+   private int nextBits32() {
+      int b = nextValueBits();
+      return anti ? ~b : b;
+   }
+
+
+   /**
+    * Returns 64 random bits, made of the results of two successive
+    *   calls to {@link #nextValueBits nextValueBits}, the first one giving the
+    *   most significant bits.  The 64-bit generators override this method
+    *   to advance the state by a single step.
+    *   If the stream is antithetic, the bits are complemented.
+    *   The methods based on the random bits do not depend on
+    *   {@link #increasedPrecision increasedPrecision}.
+    * 
+    * @return 64 random bits
+    * 
+    */
+   public long nextLong()  {
+      long hi = nextBits32();
+      return (hi << 32) | (nextBits32() & 0xFFFFFFFFL);
+   }
+
+
+   /**
+    * Returns <TT>k</TT> random bits.  For <SPAN CLASS="MATH"><I>k</I>&#8804;32</SPAN>, these are the
+    *   <TT>k</TT> most significant bits of {@link #nextValueBits nextValueBits},
+    *   otherwise the <TT>k</TT> most significant bits of
+    *   {@link #nextLong nextLong}, complemented if the stream is antithetic.
+    * 
+    * @param k the number of bits, between 1 and 64
+    * 
+    *   @return <TT>k</TT> random bits
+    * 
+    */
+   public long nextBits (int k)  {
+      if (k < 1 || k > 64)
+         throw new IllegalArgumentException("k must be between 1 and 64");
+      if (k <= 32)
+         return (nextBits32() & 0xFFFFFFFFL) >>> (32 - k);
+      return nextLong() >>> (64 - k);
+   }
+
+
+   /**
+    * Returns a uniform random number over <SPAN CLASS="MATH">(0, 1)</SPAN> with 53 bits of
+    *   precision, obtained from {@link #nextLong nextLong}.  If the stream
+    *   is antithetic, this is <SPAN CLASS="MATH">1 - <I>u</I></SPAN> instead of <SPAN CLASS="MATH"><I>u</I></SPAN>.
+    * 
+    * @return a uniform over <SPAN CLASS="MATH">(0, 1)</SPAN> with 53 bits of precision
+    * 
+    */
+   public double nextDouble53()  {
+      return ((nextLong() >>> 11) + 0.5) * TWOM53;
+   }
+
+
+   /**
+    * Returns an integer uniformly distributed over
+    * <SPAN CLASS="MATH">{<I>i</I>, <I>i</I> + 1,..., <I>j</I>}</SPAN>, without bias, by the method
+    *   described in {@link RandomBitStream#nextBoundedInt nextBoundedInt},
+    *   using {@link #nextValueBits nextValueBits}, whose bits are
+    *   complemented if the stream is antithetic.
+    * 
+    * @param i the smallest possible returned integer
+    * 
+    *   @param j the largest possible returned integer
+    * 
+    *   @return a random integer between i and j
+    * 
+    */
+   public int nextBoundedInt (int i, int j)  {
+      if(i > j)
+         throw new IllegalArgumentException(i + " is larger than " +
+                                            j + ".");
+      long d = (long)j - i + 1L;
+      long m = (nextBits32() & 0xFFFFFFFFL) * d;
+      if ((m & 0xFFFFFFFFL) < d) {
+         // reject the x giving the 2^32 mod d extra products
+         long t = 0x100000000L % d;
+         while ((m & 0xFFFFFFFFL) < t)
+            m = (nextBits32() & 0xFFFFFFFFL) * d;
+      }
+      return i + (int)(m >>> 32);
+   }
+
+
+   /**
+    * Fills the array <TT>u</TT> with the same numbers as
+    *   {@link #nextArrayOfDouble nextArrayOfDouble}, but obtains them by a
+    *   single call to {@link #nextArrayOfValues nextArrayOfValues}
+    *   (or a few calls, in the high precision mode) and checks the
+    *   precision and antithetic flags only once.
+    * 
+    * @param u the array in which the numbers will be stored
+    * 
+    *   @param start the first index of <TT>u</TT> to be used
+    * 
+    *   @param n the number of random numbers to put in <TT>u</TT>
+    * 
+    * 
+    */
+   protected void nextBlockOfDouble (double[] u, int start, int n)   {
+      if(u.length == 0)
+         throw new NullPointerException("The array must be initialized.");
+      checkArray (u.length, start, n);
+      fillArrayOfDouble (u, start, n);
+   }
+
+
+   /**
+    * Fills the array <TT>u</TT> with the same integers as
+    *   {@link #nextArrayOfInt nextArrayOfInt} for a generator that does not
+    *   override {@link #nextInt nextInt}, but obtains the underlying uniforms
+    *   in blocks, as {@link #nextBlockOfDouble nextBlockOfDouble}.
+    * 
+    * @param i the smallest possible integer to put in <TT>u</TT>
+    * 
+    *   @param j the largest possible integer to put in <TT>u</TT>
+    * 
+    *   @param u the array in which the numbers will be stored
+    * 
+    *   @param start the first index of <TT>u</TT> to be used
+    * 
+    *   @param n the number of random numbers to put in <TT>u</TT>
+    * 
+    * 
+    */
+   protected void nextBlockOfInt (int i, int j, int[] u, int start,
+                                  int n)   {
+      if(u == null)
+         throw new NullPointerException("The array must be " +
+                                        "initialized.");
+      checkArray (u.length, start, n);
+      if(n > 0 && i > j)
+         throw new IllegalArgumentException(i + " is larger than " +
+                                            j + ".");
+      double[] v = new double[Math.min (n, 256)];
+      double d = j - i + 1.0;
+      int ii = start;
+      while (ii < start + n) {
+         int m = Math.min (v.length, start + n - ii);
+         fillArrayOfDouble (v, 0, m);
+         for (int k = 0; k < m; k++)
+            u[ii++] = i + (int)(v[k] * d);
+      }
+   }
+
+
+   private static void checkArray (int length, int start, int n) {
+      if (length < n + start)
+         throw new IndexOutOfBoundsException("The array is too small.");
+      if(start < 0)
+         throw new IndexOutOfBoundsException("Must start at a " +
+                                             "non-negative index.");
+      if(n < 0)
+         throw new IllegalArgumentException("Must have a non-negative " +
+                                            "number of elements.");
+   }
+
+
+   // Puts in u[start..start+n-1] the same numbers as n calls to nextDouble.
+   private void fillArrayOfDouble (double[] u, int start, int n) {
+      int end = start + n;
+      if (!prec53)
+         nextArrayOfValues (u, start, n);
+      else {
+         // Each number combines two successive values.  The values are
+         // generated at the end of the part of u not yet filled, and
+         // combined in place, from left to right.
+         int k = start;
+         while (end - k > 1) {
+            int m = (end - k) / 2;
+            int b = end - 2*m;
+            nextArrayOfValues (u, b, 2*m);
+            for (int ii = 0; ii < m; ii++)
+               u[k + ii] = (u[b + 2*ii] + u[b + 2*ii + 1] * invtwo24) % 1.0
+                           + EPSILON;
+            k += m;
+         }
+         if (k < end) {
+            double w = nextValue();
+            u[k] = (w + nextValue() * invtwo24) % 1.0 + EPSILON;
+         }
+      }
+      if (anti)
+         for (int ii = start; ii < end; ii++)
+            u[ii] = 1.0 - u[ii];
+   }
+
+
    /**
     * Use the <TT>toString</TT> method.
     * 
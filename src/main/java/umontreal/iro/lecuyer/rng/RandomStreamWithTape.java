@@ -0,0 +1,526 @@
+
+
+/*
+ * Class:        RandomStreamWithTape
+ * Description:  random stream whose uniforms are recorded on a
+                 memory-mapped file, to be replayed in later runs
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.rng;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * Represents a random stream whose uniforms are recorded on a
+ * <EM>tape</EM>, i.e., a file, to be replayed later by the same program or by
+ * other programs.  Like {@link RandomStreamWithCache}, this allows
+ * common random numbers to be used for several simulations without
+ * generating the uniforms again, but the values are not kept in memory:
+ * the file is mapped in memory by blocks of <SPAN CLASS="MATH">2<SUP>20</SUP></SPAN> values, so the memory
+ * used on the heap does not depend on the number of values on the tape,
+ * and the tape is kept from one run to the next.
+ *
+ * <P>
+ * The tape is divided into substreams, which follow the substreams of the
+ * stream: {@link #resetNextSubstream resetNextSubstream} moves to the
+ * beginning of the next substream on the tape, and
+ * {@link #setSubstream setSubstream} goes directly to any substream.
+ * A value is read from the tape if it has been recorded.  Otherwise, it is
+ * generated by the stream and, if the current substream is the last one on
+ * the tape, it is appended to the tape.  The values generated beyond the end
+ * of another substream are not recorded, but they are still the values of
+ * the stream: the stream is positioned first by skipping the values of its
+ * substream that were read from the tape.  A simulated system that uses
+ * more uniforms than the one that recorded the tape thus still gets the
+ * same numbers as without the tape.  For this, the stream must be at the
+ * beginning of the same stream when the tape is created and every time it
+ * is opened again.
+ *
+ * <P>
+ * A tape opened without a stream, with the constructor
+ * {@link #RandomStreamWithTape(String) RandomStreamWithTape}<TT>(fileName)</TT>, can
+ * only be read, possibly by several processes at the same time.
+ * The substream starts are saved on the tape by {@link #flush flush} and
+ * {@link #close close}; a tape that was not closed after recording is not
+ * usable.  The memory used on the heap is 8 bytes per substream, and
+ * a tape being recorded grows by blocks of 8 megabytes.
+ *
+ */
+public class RandomStreamWithTape implements RandomStream, Closeable {
+   private static final long MAGIC = 0x53534A5441504531L;   // "SSJTAPE1"
+   private static final int HEADER = 64;       // bytes before the values
+   private static final int CHUNK_BITS = 20;   // 2^20 values per mapping
+   private static final int CHUNK = 1 << CHUNK_BITS;
+   private static final long CHUNK_BYTES = 8L << CHUNK_BITS;
+   private static final int INDEX_BLOCK = 4096;   // longs per read or write
+
+   /*
+      The file contains a header of HEADER bytes (MAGIC, the number of
+      values and the number of substreams), the values, and the index of
+      the first value of each substream, all in little-endian order.
+      The index is written by flush, after the values; appending values
+      overwrites it.
+   */
+   private RandomStream stream;       // null for a read-only tape
+   private String fileName;
+   private boolean writable;
+   private RandomAccessFile file;
+   private FileChannel channel;
+
+   private long numValues;
+   private long[] starts;             // first value of each substream
+   private int numSubstreams;
+
+   private DoubleBuffer buf;          // the chunk currently mapped
+   private long chunk = -1;
+
+   private int substream;             // current substream
+   private long pos;                  // index of the next value
+   private long end;                  // end of the values of substream
+   private long streamPos;            // position of stream in its substream
+
+
+
+   /**
+    * Opens the tape <TT>fileName</TT> for the stream <TT>stream</TT>,
+    *    which must be at the beginning of a stream.  If the file does not
+    *    exist or is empty, a new tape is created.  Otherwise, the values of
+    *    the tape are replayed, and new values are appended to its last
+    *    substream; the tape must then have been recorded from the same stream.
+    *
+    * @param stream the random stream whose values are recorded
+    *
+    *    @param fileName the name of the file containing the tape
+    *
+    *    @exception IOException if the file cannot be opened, or is not a tape
+    *
+    *    @exception NullPointerException if <TT>stream</TT> is <TT>null</TT>.
+    *
+    *
+    */
+   public RandomStreamWithTape (RandomStream stream, String fileName)
+          throws IOException {
+      if (stream == null)
+         throw new NullPointerException
+            ("The given random stream cannot be null");
+      this.stream = stream;
+      open (fileName, true);
+   }
+
+
+   /**
+    * Opens the tape <TT>fileName</TT> for reading only.
+    *    Generating more values than the tape contains in a substream
+    *    throws an <TT>IllegalStateException</TT>.
+    *
+    * @param fileName the name of the file containing the tape
+    *
+    *    @exception IOException if the file cannot be opened, or is not a tape
+    *
+    *
+    */
+   public RandomStreamWithTape (String fileName) throws IOException {
+      open (fileName, false);
+   }
+
+
+   private void open (String fileName, boolean writable) throws IOException {
+      this.fileName = fileName;
+      this.writable = writable;
+      file = new RandomAccessFile (fileName, writable ? "rw" : "r");
+      channel = file.getChannel();
+      try {
+         if (writable && channel.size() == 0) {
+            numValues = 0;
+            starts = new long[16];
+            numSubstreams = 1;
+            writeIndex();
+         } else
+            readIndex();
+      } catch (IOException e) {
+         file.close();
+         throw e;
+      }
+      substream = 0;
+      pos = 0;
+      end = substreamEnd (0);
+      streamPos = 0;
+   }
+
+
+   /**
+    * Returns the stream whose values are recorded, or <TT>null</TT>
+    *    if the tape is read-only.
+    *
+    * @return the stream whose values are recorded
+    *
+    */
+   public RandomStream getStream() {
+      return stream;
+   }
+
+
+   /**
+    * Returns the total number of values on the tape.
+    *
+    * @return the number of values on the tape
+    *
+    */
+   public long getNumValues() {
+      return numValues;
+   }
+
+
+   /**
+    * Returns the number of substreams on the tape.
+    *
+    * @return the number of substreams on the tape
+    *
+    */
+   public int getNumSubstreams() {
+      return numSubstreams;
+   }
+
+
+   /**
+    * Returns the number of values recorded for substream <TT>k</TT>.
+    *
+    * @param k index of the substream
+    *
+    *    @return the number of values of substream <TT>k</TT>
+    *
+    *    @exception IllegalArgumentException if <TT>k</TT> is negative
+    *
+    */
+   public long getNumValues (int k) {
+      if (k < 0)
+         throw new IllegalArgumentException ("k must be non-negative");
+      return substreamEnd (k) - substreamStart (k);
+   }
+
+
+   /**
+    * Returns the index of the current substream, which is 0 at the
+    *    beginning of the stream.
+    *
+    * @return the index of the current substream
+    *
+    */
+   public int getSubstream() {
+      return substream;
+   }
+
+
+   /**
+    * Moves to the beginning of substream <TT>k</TT> of the tape, and of
+    *    the stream.  For a tape that is not read-only, empty substreams are
+    *    appended to the tape if it has fewer than <SPAN CLASS="MATH"><I>k</I> + 1</SPAN> substreams.
+    *
+    * @param k index of the substream
+    *
+    *    @exception IllegalArgumentException if <TT>k</TT> is negative
+    *
+    *
+    */
+   public void setSubstream (int k) {
+      if (k < 0)
+         throw new IllegalArgumentException ("k must be non-negative");
+      if (stream != null) {
+         stream.resetStartStream();
+         for (int i = 0; i < k; i++)
+            stream.resetNextSubstream();
+      }
+      moveTo (k);
+   }
+
+
+   /**
+    * Returns the number of values returned since the beginning of the
+    *    current substream, whether they come from the tape or from the stream.
+    *
+    * @return the position in the current substream
+    *
+    */
+   public long getPosition() {
+      return pos - substreamStart (substream);
+   }
+
+
+   /**
+    * Saves the number of values and the index of the substreams on the
+    *    tape.  After this call, the tape can be opened by other programs.
+    *    This method does nothing if the tape is read-only.
+    *
+    * @exception IOException if an I/O error occurs
+    *
+    *
+    */
+   public void flush() throws IOException {
+      if (writable)
+         writeIndex();
+   }
+
+
+   /**
+    * Flushes and closes the tape.  This stream cannot be used afterwards.
+    *
+    * @exception IOException if an I/O error occurs
+    *
+    *
+    */
+   public void close() throws IOException {
+      if (channel == null)
+         return;
+      try {
+         flush();
+      } finally {
+         buf = null;
+         chunk = -1;
+         channel = null;
+         file.close();
+      }
+   }
+
+
+   public void resetStartStream () {
+      if (stream != null)
+         stream.resetStartStream();
+      moveTo (0);
+   }
+
+   public void resetStartSubstream () {
+      if (stream != null)
+         stream.resetStartSubstream();
+      moveTo (substream);
+   }
+
+   public void resetNextSubstream () {
+      if (stream != null)
+         stream.resetNextSubstream();
+      moveTo (substream + 1);
+   }
+
+   public String toString () {
+      return "RandomStreamWithTape on " + fileName + ": substream " +
+         substream + ", position " + getPosition() + " (" + numValues +
+         " values in " + numSubstreams + " substreams)";
+   }
+
+   public double nextDouble () {
+      if (pos < end) {
+         if (pos >>> CHUNK_BITS != chunk)
+            map (pos >>> CHUNK_BITS);
+         return buf.get ((int)(pos++ & (CHUNK - 1)));
+      }
+      syncStream();
+      double u = stream.nextDouble();
+      streamPos++;
+      if (isRecording()) {
+         if (pos >>> CHUNK_BITS != chunk)
+            map (pos >>> CHUNK_BITS);
+         buf.put ((int)(pos & (CHUNK - 1)), u);
+         numValues = end = pos + 1;
+      }
+      pos++;
+      return u;
+   }
+
+   public void nextArrayOfDouble (double[] u, int start, int n) {
+      while (n > 0 && pos < end) {
+         if (pos >>> CHUNK_BITS != chunk)
+            map (pos >>> CHUNK_BITS);
+         int off = (int)(pos & (CHUNK - 1));
+         int m = (int)Math.min (Math.min (n, end - pos), CHUNK - off);
+         buf.position (off);
+         buf.get (u, start, m);
+         pos += m;
+         start += m;
+         n -= m;
+      }
+      if (n == 0)
+         return;
+      syncStream();
+      stream.nextArrayOfDouble (u, start, n);
+      streamPos += n;
+      if (!isRecording()) {
+         pos += n;
+         return;
+      }
+      while (n > 0) {
+         if (pos >>> CHUNK_BITS != chunk)
+            map (pos >>> CHUNK_BITS);
+         int off = (int)(pos & (CHUNK - 1));
+         int m = Math.min (n, CHUNK - off);
+         buf.position (off);
+         buf.put (u, start, m);
+         pos += m;
+         start += m;
+         n -= m;
+      }
+      numValues = end = pos;
+   }
+
+   public int nextInt (int i, int j) {
+      return i + (int) (nextDouble () * (j - i + 1));
+   }
+
+   public void nextArrayOfInt (int i, int j, int[] u, int start, int n) {
+      for (int x = start; x < start + n; x++)
+         u[x] = nextInt (i, j);
+   }
+
+
+   private long substreamStart (int k) {
+      return k < numSubstreams ? starts[k] : numValues;
+   }
+
+   private long substreamEnd (int k) {
+      return k + 1 < numSubstreams ? starts[k + 1] : numValues;
+   }
+
+   // True if the value at pos is to be appended to the tape.
+   private boolean isRecording() {
+      return writable && pos == numValues && substream == numSubstreams - 1;
+   }
+
+   // Moves to the beginning of substream k of the tape, the stream being
+   // already at the beginning of its substream k.
+   private void moveTo (int k) {
+      if (writable)
+         while (numSubstreams <= k) {
+            if (numSubstreams == starts.length) {
+               long[] s = new long[2*starts.length];
+               System.arraycopy (starts, 0, s, 0, numSubstreams);
+               starts = s;
+            }
+            starts[numSubstreams++] = numValues;
+         }
+      substream = k;
+      pos = substreamStart (k);
+      end = substreamEnd (k);
+      streamPos = 0;
+   }
+
+   // Moves the stream to the position of pos in its substream, by skipping
+   // the values that were read from the tape.
+   private void syncStream() {
+      if (stream == null)
+         throw new IllegalStateException
+            ("The tape " + fileName + " has no more values for substream " +
+             substream);
+      long p = pos - substreamStart (substream);
+      if (p < streamPos) {
+         stream.resetStartSubstream();
+         streamPos = 0;
+      }
+      for (; streamPos < p; streamPos++)
+         stream.nextDouble();
+   }
+
+   private void map (long c) {
+      if (channel == null)
+         throw new IllegalStateException ("The tape " + fileName +
+                                          " is closed");
+      long off = HEADER + c*CHUNK_BYTES;
+      try {
+         if (writable)
+            buf = channel.map (FileChannel.MapMode.READ_WRITE, off,
+                  CHUNK_BYTES).order (ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+         else
+            buf = channel.map (FileChannel.MapMode.READ_ONLY, off,
+                  Math.min (CHUNK_BYTES, channel.size() - off))
+                  .order (ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+      } catch (IOException e) {
+         throw new IllegalStateException ("Cannot map the tape " + fileName,
+                                          e);
+      }
+      chunk = c;
+   }
+
+   private void readIndex() throws IOException {
+      ByteBuffer b = ByteBuffer.allocate (HEADER).order (ByteOrder.LITTLE_ENDIAN);
+      readFully (b, 0);
+      b.flip();
+      if (b.getLong() != MAGIC)
+         throw new IOException (fileName + " is not a random number tape");
+      numValues = b.getLong();
+      long ns = b.getLong();
+      if (numValues < 0 || ns < 1 || ns > Integer.MAX_VALUE)
+         throw new IOException ("Invalid header in the tape " + fileName);
+      numSubstreams = (int)ns;
+      starts = new long[Math.max (16, numSubstreams)];
+      long off = HEADER + 8*numValues;
+      b = ByteBuffer.allocate (8*INDEX_BLOCK).order (ByteOrder.LITTLE_ENDIAN);
+      for (int k = 0; k < numSubstreams; ) {
+         int m = Math.min (INDEX_BLOCK, numSubstreams - k);
+         b.clear();
+         b.limit (8*m);
+         readFully (b, off + 8L*k);
+         b.flip();
+         for (int i = 0; i < m; i++, k++) {
+            starts[k] = b.getLong();
+            if (starts[k] < (k == 0 ? 0 : starts[k - 1]) ||
+                starts[k] > numValues || (k == 0 && starts[0] != 0))
+               throw new IOException ("Invalid index in the tape " + fileName);
+         }
+      }
+   }
+
+   private void writeIndex() throws IOException {
+      ByteBuffer b = ByteBuffer.allocate (HEADER).order (ByteOrder.LITTLE_ENDIAN);
+      b.putLong (MAGIC);
+      b.putLong (numValues);
+      b.putLong (numSubstreams);
+      b.clear();
+      writeFully (b, 0);
+      long off = HEADER + 8*numValues;
+      b = ByteBuffer.allocate (8*INDEX_BLOCK).order (ByteOrder.LITTLE_ENDIAN);
+      for (int k = 0; k < numSubstreams; ) {
+         int m = Math.min (INDEX_BLOCK, numSubstreams - k);
+         b.clear();
+         for (int i = 0; i < m; i++)
+            b.putLong (starts[k + i]);
+         b.flip();
+         writeFully (b, off + 8L*k);
+         k += m;
+      }
+   }
+
+   private void readFully (ByteBuffer b, long position) throws IOException {
+      while (b.hasRemaining())
+         if (channel.read (b, position + b.position()) < 0)
+            throw new EOFException ("Unexpected end of the tape " + fileName);
+   }
+
+   private void writeFully (ByteBuffer b, long position) throws IOException {
+      while (b.hasRemaining())
+         channel.write (b, position + b.position());
+   }
+}
@@ -27,6 +27,7 @@
 
 package umontreal.iro.lecuyer.rng; 
 
+import java.math.BigInteger;
 import umontreal.iro.lecuyer.util.BitVector;
 import umontreal.iro.lecuyer.util.BitMatrix;
 
@@ -235,18 +236,20 @@ public class WELL1024 extends RandomStreamBase  {
     * 
     */
    public WELL1024()  {
-      if(!initialised)
-         initialisation();
+      synchronized (WELL1024.class) {
+         if(!initialised)
+            initialisation();
 
-      state = new int[R];
-      stream = new int[R];
-      substream = new int[R];
+         state = new int[R];
+         stream = new int[R];
+         substream = new int[R];
 
-      for(int i = 0; i < R; i++)
-         stream[i] = curr_stream[i];
+         for(int i = 0; i < R; i++)
+            stream[i] = curr_stream[i];
 
- //     advanceSeed(curr_stream, Apz);
-      advanceSeed(curr_stream, pz);
+    //     advanceSeed(curr_stream, Apz);
+         advanceSeed(curr_stream, pz);
+      }
 
       resetStartStream();
    } 
@@ -274,7 +277,7 @@ public class WELL1024 extends RandomStreamBase  {
     * 
     * 
     */
-   public static void setPackageSeed (int seed[])  {
+   public static synchronized void setPackageSeed (int seed[])  {
       verifySeed (seed);
       if(!initialised)
          initialisation();
@@ -324,6 +327,67 @@ public class WELL1024 extends RandomStreamBase  {
       return result;
    } 
 
+   // Jump-ahead by the characteristic polynomial, one step being one
+   // call to nextValue
+   private static final F2LinearJump<WELL1024> JUMP =
+         new F2LinearJump<WELL1024> (1024, R) {
+      void getState (WELL1024 gen, int[] x) {
+         for (int i = 0; i < R; i++)
+            x[i] = gen.state[(gen.state_i + i) & MASK];
+      }
+      void setState (WELL1024 gen, int[] x) {
+         for (int i = 0; i < R; i++)
+            gen.state[i] = x[i];
+         gen.state_i = 0;
+      }
+      void step (WELL1024 gen) {
+         gen.nextValue();
+      }
+   };
+
+
+   /**
+    * Advances the current state of this stream by <TT>steps</TT> values,
+    *    as if <TT>nextValue</TT> had been called <TT>steps</TT> times,
+    *    in a time that does not depend on <TT>steps</TT>.
+    *    The new state is <SPAN CLASS="MATH"><I>g</I>(<B>A</B>)<B>x</B></SPAN>, where <SPAN CLASS="MATH"><B>x</B></SPAN> is the current state,
+    *    <SPAN CLASS="MATH"><B>A</B></SPAN> is the transition matrix, and <SPAN CLASS="MATH"><I>g</I>(<I>z</I>)</SPAN> is <SPAN CLASS="MATH"><I>z</I><SUP>steps</SUP></SPAN>
+    *    modulo the characteristic polynomial of the recurrence;
+    *    this takes at most <SPAN CLASS="MATH"><I>k</I> = 1024</SPAN> steps of the generator.
+    *    The characteristic polynomial is computed the first time
+    *    a jump is made by a stream of this class.
+    *    The beginning of the stream and of the current substream is not changed.
+    * 
+    * @param steps the number of values to skip
+    * 
+    *    @exception IllegalArgumentException if <TT>steps</TT> is negative
+    * 
+    * 
+    */
+   public void advance (BigInteger steps)  {
+      JUMP.advance (this, steps);
+   }
+
+
+   /**
+    * Advances the current state of this stream by <SPAN CLASS="MATH">2<SUP>e</SUP></SPAN> values.
+    *    This is equivalent to <TT>advance (BigInteger.ONE.shiftLeft (e))</TT>,
+    *    but the polynomials <SPAN CLASS="MATH"><I>z</I><SUP>2<SUP>e</SUP></SUP></SPAN> modulo the characteristic polynomial
+    *    are kept and shared by all the streams of this class, so that
+    *    splitting a stream in many parts of length <SPAN CLASS="MATH">2<SUP>e</SUP></SPAN> costs a single
+    *    polynomial computation.
+    * 
+    * @param e the base-2 logarithm of the number of values to skip
+    * 
+    *    @exception IllegalArgumentException if <TT>e</TT> is negative
+    * 
+    * 
+    */
+   public void jump (int e)  {
+      JUMP.jump (this, e);
+   }
+
+
 
 
    public void resetStartStream() {
@@ -358,7 +422,7 @@ public class WELL1024 extends RandomStreamBase  {
       return sb.toString();
    }
 
-   protected double nextValue() {
+   private int nextNumber() {
       int z0, z1, z2;
 
       z0    = state[(state_i + 31) & MASK];
@@ -373,12 +437,49 @@ public class WELL1024 extends RandomStreamBase  {
                                      (z1 ^ (z1 << 7)) ^ (z2 ^ (z2 << 13));
       state_i = (state_i + 31) & MASK;
 
-      long result = state[state_i];
+      return state[state_i];
+   }
+
+   protected int nextValueBits() {
+      return nextNumber();
+   }
+
+   protected double nextValue() {
+      long result = nextNumber();
 
       return ((double) (result > 0 ? result : result + 0x100000000L) * NORM);
 
    }
 
+   protected void nextArrayOfValues (double[] v, int start, int n) {
+      final int[] st = state;
+      int si = state_i;
+      int z0, z1, z2;
+      long result;
+      for (int ii = start; ii < start + n; ii++) {
+         z0 = st[(si + 31) & MASK];
+         z1 = st[si] ^ (st[(si + M1) & MASK] ^ (st[(si + M1) & MASK] >>> 8));
+         z2 = (st[(si + M2) & MASK] ^ (st[(si + M2) & MASK] << 19)) ^
+              (st[(si + M3) & MASK] ^ (st[(si + M3) & MASK] << 14));
+         st[si] = z1 ^ z2;
+         st[(si + 31) & MASK] = (z0 ^ (z0 << 11)) ^
+                                (z1 ^ (z1 << 7)) ^ (z2 ^ (z2 << 13));
+         si = (si + 31) & MASK;
+         result = st[si];
+         v[ii] = ((double) (result > 0 ? result : result + 0x100000000L) * NORM);
+      }
+      state_i = si;
+   }
+
+
+   public void nextArrayOfDouble (double[] u, int start, int n) {
+      nextBlockOfDouble (u, start, n);
+   }
+
+   public void nextArrayOfInt (int i, int j, int[] u, int start, int n) {
+      nextBlockOfInt (i, j, u, start, n);
+   }
+
 
  
    /**
@@ -27,6 +27,7 @@
 
 package umontreal.iro.lecuyer.rng; 
 
+import java.math.BigInteger;
 import umontreal.iro.lecuyer.util.BitVector;
 import umontreal.iro.lecuyer.util.BitMatrix;
 import java.io.FileOutputStream;
@@ -210,18 +211,20 @@ public class WELL512 extends RandomStreamBase  {
     * 
     */
    public WELL512()  {
-      if (!initialised)
-         initialisation();
+      synchronized (WELL512.class) {
+         if (!initialised)
+            initialisation();
 
-      state = new int[R];
-      stream = new int[R];
-      substream = new int[R];
+         state = new int[R];
+         stream = new int[R];
+         substream = new int[R];
 
-      for(int i = 0; i < R; i++)
-         stream[i] = curr_stream[i];
+         for(int i = 0; i < R; i++)
+            stream[i] = curr_stream[i];
 
-//      advanceSeed(curr_stream, Apz);
-      advanceSeed(curr_stream, pz);
+   //      advanceSeed(curr_stream, Apz);
+         advanceSeed(curr_stream, pz);
+      }
 
       resetStartStream();
    } 
@@ -249,7 +252,7 @@ public class WELL512 extends RandomStreamBase  {
     * 
     * 
     */
-   public static void setPackageSeed (int seed[])  {
+   public static synchronized void setPackageSeed (int seed[])  {
       verifySeed(seed);
       if (!initialised)
          initialisation();
@@ -299,6 +302,67 @@ public class WELL512 extends RandomStreamBase  {
       return result;
    } 
 
+   // Jump-ahead by the characteristic polynomial, one step being one
+   // call to nextValue
+   private static final F2LinearJump<WELL512> JUMP =
+         new F2LinearJump<WELL512> (512, R) {
+      void getState (WELL512 gen, int[] x) {
+         for (int i = 0; i < R; i++)
+            x[i] = gen.state[(gen.state_i + i) & MASK];
+      }
+      void setState (WELL512 gen, int[] x) {
+         for (int i = 0; i < R; i++)
+            gen.state[i] = x[i];
+         gen.state_i = 0;
+      }
+      void step (WELL512 gen) {
+         gen.nextValue();
+      }
+   };
+
+
+   /**
+    * Advances the current state of this stream by <TT>steps</TT> values,
+    *    as if <TT>nextValue</TT> had been called <TT>steps</TT> times,
+    *    in a time that does not depend on <TT>steps</TT>.
+    *    The new state is <SPAN CLASS="MATH"><I>g</I>(<B>A</B>)<B>x</B></SPAN>, where <SPAN CLASS="MATH"><B>x</B></SPAN> is the current state,
+    *    <SPAN CLASS="MATH"><B>A</B></SPAN> is the transition matrix, and <SPAN CLASS="MATH"><I>g</I>(<I>z</I>)</SPAN> is <SPAN CLASS="MATH"><I>z</I><SUP>steps</SUP></SPAN>
+    *    modulo the characteristic polynomial of the recurrence;
+    *    this takes at most <SPAN CLASS="MATH"><I>k</I> = 512</SPAN> steps of the generator.
+    *    The characteristic polynomial is computed the first time
+    *    a jump is made by a stream of this class.
+    *    The beginning of the stream and of the current substream is not changed.
+    * 
+    * @param steps the number of values to skip
+    * 
+    *    @exception IllegalArgumentException if <TT>steps</TT> is negative
+    * 
+    * 
+    */
+   public void advance (BigInteger steps)  {
+      JUMP.advance (this, steps);
+   }
+
+
+   /**
+    * Advances the current state of this stream by <SPAN CLASS="MATH">2<SUP>e</SUP></SPAN> values.
+    *    This is equivalent to <TT>advance (BigInteger.ONE.shiftLeft (e))</TT>,
+    *    but the polynomials <SPAN CLASS="MATH"><I>z</I><SUP>2<SUP>e</SUP></SUP></SPAN> modulo the characteristic polynomial
+    *    are kept and shared by all the streams of this class, so that
+    *    splitting a stream in many parts of length <SPAN CLASS="MATH">2<SUP>e</SUP></SPAN> costs a single
+    *    polynomial computation.
+    * 
+    * @param e the base-2 logarithm of the number of values to skip
+    * 
+    *    @exception IllegalArgumentException if <TT>e</TT> is negative
+    * 
+    * 
+    */
+   public void jump (int e)  {
+      JUMP.jump (this, e);
+   }
+
+
 
    /**
     * Clones the current generator and return its copy.
@@ -361,7 +425,7 @@ public class WELL512 extends RandomStreamBase  {
       return sb.toString();
    }
 
-   protected double nextValue() {
+   private int nextNumber() {
       int z0, z1, z2;
       z0 = state[(state_i + 15) & MASK];
       z1 = (state[state_i] ^ (state[state_i] << 16)) ^
@@ -374,10 +438,48 @@ public class WELL512 extends RandomStreamBase  {
                            ((state[state_i] << 5) & 0xDA442D24));
       state_i = (state_i + 15) & MASK;
 
-      long result = state[state_i];
+      return state[state_i];
+   }
+
+   protected int nextValueBits() {
+      return nextNumber();
+   }
+
+   protected double nextValue() {
+      long result = nextNumber();
 
       return (double)(result > 0 ? result : (result + 0x100000000L)) * NORM;
    }
+
+   protected void nextArrayOfValues (double[] v, int start, int n) {
+      final int[] st = state;
+      int si = state_i;
+      int z0, z1, z2;
+      long result;
+      for (int ii = start; ii < start + n; ii++) {
+         z0 = st[(si + 15) & MASK];
+         z1 = (st[si] ^ (st[si] << 16)) ^
+              (st[(si+M1) & MASK] ^ (st[(si+M1) & MASK] << 15));
+         z2 = (st[(si+M2) & MASK] ^ (st[(si+M2) & MASK] >>> 11));
+         st[si] = z1 ^ z2;
+         st[(si + 15) & MASK] = (z0 ^ (z0 << 2)) ^ (z1 ^ (z1 << 18)) ^
+                                (z2 << 28) ^ (st[si] ^
+                                   ((st[si] << 5) & 0xDA442D24));
+         si = (si + 15) & MASK;
+         result = st[si];
+         v[ii] = (double)(result > 0 ? result : (result + 0x100000000L)) * NORM;
+      }
+      state_i = si;
+   }
+
+
+   public void nextArrayOfDouble (double[] u, int start, int n) {
+      nextBlockOfDouble (u, start, n);
+   }
+
+   public void nextArrayOfInt (int i, int j, int[] u, int start, int n) {
+      nextBlockOfInt (i, j, u, start, n);
+   }
  
    /**
     * This method is only meant to be used during the compilation process.
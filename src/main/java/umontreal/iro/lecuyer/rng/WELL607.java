@@ -27,6 +27,7 @@
 
 package umontreal.iro.lecuyer.rng; 
 
+import java.math.BigInteger;
 import umontreal.iro.lecuyer.util.BitVector;
 import umontreal.iro.lecuyer.util.BitMatrix;
 
@@ -102,17 +103,19 @@ public class WELL607 extends WELL607base  {
     * 
     */
    public WELL607()  {
-      initialisation();
+      synchronized (WELL607.class) {
+         initialisation();
 
-      state = new int[BUFFER_SIZE];
-      stream = new int[R];
-      substream = new int[R];
+         state = new int[BUFFER_SIZE];
+         stream = new int[R];
+         substream = new int[R];
 
-      for(int i = 0; i < R; i++)
-         stream[i] = curr_stream[i];
+         for(int i = 0; i < R; i++)
+            stream[i] = curr_stream[i];
 
-//      advanceSeed(curr_stream, Apz);
-      advanceSeed(curr_stream, pz);
+   //      advanceSeed(curr_stream, Apz);
+         advanceSeed(curr_stream, pz);
+      }
 
       resetStartStream();
    } 
@@ -141,7 +144,7 @@ public class WELL607 extends WELL607base  {
     * 
     * 
     */
-   public static void setPackageSeed (int seed[])  {
+   public static synchronized void setPackageSeed (int seed[])  {
       verifySeed(seed);
       for(int i = 0; i < R; i++)
          curr_stream[i] = seed[i];
@@ -183,6 +186,67 @@ public class WELL607 extends WELL607base  {
       return super.getState();
    }
 
+   // Jump-ahead by the characteristic polynomial, one step being one
+   // call to nextValue
+   private static final F2LinearJump<WELL607> JUMP =
+         new F2LinearJump<WELL607> (607, R) {
+      void getState (WELL607 gen, int[] x) {
+         for (int i = 0; i < R; i++)
+            x[i] = gen.state[(gen.state_i + i) & MASK_STATE];
+      }
+      void setState (WELL607 gen, int[] x) {
+         for (int i = 0; i < R; i++)
+            gen.state[i] = x[i];
+         gen.state_i = 0;
+      }
+      void step (WELL607 gen) {
+         gen.nextValue();
+      }
+   };
+
+
+   /**
+    * Advances the current state of this stream by <TT>steps</TT> values,
+    *    as if <TT>nextValue</TT> had been called <TT>steps</TT> times,
+    *    in a time that does not depend on <TT>steps</TT>.
+    *    The new state is <SPAN CLASS="MATH"><I>g</I>(<B>A</B>)<B>x</B></SPAN>, where <SPAN CLASS="MATH"><B>x</B></SPAN> is the current state,
+    *    <SPAN CLASS="MATH"><B>A</B></SPAN> is the transition matrix, and <SPAN CLASS="MATH"><I>g</I>(<I>z</I>)</SPAN> is <SPAN CLASS="MATH"><I>z</I><SUP>steps</SUP></SPAN>
+    *    modulo the characteristic polynomial of the recurrence;
+    *    this takes at most <SPAN CLASS="MATH"><I>k</I> = 607</SPAN> steps of the generator.
+    *    The characteristic polynomial is computed the first time
+    *    a jump is made by a stream of this class.
+    *    The beginning of the stream and of the current substream is not changed.
+    * 
+    * @param steps the number of values to skip
+    * 
+    *    @exception IllegalArgumentException if <TT>steps</TT> is negative
+    * 
+    * 
+    */
+   public void advance (BigInteger steps)  {
+      JUMP.advance (this, steps);
+   }
+
+
+   /**
+    * Advances the current state of this stream by <SPAN CLASS="MATH">2<SUP>e</SUP></SPAN> values.
+    *    This is equivalent to <TT>advance (BigInteger.ONE.shiftLeft (e))</TT>,
+    *    but the polynomials <SPAN CLASS="MATH"><I>z</I><SUP>2<SUP>e</SUP></SUP></SPAN> modulo the characteristic polynomial
+    *    are kept and shared by all the streams of this class, so that
+    *    splitting a stream in many parts of length <SPAN CLASS="MATH">2<SUP>e</SUP></SPAN> costs a single
+    *    polynomial computation.
+    * 
+    * @param e the base-2 logarithm of the number of values to skip
+    * 
+    *    @exception IllegalArgumentException if <TT>e</TT> is negative
+    * 
+    * 
+    */
+   public void jump (int e)  {
+      JUMP.jump (this, e);
+   }
+
+
   
 
    public void resetStartStream() {
@@ -220,6 +284,45 @@ public class WELL607 extends WELL607base  {
       return result * NORM;
    }
 
+   protected int nextValueBits() {
+      return nextInt();
+   }
+
+   protected void nextArrayOfValues (double[] v, int start, int n) {
+      final int[] st = state;
+      int si = state_i;
+      int z0, z1, z2;
+      long result;
+      for (int ii = start; ii < start + n; ii++) {
+         z0 = (st[(si + R1) & MASK_STATE] & MASKL) |
+              (st[(si + R2) & MASK_STATE] & MASKU);
+         z1 = (st[si] ^ (st[si] >>> 19)) ^
+              (st[(si + M1) & MASK_STATE] ^
+               (st[(si + M1) & MASK_STATE] >>> 11));
+         z2 = (st[(si + M2) & MASK_STATE] ^
+               (st[(si + M2) & MASK_STATE] << (14))) ^
+              st[(si + M3) & MASK_STATE];
+         st[si] = z1 ^ z2;
+         st[(si - 1) & MASK_STATE] = (z0 ^ (z0 >>> 18)) ^
+                                     z1 ^ (st[si] ^ (st[si] << 5));
+         si = (si - 1) & MASK_STATE;
+         result = st[si];
+         if(result <= 0)
+            result += 0x100000000L;
+         v[ii] = result * NORM;
+      }
+      state_i = si;
+   }
+
+
+   public void nextArrayOfDouble (double[] u, int start, int n) {
+      nextBlockOfDouble (u, start, n);
+   }
+
+   public void nextArrayOfInt (int i, int j, int[] u, int start, int n) {
+      nextBlockOfInt (i, j, u, start, n);
+   }
+
  
    /**
     * This method is only meant to be used during the compilation process.
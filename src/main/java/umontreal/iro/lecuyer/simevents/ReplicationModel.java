@@ -0,0 +1,59 @@
+
+
+/*
+ * Class:        ReplicationModel
+ * Description:  model simulated independently by a ReplicationRunner
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.simevents;
+
+
+/**
+ * Represents a simulation model whose independent replications are
+ * performed by a {@link ReplicationRunner}.
+ * Each instance of a model is used by a single thread, and
+ * all its events must be scheduled on the {@link Simulator} given
+ * to the {@link ReplicationModelFactory} that constructed it, never on the
+ * default simulator used by {@link Sim} and the no-argument
+ * constructor of {@link Event}.
+ * Each instance must also generate all its random numbers from the streams
+ * given to the factory, which are positioned by the runner at the beginning
+ * of the appropriate substream before each replication.
+ *
+ */
+public interface ReplicationModel {
+
+
+   /**
+    * Simulates one replication of the model and stores the
+    *   <SPAN CLASS="MATH"><I>d</I></SPAN> observed performance measures of this replication in
+    *   <TT>obs[0..d-1]</TT>.
+    *   This method must reinitialize the simulator and the state of
+    *   the model before starting the simulation.
+    *
+    * @param obs the array in which the observations are returned
+    *
+    *
+    */
+   public void simulateOneRun (double[] obs);
+
+}
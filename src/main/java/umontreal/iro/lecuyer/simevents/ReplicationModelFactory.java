@@ -0,0 +1,64 @@
+
+
+/*
+ * Class:        ReplicationModelFactory
+ * Description:  factory constructing one model per thread of a
+                 ReplicationRunner
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.simevents;
+
+import umontreal.iro.lecuyer.rng.RandomStream;
+
+
+/**
+ * Constructs the instances of a {@link ReplicationModel} used by
+ * the threads of a {@link ReplicationRunner}.
+ * The runner invokes {@link #newInstance newInstance} once for each of
+ * its threads, each time with a different simulator and different
+ * copies of the random streams, so that no state is shared between the
+ * threads.
+ *
+ */
+public interface ReplicationModelFactory {
+
+
+   /**
+    * Constructs and returns a new model whose events are
+    *   scheduled on the simulator <TT>sim</TT>, and whose random numbers are
+    *   generated from the streams <TT>streams[0..s-1]</TT>.
+    *   The same stream index must always be used for the same purpose
+    *   (e.g., <TT>streams[0]</TT> for the arrivals, <TT>streams[1]</TT> for the
+    *   service times, etc.), in order to obtain common random numbers between
+    *   the threads.
+    *
+    * @param sim the simulator used by the new model
+    *
+    *    @param streams the random streams used by the new model
+    *
+    *    @return the newly-constructed model
+    *
+    */
+   public ReplicationModel newInstance (Simulator sim,
+                                        RandomStream[] streams);
+
+}
@@ -0,0 +1,370 @@
+
+
+/*
+ * Class:        ReplicationRunner
+ * Description:  performs independent replications of a simulation model
+                 in parallel
+ * Environment:  Java
+ * Software:     SSJ
+ * Copyright (C) 2001  Pierre L'Ecuyer and Université de Montréal
+ * Organization: DIRO, Université de Montréal
+ * @author
+ * @since
+
+ * SSJ is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License (GPL) as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * any later version.
+
+ * SSJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * A copy of the GNU General Public License is available at
+   <a href="http://www.gnu.org/licenses">GPL licence site</a>.
+ */
+
+package umontreal.iro.lecuyer.simevents;
+
+import umontreal.iro.lecuyer.rng.RandomStream;
+import umontreal.iro.lecuyer.rng.RandomStreamFactory;
+import umontreal.iro.lecuyer.rng.CloneableRandomStream;
+import umontreal.iro.lecuyer.stat.Tally;
+import umontreal.iro.lecuyer.stat.list.ListOfTallies;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Performs <SPAN CLASS="MATH"><I>n</I></SPAN> independent replications of a simulation model,
+ * distributing them over several threads.
+ * Each thread has its own {@link Simulator}, its own instance of the model
+ * constructed by a {@link ReplicationModelFactory}, and its own copies
+ * of the <SPAN CLASS="MATH"><I>s</I></SPAN> random streams of the runner.
+ * Replication <SPAN CLASS="MATH"><I>r</I></SPAN>, for
+ * <SPAN CLASS="MATH"><I>r</I> = 0,..., <I>n</I> - 1</SPAN>, always uses substream <SPAN CLASS="MATH"><I>r</I></SPAN>
+ * of each of these streams, regardless of the thread that performs it.
+ * The replications are handed out to the threads by blocks of
+ * consecutive indices, and each thread moves its streams forward from one
+ * block to the next with <TT>resetNextSubstream</TT>.
+ *
+ * <P>
+ * The observations of each replication are kept until all the replications
+ * are completed, and they are then added to the statistical collectors in
+ * the order of the replication indices.  The results are therefore exactly
+ * the same (bit by bit) for any number of threads, and calling
+ * {@link #simulate simulate} again with the same streams and
+ * a different model yields common random numbers across the two
+ * experiments.
+ * Storing the observations requires <SPAN CLASS="MATH"><I>nd</I></SPAN> values of type <TT>double</TT>,
+ * where <SPAN CLASS="MATH"><I>d</I></SPAN> is the number of performance measures per replication.
+ *
+ * <P>
+ * The streams given to the runner must implement
+ * {@link CloneableRandomStream}.  They are constructed once,
+ * in the thread that constructs the runner, and are never modified
+ * by the runner: each thread works on its own clones.
+ *
+ */
+public class ReplicationRunner  {
+
+   private RandomStream[] streams;
+   private int numThreads;
+   private int blockSize = 16;
+
+
+
+   /**
+    * Constructs a new replication runner using <TT>numThreads</TT> threads
+    *    and <TT>numStreams</TT> random streams constructed by the factory
+    *    <TT>rsf</TT>.
+    *
+    * @param rsf the factory used to construct the random streams
+    *
+    *    @param numStreams the number <SPAN CLASS="MATH"><I>s</I></SPAN> of random streams
+    *
+    *    @param numThreads the number of threads
+    *
+    *    @exception IllegalArgumentException if <TT>numThreads</TT>
+    *     is smaller than 1, or if the streams do not implement
+    *     {@link CloneableRandomStream}.
+    *
+    *
+    */
+   public ReplicationRunner (RandomStreamFactory rsf, int numStreams,
+                             int numThreads)  {
+      RandomStream[] s = new RandomStream[numStreams];
+      for (int i = 0; i < numStreams; i++)
+         s[i] = rsf.newInstance();
+      init (s, numThreads);
+   }
+
+
+   /**
+    * Constructs a new replication runner using <TT>numThreads</TT> threads
+    *    and the random streams <TT>streams</TT>.
+    *
+    * @param streams the random streams
+    *
+    *    @param numThreads the number of threads
+    *
+    *    @exception IllegalArgumentException if <TT>numThreads</TT>
+    *     is smaller than 1, or if the streams do not implement
+    *     {@link CloneableRandomStream}.
+    *
+    *
+    */
+   public ReplicationRunner (RandomStream[] streams, int numThreads)  {
+      init (streams.clone(), numThreads);
+   }
+
+
+   /**
+    * Equivalent to <TT>ReplicationRunner (streams, n)</TT>, where <SPAN CLASS="MATH"><I>n</I></SPAN>
+    *    is the number of processors available to the Java virtual machine.
+    *
+    * @param streams the random streams
+    *
+    *
+    */
+   public ReplicationRunner (RandomStream[] streams)  {
+      this (streams, Runtime.getRuntime().availableProcessors());
+   }
+
+
+   private void init (RandomStream[] s, int numThreads) {
+      for (int i = 0; i < s.length; i++)
+         if (!(s[i] instanceof CloneableRandomStream))
+            throw new IllegalArgumentException
+               ("The random streams must implement CloneableRandomStream");
+      streams = s;
+      setNumThreads (numThreads);
+   }
+
+
+   /**
+    * Returns the random streams of this runner.
+    *
+    * @return the random streams
+    *
+    */
+   public RandomStream[] getStreams()  {
+      return streams.clone();
+   }
+
+
+   /**
+    * Returns the number of threads used by this runner.
+    *
+    * @return the number of threads
+    *
+    */
+   public int getNumThreads()  {
+      return numThreads;
+   }
+
+
+   /**
+    * Sets the number of threads used by this runner to <TT>numThreads</TT>.
+    *
+    * @param numThreads the number of threads
+    *
+    *    @exception IllegalArgumentException if <TT>numThreads</TT>
+    *     is smaller than 1.
+    *
+    *
+    */
+   public void setNumThreads (int numThreads)  {
+      if (numThreads < 1)
+         throw new IllegalArgumentException ("numThreads must be positive");
+      this.numThreads = numThreads;
+   }
+
+
+   /**
+    * Returns the number of consecutive replications given to a thread
+    *    each time it needs more work.  The default value is 16.
+    *
+    * @return the block size
+    *
+    */
+   public int getBlockSize()  {
+      return blockSize;
+   }
+
+
+   /**
+    * Sets the number of consecutive replications given to a thread
+    *    each time it needs more work to <TT>blockSize</TT>.
+    *    Larger blocks reduce the synchronization between the threads, while
+    *    smaller blocks balance better the load when the duration of the
+    *    replications varies much.  This has no effect on the results.
+    *
+    * @param blockSize the block size
+    *
+    *    @exception IllegalArgumentException if <TT>blockSize</TT>
+    *     is smaller than 1.
+    *
+    *
+    */
+   public void setBlockSize (int blockSize)  {
+      if (blockSize < 1)
+         throw new IllegalArgumentException ("blockSize must be positive");
+      this.blockSize = blockSize;
+   }
+
+
+   /**
+    * Performs <TT>n</TT> replications of the models constructed by
+    *    <TT>factory</TT> and returns the observations in an array of
+    *    dimensions <SPAN CLASS="MATH"><I>n</I>&#215;<I>d</I></SPAN>, where row <SPAN CLASS="MATH"><I>r</I></SPAN> contains the <SPAN CLASS="MATH"><I>d</I></SPAN>
+    *    observations of replication <SPAN CLASS="MATH"><I>r</I></SPAN>.
+    *
+    * @param factory the factory constructing the model of each thread
+    *
+    *    @param n the number of replications
+    *
+    *    @param d the number of observations per replication
+    *
+    *    @return the observations of all the replications
+    *
+    */
+   public double[][] simulate (ReplicationModelFactory factory,
+                               int n, int d)  {
+      if (n < 0)
+         throw new IllegalArgumentException
+            ("The number of replications must be non-negative");
+      final double[][] obs = new double[n][];
+      final AtomicInteger nextBlock = new AtomicInteger();
+      int nt = Math.min (numThreads, (n + blockSize - 1) / blockSize);
+      if (nt <= 1) {
+         new Worker (factory, obs, d, nextBlock).call();
+         return obs;
+      }
+      List<Worker> workers = new ArrayList<Worker>(nt);
+      for (int t = 0; t < nt; t++)
+         workers.add (new Worker (factory, obs, d, nextBlock));
+      ExecutorService exec = Executors.newFixedThreadPool (nt);
+      try {
+         for (Future<Object> f : exec.invokeAll (workers))
+            f.get();
+      }
+      catch (InterruptedException ie) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException
+            ("Interrupted while waiting for the replications", ie);
+      }
+      catch (ExecutionException ee) {
+         Throwable cause = ee.getCause();
+         if (cause instanceof RuntimeException)
+            throw (RuntimeException) cause;
+         if (cause instanceof Error)
+            throw (Error) cause;
+         throw new IllegalStateException (cause);
+      }
+      finally {
+         exec.shutdownNow();
+      }
+      return obs;
+   }
+
+
+   /**
+    * Performs <TT>n</TT> replications of the models constructed by
+    *    <TT>factory</TT>, and adds the observations of each replication to the
+    *    list of statistical collectors <TT>stats</TT>, whose size gives the number
+    *    of observations per replication.
+    *    The observations are added in the order of the replications, after
+    *    all of them are completed.
+    *
+    * @param factory the factory constructing the model of each thread
+    *
+    *    @param n the number of replications
+    *
+    *    @param stats the statistical collectors receiving the observations
+    *
+    *
+    */
+   public void simulate (ReplicationModelFactory factory, int n,
+                         ListOfTallies<? extends Tally> stats)  {
+      double[][] obs = simulate (factory, n, stats.size());
+      for (int r = 0; r < n; r++)
+         stats.add (obs[r]);
+   }
+
+
+   /**
+    * Performs <TT>n</TT> replications of the models constructed by
+    *    <TT>factory</TT>, each of them giving one observation
+    *    which is added to the statistical collector <TT>stat</TT>.
+    *    The observations are added in the order of the replications, after
+    *    all of them are completed.
+    *
+    * @param factory the factory constructing the model of each thread
+    *
+    *    @param n the number of replications
+    *
+    *    @param stat the statistical collector receiving the observations
+    *
+    *
+    */
+   public void simulate (ReplicationModelFactory factory, int n,
+                         Tally stat)  {
+      double[][] obs = simulate (factory, n, 1);
+      for (int r = 0; r < n; r++)
+         stat.add (obs[r][0]);
+   }
+
+
+   // Performs the blocks of replications given to one thread.
+   private class Worker implements Callable<Object> {
+      private ReplicationModelFactory factory;
+      private double[][] obs;
+      private int d;
+      private AtomicInteger nextBlock;
+
+      Worker (ReplicationModelFactory factory, double[][] obs, int d,
+              AtomicInteger nextBlock) {
+         this.factory = factory;
+         this.obs = obs;
+         this.d = d;
+         this.nextBlock = nextBlock;
+      }
+
+      public Object call() {
+         RandomStream[] s = new RandomStream[streams.length];
+         for (int i = 0; i < s.length; i++) {
+            s[i] = ((CloneableRandomStream) streams[i]).clone();
+            s[i].resetStartStream();
+         }
+         ReplicationModel model = factory.newInstance (new Simulator(), s);
+         int n = obs.length;
+         int sub = 0;       // Index of the current substream of s[i].
+         int b;
+         while ((b = nextBlock.getAndIncrement() * blockSize) < n) {
+            int end = Math.min (n, b + blockSize);
+            for (int r = b; r < end; r++) {
+               if (r == sub)
+                  for (int i = 0; i < s.length; i++)
+                     s[i].resetStartSubstream();
+               else
+                  for (; sub < r; sub++)
+                     for (int i = 0; i < s.length; i++)
+                        s[i].resetNextSubstream();
+               double[] x = new double[d];
+               model.simulateOneRun (x);
+               obs[r] = x;
+            }
+         }
+         return null;
+      }
+   }
+
+}